@@ -0,0 +1,78 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the narrow phase collision test between two entities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CollisionBenchmark {
+    /** The number of pairs tested per invocation. */
+    private static final int PAIRS = 1024;
+
+    /** The fraction of the entities which are clustered around hot spots, which makes more pairs collide. */
+    @Param({"0.0", "1.0"})
+    public double clustering;
+
+    /** The first entity of every pair. */
+    private Entity[] first;
+
+    /** The second entity of every pair. */
+    private Entity[] second;
+
+    /**
+     * Picks random pairs from a generated world.
+     */
+    @Setup
+    public void setup() {
+        List<Entity> world = SyntheticWorld.generate(1000, 0.5, this.clustering, 42);
+        Random random = new Random(42);
+
+        this.first = new Entity[PAIRS];
+        this.second = new Entity[PAIRS];
+
+        for(int i = 0; i < PAIRS; i++) {
+            this.first[i] = world.get(random.nextInt(world.size()));
+            this.second[i] = world.get(random.nextInt(world.size()));
+        }
+    }
+
+    /**
+     * Tests all pairs for a collision.
+     * @return The number of colliding pairs.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int collides() {
+        int colliding = 0;
+
+        for(int i = 0; i < PAIRS; i++) {
+            if(this.first[i].collides(this.second[i])) {
+                colliding++;
+            }
+        }
+
+        return colliding;
+    }
+}
@@ -0,0 +1,31 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import lombok.Getter;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+
+import java.util.List;
+
+/**
+ * Observer which only counts the events it receives.
+ */
+@Getter
+class DiscardingObserver implements PhysicsEngineEventObserver {
+    /** The number of received events. */
+    private long eventCount = 0;
+
+    @Override
+    public void collisionStartHandler(Entity e1, Entity e2) {
+        this.eventCount++;
+    }
+
+    @Override
+    public void collisionStopHandler(Entity e1, Entity e2) {
+        this.eventCount++;
+    }
+
+    @Override
+    public void broadcastStateHandler(List<Entity> currentState) {
+        this.eventCount++;
+    }
+}
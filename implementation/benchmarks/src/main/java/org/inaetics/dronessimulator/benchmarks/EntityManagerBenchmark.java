@@ -0,0 +1,108 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityManager;
+import org.inaetics.dronessimulator.physicsengine.EntityStoreType;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.AccelerationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the entity manager: applying a tick worth of updates and copying the state for a broadcast.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntityManagerBenchmark {
+    /** The number of entities in the world. */
+    @Param({"10", "100", "1000", "10000"})
+    public int entities;
+
+    /** The fraction of the entities which are bullets. */
+    @Param({"0.5"})
+    public double bulletFraction;
+
+    /** The fraction of the entities which are clustered around hot spots. */
+    @Param({"0.0"})
+    public double clustering;
+
+    /** The entity store of the manager, see {@link EntityStoreType}. */
+    @Param({"OBJECT", "PRIMITIVE"})
+    public String entityStore;
+
+    /** The manager under test. */
+    private EntityManager entityManager;
+
+    /** An update for every entity, as a tactic would send every tick. */
+    private EntityUpdate[] updates;
+
+    /** The reusable snapshot to copy the state into. */
+    private StateSnapshot<Entity> snapshot;
+
+    /**
+     * Creates a manager containing a generated world.
+     */
+    @Setup
+    public void setup() {
+        List<Entity> world = SyntheticWorld.generate(this.entities, this.bulletFraction, this.clustering, 42);
+
+        this.entityManager = new EntityManager(EntityStoreType.valueOf(this.entityStore).create());
+        this.entityManager.addInserts(world);
+        this.entityManager.processChanges();
+
+        this.updates = new EntityUpdate[this.entities];
+        for(int id = 0; id < this.entities; id++) {
+            this.updates[id] = new AccelerationEntityUpdate(new D3Vector(id % 3, id % 5, 0));
+        }
+
+        this.snapshot = new StateSnapshot<>();
+    }
+
+    /**
+     * Queues an update for every entity and processes them.
+     */
+    @Benchmark
+    public void processChanges() {
+        for(int id = 0; id < this.entities; id++) {
+            this.entityManager.addUpdate(id, this.updates[id]);
+        }
+
+        this.entityManager.processChanges();
+    }
+
+    /**
+     * Copies the state of all entities into new entities.
+     * @return The copied state.
+     */
+    @Benchmark
+    public List<Entity> copyState() {
+        return this.entityManager.copyState();
+    }
+
+    /**
+     * Copies the state of all entities into a reused snapshot.
+     * @return The copied state.
+     */
+    @Benchmark
+    public List<Entity> copyStateIntoSnapshot() {
+        return this.entityManager.copyState(this.snapshot);
+    }
+}
@@ -0,0 +1,84 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import org.inaetics.dronessimulator.physicsengine.BroadPhaseType;
+import org.inaetics.dronessimulator.physicsengine.EntityStoreType;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single step of the physics engine: processing changes, moving all entities and detecting collisions.
+ * This is the work done every loop of the engine, without the sleeping. The world is generated again every iteration,
+ * so fast bullets do not leave the arena during a long measurement. Entities which leave the arena are not removed, so
+ * the number of entities stays the same during an iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PhysicsEngineBenchmark {
+    /** The time step of a single step in seconds, equal to the default tick. */
+    private static final double TIME_STEP_S = 0.033;
+
+    /** The number of entities in the world. */
+    @Param({"10", "100", "1000", "10000"})
+    public int entities;
+
+    /** The fraction of the entities which are bullets. */
+    @Param({"0.0", "0.5"})
+    public double bulletFraction;
+
+    /** The fraction of the entities which are clustered around hot spots. */
+    @Param({"0.0", "0.8"})
+    public double clustering;
+
+    /** The broadphase of the engine, see {@link BroadPhaseType}. */
+    @Param({"SPATIAL_HASH", "SWEEP_AND_PRUNE"})
+    public String broadPhase;
+
+    /** The entity store of the engine, see {@link EntityStoreType}. */
+    @Param({"PRIMITIVE"})
+    public String entityStore;
+
+    /** The number of threads of the engine. */
+    @Param({"1"})
+    public int threads;
+
+    /** The engine under test. */
+    private PhysicsEngine physicsEngine;
+
+    /**
+     * Creates an engine with a freshly generated world.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.physicsEngine = new PhysicsEngine(BroadPhaseType.valueOf(this.broadPhase).create(), EntityStoreType.valueOf(this.entityStore).create(), this.threads, null);
+        this.physicsEngine.setObserver(new DiscardingObserver());
+        this.physicsEngine.addInserts(SyntheticWorld.generate(this.entities, this.bulletFraction, this.clustering, 42));
+
+        // Insert the world and report the initial collisions outside of the measurement
+        this.physicsEngine.step(0);
+    }
+
+    /**
+     * Takes a single step.
+     */
+    @Benchmark
+    public void step() {
+        this.physicsEngine.step(TIME_STEP_S);
+    }
+}
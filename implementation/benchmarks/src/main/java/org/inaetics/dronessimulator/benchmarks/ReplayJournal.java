@@ -0,0 +1,55 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.journal.JournalReplay;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Replays input journals recorded by the game engine through a physics engine as fast as possible and reports how long
+ * it took. The engine is configured by the same environment variables as the game engine, which must match those of
+ * the recorded run to reproduce it. The checksum of the final state is the same for every replay of the same journal
+ * with the same settings, so it can be compared between versions to find changes in behaviour.
+ */
+public final class ReplayJournal {
+    private ReplayJournal() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Replays each given journal.
+     * @param args The paths of the journals to replay.
+     * @throws IOException If a journal could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.err.println("Usage: ReplayJournal <journal>...");
+            System.exit(1);
+        }
+
+        for(String path : args) {
+            PhysicsEngine physicsEngine = new PhysicsEngine();
+            DiscardingObserver observer = new DiscardingObserver();
+            JournalReplay replay = new JournalReplay(physicsEngine);
+            physicsEngine.setObserver(observer);
+
+            long started_at_ns = System.nanoTime();
+            long steps;
+
+            try(InputStream in = new FileInputStream(path)) {
+                steps = replay.replay(in);
+            }
+
+            long took_ns = System.nanoTime() - started_at_ns;
+
+            System.out.println(String.format(Locale.ROOT, "%s: %d steps in %.3f s (%.1f us per step), %d events, checksum %016x",
+                    path, steps, took_ns / 1e9, steps > 0 ? took_ns / 1e3 / steps : 0, observer.getEventCount(), replay.checksum()));
+        }
+
+        // The engine may have started a thread pool for its worker threads
+        System.exit(0);
+    }
+}
@@ -0,0 +1,96 @@
+package org.inaetics.dronessimulator.benchmarks;
+
+import org.inaetics.dronessimulator.common.Settings;
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible worlds of drones and bullets for the benchmarks. Entities are spread uniformly over the arena
+ * or clustered around a couple of hot spots, like drones in a dogfight.
+ */
+public final class SyntheticWorld {
+    /** The size of the hitbox of a drone, as used by the physics engine driver. */
+    public static final Size DRONE_SIZE = new Size(10, 10, 10);
+
+    /** The size of the hitbox of a bullet, as used by the physics engine driver. */
+    public static final Size BULLET_SIZE = new Size(1, 1, 1);
+
+    /** The speed of a drone in m/s. */
+    private static final double DRONE_SPEED = 10;
+
+    /** The speed of a bullet in m/s. */
+    private static final double BULLET_SPEED = 150;
+
+    /** The number of hot spots clustered entities are placed around. */
+    private static final int CLUSTERS = 8;
+
+    /** The standard deviation of the distance of a clustered entity to its hot spot in m. */
+    private static final double CLUSTER_SPREAD = 15;
+
+    private SyntheticWorld() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Generates a world.
+     * @param entities The number of entities in the world.
+     * @param bulletFraction The fraction of the entities which are bullets, the rest are drones.
+     * @param clustering The fraction of the entities which are placed around a hot spot, the rest is placed uniformly.
+     * @param seed The seed of the world. The same seed always generates the same world.
+     * @return The entities of the world, with ids 0 to entities - 1.
+     */
+    public static List<Entity> generate(int entities, double bulletFraction, double clustering, long seed) {
+        Random random = new Random(seed);
+        List<D3Vector> clusters = new ArrayList<>(CLUSTERS);
+        List<Entity> result = new ArrayList<>(entities);
+
+        for(int i = 0; i < CLUSTERS; i++) {
+            clusters.add(uniformPosition(random));
+        }
+
+        for(int id = 0; id < entities; id++) {
+            boolean bullet = random.nextDouble() < bulletFraction;
+            D3Vector position;
+
+            if(random.nextDouble() < clustering) {
+                D3Vector center = clusters.get(random.nextInt(CLUSTERS));
+                position = center.add(new D3Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).scale(CLUSTER_SPREAD));
+            } else {
+                position = uniformPosition(random);
+            }
+
+            D3Vector velocity = randomDirection(random).scale(bullet ? BULLET_SPEED : DRONE_SPEED);
+            Size size = bullet ? BULLET_SIZE : DRONE_SIZE;
+
+            result.add(new Entity(id, size, position, velocity, new D3Vector(), new D3PolarCoordinate()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a uniformly distributed position in the arena.
+     * @param random The source of randomness.
+     * @return The position.
+     */
+    private static D3Vector uniformPosition(Random random) {
+        return new D3Vector(random.nextDouble() * Settings.ARENA_WIDTH, random.nextDouble() * Settings.ARENA_DEPTH, random.nextDouble() * Settings.ARENA_HEIGHT);
+    }
+
+    /**
+     * Returns a uniformly distributed direction.
+     * @param random The source of randomness.
+     * @return A vector of length 1.
+     */
+    private static D3Vector randomDirection(Random random) {
+        D3Vector direction = new D3Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+
+        return direction.length() > 0 ? direction.normalize() : new D3Vector(1, 0, 0);
+    }
+}
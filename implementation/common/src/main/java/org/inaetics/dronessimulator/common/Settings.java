@@ -21,6 +21,167 @@ public class Settings {
      * The max velocity of this engine in m/s
      */
     public static final double MAX_DRONE_VELOCITY = Double.parseDouble(v("MAX_DRONE_VELOCITY", "20"));
+    /**
+     * The broadphase the physics engine uses to find collision candidates
+     */
+    public static final String PHYSICS_BROADPHASE = v("PHYSICS_BROADPHASE", "SPATIAL_HASH");
+    /**
+     * The length of the edges of a cell of the spatial hash broadphase in m
+     */
+    public static final double PHYSICS_CELL_SIZE = Double.parseDouble(v("PHYSICS_CELL_SIZE", "20"));
+    /**
+     * The number of shards the arena is split into by the sharded broadphase, each swept by its own thread
+     */
+    public static final int PHYSICS_SHARDS = Integer.parseInt(v("PHYSICS_SHARDS", "4"));
+    /**
+     * Time in ms between logging the metrics of the physics engine. 0 disables logging the metrics
+     */
+    public static final long PHYSICS_METRICS_LOG_TIME = Long.parseLong(v("PHYSICS_METRICS_LOG_TIME", "10000"));
+    /**
+     * The storage backend the physics engine uses for the state of the entities
+     */
+    public static final String PHYSICS_ENTITY_STORE = v("PHYSICS_ENTITY_STORE", "OBJECT");
+    /**
+     * The number of threads the physics engine moves entities and tests collisions with. 1 is single-threaded
+     */
+    public static final int PHYSICS_THREADS = Integer.parseInt(v("PHYSICS_THREADS", "1"));
+    /**
+     * The number of fixed time steps the physics engine takes per second. 0 uses the elapsed wall time as time step
+     */
+    public static final int PHYSICS_STEP_RATE = Integer.parseInt(v("PHYSICS_STEP_RATE", "0"));
+    /**
+     * The time between broadcasts of the current state by the physics engine in ms
+     */
+    public static final long PHYSICS_BROADCAST_TIME = Long.parseLong(v("PHYSICS_BROADCAST_TIME", String.valueOf(TICK_TIME)));
+    /**
+     * Whether the physics engine lowers its broadcast rate and then its physics rate when it falls behind or too many
+     * events wait for the rule processors, and raises them back when the load drops. With a fixed time step only the
+     * broadcast rate is lowered
+     */
+    public static final boolean PHYSICS_GOVERNOR = Boolean.parseBoolean(v("PHYSICS_GOVERNOR", "false"));
+    /**
+     * The lowest number of steps per second the governor lowers the physics rate to when the time step follows the
+     * wall clock
+     */
+    public static final double PHYSICS_GOVERNOR_MIN_RATE = Double.parseDouble(v("PHYSICS_GOVERNOR_MIN_RATE", "10"));
+    /**
+     * The longest time between broadcasts of the state in ms the governor lowers the broadcast rate to
+     */
+    public static final long PHYSICS_GOVERNOR_MAX_BROADCAST_TIME = Long.parseLong(v("PHYSICS_GOVERNOR_MAX_BROADCAST_TIME", "250"));
+    /**
+     * The number of events waiting for the rule processors above which the physics engine is overloaded
+     */
+    public static final int PHYSICS_GOVERNOR_MAX_BACKLOG = Integer.parseInt(v("PHYSICS_GOVERNOR_MAX_BACKLOG", "1000"));
+    /**
+     * The file the physics engine records all changes to the entities in, to replay the run later. Empty disables
+     * recording
+     */
+    public static final String PHYSICS_JOURNAL = v("PHYSICS_JOURNAL", "");
+    /**
+     * Whether the physics engine only broadcasts the entities which changed since the last broadcast
+     */
+    public static final boolean PHYSICS_DELTA_BROADCAST = Boolean.parseBoolean(v("PHYSICS_DELTA_BROADCAST", "false"));
+    /**
+     * The number of state broadcasts between two broadcasts of the full state when only changes are broadcast
+     */
+    public static final int PHYSICS_KEYFRAME_INTERVAL = Integer.parseInt(v("PHYSICS_KEYFRAME_INTERVAL", "30"));
+    /**
+     * The change in position in m per axis below which an entity does not count as changed for delta broadcasts
+     */
+    public static final double PHYSICS_POSITION_EPSILON = Double.parseDouble(v("PHYSICS_POSITION_EPSILON", "0.01"));
+    /**
+     * The change in velocity in m/s per axis below which an entity does not count as changed for delta broadcasts
+     */
+    public static final double PHYSICS_VELOCITY_EPSILON = Double.parseDouble(v("PHYSICS_VELOCITY_EPSILON", "0.01"));
+    /**
+     * The change in acceleration in m/s^2 per axis below which an entity does not count as changed for delta broadcasts
+     */
+    public static final double PHYSICS_ACCELERATION_EPSILON = Double.parseDouble(v("PHYSICS_ACCELERATION_EPSILON", "0.01"));
+    /**
+     * The change in direction in radians per angle below which an entity does not count as changed for delta broadcasts
+     */
+    public static final double PHYSICS_DIRECTION_EPSILON = Double.parseDouble(v("PHYSICS_DIRECTION_EPSILON", "0.001"));
+    /**
+     * The number of consecutive ticks an entity has to be still before it falls asleep. 0 disables sleeping
+     */
+    public static final int PHYSICS_SLEEP_TICKS = Integer.parseInt(v("PHYSICS_SLEEP_TICKS", "0"));
+    /**
+     * The velocity in m/s and acceleration in m/s^2 per axis below which an entity counts as still
+     */
+    public static final double PHYSICS_SLEEP_THRESHOLD = Double.parseDouble(v("PHYSICS_SLEEP_THRESHOLD", "0.001"));
+    /**
+     * The distance in m to its target location within which the autopilot of the physics engine holds a drone still
+     */
+    public static final double PHYSICS_AUTOPILOT_ARRIVAL_RADIUS = Double.parseDouble(v("PHYSICS_AUTOPILOT_ARRIVAL_RADIUS", "1"));
+    /**
+     * Whether the physics engine removes entities which leave the arena or their range itself, right after they move
+     */
+    public static final boolean PHYSICS_CULL_EXITS = Boolean.parseBoolean(v("PHYSICS_CULL_EXITS", "false"));
+    /**
+     * The distance in m from where it was fired after which a bullet is removed. 0 keeps bullets until they leave the
+     * arena
+     */
+    public static final double BULLET_MAX_RANGE = Double.parseDouble(v("BULLET_MAX_RANGE", "1024"));
+    /**
+     * Whether the physics engine detects collisions of fast movers, like bullets, along the path they moved during a
+     * step. Otherwise only their position at the end of each step is tested and they may pass through other entities
+     */
+    public static final boolean PHYSICS_CONTINUOUS_COLLISION = Boolean.parseBoolean(v("PHYSICS_CONTINUOUS_COLLISION", "false"));
+    /**
+     * The number of reusable state snapshots handed from the physics engine to the rule processors. 0 copies the state
+     * into new objects on every broadcast
+     */
+    public static final int STATE_SNAPSHOT_BUFFERS = Integer.parseInt(v("STATE_SNAPSHOT_BUFFERS", "3"));
+    /**
+     * The number of events the ring between the physics engine and the rule processors holds. Rounded up to a power
+     * of two
+     */
+    public static final int EVENT_RING_SIZE = Integer.parseInt(v("EVENT_RING_SIZE", "4096"));
+    /**
+     * How the rule processors wait for events and the physics engine for a free slot in the event ring
+     */
+    public static final String EVENT_RING_WAIT = v("EVENT_RING_WAIT", "PARK");
+    /**
+     * What the physics engine does with an event when the event ring is full
+     */
+    public static final String EVENT_RING_OVERFLOW = v("EVENT_RING_OVERFLOW", "BLOCK");
+    /**
+     * Whether the rule processors skip a state of the physics engine when a newer state arrived before they got to it.
+     * Other events are never skipped
+     */
+    public static final boolean EVENT_RING_CONFLATE_STATE = Boolean.parseBoolean(v("EVENT_RING_CONFLATE_STATE", "true"));
+    /**
+     * The maximal number of events the rule processors take from the event ring and push through the rules at once
+     */
+    public static final int RULE_BATCH_SIZE = Integer.parseInt(v("RULE_BATCH_SIZE", "256"));
+    /**
+     * Whether the rule processors send the messages on a thread of their own while the game logic rules process the
+     * next batch of events, instead of running all rules on one thread
+     */
+    public static final boolean RULE_PIPELINE = Boolean.parseBoolean(v("RULE_PIPELINE", "false"));
+    /**
+     * The number of batches of events the game logic rules can be ahead of sending the messages when the rule stages
+     * are pipelined
+     */
+    public static final int RULE_PIPELINE_QUEUE_SIZE = Integer.parseInt(v("RULE_PIPELINE_QUEUE_SIZE", "16"));
+    /**
+     * Time in ms of the simulation clock between two runs of the interval rules, such as checking whether the game is
+     * finished
+     */
+    public static final long RULE_INTERVAL_TIME = Long.parseLong(v("RULE_INTERVAL_TIME", String.valueOf(TICK_TIME * 10)));
+    /**
+     * Time in ms between logging the metrics of the interval rules. 0 disables logging the metrics
+     */
+    public static final long RULE_METRICS_LOG_TIME = Long.parseLong(v("RULE_METRICS_LOG_TIME", "10000"));
+    /**
+     * Whether the simulation runs as fast as possible on a simulated clock instead of in real time
+     */
+    public static final boolean SIMULATION_MAX_SPEED = Boolean.parseBoolean(v("SIMULATION_MAX_SPEED", "false"));
+    /**
+     * Wall time in ms the simulation at maximum speed waits for the drones to acknowledge the time of the last broadcast
+     * before it takes the next step. A drone which does not answer in time is not waited for in that tick
+     */
+    public static final long SIMULATION_ACK_TIMEOUT = Long.parseLong(v("SIMULATION_ACK_TIMEOUT", "1000"));
 
 
     private static String v(String variableName, String defaultValue) {
@@ -0,0 +1,57 @@
+package org.inaetics.dronessimulator.common;
+
+/**
+ * The clock of the simulation. Follows the wall clock until it is driven by a simulation running at maximum speed
+ * (see {@link Settings#SIMULATION_MAX_SPEED}). From then on it only advances when the simulation advances it, starting
+ * at the wall time it was first driven at.
+ *
+ * @threadsafe
+ */
+public final class SimulationClock {
+    /** Whether the clock is driven by the simulation. */
+    private static boolean simulated = false;
+
+    /** The current simulated time. Only valid if the clock is driven by the simulation. In nanoseconds. */
+    private static long simulatedTimeNs = 0;
+
+    private SimulationClock() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the current time of the simulation.
+     * @return The current time in milliseconds since the epoch.
+     */
+    public static synchronized long currentTimeMillis() {
+        return simulated ? simulatedTimeNs / 1_000_000L : System.currentTimeMillis();
+    }
+
+    /**
+     * Advances the simulated time. The first call switches the clock from the wall clock to the simulated time.
+     * @param timeNs The time to advance in nanoseconds.
+     */
+    public static synchronized void advance(long timeNs) {
+        if(!simulated) {
+            simulatedTimeNs = System.currentTimeMillis() * 1_000_000L;
+            simulated = true;
+        }
+
+        simulatedTimeNs += timeNs;
+    }
+
+    /**
+     * Returns whether the clock is driven by the simulation.
+     * @return Whether the clock returns the simulated time.
+     */
+    public static synchronized boolean isSimulated() {
+        return simulated;
+    }
+
+    /**
+     * Switches the clock back to the wall clock.
+     */
+    public static synchronized void reset() {
+        simulated = false;
+        simulatedTimeNs = 0;
+    }
+}
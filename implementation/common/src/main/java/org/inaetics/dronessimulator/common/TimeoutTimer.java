@@ -15,7 +15,7 @@ public class TimeoutTimer {
      *
      * @param startTime a long which can be created using System.currentTimeMillis(), since this time the timeout is
      *                  counted.
-     * @param timeout   a timeout in seconds
+     * @param timeout   a timeout in milliseconds
      * @return true if the timeout has been exceeded, false otherwise.
      */
     public static boolean isTimeExceeded(long startTime, double timeout) {
@@ -0,0 +1,29 @@
+package org.inaetics.dronessimulator.common.protocol;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message which tells the time of the simulation after a broadcast of the state. Only sent when the simulation runs at
+ * maximum speed, in which case the drones calculate their tactics on this time instead of the wall clock and answer
+ * every tick with a {@link TickAcknowledgeMessage}.
+ */
+@Getter
+@Setter
+public class SimulationTickMessage extends ProtocolMessage {
+    /** The time of the simulation in ms since the epoch. */
+    private long simulationTime;
+
+    @Override
+    public List<MessageTopic> getTopics() {
+        return Collections.singletonList(MessageTopic.STATEUPDATES);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(SimulationTickMessage %d)", this.simulationTime);
+    }
+}
@@ -0,0 +1,28 @@
+package org.inaetics.dronessimulator.common.protocol;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message which tells the game engine that a drone is done with a {@link SimulationTickMessage}. Sent on the same topic
+ * as the movements, so the game engine receives the commands of the drone for the tick before the acknowledgement.
+ */
+@Getter
+@Setter
+@ToString
+public class TickAcknowledgeMessage extends ProtocolMessage {
+    /** Identifier of the drone. */
+    private String identifier = null;
+
+    /** The time of the simulation of the acknowledged tick in ms since the epoch. */
+    private long simulationTime;
+
+    @Override
+    public List<MessageTopic> getTopics() {
+        return Collections.singletonList(MessageTopic.MOVEMENTS);
+    }
+}
@@ -0,0 +1,31 @@
+package org.inaetics.dronessimulator.common.protocol;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message which tells the rates at which the game engine currently simulates and broadcasts the state. The game engine
+ * lowers these rates when it is overloaded, so clients should not expect state updates more often.
+ */
+@Getter
+@Setter
+public class TickRateMessage extends ProtocolMessage {
+    /** The number of steps the physics engine takes per second. */
+    private double stepRate;
+
+    /** The time between broadcasts of the state in ms. Negative if the state is never broadcast. */
+    private long broadcastInterval;
+
+    @Override
+    public List<MessageTopic> getTopics() {
+        return Collections.singletonList(MessageTopic.STATEUPDATES);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(TickRateMessage %.1f %d)", this.stepRate, this.broadcastInterval);
+    }
+}
@@ -0,0 +1,49 @@
+package org.inaetics.dronessimulator.common;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimulationClockTest {
+    @After
+    public void reset() {
+        SimulationClock.reset();
+    }
+
+    @Test
+    public void followsSimulatedTime() throws Exception {
+        Assert.assertFalse(SimulationClock.isSimulated());
+
+        SimulationClock.advance(0);
+        long start = SimulationClock.currentTimeMillis();
+
+        Thread.sleep(20);
+        Assert.assertEquals(start, SimulationClock.currentTimeMillis());
+
+        SimulationClock.advance(4_500_000L);
+        SimulationClock.advance(4_500_000L);
+        Assert.assertEquals(start + 9, SimulationClock.currentTimeMillis());
+    }
+
+    @Test
+    public void resetFollowsWallClock() throws Exception {
+        SimulationClock.advance(3_600_000_000_000L);
+        Assert.assertTrue(SimulationClock.currentTimeMillis() > System.currentTimeMillis() + 3_500_000L);
+
+        SimulationClock.reset();
+        Assert.assertFalse(SimulationClock.isSimulated());
+        Assert.assertTrue(Math.abs(SimulationClock.currentTimeMillis() - System.currentTimeMillis()) < 1000);
+    }
+
+    @Test
+    public void doesNotDriveTimeoutTimer() throws Exception {
+        TimeoutTimer timer = new TimeoutTimer(1000);
+
+        SimulationClock.advance(0);
+        timer.reset();
+
+        // Timeout timers are also used outside of the game engine, where the simulation clock does not advance
+        SimulationClock.advance(3_600_000_000_000L);
+        Assert.assertFalse(timer.timeIsExceeded());
+    }
+}
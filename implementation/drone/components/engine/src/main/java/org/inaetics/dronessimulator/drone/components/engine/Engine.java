@@ -7,6 +7,7 @@ import lombok.extern.log4j.Log4j;
 import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.common.protocol.MessageTopic;
 import org.inaetics.dronessimulator.common.protocol.MovementMessage;
+import org.inaetics.dronessimulator.common.protocol.TargetMoveLocationMessage;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.drone.components.gps.GPS;
 import org.inaetics.dronessimulator.drone.droneinit.DroneInit;
@@ -15,6 +16,7 @@ import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The engine component in a drone
@@ -24,6 +26,8 @@ import java.util.Set;
 @AllArgsConstructor //This is a constructor for test purposes.
 public final class Engine {
     private final Set<EngineCallback> callbacks = new HashSet<>();
+    /** The target location the game-engine steers the drone to, null if the drone is steered by movement messages. */
+    private final AtomicReference<D3Vector> targetLocation = new AtomicReference<>();
     /** The Publisher to use for sending messages */
     private volatile Publisher m_publisher;
     private volatile GPS m_gps;
@@ -110,6 +114,8 @@ public final class Engine {
      * @param input_acceleration The new acceleration for the drone using this component
      */
     public void changeAcceleration(D3Vector input_acceleration) {
+        // The game-engine changed the acceleration while steering, so always send it after taking back control
+        boolean released = this.releaseTarget();
         D3Vector acceleration = input_acceleration;
 
         acceleration = limit_acceleration(acceleration);
@@ -121,7 +127,7 @@ public final class Engine {
         }
 
         boolean change = true;
-        if (lastAcceleration != null) {
+        if (lastAcceleration != null && !released) {
             double diffX = Math.abs(lastAcceleration.getX() - acceleration.getX());
             double diffY = Math.abs(lastAcceleration.getY() - acceleration.getY());
             double diffZ = Math.abs(lastAcceleration.getZ() - acceleration.getZ());
@@ -153,6 +159,7 @@ public final class Engine {
      * @param input The new velocity for the drone using this component
      */
     public D3Vector changeVelocity(D3Vector input) {
+        boolean released = this.releaseTarget();
         D3Vector output = input;
         //Check if we are not accelerating too much (but only if we have MAX_DRONE_ACCELERATION higher than 0, to disable this)
         if (Settings.MAX_DRONE_ACCELERATION > 0 && output.sub(m_gps.getVelocity()).length() > Settings.MAX_DRONE_ACCELERATION) {
@@ -169,6 +176,11 @@ public final class Engine {
         MovementMessage msg = new MovementMessage();
         msg.setVelocity(output);
         msg.setIdentifier(m_drone.getIdentifier());
+        if (released) {
+            // Stop the acceleration the game-engine was steering with
+            msg.setAcceleration(new D3Vector());
+            lastAcceleration = null;
+        }
 
         try {
             m_publisher.send(MessageTopic.MOVEMENTS, msg);
@@ -181,6 +193,54 @@ public final class Engine {
         return output;
     }
 
+    /**
+     * Let the game-engine steer the drone to the target location. The game-engine accelerates and brakes the drone
+     * within the max acceleration and the max velocity until it holds still at the target, so this only has to be
+     * called once per target. A message is only sent if the target differs from the current target. Changing the
+     * acceleration or velocity afterwards takes back control from the game-engine.
+     *
+     * @param target The location to move the drone using this component to
+     */
+    public void moveTo(D3Vector target) {
+        D3Vector previous = this.targetLocation.getAndSet(target);
+
+        if (!target.equals(previous)) {
+            this.sendTargetLocation(target);
+        }
+    }
+
+    /**
+     * Stop the game-engine from steering the drone to the target location, if it is steering. The drone keeps its
+     * current velocity and acceleration until they are changed.
+     *
+     * @return Whether the game-engine was steering the drone
+     */
+    public boolean releaseTarget() {
+        if (this.targetLocation.getAndSet(null) != null) {
+            this.sendTargetLocation(null);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Send the target location to the game-engine
+     *
+     * @param target The new target location of the drone using this component, null to stop steering the drone
+     */
+    private void sendTargetLocation(D3Vector target) {
+        TargetMoveLocationMessage msg = new TargetMoveLocationMessage();
+        msg.setTargetLocation(target);
+        msg.setIdentifier(m_drone.getIdentifier());
+
+        try {
+            m_publisher.send(MessageTopic.MOVEMENTS, msg);
+        } catch (IOException e) {
+            log.fatal(e);
+        }
+    }
+
     /**
      * Submit a callback-function that is called after each movement update is send. The MovementMessage is a parameter for this callback.
      *
@@ -1,6 +1,7 @@
 package org.inaetics.dronessimulator.drone.components.engine;
 
 import org.inaetics.dronessimulator.common.protocol.MovementMessage;
+import org.inaetics.dronessimulator.common.protocol.TargetMoveLocationMessage;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.drone.components.gps.GPS;
 import org.inaetics.dronessimulator.drone.droneinit.DroneInit;
@@ -100,4 +101,26 @@ public class EngineTest {
         engine.changeAcceleration(new D3Vector());
     }
 
+    @Test
+    public void testMoveTo() {
+        //The target is only sent when it changes
+        engine.moveTo(new D3Vector(10, 0, 0));
+        engine.moveTo(new D3Vector(10, 0, 0));
+        Assert.assertEquals(1, publisher.getReceivedMessages().size());
+        TargetMoveLocationMessage target = (TargetMoveLocationMessage) publisher.getReceivedMessages().get(0).getRight();
+        Assert.assertEquals(new D3Vector(10, 0, 0), target.getTargetLocation().orElse(null));
+
+        engine.moveTo(new D3Vector(20, 0, 0));
+        Assert.assertEquals(2, publisher.getReceivedMessages().size());
+
+        //Changing the velocity takes back control and stops the acceleration the game-engine steered with
+        engine.changeVelocity(new D3Vector(1, 0, 0));
+        Assert.assertEquals(4, publisher.getReceivedMessages().size());
+        TargetMoveLocationMessage release = (TargetMoveLocationMessage) publisher.getReceivedMessages().get(2).getRight();
+        Assert.assertFalse(release.getTargetLocation().isPresent());
+        MovementMessage movement = (MovementMessage) publisher.getReceivedMessages().get(3).getRight();
+        Assert.assertEquals(new D3Vector(), movement.getAcceleration().orElse(null));
+        Assert.assertFalse(engine.releaseTarget());
+    }
+
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import org.inaetics.dronessimulator.drone.components.radar.Radar;
 import org.inaetics.dronessimulator.drone.components.radio.Radio;
 import org.inaetics.dronessimulator.drone.droneinit.DroneInit;
 import org.inaetics.dronessimulator.drone.tactic.example.SimpleTactic;
+import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 import org.inaetics.dronessimulator.pubsub.api.subscriber.Subscriber;
 import org.osgi.framework.BundleContext;
 
@@ -50,6 +51,12 @@ public class Activator extends DependencyActivatorBase {
                         .setRequired(true)
         );
 
+        component.add(
+                createServiceDependency()
+                        .setService(Publisher.class)
+                        .setRequired(true)
+        );
+
         component.add(
                 createServiceDependency()
                         .setService(Discoverer.class)
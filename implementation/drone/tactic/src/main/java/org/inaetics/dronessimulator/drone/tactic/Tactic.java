@@ -11,6 +11,9 @@ import org.inaetics.dronessimulator.common.architecture.SimulationAction;
 import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.common.protocol.KillMessage;
 import org.inaetics.dronessimulator.common.protocol.MessageTopic;
+import org.inaetics.dronessimulator.common.protocol.SimulationTickMessage;
+import org.inaetics.dronessimulator.common.protocol.TickAcknowledgeMessage;
+import org.inaetics.dronessimulator.common.protocol.TickRateMessage;
 import org.inaetics.dronessimulator.discovery.api.Discoverer;
 import org.inaetics.dronessimulator.discovery.api.DuplicateName;
 import org.inaetics.dronessimulator.discovery.api.Instance;
@@ -22,6 +25,7 @@ import org.inaetics.dronessimulator.drone.components.radar.Radar;
 import org.inaetics.dronessimulator.drone.components.radio.Radio;
 import org.inaetics.dronessimulator.drone.droneinit.DroneInit;
 import org.inaetics.dronessimulator.pubsub.api.MessageHandler;
+import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 import org.inaetics.dronessimulator.pubsub.api.subscriber.Subscriber;
 
 import java.io.IOException;
@@ -29,6 +33,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The abstract tactic each drone tactic should extend
@@ -38,7 +43,15 @@ public abstract class Tactic extends ManagedThread implements MessageHandler<Kil
     private static final long TACTIC_TIMOUT = 1;//tck
     private final TimeoutTimer workTimoutTimer = new TimeoutTimer(TACTIC_TIMOUT * Settings.TICK_TIME);
     private final AtomicBoolean initialized = new AtomicBoolean(false);
-    private final TimeoutTimer ticker = new TimeoutTimer(Settings.TICK_TIME);
+    private volatile TimeoutTimer ticker = new TimeoutTimer(Settings.TICK_TIME);
+    /** The time in ms between two calculations of the tactics */
+    private volatile long tickTime = Settings.TICK_TIME;
+    /** Whether the tactics follow the time of the simulation instead of the wall clock, also set by the first tick */
+    private volatile boolean simulated = Settings.SIMULATION_MAX_SPEED;
+    /** The latest received time of the simulation in ms which is not acknowledged yet. -1 if there is none */
+    private final AtomicLong pendingTick = new AtomicLong(-1);
+    /** The time of the simulation in ms the tactics were last calculated at. -1 if they were not calculated yet */
+    private volatile long lastTacticsAt = -1;
     // drone components
     @Getter
     protected volatile Radar radar;
@@ -60,6 +73,9 @@ public abstract class Tactic extends ManagedThread implements MessageHandler<Kil
     /** The Subscriber to use for receiving messages */
     @SuppressWarnings("unused") //Assigned through OSGi
     private volatile Subscriber subscriber;
+    /** The Publisher to use for acknowledging the ticks of the simulation */
+    @SuppressWarnings("unused") //Assigned through OSGi
+    private volatile Publisher publisher;
     private Instance simulationInstance;
     private boolean registered = false;
     /**
@@ -71,24 +87,68 @@ public abstract class Tactic extends ManagedThread implements MessageHandler<Kil
     /**
      * Thread implementation
      * <p>
-     * Work calls the calulateTactics everytime the ticker is exceeded. The ticker runs on {@link Settings#TICK_TIME} ms.
+     * Work calls the calulateTactics everytime the ticker is exceeded. The ticker runs on {@link Settings#TICK_TIME} ms
+     * of the wall clock, or on the broadcast interval of the game engine when it broadcasts the state less often.
+     * <p>
+     * When the simulation runs at maximum speed, the game engine sends the time of the simulation after every broadcast
+     * of the state. The ticker then runs on that time instead of the wall clock, and every tick is acknowledged once the
+     * tactics are calculated, so the game engine takes its next step after the commands of the drone arrived.
      */
     @Override
     protected final void work() throws InterruptedException {
-        if (ticker.timeIsExceeded()) {
-            ticker.reset();
-            //Start a timed thread that is interrupted after a specified timeout
-            Thread t = new Thread(this::calculateTactics);
-            t.start();
-            workTimoutTimer.reset();
-            while (t.isAlive()) {
-                if (workTimoutTimer.timeIsExceeded()) {
-                    t.interrupt();
+        if (simulated) {
+            long tick = pendingTick.getAndSet(-1);
+
+            if (tick >= 0) {
+                if (lastTacticsAt < 0 || tick - lastTacticsAt >= tickTime) {
+                    lastTacticsAt = tick;
+                    runTactics();
                 }
+                acknowledgeTick(tick);
+            }
+        } else {
+            TimeoutTimer ticker = this.ticker;
+
+            if (ticker.timeIsExceeded()) {
+                ticker.reset();
+                runTactics();
             }
         }
     }
 
+    /**
+     * Calculates the tactics in a timed thread that is interrupted when it takes longer than a tick of the wall clock.
+     */
+    private void runTactics() {
+        //Start a timed thread that is interrupted after a specified timeout
+        Thread t = new Thread(this::calculateTactics);
+        t.start();
+        workTimoutTimer.reset();
+        while (t.isAlive()) {
+            if (workTimoutTimer.timeIsExceeded()) {
+                t.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tells the game engine that the tactics are done with the given time of the simulation. Sent on the topic of the
+     * movements, so it arrives after the commands the tactics sent for this time.
+     *
+     * @param simulationTime the acknowledged time of the simulation in ms
+     */
+    private void acknowledgeTick(long simulationTime) {
+        TickAcknowledgeMessage msg = new TickAcknowledgeMessage();
+        msg.setIdentifier(drone.getIdentifier());
+        msg.setSimulationTime(simulationTime);
+
+        try {
+            publisher.send(MessageTopic.MOVEMENTS, msg);
+        } catch (IOException e) {
+            log.fatal(e);
+        }
+    }
+
     /**
      * Registers the handlers for the architectureEventController on startup. And registers the subscriber. Starts the tactic. This is called by Apache Felix.
      */
@@ -126,6 +186,34 @@ public abstract class Tactic extends ManagedThread implements MessageHandler<Kil
             log.fatal(e);
         }
         this.subscriber.addHandler(KillMessage.class, this);
+        this.subscriber.addHandler(TickRateMessage.class, (message) -> this.handleTickRateMessage((TickRateMessage) message));
+        this.subscriber.addHandler(SimulationTickMessage.class, (message) -> this.handleSimulationTickMessage((SimulationTickMessage) message));
+    }
+
+    /**
+     * Follows the rate at which the game engine broadcasts the state. When the game engine is overloaded it broadcasts
+     * less often, and calculating the tactics more often than the state is updated has no use. The tactics are never
+     * calculated more often than once per {@link Settings#TICK_TIME}.
+     *
+     * @param tickRateMessage the received tickRateMessage
+     */
+    private void handleTickRateMessage(TickRateMessage tickRateMessage) {
+        long tickTime = Math.max(Settings.TICK_TIME, tickRateMessage.getBroadcastInterval());
+
+        this.tickTime = tickTime;
+        this.ticker = new TimeoutTimer(tickTime);
+        log.info("Calculating the tactics every " + tickTime + " ms to follow the state broadcasts");
+    }
+
+    /**
+     * Follows the time of a simulation running at maximum speed. From the first tick on the tactics are calculated on
+     * the time of the simulation instead of the wall clock. Only the latest tick is kept if the tactics fall behind.
+     *
+     * @param simulationTickMessage the received simulationTickMessage
+     */
+    private void handleSimulationTickMessage(SimulationTickMessage simulationTickMessage) {
+        this.pendingTick.set(simulationTickMessage.getSimulationTime());
+        this.simulated = true;
     }
 
     @Override
@@ -195,6 +283,11 @@ public abstract class Tactic extends ManagedThread implements MessageHandler<Kil
         this.stopThread();
         unconfigSimulation();
 
+        // The next game may run in real time again
+        this.simulated = Settings.SIMULATION_MAX_SPEED;
+        this.pendingTick.set(-1);
+        this.lastTacticsAt = -1;
+
         if (initialized.get()) {
             finalizeTactics();
             initialized.set(false);
@@ -111,11 +111,10 @@ public class BasicTactic extends Tactic {
 
     private void calculateMovements() {
         if (moveTarget != null) {
+            //The game-engine steers us to the target and holds us still there, so this only sends a message when the target changes
+            engine.moveTo(moveTarget);
             if (moveTarget.sub(gps.getPosition()).length() < 2) {
                 moveTarget = null;
-                engine.changeVelocity(new D3Vector());
-            } else {
-                engine.changeVelocity(moveTarget.sub(gps.getPosition()));
             }
         }
     }
@@ -109,7 +109,7 @@ public class TheoreticalTactic extends Tactic {
             sendInstructions();
         }
 
-        //Keep moving if we have a target move location. Otherwise we will overshoot our target since acceleration corrections are required.
+        //Keep moving to our target move location. The game-engine brakes us at the target, so this does not resend an unchanged target.
         if (myTargetMoveLocation != null) {
             moveToLocation(myTargetMoveLocation);
         }
@@ -213,11 +213,9 @@ public class TheoreticalTactic extends Tactic {
     }
 
     private void moveToLocation(D3Vector targetLocation) {
-        D3Vector currentPosition = gps.getPosition();
-        D3Vector preferrredVelocity = targetLocation.sub(currentPosition); //We would like to be at our target position in 1 step if possible, so travel the distance
-        // with one speed.
-        D3Vector actualSendVelocity = engine.changeVelocity(preferrredVelocity);
-        log.info("Moving to " + targetLocation + " from " + currentPosition + " with preferred velocity: " + preferrredVelocity + " but actual velocity: " + actualSendVelocity);
+        //The game-engine steers us to the target, so this only sends a message when the target changes
+        engine.moveTo(targetLocation);
+        log.info("Moving to " + targetLocation + " from " + gps.getPosition());
     }
 
     private void findLeader() {
@@ -4,15 +4,20 @@ import lombok.extern.log4j.Log4j;
 import org.inaetics.dronessimulator.architectureevents.ArchitectureEventController;
 import org.inaetics.dronessimulator.architectureevents.ArchitectureEventHandler;
 import org.inaetics.dronessimulator.architectureevents.LifeCycleStep;
+import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.common.TimeoutTimer;
 import org.inaetics.dronessimulator.common.Tuple;
 import org.inaetics.dronessimulator.common.architecture.SimulationAction;
 import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.common.protocol.KillMessage;
+import org.inaetics.dronessimulator.common.protocol.MessageTopic;
+import org.inaetics.dronessimulator.common.protocol.TickAcknowledgeMessage;
 import org.inaetics.dronessimulator.discovery.api.Instance;
 import org.inaetics.dronessimulator.discovery.api.MockDiscoverer;
 import org.inaetics.dronessimulator.discovery.api.instances.TacticInstance;
 import org.inaetics.dronessimulator.drone.droneinit.DroneInit;
+import org.inaetics.dronessimulator.pubsub.api.Message;
+import org.inaetics.dronessimulator.pubsub.api.Topic;
 import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 import org.inaetics.dronessimulator.test.MockPublisher;
 import org.inaetics.dronessimulator.test.MockSubscriber;
@@ -23,11 +28,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.inaetics.dronessimulator.test.TestUtils.*;
@@ -70,6 +77,39 @@ public class TacticTest {
         verify(tacticMock, times(1)).calculateTactics();
     }
 
+    @Test
+    public void testWorkOnSimulationTicks() throws Exception {
+        AtomicLong pendingTick = getField(tactic, "pendingTick");
+        List<Tuple<Topic, Message>> sent = ((MockPublisher) publisher).getReceivedMessages();
+        setField(tactic, "simulated", true);
+        //Nothing happens without a tick, however much wall time passed
+        TestUtils.setField(getField(tactic, "ticker"), "lastTime", 0L);
+        tactic.work();
+        verify(tacticMock, times(0)).calculateTactics();
+        //The first tick calculates the tactics and is acknowledged
+        pendingTick.set(1000);
+        tactic.work();
+        verify(tacticMock, times(1)).calculateTactics();
+        //A tick within the tick time is only acknowledged
+        pendingTick.set(1000 + Settings.TICK_TIME - 1);
+        tactic.work();
+        verify(tacticMock, times(1)).calculateTactics();
+        //A full tick of the simulation later the tactics are calculated again
+        pendingTick.set(1000 + Settings.TICK_TIME);
+        tactic.work();
+        verify(tacticMock, times(2)).calculateTactics();
+
+        List<Long> acknowledged = new ArrayList<>();
+        for (Tuple<Topic, Message> message : sent) {
+            if (message.getRight() instanceof TickAcknowledgeMessage) {
+                Assert.assertEquals(MessageTopic.MOVEMENTS, message.getLeft());
+                Assert.assertEquals(tactic.getIdentifier(), ((TickAcknowledgeMessage) message.getRight()).getIdentifier());
+                acknowledged.add(((TickAcknowledgeMessage) message.getRight()).getSimulationTime());
+            }
+        }
+        Assert.assertEquals(Arrays.asList(1000L, 1000 + Settings.TICK_TIME - 1, 1000 + Settings.TICK_TIME), acknowledged);
+    }
+
     @Test
     public void testWorkWithSlowTactic() throws Exception {
         double timeout = getField(getField(tactic, "ticker"), "timeout");
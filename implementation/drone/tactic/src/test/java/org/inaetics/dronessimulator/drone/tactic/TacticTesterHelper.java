@@ -53,6 +53,7 @@ public class TacticTesterHelper {
         TestUtils.setField(tactic, "drone", droneInit);
         TestUtils.setField(tactic, "architectureEventController", new ArchitectureEventControllerService());
         TestUtils.setField(tactic, "subscriber", subscriber);
+        TestUtils.setField(tactic, "publisher", publisher);
         TestUtils.setField(tactic, "discoverer", discoverer);
         return tactic;
     }
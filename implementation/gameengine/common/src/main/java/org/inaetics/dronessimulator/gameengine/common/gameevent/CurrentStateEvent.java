@@ -1,25 +1,96 @@
 package org.inaetics.dronessimulator.gameengine.common.gameevent;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.inaetics.dronessimulator.common.protocol.CompressedProtocolMessage;
 import org.inaetics.dronessimulator.common.protocol.ProtocolMessage;
 import org.inaetics.dronessimulator.common.protocol.StateMessage;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 import org.inaetics.dronessimulator.gameengine.common.state.HealthGameEntity;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
 import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
 
 import java.util.*;
 
 /**
- * A unified physics engine message which contains the state of all entities.
+ * A unified physics engine message which contains the state of all entities. If the physics engine only broadcasts
+ * changes, only the entities which changed are sent to the architecture, unless the event is a keyframe.
  */
-@AllArgsConstructor
 @Getter
 public class CurrentStateEvent extends GameEngineEvent {
     /** The entities as currently in the physics engine. */
     List<GameEntity> currentState;
 
+    /** The ids of the entities which changed since the last event. Null if the event is a keyframe. */
+    Set<Integer> changedEntityIds;
+
+    /** The snapshot holding the current state. Null if the current state is not held by a snapshot. */
+    @Getter(AccessLevel.NONE)
+    private StateSnapshot<GameEntity> snapshot;
+
+    /**
+     * Creates a keyframe event, of which all entities are sent to the architecture.
+     * @param currentState The entities as currently in the physics engine.
+     */
+    public CurrentStateEvent(List<GameEntity> currentState) {
+        this(currentState, null);
+    }
+
+    /**
+     * Creates an event of which only the changed entities are sent to the architecture.
+     * @param currentState The entities as currently in the physics engine.
+     * @param changedEntityIds The ids of the entities which changed since the last event. Null if all should be sent.
+     */
+    public CurrentStateEvent(List<GameEntity> currentState, Set<Integer> changedEntityIds) {
+        this.currentState = currentState;
+        this.changedEntityIds = changedEntityIds;
+        this.snapshot = null;
+    }
+
+    /**
+     * Creates an event holding the current state in a snapshot. The snapshot is released when the event is released.
+     * @param snapshot The filled snapshot holding the current state.
+     * @param changedEntityIds The ids of the entities which changed since the last event. Null if all should be sent.
+     */
+    public CurrentStateEvent(StateSnapshot<GameEntity> snapshot, Set<Integer> changedEntityIds) {
+        this(snapshot.getEntities(), changedEntityIds);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Whether all entities are sent to the architecture.
+     * @return Whether the event is a keyframe.
+     */
+    public boolean isKeyframe() {
+        return this.changedEntityIds == null;
+    }
+
+    /**
+     * Replaces an older event which is not processed yet. The entities which changed in the older event are sent with
+     * this event as well, and this event becomes a keyframe if the older event was one. Releases the older event.
+     * @param older The event which is replaced by this event. Its set of changed ids must be modifiable.
+     */
+    public void supersede(CurrentStateEvent older) {
+        if(older.changedEntityIds == null) {
+            this.changedEntityIds = null;
+        } else if(this.changedEntityIds != null) {
+            // The older event is never used again, so its ids are taken over instead of copied
+            older.changedEntityIds.addAll(this.changedEntityIds);
+            this.changedEntityIds = older.changedEntityIds;
+        }
+
+        older.release();
+    }
+
+    @Override
+    public void release() {
+        if(this.snapshot != null) {
+            this.snapshot.release();
+            this.snapshot = null;
+            this.currentState = Collections.emptyList();
+        }
+    }
+
     public void removeEntity(int entityId) {
         this.currentState.removeIf((entity) -> entity.getEntityId() == entityId);
     }
@@ -29,7 +100,9 @@ public class CurrentStateEvent extends GameEngineEvent {
         List<ProtocolMessage> msgs = new ArrayList<>();
 
         for(GameEntity e : currentState) {
-
+            if(changedEntityIds != null && !changedEntityIds.contains(e.getEntityId())) {
+                continue;
+            }
 
             Optional<String> maybeProtocolId = id_mapper.fromGameEngineToProtocolId(e.getEntityId());
 
@@ -51,6 +124,11 @@ public class CurrentStateEvent extends GameEngineEvent {
             }
         }
 
+        if(msgs.isEmpty() && changedEntityIds != null) {
+            // Nothing changed, so there is nothing to send
+            return Collections.emptyList();
+        }
+
         return Collections.singletonList(new CompressedProtocolMessage(msgs));
     }
 }
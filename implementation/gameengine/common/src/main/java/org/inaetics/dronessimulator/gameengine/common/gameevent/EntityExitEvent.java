@@ -0,0 +1,32 @@
+package org.inaetics.dronessimulator.gameengine.common.gameevent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.inaetics.dronessimulator.common.protocol.ProtocolMessage;
+import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A unified physics engine message which signals that a game entity left the simulated world. The physics engine
+ * already stopped simulating the entity, the rules decide how the entity is destroyed.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class EntityExitEvent extends GameEngineEvent {
+    /** The entity which left the simulated world, at the position it left. */
+    private final GameEntity entity;
+
+    /** Why the entity left the simulated world. */
+    private final ExitReason reason;
+
+    @Override
+    public List<ProtocolMessage> getProtocolMessage(IdentifierMapper id_mapper) {
+        // The rules turn the exit into a destroy event which is sent instead
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,12 @@
+package org.inaetics.dronessimulator.gameengine.common.gameevent;
+
+/**
+ * The reasons for which the physics engine stops simulating an entity.
+ */
+public enum ExitReason {
+    /** The entity left the arena. */
+    OUT_OF_BOUNDS,
+
+    /** The entity travelled further from where it was created than its maximal range. */
+    OUT_OF_RANGE
+}
@@ -19,4 +19,12 @@ public abstract class GameEngineEvent {
      * @return Which messages to broadcast to all listeners
      */
     public abstract List<ProtocolMessage> getProtocolMessage(IdentifierMapper id_mapper);
+
+    /**
+     * Releases any resources held by this event. Called when all rules have processed the event, after which the event
+     * must not be used anymore.
+     */
+    public void release() {
+        // Nothing to release by default
+    }
 }
@@ -0,0 +1,32 @@
+package org.inaetics.dronessimulator.gameengine.common.gameevent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.inaetics.dronessimulator.common.protocol.ProtocolMessage;
+import org.inaetics.dronessimulator.common.protocol.SimulationTickMessage;
+import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A unified physics engine message which signals the time of the simulation after a broadcast of the state when the
+ * simulation runs at maximum speed.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class SimulationTickEvent extends GameEngineEvent {
+    /** The time of the simulation in ms since the epoch. */
+    private final long simulationTime_ms;
+
+    @Override
+    public List<ProtocolMessage> getProtocolMessage(IdentifierMapper id_mapper) {
+        SimulationTickMessage msg = new SimulationTickMessage();
+
+        msg.setSimulationTime(this.simulationTime_ms);
+
+        return Collections.singletonList(msg);
+    }
+}
@@ -0,0 +1,35 @@
+package org.inaetics.dronessimulator.gameengine.common.gameevent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.inaetics.dronessimulator.common.protocol.ProtocolMessage;
+import org.inaetics.dronessimulator.common.protocol.TickRateMessage;
+import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A unified physics engine message which signals that the physics engine changed its rates to adapt to the load.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TickRateEvent extends GameEngineEvent {
+    /** The number of steps the physics engine takes per second. */
+    private final double stepRate;
+
+    /** The time between broadcasts of the state in ms. Negative if the state is never broadcast. */
+    private final long broadcastInterval_ms;
+
+    @Override
+    public List<ProtocolMessage> getProtocolMessage(IdentifierMapper id_mapper) {
+        TickRateMessage msg = new TickRateMessage();
+
+        msg.setStepRate(this.stepRate);
+        msg.setBroadcastInterval(this.broadcastInterval_ms);
+
+        return Collections.singletonList(msg);
+    }
+}
@@ -0,0 +1,115 @@
+package org.inaetics.dronessimulator.gameengine.common.ring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Event ring which only hands the newest event of one type to the consumer. An event of that type which is still
+ * waiting when a newer one is offered is superseded: the consumer skips it without seeing it. All other events are
+ * handed over in order and are never skipped, and the newest event keeps its own place among them.
+ * Superseded events are passed to the supersede callback of the producer together with the event replacing them, so
+ * the newer event can take over anything of the older event which must not be lost and the older event can be
+ * released. The consumer never touches a superseded event, so it is safe to release it right away.
+ * @param <E> The type of the events.
+ * @param <C> The type of the events of which only the newest is handed over.
+ */
+public class ConflatingEventRing<E, C extends E> extends EventRing<E> {
+    /** The type of the events of which only the newest is handed over. */
+    private final Class<C> conflatedType;
+
+    /** Called by the producer with each newly offered event and the waiting event it supersedes, in that order. */
+    private final BiConsumer<C, C> supersede;
+
+    /** The newest conflated event which is not yet taken by the consumer. */
+    private final AtomicReference<C> latest;
+
+    /** The number of superseded events. */
+    private final AtomicLong conflated;
+
+    /**
+     * Creates an empty ring.
+     * @param capacity The minimal number of events the ring holds. Rounded up to a power of two.
+     * @param waitStrategy How a side waits for the other side.
+     * @param overflowPolicy What happens to an event offered while all slots are full.
+     * @param conflatedType The type of the events of which only the newest is handed over.
+     * @param supersede Called with each newly offered event and the waiting event it supersedes, in that order.
+     */
+    public ConflatingEventRing(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy, Class<C> conflatedType, BiConsumer<C, C> supersede) {
+        super(capacity, waitStrategy, overflowPolicy);
+        this.conflatedType = conflatedType;
+        this.supersede = supersede;
+        this.latest = new AtomicReference<>(null);
+        this.conflated = new AtomicLong(0);
+    }
+
+    /**
+     * Adds an event at the end of the ring. Supersedes the waiting event of the conflated type if the event is of that
+     * type. The waiting event is only superseded once there is a slot for the newer event, so a dropped event never
+     * takes an older one with it. Must only be called by the single producer.
+     * @param event The event to add. Must not be null.
+     * @return Whether the event was added. False if it was dropped or the producer was interrupted while waiting, in
+     * which case the producer still owns the event and the waiting event is left as it is.
+     */
+    @Override
+    public boolean offer(E event) {
+        if(!this.conflatedType.isInstance(event)) {
+            return super.offer(event);
+        }
+
+        if(!this.awaitFreeSlot()) {
+            return false;
+        }
+
+        C newer = this.conflatedType.cast(event);
+        // Marks the event as the newest before the consumer can take it, so the consumer never skips it
+        C older = this.latest.getAndSet(newer);
+
+        if(older != null) {
+            this.conflated.incrementAndGet();
+            this.supersede.accept(newer, older);
+        }
+
+        this.publish(event);
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E event = super.take();
+
+        while(this.isSuperseded(event)) {
+            event = super.take();
+        }
+
+        return event;
+    }
+
+    @Override
+    public E poll() {
+        E event = super.poll();
+
+        while(event != null && this.isSuperseded(event)) {
+            event = super.poll();
+        }
+
+        return event;
+    }
+
+    /**
+     * Returns the number of events which were superseded by a newer event before the consumer took them.
+     * @return The number of conflated events.
+     */
+    public long getConflated() {
+        return this.conflated.get();
+    }
+
+    /**
+     * Claims the event for the consumer if it is the newest event of the conflated type.
+     * @param event The event taken from the ring.
+     * @return Whether the event was superseded and must be skipped.
+     */
+    private boolean isSuperseded(E event) {
+        return this.conflatedType.isInstance(event) && !this.latest.compareAndSet(this.conflatedType.cast(event), null);
+    }
+}
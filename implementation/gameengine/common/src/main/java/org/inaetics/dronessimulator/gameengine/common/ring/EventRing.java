@@ -0,0 +1,256 @@
+package org.inaetics.dronessimulator.gameengine.common.ring;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue between a single producer thread and a single consumer thread. The events are stored in a
+ * preallocated array of slots which is reused round-robin, so handing over an event does not allocate anything. The
+ * producer only writes the tail sequence and the consumer only writes the head sequence, each of which the other side
+ * reads to find out whether a slot is full or free.
+ * How a side waits for the other is set by the {@link WaitStrategy}, what happens to an event offered to a full ring by
+ * the {@link OverflowPolicy}.
+ * Only one thread may offer and only one thread may take or poll at a time.
+ * @param <E> The type of the events.
+ */
+public class EventRing<E> {
+    /** The slots holding the events, indexed by sequence modulo the capacity. */
+    private final Object[] slots;
+
+    /** The capacity minus one, to find the slot of a sequence. */
+    private final int mask;
+
+    /** How a side waits for the other side. */
+    private final WaitStrategy waitStrategy;
+
+    /** What happens to an event offered while all slots are full. */
+    private final OverflowPolicy overflowPolicy;
+
+    /** The sequence of the next event to take. Only written by the consumer. */
+    private final AtomicLong head;
+
+    /** The sequence of the next event to offer. Only written by the producer. */
+    private final AtomicLong tail;
+
+    /** The number of events rejected because the ring was full. */
+    private final AtomicLong dropped;
+
+    /** The last head seen by the producer. Only used by the producer. */
+    private long cachedHead;
+
+    /** The last tail seen by the consumer. Only used by the consumer. */
+    private long cachedTail;
+
+    /**
+     * Creates an empty ring.
+     * @param capacity The minimal number of events the ring holds. Rounded up to a power of two.
+     * @param waitStrategy How a side waits for the other side.
+     * @param overflowPolicy What happens to an event offered while all slots are full.
+     */
+    public EventRing(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+        if(capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The capacity of an event ring must be between 1 and 2^30, got " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity) {
+            size <<= 1;
+        }
+
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.head = new AtomicLong(0);
+        this.tail = new AtomicLong(0);
+        this.dropped = new AtomicLong(0);
+        this.cachedHead = 0;
+        this.cachedTail = 0;
+    }
+
+    /**
+     * Adds an event at the end of the ring. Must only be called by the single producer. If the ring is full, waits for
+     * a free slot or rejects the event, depending on the overflow policy.
+     * @param event The event to add. Must not be null.
+     * @return Whether the event was added. False if it was dropped or the producer was interrupted while waiting, in
+     * which case the producer still owns the event.
+     */
+    public boolean offer(E event) {
+        if(!this.awaitFreeSlot()) {
+            return false;
+        }
+
+        this.publish(event);
+        return true;
+    }
+
+    /**
+     * Makes sure the slot of the next event is free. If the ring is full, waits for a free slot or gives up, depending
+     * on the overflow policy. Once a slot is free it stays free until the producer publishes an event, so a following
+     * {@link #publish(Object)} cannot fail. Must only be called by the single producer.
+     * @return Whether the slot is free. False if the ring was full and the event is dropped or the producer was
+     * interrupted while waiting.
+     */
+    protected boolean awaitFreeSlot() {
+        long sequence = this.tail.get();
+
+        if(sequence - this.cachedHead >= this.slots.length) {
+            this.cachedHead = this.head.get();
+
+            if(sequence - this.cachedHead >= this.slots.length) {
+                if(this.overflowPolicy == OverflowPolicy.DROP) {
+                    this.dropped.incrementAndGet();
+                    return false;
+                }
+
+                int attempt = 0;
+
+                while(sequence - this.cachedHead >= this.slots.length) {
+                    if(Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+
+                    this.waitStrategy.idle(attempt);
+                    attempt++;
+                    this.cachedHead = this.head.get();
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Hands an event to the consumer in the slot made free by {@link #awaitFreeSlot()}. Must only be called by the
+     * single producer, after {@link #awaitFreeSlot()} returned true.
+     * @param event The event to add. Must not be null.
+     */
+    protected void publish(E event) {
+        long sequence = this.tail.get();
+
+        this.slots[(int) sequence & this.mask] = event;
+        // The ordered write publishes the event in the slot before the new tail
+        this.tail.lazySet(sequence + 1);
+    }
+
+    /**
+     * Removes the first event of the ring, waiting for one if the ring is empty. Must only be called by the single
+     * consumer.
+     * @return The first event.
+     * @throws InterruptedException If the consumer was interrupted while waiting.
+     */
+    public E take() throws InterruptedException {
+        long sequence = this.head.get();
+        int attempt = 0;
+
+        while(sequence >= this.cachedTail) {
+            if(Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            this.cachedTail = this.tail.get();
+
+            if(sequence >= this.cachedTail) {
+                this.waitStrategy.idle(attempt);
+                attempt++;
+            }
+        }
+
+        return this.remove(sequence);
+    }
+
+    /**
+     * Removes the first event of the ring if there is one. Must only be called by the single consumer.
+     * @return The first event or null if the ring is empty.
+     */
+    public E poll() {
+        long sequence = this.head.get();
+
+        if(sequence >= this.cachedTail) {
+            this.cachedTail = this.tail.get();
+
+            if(sequence >= this.cachedTail) {
+                return null;
+            }
+        }
+
+        return this.remove(sequence);
+    }
+
+    /**
+     * Removes the events which are in the ring, in order, without waiting for more. Must only be called by the single
+     * consumer.
+     * @param target The list to add the events to.
+     * @param maxEvents The maximal number of events to remove.
+     * @return The number of events added to the list.
+     */
+    public int drainTo(List<? super E> target, int maxEvents) {
+        int drained = 0;
+
+        while(drained < maxEvents) {
+            E event = this.poll();
+
+            if(event == null) {
+                break;
+            }
+
+            target.add(event);
+            drained++;
+        }
+
+        return drained;
+    }
+
+    /**
+     * Returns the number of events in the ring. May be outdated as soon as it returns when called concurrently with
+     * the producer or consumer.
+     * @return The number of events.
+     */
+    public int size() {
+        long head = this.head.get();
+        long tail = this.tail.get();
+
+        return (int) Math.max(0, Math.min(tail - head, this.slots.length));
+    }
+
+    /**
+     * Returns whether the ring contains no events.
+     * @return Whether the ring is empty.
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Returns the number of events the ring holds.
+     * @return The capacity.
+     */
+    public int capacity() {
+        return this.slots.length;
+    }
+
+    /**
+     * Returns the number of events which were rejected because the ring was full.
+     * @return The number of dropped events.
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Removes the event with the given sequence, which must be available, and frees its slot for the producer.
+     * @param sequence The sequence of the first event.
+     * @return The event.
+     */
+    @SuppressWarnings("unchecked")
+    private E remove(long sequence) {
+        int index = (int) sequence & this.mask;
+        E event = (E) this.slots[index];
+
+        // Do not keep the event alive until the slot is reused
+        this.slots[index] = null;
+        this.head.lazySet(sequence + 1);
+
+        return event;
+    }
+}
@@ -0,0 +1,22 @@
+package org.inaetics.dronessimulator.gameengine.common.ring;
+
+import org.inaetics.dronessimulator.common.Settings;
+
+/**
+ * What an {@link EventRing} does with an event which is offered while all slots are full.
+ */
+public enum OverflowPolicy {
+    /** The producer waits until the consumer frees a slot. Nothing is lost, but the producer stalls with the consumer. */
+    BLOCK,
+
+    /** The offered event is rejected and counted. The producer never stalls, but events are lost. */
+    DROP;
+
+    /**
+     * Returns the overflow policy which is configured in the settings.
+     * @return The configured overflow policy.
+     */
+    public static OverflowPolicy fromSettings() {
+        return OverflowPolicy.valueOf(Settings.EVENT_RING_OVERFLOW);
+    }
+}
@@ -0,0 +1,53 @@
+package org.inaetics.dronessimulator.gameengine.common.ring;
+
+import org.inaetics.dronessimulator.common.Settings;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ways a side of an {@link EventRing} waits for the other side: the consumer for a new event and a blocked producer
+ * for a free slot. Each strategy trades the latency of noticing the other side against the CPU time spent waiting.
+ */
+public enum WaitStrategy {
+    /** Spins on the sequence. Lowest latency, but keeps a core busy while waiting. */
+    SPIN,
+
+    /** Spins a little, then yields the core to other threads between checks. */
+    YIELD,
+
+    /** Spins a little, yields a little, then parks for {@link #PARK_NS} between checks. Hardly uses CPU when idle. */
+    PARK;
+
+    /** The number of busy checks before yielding or parking. */
+    static final int SPIN_TRIES = 100;
+
+    /** The number of yielding checks before parking. */
+    static final int YIELD_TRIES = 100;
+
+    /** The time to park between checks in nanoseconds. */
+    static final long PARK_NS = 100_000L;
+
+    /**
+     * Waits a moment before the next check of the other side.
+     * @param attempt The number of checks which failed so far.
+     */
+    public void idle(int attempt) {
+        if(this == SPIN || attempt < SPIN_TRIES) {
+            return;
+        }
+
+        if(this == YIELD || attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NS);
+        }
+    }
+
+    /**
+     * Returns the wait strategy which is configured in the settings.
+     * @return The configured wait strategy.
+     */
+    public static WaitStrategy fromSettings() {
+        return WaitStrategy.valueOf(Settings.EVENT_RING_WAIT);
+    }
+}
@@ -47,6 +47,11 @@ public class Bullet extends GameEntity<Bullet> {
         return new Bullet(this.getEntityId(), this.getDmg(), this.getFiredBy(), this.getPosition(), this.getVelocity(), this.getAcceleration(), this.getDirection());
     }
 
+    @Override
+    public boolean copyStateFrom(Bullet source) {
+        return this.dmg == source.getDmg() && this.firedBy == source.getFiredBy() && super.copyStateFrom(source);
+    }
+
     /**
      * Returns the damage this bullet can inflict.
      * @return The damage.
@@ -6,6 +6,8 @@ import org.inaetics.dronessimulator.common.protocol.EntityType;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 
+import java.util.Objects;
+
 /**
  * A Drone game entity.
  */
@@ -44,6 +46,13 @@ public class Drone extends HealthGameEntity<Drone> {
         return EntityType.DRONE;
     }
 
+    @Override
+    public boolean copyStateFrom(Drone source) {
+        return Objects.equals(this.teamname, source.getTeamname())
+            && Objects.equals(this.targetLocation, source.getTargetLocation())
+            && super.copyStateFrom(source);
+    }
+
     @Override
     public synchronized Drone deepCopy() {
         return new Drone(this.getEntityId(), this.getTeamname(), this.getHp(), this.getPosition(), this.getVelocity()
@@ -7,6 +7,8 @@ import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.gameengine.common.Size;
 
+import java.util.Objects;
+
 /**
  * An entity in the physics engine with some added game state.
  */
@@ -49,4 +51,23 @@ public abstract class GameEntity<C extends GameEntity<C>> {
      * @return The copied entity.
      */
     public abstract C deepCopy();
+
+    /**
+     * Copies the state of the source into this entity, so this entity can be reused as a copy of the source. Only
+     * possible if all fields which cannot be changed are equal.
+     * @param source The entity to copy the state from. Must have the same id.
+     * @return Whether the state was copied. If false, this entity is unchanged and should not be reused.
+     */
+    public boolean copyStateFrom(C source) {
+        if(this.entityId != source.getEntityId() || !Objects.equals(this.size, source.getSize())) {
+            return false;
+        }
+
+        this.position = source.getPosition();
+        this.velocity = source.getVelocity();
+        this.acceleration = source.getAcceleration();
+        this.direction = source.getDirection();
+
+        return true;
+    }
 }
@@ -36,6 +36,17 @@ public abstract class HealthGameEntity<C extends GameEntity<C>> extends GameEnti
     @Override
     public abstract C deepCopy();
 
+    @Override
+    public boolean copyStateFrom(C source) {
+        boolean copied = super.copyStateFrom(source);
+
+        if(copied) {
+            this.hp = ((HealthGameEntity) source).getHp();
+        }
+
+        return copied;
+    }
+
     /**
      * Damage this entity with the given amount of damage.
      * @param dmg Amount of damage to inflict on the entity
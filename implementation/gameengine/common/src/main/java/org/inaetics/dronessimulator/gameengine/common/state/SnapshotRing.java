@@ -0,0 +1,60 @@
+package org.inaetics.dronessimulator.gameengine.common.state;
+
+/**
+ * A fixed number of preallocated, reusable snapshots of the state. A single writer acquires a free snapshot, fills it
+ * and hands it off. The consumer releases it when done, after which it can be acquired again. A snapshot is only
+ * handed to the consumer when it is completely written and only refilled after the consumer released it, so the
+ * consumer never sees a partially written snapshot.
+ * @param <T> The type of the entities.
+ */
+public class SnapshotRing<T extends GameEntity> {
+    /** The snapshots of the ring. */
+    private final StateSnapshot<T>[] snapshots;
+
+    /** The snapshot to try first on the next acquire. Only used by the writer. */
+    private int next;
+
+    /**
+     * Creates a ring of snapshots.
+     * @param size The number of snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    public SnapshotRing(int size) {
+        if(size <= 0) {
+            throw new IllegalArgumentException("A snapshot ring needs at least one snapshot, got " + size);
+        }
+
+        this.snapshots = new StateSnapshot[size];
+
+        for(int i = 0; i < size; i++) {
+            this.snapshots[i] = new StateSnapshot<>();
+        }
+
+        this.next = 0;
+    }
+
+    /**
+     * Acquires a free snapshot for writing. Must only be called by the single writer.
+     * @return The acquired snapshot or null if all snapshots are in use.
+     */
+    public StateSnapshot<T> acquire() {
+        for(int i = 0; i < this.snapshots.length; i++) {
+            StateSnapshot<T> snapshot = this.snapshots[(this.next + i) % this.snapshots.length];
+
+            if(snapshot.tryAcquire()) {
+                this.next = (this.next + i + 1) % this.snapshots.length;
+                return snapshot;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of snapshots in the ring.
+     * @return The number of snapshots.
+     */
+    public int size() {
+        return this.snapshots.length;
+    }
+}
@@ -0,0 +1,137 @@
+package org.inaetics.dronessimulator.gameengine.common.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A reusable copy of the state of all entities. The copies of the entities are kept between uses and refreshed in
+ * place, so copying the state of the same entities again does not allocate anything. If the writer knows the version of
+ * the state of an entity, a copy which already holds that version is not refreshed at all. Snapshots are handed out by a
+ * {@link SnapshotRing}: the writer fills an acquired snapshot, hands it to a single consumer and the consumer releases
+ * it when done. Neither may use the snapshot after it is handed off respectively released.
+ * @param <T> The type of the entities.
+ */
+public class StateSnapshot<T extends GameEntity> {
+    /** The version of a copy of which it is not known which version of the state it holds. */
+    private static final long UNKNOWN_VERSION = -1;
+
+    /** Whether the snapshot is acquired by a writer and not yet released. */
+    private final AtomicBoolean inUse;
+
+    /** The copies in the order they were added. */
+    private final List<T> entities;
+
+    /** The reusable copies by entity id. */
+    private final Map<Integer, PooledCopy<T>> copies;
+
+    /** The number of times the snapshot was filled. Marks the copies which are used by the current fill. */
+    private long generation;
+
+    /**
+     * Creates an empty snapshot which is not in use.
+     */
+    public StateSnapshot() {
+        this.inUse = new AtomicBoolean(false);
+        this.entities = new ArrayList<>();
+        this.copies = new HashMap<>();
+        this.generation = 0;
+    }
+
+    /**
+     * Starts filling the snapshot. Removes all entities of the previous fill.
+     */
+    public void begin() {
+        this.entities.clear();
+        this.generation++;
+    }
+
+    /**
+     * Adds a copy of the entity to the snapshot. Reuses the copy of the previous fill if possible.
+     * @param source The entity to copy.
+     */
+    public void add(T source) {
+        this.add(source, UNKNOWN_VERSION);
+    }
+
+    /**
+     * Adds a copy of the entity to the snapshot. Reuses the copy of the previous fill if possible, without refreshing it
+     * if it already holds the given version of the state of the entity.
+     * @param source The entity to copy.
+     * @param version The version of the state of the entity, which must change whenever the state changes. Must not be
+     *                negative.
+     */
+    @SuppressWarnings("unchecked")
+    public void add(T source, long version) {
+        PooledCopy<T> pooled = this.copies.get(source.getEntityId());
+
+        if(pooled == null) {
+            pooled = new PooledCopy<>((T) source.deepCopy());
+            this.copies.put(source.getEntityId(), pooled);
+        } else if(version == UNKNOWN_VERSION || pooled.version != version) {
+            if(pooled.entity.getType() != source.getType() || !pooled.entity.copyStateFrom(source)) {
+                pooled.entity = (T) source.deepCopy();
+            }
+        }
+
+        pooled.version = version;
+        pooled.generation = this.generation;
+        this.entities.add(pooled.entity);
+    }
+
+    /**
+     * Finishes filling the snapshot. Forgets the copies of entities which were not added in this fill.
+     */
+    public void finish() {
+        if(this.copies.size() > this.entities.size()) {
+            this.copies.values().removeIf(pooled -> pooled.generation != this.generation);
+        }
+    }
+
+    /**
+     * Returns the copies of the entities. Only valid until the snapshot is released.
+     * @return The copied entities.
+     */
+    public List<T> getEntities() {
+        return this.entities;
+    }
+
+    /**
+     * Marks the snapshot as in use if it is not in use already.
+     * @return Whether the snapshot was acquired.
+     */
+    boolean tryAcquire() {
+        return this.inUse.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the snapshot so it can be filled again.
+     * @threadsafe
+     */
+    public void release() {
+        this.inUse.set(false);
+    }
+
+    /**
+     * A reusable copy of an entity.
+     * @param <T> The type of the entity.
+     */
+    private static class PooledCopy<T> {
+        /** The copy. */
+        private T entity;
+
+        /** The fill in which the copy was last used. */
+        private long generation;
+
+        /** The version of the state of the entity the copy holds. */
+        private long version;
+
+        PooledCopy(T entity) {
+            this.entity = entity;
+            this.generation = 0;
+            this.version = UNKNOWN_VERSION;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.TickRateEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.ConflatingEventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.OverflowPolicy;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
+import org.inaetics.dronessimulator.gameengine.common.state.Drone;
+import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.common.state.SnapshotRing;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class TestGameConflatingEventRing {
+
+    private static ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring(int capacity, OverflowPolicy overflowPolicy) {
+        return new ConflatingEventRing<>(capacity, WaitStrategy.PARK, overflowPolicy, CurrentStateEvent.class, CurrentStateEvent::supersede);
+    }
+
+    private static CurrentStateEvent state(Integer... changedIds) {
+        return new CurrentStateEvent(Collections.emptyList(), changedIds.length > 0 ? new HashSet<>(Arrays.asList(changedIds)) : null);
+    }
+
+    @Test
+    public void testOnlyNewestStateInOrder() {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(16, OverflowPolicy.BLOCK);
+        TickRateEvent first = new TickRateEvent(100, 10);
+        TickRateEvent second = new TickRateEvent(50, 20);
+        CurrentStateEvent newest = state();
+
+        ring.offer(state());
+        ring.offer(first);
+        ring.offer(state());
+        ring.offer(second);
+        ring.offer(newest);
+
+        // The other events keep their order and the newest state its place after them
+        Assert.assertSame(first, ring.poll());
+        Assert.assertSame(second, ring.poll());
+        Assert.assertSame(newest, ring.poll());
+        Assert.assertNull(ring.poll());
+        Assert.assertEquals(2, ring.getConflated());
+
+        // Draining skips superseded states as well
+        List<GameEngineEvent> drained = new ArrayList<>();
+        ring.offer(state());
+        ring.offer(first);
+        ring.offer(newest);
+
+        Assert.assertEquals(2, ring.drainTo(drained, 10));
+        Assert.assertSame(first, drained.get(0));
+        Assert.assertSame(newest, drained.get(1));
+    }
+
+    @Test
+    public void testTakenStateIsNotSuperseded() throws InterruptedException {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(16, OverflowPolicy.BLOCK);
+        CurrentStateEvent taken = state();
+        CurrentStateEvent next = state();
+
+        ring.offer(taken);
+        Assert.assertSame(taken, ring.take());
+
+        ring.offer(next);
+        Assert.assertSame(next, ring.take());
+        Assert.assertEquals(0, ring.getConflated());
+    }
+
+    @Test
+    public void testSupersededChangesAreKept() {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(16, OverflowPolicy.BLOCK);
+
+        ring.offer(state(1, 2));
+        ring.offer(state(3));
+
+        CurrentStateEvent delta = (CurrentStateEvent) ring.poll();
+        Assert.assertFalse(delta.isKeyframe());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), delta.getChangedEntityIds());
+
+        // A superseded keyframe turns the newer delta into a keyframe
+        ring.offer(state());
+        ring.offer(state(4));
+
+        Assert.assertTrue(((CurrentStateEvent) ring.poll()).isKeyframe());
+    }
+
+    @Test
+    public void testSupersededSnapshotIsReleased() {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(16, OverflowPolicy.BLOCK);
+        SnapshotRing<GameEntity> snapshots = new SnapshotRing<>(1);
+        Drone drone = new Drone(1, "team", new D3Vector(), new D3Vector(), new D3Vector(), new D3PolarCoordinate(), new D3Vector());
+
+        StateSnapshot<GameEntity> snapshot = snapshots.acquire();
+        snapshot.begin();
+        snapshot.add(drone);
+        snapshot.finish();
+        ring.offer(new CurrentStateEvent(snapshot, null));
+
+        Assert.assertNull(snapshots.acquire());
+
+        ring.offer(state());
+
+        // Free again before the consumer got to it
+        Assert.assertSame(snapshot, snapshots.acquire());
+    }
+
+    @Test
+    public void testDroppedStateIsNotSkipped() {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(2, OverflowPolicy.DROP);
+        TickRateEvent event = new TickRateEvent(100, 10);
+        CurrentStateEvent keyframe = state();
+        CurrentStateEvent dropped = state(4);
+
+        ring.offer(event);
+        ring.offer(keyframe);
+        Assert.assertFalse(ring.offer(dropped));
+        Assert.assertEquals(1, ring.getDropped());
+        Assert.assertEquals(0, ring.getConflated());
+
+        // The dropped state did not supersede the waiting keyframe, nor take anything over from it
+        Assert.assertEquals(Collections.singleton(4), dropped.getChangedEntityIds());
+        Assert.assertSame(event, ring.poll());
+        Assert.assertSame(keyframe, ring.poll());
+        Assert.assertTrue(keyframe.isKeyframe());
+        Assert.assertNull(ring.poll());
+
+        CurrentStateEvent next = state();
+        ring.offer(next);
+        Assert.assertSame(next, ring.poll());
+    }
+
+    @Test
+    public void testDroppedStateKeepsConflatedState() {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(4, OverflowPolicy.DROP);
+        TickRateEvent first = new TickRateEvent(100, 10);
+        TickRateEvent second = new TickRateEvent(50, 20);
+        CurrentStateEvent conflated = state(1);
+
+        ring.offer(first);
+        ring.offer(state());
+        ring.offer(conflated);
+        ring.offer(second);
+        Assert.assertEquals(1, ring.getConflated());
+        Assert.assertFalse(ring.offer(state(2)));
+
+        // The waiting state absorbed the keyframe before it, which the dropped state does not take away
+        Assert.assertSame(first, ring.poll());
+        Assert.assertSame(conflated, ring.poll());
+        Assert.assertTrue(conflated.isKeyframe());
+        Assert.assertSame(second, ring.poll());
+        Assert.assertNull(ring.poll());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentConflation() throws InterruptedException {
+        ConflatingEventRing<GameEngineEvent, CurrentStateEvent> ring = ring(64, OverflowPolicy.BLOCK);
+        int rounds = 20_000;
+        CurrentStateEvent[] states = new CurrentStateEvent[rounds];
+        TickRateEvent[] events = new TickRateEvent[rounds];
+
+        for(int i = 0; i < rounds; i++) {
+            states[i] = state(i);
+            events[i] = new TickRateEvent(i, i);
+        }
+
+        Thread producer = new Thread(() -> {
+            for(int i = 0; i < rounds; i++) {
+                ring.offer(states[i]);
+                ring.offer(events[i]);
+            }
+        });
+        producer.start();
+
+        int nextEvent = 0;
+        int lastState = -1;
+        int statesTaken = 0;
+
+        while(nextEvent < rounds) {
+            GameEngineEvent taken = ring.take();
+
+            if(taken instanceof CurrentStateEvent) {
+                int state = nextEvent;
+
+                // States are newer than all events before them and older than all events after them
+                Assert.assertSame(states[state], taken);
+
+                // Carries the changes of all states it superseded
+                for(int i = lastState + 1; i <= state; i++) {
+                    Assert.assertTrue(((CurrentStateEvent) taken).getChangedEntityIds().contains(i));
+                }
+
+                lastState = state;
+                statesTaken++;
+            } else {
+                Assert.assertSame(events[nextEvent], taken);
+                nextEvent++;
+            }
+        }
+
+        producer.join();
+        Assert.assertEquals(rounds, statesTaken + ring.getConflated());
+    }
+}
@@ -0,0 +1,150 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.OverflowPolicy;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestGameEventRing {
+    @Test
+    public void testOrderAndCapacity() {
+        EventRing<Integer> ring = new EventRing<>(5, WaitStrategy.SPIN, OverflowPolicy.DROP);
+
+        // Rounded up to a power of two
+        Assert.assertEquals(8, ring.capacity());
+        Assert.assertTrue(ring.isEmpty());
+        Assert.assertNull(ring.poll());
+
+        // Wraps around the slots a few times
+        for(int round = 0; round < 3; round++) {
+            for(int i = 0; i < 6; i++) {
+                Assert.assertTrue(ring.offer(round * 10 + i));
+            }
+
+            Assert.assertEquals(6, ring.size());
+
+            for(int i = 0; i < 6; i++) {
+                Assert.assertEquals(Integer.valueOf(round * 10 + i), ring.poll());
+            }
+
+            Assert.assertNull(ring.poll());
+        }
+
+        Assert.assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    public void testDrainTo() {
+        EventRing<Integer> ring = new EventRing<>(8, WaitStrategy.SPIN, OverflowPolicy.DROP);
+        List<Integer> drained = new ArrayList<>();
+
+        for(int i = 0; i < 5; i++) {
+            ring.offer(i);
+        }
+
+        Assert.assertEquals(3, ring.drainTo(drained, 3));
+        Assert.assertEquals(Arrays.asList(0, 1, 2), drained);
+
+        Assert.assertEquals(2, ring.drainTo(drained, 10));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+        Assert.assertEquals(0, ring.drainTo(drained, 10));
+    }
+
+    @Test
+    public void testDropWhenFull() {
+        EventRing<Integer> ring = new EventRing<>(4, WaitStrategy.SPIN, OverflowPolicy.DROP);
+
+        for(int i = 0; i < 4; i++) {
+            Assert.assertTrue(ring.offer(i));
+        }
+
+        Assert.assertFalse(ring.offer(4));
+        Assert.assertFalse(ring.offer(5));
+        Assert.assertEquals(2, ring.getDropped());
+        Assert.assertEquals(4, ring.size());
+
+        // The events in the ring are untouched and a freed slot can be used again
+        Assert.assertEquals(Integer.valueOf(0), ring.poll());
+        Assert.assertTrue(ring.offer(6));
+        Assert.assertEquals(Integer.valueOf(1), ring.poll());
+        Assert.assertEquals(Integer.valueOf(2), ring.poll());
+        Assert.assertEquals(Integer.valueOf(3), ring.poll());
+        Assert.assertEquals(Integer.valueOf(6), ring.poll());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockWaitsForFreeSlot() throws InterruptedException {
+        EventRing<Integer> ring = new EventRing<>(2, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+        AtomicBoolean offered = new AtomicBoolean(false);
+
+        ring.offer(0);
+        ring.offer(1);
+
+        Thread producer = new Thread(() -> offered.set(ring.offer(2)));
+        producer.start();
+        producer.join(100);
+
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertEquals(Integer.valueOf(0), ring.take());
+
+        producer.join();
+        Assert.assertTrue(offered.get());
+        Assert.assertEquals(Integer.valueOf(1), ring.take());
+        Assert.assertEquals(Integer.valueOf(2), ring.take());
+        Assert.assertEquals(0, ring.getDropped());
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptedWhileWaiting() throws InterruptedException {
+        EventRing<Integer> ring = new EventRing<>(1, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+        AtomicBoolean consumerInterrupted = new AtomicBoolean(false);
+
+        Thread consumer = new Thread(() -> {
+            try {
+                ring.take();
+            } catch(InterruptedException e) {
+                consumerInterrupted.set(true);
+            }
+        });
+        consumer.start();
+        consumer.interrupt();
+        consumer.join();
+
+        Assert.assertTrue(consumerInterrupted.get());
+
+        // A blocked producer gives up and keeps the event
+        ring.offer(0);
+        Thread.currentThread().interrupt();
+        Assert.assertFalse(ring.offer(1));
+        Assert.assertTrue(Thread.interrupted());
+        Assert.assertEquals(1, ring.size());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentHandOverKeepsOrder() throws InterruptedException {
+        for(WaitStrategy waitStrategy : WaitStrategy.values()) {
+            EventRing<Integer> ring = new EventRing<>(256, waitStrategy, OverflowPolicy.BLOCK);
+            int events = 50_000;
+
+            Thread producer = new Thread(() -> {
+                for(int i = 0; i < events; i++) {
+                    ring.offer(i);
+                }
+            });
+            producer.start();
+
+            for(int i = 0; i < events; i++) {
+                Assert.assertEquals(waitStrategy.name(), Integer.valueOf(i), ring.take());
+            }
+
+            producer.join();
+            Assert.assertTrue(ring.isEmpty());
+        }
+    }
+}
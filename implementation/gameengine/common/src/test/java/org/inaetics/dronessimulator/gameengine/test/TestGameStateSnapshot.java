@@ -0,0 +1,137 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.state.Drone;
+import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.common.state.SnapshotRing;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGameStateSnapshot {
+
+    private static Drone drone(int id, String teamname, double x) {
+        return new Drone(id, teamname, new D3Vector(x, 0, 0), new D3Vector(), new D3Vector(), new D3PolarCoordinate(),
+                new D3Vector());
+    }
+
+    @Test
+    public void testCopiesAreReused() {
+        StateSnapshot<GameEntity> snapshot = new StateSnapshot<>();
+        Drone drone = drone(1, "team", 1);
+
+        snapshot.begin();
+        snapshot.add(drone);
+        snapshot.finish();
+        GameEntity copy = snapshot.getEntities().get(0);
+
+        Assert.assertNotSame(drone, copy);
+
+        drone.setPosition(new D3Vector(2, 0, 0));
+        drone.damage(10);
+
+        snapshot.begin();
+        snapshot.add(drone);
+        snapshot.finish();
+
+        Assert.assertEquals(1, snapshot.getEntities().size());
+        Assert.assertSame(copy, snapshot.getEntities().get(0));
+        Assert.assertEquals(new D3Vector(2, 0, 0), copy.getPosition());
+        Assert.assertEquals(Drone.DRONE_MAX_HEALTH - 10, ((Drone) copy).getHp());
+    }
+
+    @Test
+    public void testSameVersionIsNotCopiedAgain() {
+        StateSnapshot<GameEntity> snapshot = new StateSnapshot<>();
+        Drone drone = drone(1, "team", 1);
+
+        snapshot.begin();
+        snapshot.add(drone, 0);
+        snapshot.finish();
+        GameEntity copy = snapshot.getEntities().get(0);
+
+        // Changed without a new version, so the copy keeps the version it holds
+        drone.setPosition(new D3Vector(2, 0, 0));
+        snapshot.begin();
+        snapshot.add(drone, 0);
+        snapshot.finish();
+
+        Assert.assertSame(copy, snapshot.getEntities().get(0));
+        Assert.assertEquals(new D3Vector(1, 0, 0), copy.getPosition());
+
+        snapshot.begin();
+        snapshot.add(drone, 1);
+        snapshot.finish();
+
+        Assert.assertSame(copy, snapshot.getEntities().get(0));
+        Assert.assertEquals(new D3Vector(2, 0, 0), copy.getPosition());
+
+        // Without a version the copy is always refreshed
+        drone.setPosition(new D3Vector(3, 0, 0));
+        snapshot.begin();
+        snapshot.add(drone);
+        snapshot.finish();
+
+        Assert.assertEquals(new D3Vector(3, 0, 0), copy.getPosition());
+    }
+
+    @Test
+    public void testIncompatibleEntityIsCopiedAgain() {
+        StateSnapshot<GameEntity> snapshot = new StateSnapshot<>();
+
+        snapshot.begin();
+        snapshot.add(drone(1, "team1", 1));
+        snapshot.finish();
+        GameEntity copy = snapshot.getEntities().get(0);
+
+        snapshot.begin();
+        snapshot.add(drone(1, "team2", 1));
+        snapshot.finish();
+
+        Assert.assertNotSame(copy, snapshot.getEntities().get(0));
+        Assert.assertEquals("team2", ((Drone) snapshot.getEntities().get(0)).getTeamname());
+    }
+
+    @Test
+    public void testRemovedEntitiesAreForgotten() {
+        StateSnapshot<GameEntity> snapshot = new StateSnapshot<>();
+        Drone drone1 = drone(1, "team", 1);
+        Drone drone2 = drone(2, "team", 2);
+
+        snapshot.begin();
+        snapshot.add(drone1);
+        snapshot.add(drone2);
+        snapshot.finish();
+
+        snapshot.begin();
+        snapshot.add(drone2);
+        snapshot.finish();
+
+        Assert.assertEquals(1, snapshot.getEntities().size());
+        Assert.assertEquals(2, snapshot.getEntities().get(0).getEntityId());
+    }
+
+    @Test
+    public void testRingHandsOutFreeSnapshots() {
+        SnapshotRing<GameEntity> ring = new SnapshotRing<>(2);
+
+        StateSnapshot<GameEntity> first = ring.acquire();
+        StateSnapshot<GameEntity> second = ring.acquire();
+
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        Assert.assertNotSame(first, second);
+        Assert.assertNull(ring.acquire());
+
+        first.release();
+
+        Assert.assertSame(first, ring.acquire());
+        Assert.assertNull(ring.acquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRing() {
+        new SnapshotRing<GameEntity>(0);
+    }
+}
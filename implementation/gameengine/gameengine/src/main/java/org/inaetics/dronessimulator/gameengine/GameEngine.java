@@ -118,6 +118,12 @@ public class GameEngine {
         this.m_subscriber.addHandler(TargetMoveLocationMessage.class, (message) -> m_physicsEngineDriver.changeTargetLocationEntity((
                 (TargetMoveLocationMessage) message).getIdentifier(), ((TargetMoveLocationMessage) message).getTargetLocation().orElse(null)));
         this.m_subscriber.addHandler(StateMessage.class, this.stateMessageHandler);
+        // The game engine sends the tick rate itself, the drones follow it
+        this.m_subscriber.addHandler(TickRateMessage.class, (message) -> {});
+        this.m_subscriber.addHandler(SimulationTickMessage.class, (message) -> {});
+        // The drones acknowledge the ticks of a simulation at maximum speed after sending their commands for them
+        this.m_subscriber.addHandler(TickAcknowledgeMessage.class, (message) -> m_physicsEngineDriver.acknowledgeTick(
+                ((TickAcknowledgeMessage) message).getIdentifier(), ((TickAcknowledgeMessage) message).getSimulationTime()));
 
         // Setup discoverer
         discoveryInstance = new GameEngineInstance();
@@ -0,0 +1,125 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
+import org.inaetics.dronessimulator.gameengine.common.state.Drone;
+import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.KillOutOfBounds;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.RemoveStaleStateData;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.deathmatch.KillEntitiesRule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class IntervalRuleSchedulerTest {
+    /**
+     * Rule which records the events it receives.
+     */
+    private static class RecordingRule extends Rule {
+        private final List<GameEngineEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void configRule() {
+            // Nothing to config
+        }
+
+        @Override
+        public List<GameEngineEvent> process(GameEngineEvent msg) {
+            this.received.add(msg);
+
+            return Collections.singletonList(msg);
+        }
+    }
+
+    private static Drone drone(int id, D3Vector position) {
+        return new Drone(id, "team", position, new D3Vector(), new D3Vector(), new D3PolarCoordinate(), new D3Vector());
+    }
+
+    private static void awaitRuns(IntervalRuleScheduler scheduler, long runs) throws InterruptedException {
+        while(scheduler.getMetrics().getRunCount() < runs) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testRunsWithoutEvents() throws InterruptedException {
+        RecordingRule rule = new RecordingRule();
+        IntervalRuleScheduler scheduler = new IntervalRuleScheduler(Collections.singletonList(rule), 5, 0);
+
+        scheduler.start();
+        awaitRuns(scheduler, 3);
+        scheduler.interrupt();
+        scheduler.join();
+
+        // Without a state the rules are not run, but the runs are still on time
+        IntervalRuleMetrics metrics = scheduler.getMetrics();
+        Assert.assertTrue(rule.received.isEmpty());
+        Assert.assertEquals(metrics.getRunCount(), metrics.getWithoutStateCount());
+        Assert.assertEquals(metrics.getRunCount(), metrics.getLateness().getCount());
+    }
+
+    @Test(timeout = 30000)
+    public void testRunsOnCopyOfLatestState() throws InterruptedException {
+        RecordingRule rule = new RecordingRule();
+        IntervalRuleScheduler scheduler = new IntervalRuleScheduler(Collections.singletonList(rule), 5, 0);
+        Drone drone = new Drone(1, "team", new D3Vector(), new D3Vector(), new D3Vector(), new D3PolarCoordinate(), new D3Vector());
+        List<GameEntity> state = new ArrayList<>(Collections.singletonList(drone));
+
+        scheduler.offerState(new CurrentStateEvent(state));
+        scheduler.start();
+        awaitRuns(scheduler, 3);
+
+        // The state changes after it was offered, which the copy does not see
+        drone.damage(drone.getHp());
+        state.clear();
+        awaitRuns(scheduler, 5);
+        scheduler.interrupt();
+        scheduler.join();
+
+        Assert.assertTrue(rule.received.size() >= 5);
+
+        for(GameEngineEvent event : new ArrayList<>(rule.received)) {
+            CurrentStateEvent received = (CurrentStateEvent) event;
+
+            Assert.assertEquals(1, received.getCurrentState().size());
+            Assert.assertNotSame(drone, received.getCurrentState().get(0));
+            Assert.assertEquals(1, received.getCurrentState().get(0).getEntityId());
+            Assert.assertTrue(((Drone) received.getCurrentState().get(0)).getHp() > 0);
+
+            // Already broadcast when the state arrived, so not sent again
+            Assert.assertTrue(received.getProtocolMessage(null).isEmpty());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testRunsOnStateAfterGameLogic() throws InterruptedException {
+        RecordingRule rule = new RecordingRule();
+        IntervalRuleScheduler scheduler = new IntervalRuleScheduler(Collections.singletonList(rule), 5, 0);
+        List<Rule> gameLogic = Arrays.asList(new KillOutOfBounds(true), new KillEntitiesRule(), new RemoveStaleStateData());
+        RulePipeline pipeline = new RulePipeline(Collections.singletonList(gameLogic), 4, WaitStrategy.PARK);
+
+        // Drone 1 leaves the arena in the first state of the batch, so it is killed before the second state
+        List<GameEngineEvent> batch = Arrays.asList(
+                new CurrentStateEvent(new ArrayList<>(Arrays.asList(drone(1, new D3Vector(-1, 10, 10)), drone(2, new D3Vector(10, 10, 10))))),
+                new CurrentStateEvent(new ArrayList<>(Arrays.asList(drone(1, new D3Vector(-2, 10, 10)), drone(2, new D3Vector(11, 10, 10))))));
+
+        pipeline.start();
+        pipeline.process(batch, scheduler::offerLatestState);
+        scheduler.start();
+        awaitRuns(scheduler, 1);
+        scheduler.interrupt();
+        scheduler.join();
+
+        List<GameEntity> received = ((CurrentStateEvent) rule.received.get(0)).getCurrentState();
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(2, received.get(0).getEntityId());
+    }
+}
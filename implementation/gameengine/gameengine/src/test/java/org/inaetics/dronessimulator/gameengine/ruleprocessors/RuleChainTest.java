@@ -0,0 +1,111 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import org.inaetics.dronessimulator.gameengine.common.gameevent.DestroyBulletEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.DestroyEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.TickRateEvent;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class RuleChainTest {
+    /**
+     * Rule which records the events it receives, drops tick rate events with an even step rate and passes the other
+     * events twice.
+     */
+    private static class RecordingRule extends Rule {
+        private final Set<Class<? extends GameEngineEvent>> eventTypes;
+        private final List<GameEngineEvent> received = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+
+        @SafeVarargs
+        RecordingRule(Class<? extends GameEngineEvent>... eventTypes) {
+            this.eventTypes = eventTypes.length > 0 ? eventTypes(eventTypes) : super.getEventTypes();
+        }
+
+        @Override
+        public void configRule() {
+            // Nothing to config
+        }
+
+        @Override
+        public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+            return this.eventTypes;
+        }
+
+        @Override
+        public List<GameEngineEvent> process(GameEngineEvent msg) {
+            this.received.add(msg);
+
+            if(msg instanceof TickRateEvent && ((TickRateEvent) msg).getStepRate() % 2 == 0) {
+                return Collections.emptyList();
+            }
+
+            return Arrays.asList(msg, msg);
+        }
+
+        @Override
+        public void process(List<GameEngineEvent> events, List<GameEngineEvent> results) {
+            this.batchSizes.add(events.size());
+            super.process(events, results);
+        }
+    }
+
+    @Test
+    public void testBatchGoesThroughEachRuleOnce() {
+        RecordingRule first = new RecordingRule();
+        RecordingRule second = new RecordingRule();
+        RecordingRule third = new RecordingRule();
+        TickRateEvent odd1 = new TickRateEvent(1, 0);
+        TickRateEvent even = new TickRateEvent(2, 0);
+        TickRateEvent odd2 = new TickRateEvent(3, 0);
+
+        new RuleChain(Arrays.asList(first, second, third)).process(Arrays.asList(odd1, even, odd2));
+
+        Assert.assertEquals(Collections.singletonList(3), first.batchSizes);
+        Assert.assertEquals(Collections.singletonList(4), second.batchSizes);
+        Assert.assertEquals(Collections.singletonList(8), third.batchSizes);
+
+        // Each rule gets the result of the previous rule for the whole batch, in order
+        Assert.assertEquals(Arrays.asList(odd1, even, odd2), first.received);
+        Assert.assertEquals(Arrays.asList(odd1, odd1, odd2, odd2), second.received);
+        Assert.assertSame(odd1, third.received.get(3));
+        Assert.assertSame(odd2, third.received.get(4));
+    }
+
+    @Test
+    public void testOnlyDeclaredTypesAreDispatched() {
+        RecordingRule destroys = new RecordingRule(DestroyEvent.class);
+        RecordingRule bullets = new RecordingRule(DestroyBulletEvent.class);
+        RecordingRule all = new RecordingRule();
+        TickRateEvent tick1 = new TickRateEvent(1, 0);
+        TickRateEvent tick2 = new TickRateEvent(3, 0);
+        DestroyBulletEvent destroy1 = new DestroyBulletEvent(1);
+        DestroyBulletEvent destroy2 = new DestroyBulletEvent(2);
+        RuleChain chain = new RuleChain(Arrays.asList(bullets, destroys, all));
+
+        chain.process(Arrays.asList(tick1, tick2));
+
+        // Neither rule processes tick rate events, so they are not even called
+        Assert.assertTrue(bullets.batchSizes.isEmpty());
+        Assert.assertTrue(destroys.batchSizes.isEmpty());
+        Assert.assertEquals(Arrays.asList(tick1, tick2), all.received);
+
+        all.received.clear();
+        chain.process(Arrays.asList(tick1, destroy1, destroy2, tick2));
+
+        // Subtypes of the declared types are processed as well, consecutive events in a single call
+        Assert.assertEquals(Collections.singletonList(2), bullets.batchSizes);
+        Assert.assertEquals(Collections.singletonList(4), destroys.batchSizes);
+        Assert.assertEquals(Arrays.asList(destroy1, destroy1, destroy2, destroy2), destroys.received);
+
+        // The other events keep their place between the results
+        Assert.assertEquals(Arrays.asList(tick1, destroy1, destroy1, destroy1, destroy1, destroy2, destroy2, destroy2, destroy2, tick2), all.received);
+    }
+}
@@ -0,0 +1,112 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.TickRateEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RulePipelineTest {
+    /**
+     * Event which counts how often it is released.
+     */
+    private static class CountingEvent extends TickRateEvent {
+        private final AtomicInteger released = new AtomicInteger();
+
+        CountingEvent(int number) {
+            super(number, 0);
+        }
+
+        @Override
+        public void release() {
+            this.released.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rule which records the events it receives and the threads it runs on, and passes the events on.
+     */
+    private static class RecordingRule extends Rule {
+        private final List<GameEngineEvent> received = Collections.synchronizedList(new ArrayList<>());
+        private final CopyOnWriteArraySet<Thread> threads = new CopyOnWriteArraySet<>();
+
+        @Override
+        public void configRule() {
+            // Nothing to config
+        }
+
+        @Override
+        public List<GameEngineEvent> process(GameEngineEvent msg) {
+            this.received.add(msg);
+            this.threads.add(Thread.currentThread());
+
+            return Collections.singletonList(msg);
+        }
+    }
+
+    @Test
+    public void testSingleStageRunsOnCaller() {
+        RecordingRule rule = new RecordingRule();
+        RulePipeline pipeline = new RulePipeline(Collections.singletonList(Collections.singletonList(rule)), 4, WaitStrategy.PARK);
+        CountingEvent event = new CountingEvent(1);
+
+        pipeline.start();
+        pipeline.process(Collections.singletonList(event));
+
+        Assert.assertEquals(1, pipeline.getStageCount());
+        Assert.assertEquals(Collections.singletonList(event), rule.received);
+        Assert.assertEquals(Collections.singleton(Thread.currentThread()), rule.threads);
+        Assert.assertEquals(1, event.released.get());
+    }
+
+    @Test(timeout = 30000)
+    public void testStagesKeepOrder() throws InterruptedException {
+        RecordingRule logic = new RecordingRule();
+        RecordingRule send = new RecordingRule();
+        RulePipeline pipeline = new RulePipeline(Arrays.asList(Collections.singletonList(logic), Collections.singletonList(send)), 4, WaitStrategy.PARK);
+        int batches = 2_000;
+        List<CountingEvent> events = new ArrayList<>();
+        List<GameEngineEvent> batch = new ArrayList<>();
+
+        pipeline.start();
+
+        for(int i = 0; i < batches; i++) {
+            for(int j = 0; j < 3; j++) {
+                CountingEvent event = new CountingEvent(i * 3 + j);
+
+                events.add(event);
+                batch.add(event);
+            }
+
+            pipeline.process(batch);
+            batch.clear();
+        }
+
+        // Released only once the last stage is done with it
+        CountingEvent last = events.get(events.size() - 1);
+        while(last.released.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        pipeline.quit();
+
+        Assert.assertEquals(2, pipeline.getStageCount());
+        Assert.assertEquals(Collections.singleton(Thread.currentThread()), logic.threads);
+        Assert.assertFalse(send.threads.contains(Thread.currentThread()));
+        Assert.assertEquals(events.size(), send.received.size());
+
+        for(int i = 0; i < events.size(); i++) {
+            Assert.assertSame(events.get(i), logic.received.get(i));
+            Assert.assertSame(events.get(i), send.received.get(i));
+            Assert.assertEquals(1, events.get(i).released.get());
+        }
+    }
+}
@@ -4,12 +4,12 @@ import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
 import org.inaetics.dronessimulator.gameengine.physicsenginedriver.IPhysicsEngineDriver;
 
 import java.util.Optional;
-import java.util.concurrent.LinkedBlockingQueue;
 
 @Getter
 public class MockPhysicsEngineDriver implements IPhysicsEngineDriver{
@@ -31,7 +31,7 @@ public class MockPhysicsEngineDriver implements IPhysicsEngineDriver{
     }
 
     @Override
-    public LinkedBlockingQueue<GameEngineEvent> getOutgoingQueue() {
+    public EventRing<GameEngineEvent> getOutgoingQueue() {
         return null;
     }
 
@@ -144,6 +144,11 @@ public class MockPhysicsEngineDriver implements IPhysicsEngineDriver{
         }
     }
 
+    @Override
+    public void acknowledgeTick(String protocolId, long simulationTime) {
+
+    }
+
     @Override
     public void startEngine() {
 
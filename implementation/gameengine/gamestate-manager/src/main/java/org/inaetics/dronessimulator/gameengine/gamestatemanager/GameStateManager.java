@@ -8,6 +8,7 @@ import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.common.protocol.EntityType;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -57,6 +58,11 @@ public class GameStateManager implements IGameStateManager {
         return this.state.get(id);
     }
 
+    @Override
+    public Collection<GameEntity> getAll() {
+        return this.state.values();
+    }
+
     /**
      * Gets the state of all entities with the given protocol type.
      * @param type The type to get the entity states for.
@@ -2,6 +2,8 @@ package org.inaetics.dronessimulator.gameengine.gamestatemanager;
 
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 
+import java.util.Collection;
+
 /**
  * Interface for game state managers.
  */
@@ -24,4 +26,10 @@ public interface IGameStateManager {
      * @param entityId The entity id to remove.
      */
     void removeState(Integer entityId);
+
+    /**
+     * Gets the game entity states of all entities.
+     * @return All game entity states.
+     */
+    Collection<GameEntity> getAll();
 }
@@ -0,0 +1,83 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+/**
+ * Steers a drone towards its target location by choosing its acceleration every step. The drone flies towards the
+ * target at the highest speed from which it can still brake in time (arrival damping) and holds still once it is within
+ * the arrival radius. The acceleration and the steered velocity never exceed the configured maxima.
+ * This class is threadsafe.
+ */
+public class Autopilot {
+    /** Speed in m/s below which a drone within the arrival radius counts as held still. */
+    private static final double STILL_SPEED = 1e-9;
+
+    /** The maximal acceleration of a drone in m/s^2. 0 or less if the acceleration is not limited. */
+    private final double maxAcceleration;
+
+    /** The maximal velocity of a drone in m/s. */
+    private final double maxVelocity;
+
+    /** The distance to the target in m within which a drone is held still. */
+    private final double arrivalRadius;
+
+    /**
+     * Creates an autopilot using the maxima and arrival radius configured in the settings.
+     */
+    public Autopilot() {
+        this(Settings.MAX_DRONE_ACCELERATION, Settings.MAX_DRONE_VELOCITY, Settings.PHYSICS_AUTOPILOT_ARRIVAL_RADIUS);
+    }
+
+    /**
+     * Creates an autopilot.
+     * @param maxAcceleration The maximal acceleration of a drone in m/s^2. 0 or less does not limit the acceleration.
+     * @param maxVelocity The maximal velocity of a drone in m/s.
+     * @param arrivalRadius The distance to the target in m within which a drone is held still.
+     */
+    public Autopilot(double maxAcceleration, double maxVelocity, double arrivalRadius) {
+        this.maxAcceleration = maxAcceleration;
+        this.maxVelocity = maxVelocity;
+        this.arrivalRadius = Math.max(0, arrivalRadius);
+    }
+
+    /**
+     * Calculates the acceleration which steers a drone towards the target during the next time step.
+     * @param position The current position of the drone.
+     * @param velocity The current velocity of the drone.
+     * @param target The target location of the drone.
+     * @param timestep_s The length of the next time step in seconds.
+     * @return The acceleration of the drone during the next time step.
+     */
+    public D3Vector steer(D3Vector position, D3Vector velocity, D3Vector target, double timestep_s) {
+        if(timestep_s <= 0) {
+            return new D3Vector();
+        }
+
+        D3Vector offset = target.sub(position);
+        double distance = offset.length();
+        D3Vector desiredVelocity;
+
+        if(distance <= this.arrivalRadius) {
+            if(velocity.length() <= STILL_SPEED) {
+                return new D3Vector();
+            }
+
+            desiredVelocity = new D3Vector();
+        } else {
+            // Fly no faster than what can be braked over the remaining distance and do not overshoot in one step
+            double brakingSpeed = this.maxAcceleration > 0 ? Math.sqrt(2 * this.maxAcceleration * distance) : Double.MAX_VALUE;
+            double desiredSpeed = Math.min(Math.min(this.maxVelocity, brakingSpeed), distance / timestep_s);
+
+            desiredVelocity = offset.scale(desiredSpeed / distance);
+        }
+
+        D3Vector acceleration = desiredVelocity.sub(velocity).scale(1 / timestep_s);
+
+        if(this.maxAcceleration > 0 && acceleration.length() > this.maxAcceleration) {
+            acceleration = acceleration.scale(this.maxAcceleration / acceleration.length());
+        }
+
+        return acceleration;
+    }
+}
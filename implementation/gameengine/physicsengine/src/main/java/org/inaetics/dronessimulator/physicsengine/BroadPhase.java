@@ -0,0 +1,41 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+/**
+ * Interface for a collision broadphase. A broadphase cheaply finds the pairs of entities which may be colliding, so
+ * the physics engine only has to test those pairs for an actual collision.
+ */
+public interface BroadPhase {
+    /**
+     * Finds the candidate pairs of the entities at their current position. Every pair of colliding entities must be
+     * reported and every pair may be reported at most once. Pairs which do not collide may be reported as well.
+     * Called once every tick, so implementations may keep state between calls.
+     * @param store The store containing all entities in the world.
+     * @param handler The handler to call with the slots of every candidate pair.
+     */
+    void findCandidatePairs(EntityStore store, CandidatePairHandler handler);
+
+    /**
+     * Forgets all entities and any state kept between calls.
+     */
+    void clear();
+
+    /**
+     * Shuts down the threads the broadphase uses, if any. The broadphase cannot find pairs anymore afterwards.
+     */
+    default void shutdown() {
+        // No threads to shut down by default
+    }
+
+    /**
+     * Handler for the candidate pairs found by a broadphase.
+     */
+    @FunctionalInterface
+    interface CandidatePairHandler {
+        /**
+         * Handles a candidate pair.
+         * @param slot1 The slot of the first entity of the pair.
+         * @param slot2 The slot of the second entity of the pair.
+         */
+        void candidatePair(int slot1, int slot2);
+    }
+}
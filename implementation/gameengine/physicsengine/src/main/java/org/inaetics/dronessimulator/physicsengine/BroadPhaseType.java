@@ -0,0 +1,92 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+
+/**
+ * The available broadphases for the physics engine.
+ */
+public enum BroadPhaseType {
+    /** Tests every pair of entities. */
+    BRUTE_FORCE,
+
+    /** Uniform grid spatial hash. Works well for evenly sized entities. */
+    SPATIAL_HASH,
+
+    /** Sort and sweep along the longest axis of the arena. Works well for clustered entities. */
+    SWEEP_AND_PRUNE,
+
+    /** Splits the arena along its longest axis into shards which are swept in parallel. Works well for large worlds. */
+    SHARDED;
+
+    /**
+     * Creates a new broadphase of this type, configured with the current settings.
+     * @return The new broadphase.
+     */
+    public BroadPhase create() {
+        switch(this) {
+            case BRUTE_FORCE:
+                return new BruteForceBroadPhase();
+            case SWEEP_AND_PRUNE:
+                return new SweepAndPruneBroadPhase(longestArenaAxis());
+            case SHARDED:
+                return new ShardedBroadPhase(Settings.PHYSICS_SHARDS, longestArenaAxis(), secondLongestArenaAxis(), 0, arenaLength(longestArenaAxis()));
+            default:
+                return new SpatialHashBroadPhase(Settings.PHYSICS_CELL_SIZE);
+        }
+    }
+
+    /**
+     * Returns the broadphase type which is configured in the settings.
+     * @return The configured broadphase type.
+     */
+    public static BroadPhaseType fromSettings() {
+        return BroadPhaseType.valueOf(Settings.PHYSICS_BROADPHASE);
+    }
+
+    /**
+     * Determines the axis along which the arena is the longest.
+     * @return The longest axis of the arena.
+     */
+    private static SweepAndPruneBroadPhase.Axis longestArenaAxis() {
+        if(Settings.ARENA_WIDTH >= Settings.ARENA_DEPTH && Settings.ARENA_WIDTH >= Settings.ARENA_HEIGHT) {
+            return SweepAndPruneBroadPhase.Axis.X;
+        } else if(Settings.ARENA_DEPTH >= Settings.ARENA_HEIGHT) {
+            return SweepAndPruneBroadPhase.Axis.Y;
+        } else {
+            return SweepAndPruneBroadPhase.Axis.Z;
+        }
+    }
+
+    /**
+     * Determines the axis along which the arena is the longest, apart from the longest axis.
+     * @return The second longest axis of the arena.
+     */
+    private static SweepAndPruneBroadPhase.Axis secondLongestArenaAxis() {
+        SweepAndPruneBroadPhase.Axis longest = longestArenaAxis();
+        SweepAndPruneBroadPhase.Axis result = null;
+
+        for(SweepAndPruneBroadPhase.Axis axis : SweepAndPruneBroadPhase.Axis.values()) {
+            if(axis != longest && (result == null || arenaLength(axis) > arenaLength(result))) {
+                result = axis;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the length of the arena along the given axis.
+     * @param axis The axis.
+     * @return The length of the arena in meters.
+     */
+    private static double arenaLength(SweepAndPruneBroadPhase.Axis axis) {
+        switch(axis) {
+            case X:
+                return Settings.ARENA_WIDTH;
+            case Y:
+                return Settings.ARENA_DEPTH;
+            default:
+                return Settings.ARENA_HEIGHT;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+/**
+ * Broadphase which reports every pair of entities as candidate. Only useful for small worlds and as baseline to compare
+ * other broadphases against.
+ */
+public class BruteForceBroadPhase implements BroadPhase {
+    @Override
+    public void findCandidatePairs(EntityStore store, CandidatePairHandler handler) {
+        int size = store.size();
+
+        for(int i = 0; i < size; i++) {
+            for(int j = i + 1; j < size; j++) {
+                handler.candidatePair(i, j);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        // Nothing is kept between calls
+    }
+}
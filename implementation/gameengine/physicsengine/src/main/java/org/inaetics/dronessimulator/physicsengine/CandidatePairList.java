@@ -0,0 +1,107 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Arrays;
+
+/**
+ * List of candidate pairs found by a broadphase, together with the result of testing them for a collision. Keeps the
+ * order in which the pairs were added. Testing different ranges of the list may be done from different threads.
+ */
+public class CandidatePairList {
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** The slot of the first entity of each pair. */
+    private int[] slots1;
+
+    /** The slot of the second entity of each pair. */
+    private int[] slots2;
+
+    /** Whether each pair is colliding. Only valid after the pair is tested. */
+    private boolean[] colliding;
+
+    /** The number of pairs in the list. */
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public CandidatePairList() {
+        this.slots1 = new int[INITIAL_CAPACITY];
+        this.slots2 = new int[INITIAL_CAPACITY];
+        this.colliding = new boolean[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Appends a pair to the list.
+     * @param slot1 The slot of the first entity of the pair.
+     * @param slot2 The slot of the second entity of the pair.
+     */
+    public void add(int slot1, int slot2) {
+        if(this.size == this.slots1.length) {
+            int newCapacity = this.size * 2;
+
+            this.slots1 = Arrays.copyOf(this.slots1, newCapacity);
+            this.slots2 = Arrays.copyOf(this.slots2, newCapacity);
+            this.colliding = Arrays.copyOf(this.colliding, newCapacity);
+        }
+
+        this.slots1[this.size] = slot1;
+        this.slots2[this.size] = slot2;
+        this.size++;
+    }
+
+    /**
+     * Tests the pairs in the given range for a collision.
+     * @param store The store containing the entities.
+     * @param from The first pair to test (inclusive).
+     * @param to The last pair to test (exclusive).
+     */
+    public void test(EntityStore store, int from, int to) {
+        for(int i = from; i < to; i++) {
+            this.colliding[i] = store.collides(this.slots1[i], this.slots2[i]);
+        }
+    }
+
+    /**
+     * Returns the number of pairs in the list.
+     * @return The number of pairs.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the slot of the first entity of the given pair.
+     * @param index The index of the pair.
+     * @return The slot of the first entity.
+     */
+    public int getSlot1(int index) {
+        return this.slots1[index];
+    }
+
+    /**
+     * Returns the slot of the second entity of the given pair.
+     * @param index The index of the pair.
+     * @return The slot of the second entity.
+     */
+    public int getSlot2(int index) {
+        return this.slots2[index];
+    }
+
+    /**
+     * Returns whether the given pair was colliding when it was tested.
+     * @param index The index of the pair.
+     * @return Whether the pair is colliding.
+     */
+    public boolean isColliding(int index) {
+        return this.colliding[index];
+    }
+
+    /**
+     * Removes all pairs from the list.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+}
@@ -0,0 +1,176 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Arrays;
+
+/**
+ * Set of colliding pairs of entities. A pair is packed into a single long holding the lowest id in the upper and the
+ * highest id in the lower 32 bits, so the order of the ids does not matter. The pairs are kept in an open addressing
+ * hash table with linear probing, which does not box or allocate anything per pair. The pairs are also kept in the
+ * order they were added, which is the order used when iterating over the set.
+ * This class is not threadsafe.
+ */
+public class CollisionPairSet {
+    /** Marks an empty bucket of the table. Never a valid pair as a pair consists of two different ids. */
+    private static final long EMPTY = 0L;
+
+    /** Initial capacity of the set. Must be a power of 2. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The hash table of pairs. */
+    private long[] table;
+
+    /** The pairs in the order they were added. */
+    private long[] pairs;
+
+    /** The number of pairs in the set. */
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public CollisionPairSet() {
+        this.table = new long[INITIAL_CAPACITY * 2];
+        this.pairs = new long[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Packs the pair of entity ids into a single long. The order of the ids does not matter.
+     * @param entityId1 The id of one of the entities.
+     * @param entityId2 The id of the other entity. Must be different from the first id.
+     * @return The packed pair.
+     */
+    public static long pack(int entityId1, int entityId2) {
+        int min = Math.min(entityId1, entityId2);
+        int max = Math.max(entityId1, entityId2);
+
+        return ((long) min << 32) | (max & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the lowest entity id of the packed pair.
+     * @param pair The packed pair.
+     * @return The lowest id of the pair.
+     */
+    public static int getFirstId(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * Returns the highest entity id of the packed pair.
+     * @param pair The packed pair.
+     * @return The highest id of the pair.
+     */
+    public static int getSecondId(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Adds the pair to the set.
+     * @param pair The packed pair to add.
+     * @return Whether the pair was added, false if it was already present.
+     */
+    public boolean add(long pair) {
+        if(this.contains(pair)) {
+            return false;
+        }
+
+        if(this.size == this.pairs.length) {
+            this.grow();
+        }
+
+        this.insert(pair, this.table.length - 1);
+        this.pairs[this.size] = pair;
+        this.size++;
+
+        return true;
+    }
+
+    /**
+     * Returns whether the pair is in the set.
+     * @param pair The packed pair.
+     * @return Whether the pair is present.
+     */
+    public boolean contains(long pair) {
+        int mask = this.table.length - 1;
+        int index = hash(pair) & mask;
+
+        while(this.table[index] != EMPTY) {
+            if(this.table[index] == pair) {
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of pairs in the set.
+     * @return The number of pairs.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the pair which was added at the given position.
+     * @param index The position of the pair, from 0 to size() - 1.
+     * @return The packed pair.
+     */
+    public long get(int index) {
+        return this.pairs[index];
+    }
+
+    /**
+     * Removes all pairs from the set.
+     */
+    public void clear() {
+        if(this.size > 0) {
+            Arrays.fill(this.table, EMPTY);
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the set and rehashes all pairs.
+     */
+    private void grow() {
+        int capacity = this.pairs.length * 2;
+        this.pairs = Arrays.copyOf(this.pairs, capacity);
+        this.table = new long[capacity * 2];
+
+        int mask = this.table.length - 1;
+
+        for(int i = 0; i < this.size; i++) {
+            this.insert(this.pairs[i], mask);
+        }
+    }
+
+    /**
+     * Inserts the pair into the table, which is known not to contain it.
+     * @param pair The packed pair.
+     * @param mask The mask to compute the index in the table with.
+     */
+    private void insert(long pair, int mask) {
+        int index = hash(pair) & mask;
+
+        while(this.table[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+
+        this.table[index] = pair;
+    }
+
+    /**
+     * Spreads the bits of the packed pair, so consecutive ids do not end up in consecutive buckets.
+     * @param pair The packed pair.
+     * @return The hash of the pair.
+     */
+    private static int hash(long pair) {
+        long h = pair * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+}
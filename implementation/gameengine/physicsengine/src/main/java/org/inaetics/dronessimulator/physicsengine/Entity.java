@@ -233,4 +233,23 @@ public class Entity extends GameEntity {
 
 
     }
+
+    /**
+     * An entity which only lives until it has travelled a maximal distance, such as a bullet.
+     */
+    public static class BulletEntity extends Entity {
+        /** The position at which the entity was created. */
+        @Getter
+        private final D3Vector origin;
+
+        /** The maximal distance in m the entity may be from its origin. 0 or less if the range is unlimited. */
+        @Getter
+        private final double maxRange;
+
+        public BulletEntity(int id, Size size, D3Vector position, D3Vector velocity, D3Vector acceleration, D3PolarCoordinate direction, double maxRange) {
+            super(id, size, position, velocity, acceleration, direction);
+            this.origin = position;
+            this.maxRange = maxRange;
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+/**
+ * Decides which entities left the simulated world: entities whose position is outside of the arena and entities which
+ * travelled further from their origin than their maximal range. Only reads the bounds of the hitbox from the store, so
+ * checking an entity does not allocate anything.
+ * This class is threadsafe.
+ */
+public class EntityCuller {
+    /** The minimal corner of the arena. */
+    private final double minX;
+    private final double minY;
+    private final double minZ;
+
+    /** The maximal corner of the arena. */
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+
+    /**
+     * Creates a culler for the arena configured in the settings, which spans from the origin to
+     * {@link Settings#ARENA}.
+     */
+    public EntityCuller() {
+        this(new D3Vector(), Settings.ARENA);
+    }
+
+    /**
+     * Creates a culler.
+     * @param arenaMin The minimal corner of the arena.
+     * @param arenaMax The maximal corner of the arena.
+     */
+    public EntityCuller(D3Vector arenaMin, D3Vector arenaMax) {
+        this.minX = arenaMin.getX();
+        this.minY = arenaMin.getY();
+        this.minZ = arenaMin.getZ();
+        this.maxX = arenaMax.getX();
+        this.maxY = arenaMax.getY();
+        this.maxZ = arenaMax.getZ();
+    }
+
+    /**
+     * Whether the position of the entity in the slot is outside of the arena.
+     * @param store The store containing the entity.
+     * @param slot The slot of the entity.
+     * @return Whether the entity is out of bounds.
+     */
+    public boolean isOutOfBounds(EntityStore store, int slot) {
+        double x = centerX(store, slot);
+        double y = centerY(store, slot);
+        double z = centerZ(store, slot);
+
+        return x < this.minX || x > this.maxX
+            || y < this.minY || y > this.maxY
+            || z < this.minZ || z > this.maxZ;
+    }
+
+    /**
+     * Whether the entity in the slot is further from its origin than its maximal range.
+     * @param store The store containing the entity.
+     * @param slot The slot of the entity.
+     * @param bullet The handle of the entity.
+     * @return Whether the entity is out of range.
+     */
+    public boolean isOutOfRange(EntityStore store, int slot, Entity.BulletEntity bullet) {
+        double maxRange = bullet.getMaxRange();
+
+        if(maxRange <= 0) {
+            return false;
+        }
+
+        D3Vector origin = bullet.getOrigin();
+        double dx = centerX(store, slot) - origin.getX();
+        double dy = centerY(store, slot) - origin.getY();
+        double dz = centerZ(store, slot) - origin.getZ();
+
+        return dx * dx + dy * dy + dz * dz > maxRange * maxRange;
+    }
+
+    /**
+     * Returns the x coordinate of the position of the entity in the slot, which is the center of its hitbox.
+     * @param store The store containing the entity.
+     * @param slot The slot of the entity.
+     * @return The x coordinate.
+     */
+    private static double centerX(EntityStore store, int slot) {
+        return 0.5 * (store.getMinX(slot) + store.getMaxX(slot));
+    }
+
+    /**
+     * Returns the y coordinate of the position of the entity in the slot, which is the center of its hitbox.
+     * @param store The store containing the entity.
+     * @param slot The slot of the entity.
+     * @return The y coordinate.
+     */
+    private static double centerY(EntityStore store, int slot) {
+        return 0.5 * (store.getMinY(slot) + store.getMaxY(slot));
+    }
+
+    /**
+     * Returns the z coordinate of the position of the entity in the slot, which is the center of its hitbox.
+     * @param store The store containing the entity.
+     * @param slot The slot of the entity.
+     * @return The z coordinate.
+     */
+    private static double centerZ(EntityStore store, int slot) {
+        return 0.5 * (store.getMinZ(slot) + store.getMaxZ(slot));
+    }
+}
@@ -1,23 +1,36 @@
 package org.inaetics.dronessimulator.physicsengine;
 
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
+import org.inaetics.dronessimulator.physicsengine.journal.InputJournal;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityField;
 import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityUpdate;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Manages the entities in the simulated world. Processes any changes to entities.
  * This class is partially threadsafe. All requested changes are buffered and processed when any or all of the process
- * 'stages' are called.
+ * 'stages' are called. Only the latest update per field of an entity is kept, so the memory used for updates is bounded
+ * by the number of entities. Updates for entities which were never inserted or are already removed are dropped.
  */
 @Getter
 public class EntityManager {
-    /** Updates to be processed by entity id. */
-    private final ConcurrentMap<Integer, ConcurrentLinkedQueue<EntityUpdate>> updateMap;
+    /** Latest updates to be processed by entity id. Contains an entry for every inserted entity until it is removed. */
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<Integer, PendingUpdates> updateMap;
+
+    /** The number of updates dropped because the entity did not exist. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong droppedUpdates;
 
     /** Entities to add. */
     private final ConcurrentLinkedQueue<Entity> creationList;
@@ -28,21 +41,50 @@ public class EntityManager {
     /** Currently present entities, by id. */
     private final Map<Integer, Entity> entities;
 
-    /** Currently present collisions, by id. */
-    private final HashMap<Integer, Set<Integer>> currentCollisions;
+    /** Currently present drones, which may be steered towards a target location, by id. */
+    private final Map<Integer, Entity.DroneEntity> drones;
+
+    /** Currently present entities with a maximal range, by id. */
+    private final Map<Integer, Entity.BulletEntity> bullets;
+
+    /** Storage backend for the physical state of the present entities. */
+    private final EntityStore store;
+
+    /** The journal to record all applied changes in. Null if the changes are not recorded. */
+    @Getter(AccessLevel.NONE)
+    private InputJournal journal;
+
+    /**
+     * Instantiates a new entity manager using the entity store configured in the settings.
+     */
+    public EntityManager() {
+        this(EntityStoreType.fromSettings().create());
+    }
 
     /**
      * Instantiates a new entity manager.
-     * @param currentCollisions The currently present collisions.
+     * @param store The storage backend for the physical state of the entities.
      */
-    public EntityManager(HashMap<Integer, Set<Integer>> currentCollisions) {
+    public EntityManager(EntityStore store) {
         this.creationList = new ConcurrentLinkedQueue<>();
         this.updateMap = new ConcurrentHashMap<>(100);
+        this.droppedUpdates = new AtomicLong(0);
         this.removalList = new ConcurrentLinkedQueue<>();
 
         this.entities = new HashMap<>(100);
+        this.drones = new HashMap<>(100);
+        this.bullets = new HashMap<>(100);
+
+        this.store = store;
+        this.journal = null;
+    }
 
-        this.currentCollisions = currentCollisions;
+    /**
+     * Sets the journal to record all changes in when they are applied.
+     * @param journal The journal to record the changes in. Null stops recording.
+     */
+    public void setJournal(InputJournal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -51,7 +93,9 @@ public class EntityManager {
      * @param creations The new entities to add.
      */
     public void addInserts(Collection<Entity> creations) {
-        this.creationList.addAll(creations);
+        for(Entity creation : creations) {
+            this.addInsert(creation);
+        }
     }
 
     /**
@@ -60,6 +104,8 @@ public class EntityManager {
      * @param creation The new entity to add
      */
     public void addInsert(Entity creation) {
+        // Accept updates from now on, even though the entity is only inserted when the changes are processed
+        this.updateMap.putIfAbsent(creation.getEntityId(), new PendingUpdates());
         this.creationList.add(creation);
     }
 
@@ -70,19 +116,35 @@ public class EntityManager {
      * @param updates The updates to apply to the entity.
      */
     public void addUpdates(Integer entityId, Collection<EntityUpdate> updates) {
-        this.updateMap.putIfAbsent(entityId, new ConcurrentLinkedQueue<>());
-        this.updateMap.get(entityId).addAll(updates);
+        for(EntityUpdate update : updates) {
+            this.addUpdate(entityId, update);
+        }
     }
 
     /**
-     * Updates the entity with the given id by applying the update.
+     * Updates the entity with the given id by applying the update. Replaces an earlier update to the same field which
+     * is not processed yet. The update is dropped if the entity does not exist.
      * @threadsafe
      * @param entityId The id of the entity to update.
      * @param update The update to apply to the entity.
      */
     public void addUpdate(Integer entityId, EntityUpdate update) {
-        this.updateMap.putIfAbsent(entityId, new ConcurrentLinkedQueue<>());
-        this.updateMap.get(entityId).add(update);
+        PendingUpdates pendingUpdates = this.updateMap.get(entityId);
+
+        if(pendingUpdates != null) {
+            pendingUpdates.set(update);
+        } else {
+            this.droppedUpdates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of updates which were dropped because the entity was never inserted or already removed.
+     * @threadsafe
+     * @return The number of dropped updates.
+     */
+    public long getDroppedUpdateCount() {
+        return this.droppedUpdates.get();
     }
 
     /**
@@ -113,10 +175,27 @@ public class EntityManager {
     private void processInsertNew() {
         while(!creationList.isEmpty()) {
             Entity entity = creationList.poll();
-            updateMap.putIfAbsent(entity.getEntityId(), new ConcurrentLinkedQueue<>());
+
+            if(journal != null) {
+                journal.insert(entity);
+            }
+
+            updateMap.putIfAbsent(entity.getEntityId(), new PendingUpdates());
             entities.put(entity.getEntityId(), entity);
 
-            this.currentCollisions.put(entity.getEntityId(), new HashSet<>());
+            if(entity instanceof Entity.DroneEntity) {
+                drones.put(entity.getEntityId(), (Entity.DroneEntity) entity);
+            } else {
+                drones.remove(entity.getEntityId());
+            }
+
+            if(entity instanceof Entity.BulletEntity) {
+                bullets.put(entity.getEntityId(), (Entity.BulletEntity) entity);
+            } else {
+                bullets.remove(entity.getEntityId());
+            }
+
+            store.add(entity);
         }
     }
 
@@ -124,13 +203,18 @@ public class EntityManager {
      * Process all incoming entity update requests.
      */
     private void processUpdate() {
-        // TODO: Remove memory leak for updates that belong to non-existing entities
         for(Map.Entry<Integer, Entity> e : entities.entrySet()) {
             Entity entity = e.getValue();
-            ConcurrentLinkedQueue<EntityUpdate> updates = updateMap.get(entity.getEntityId());
+            PendingUpdates updates = updateMap.get(entity.getEntityId());
+
+            if(updates != null && updates.takePending()) {
+                // Bring the entity up-to-date with the store before changing it
+                int slot = store.slotOf(entity.getEntityId());
+                store.sync(slot);
+
+                updates.apply(entity, journal);
 
-            while(!updates.isEmpty()) {
-                updates.poll().update(entity);
+                store.reload(slot);
             }
         }
     }
@@ -140,28 +224,113 @@ public class EntityManager {
      */
     private void processRemoval() {
         while(!removalList.isEmpty()) {
-            Integer removeEntityId = removalList.poll();
-            updateMap.remove(removeEntityId);
-            entities.remove(removeEntityId);
+            int entityId = removalList.poll();
 
-            this.currentCollisions.remove(removeEntityId);
+            if(journal != null) {
+                journal.remove(entityId);
+            }
+
+            this.removeNow(entityId);
         }
     }
 
+    /**
+     * Removes the entity right away instead of when the changes are processed. Used by the physics engine for entities
+     * which left the simulated world. Updates of the entity which arrive later are dropped.
+     * @param entityId The id of the entity to remove.
+     */
+    public void removeNow(int entityId) {
+        updateMap.remove(entityId);
+        entities.remove(entityId);
+        drones.remove(entityId);
+        bullets.remove(entityId);
+        store.remove(entityId);
+    }
+
     /**
      * Deep copy the current state.
      * @return A deep copy of all entities
      */
     public List<Entity> copyState() {
-        List<Entity> result = new ArrayList<>(this.entities.size());
+        int size = this.store.size();
+        List<Entity> result = new ArrayList<>(size);
+
+        for(int slot = 0; slot < size; slot++) {
+            result.add(new Entity(this.store.getEntity(slot)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Deep copy the state of all entities which changed since they were last broadcast according to the tracker. The
+     * copied entities are recorded as broadcast.
+     * @param tracker The tracker of the last broadcast state.
+     * @param all Whether to copy and record all entities, even those which did not change.
+     * @return A deep copy of the changed entities, or of all entities if all is set.
+     */
+    public List<Entity> copyChangedState(StateChangeTracker tracker, boolean all) {
+        int size = this.store.size();
+        List<Entity> result = new ArrayList<>(all ? size : 16);
+
+        for(int slot = 0; slot < size; slot++) {
+            Entity entity = this.store.getEntity(slot);
 
-        for(Map.Entry<Integer, Entity> e : this.entities.entrySet()) {
-            result.add(new Entity(e.getValue()));
+            if(tracker.update(entity, all) || all) {
+                result.add(new Entity(entity));
+            }
         }
 
+        tracker.retain(this.store);
+
         return result;
     }
 
+    /**
+     * Copy the current state into the snapshot. Reuses the copies already in the snapshot, so copying the same entities
+     * again does not allocate anything.
+     * @param snapshot The snapshot to fill.
+     * @return The copies of all entities. Only valid until the snapshot is filled again.
+     */
+    public List<Entity> copyState(StateSnapshot<Entity> snapshot) {
+        int size = this.store.size();
+
+        snapshot.begin();
+        for(int slot = 0; slot < size; slot++) {
+            snapshot.add(this.store.getEntity(slot));
+        }
+        snapshot.finish();
+
+        return snapshot.getEntities();
+    }
+
+    /**
+     * Copy the state of all entities which changed since they were last broadcast according to the tracker into the
+     * snapshot. The copied entities are recorded as broadcast.
+     * @param tracker The tracker of the last broadcast state.
+     * @param all Whether to copy and record all entities, even those which did not change.
+     * @param snapshot The snapshot to fill.
+     * @return The copies of the changed entities, or of all entities if all is set. Only valid until the snapshot is
+     *         filled again.
+     */
+    public List<Entity> copyChangedState(StateChangeTracker tracker, boolean all, StateSnapshot<Entity> snapshot) {
+        int size = this.store.size();
+
+        snapshot.begin();
+        for(int slot = 0; slot < size; slot++) {
+            Entity entity = this.store.getEntity(slot);
+
+            if(tracker.update(entity, all) || all) {
+                snapshot.add(entity);
+            }
+        }
+        snapshot.finish();
+
+        tracker.retain(this.store);
+
+        return snapshot.getEntities();
+    }
+
     /**
      * Process all requests for entity changes in this manager.
      */
@@ -172,11 +341,64 @@ public class EntityManager {
     }
 
     public void clear() {
-        this.currentCollisions.clear();
         this.entities.clear();
+        this.drones.clear();
+        this.bullets.clear();
+        this.store.clear();
 
         this.updateMap.clear();
         this.creationList.clear();
         this.removalList.clear();
     }
+
+    /**
+     * The latest update per field of an entity which is not processed yet.
+     * @threadsafe
+     */
+    private static class PendingUpdates {
+        /** The fields which can be updated. */
+        private static final EntityField[] FIELDS = EntityField.values();
+
+        /** The latest update per field, indexed by the ordinal of the field. Null if there is no update. */
+        private final AtomicReferenceArray<EntityUpdate> updates = new AtomicReferenceArray<>(FIELDS.length);
+
+        /** Whether any update was set since the last time the updates were taken. */
+        private final AtomicBoolean pending = new AtomicBoolean(false);
+
+        /**
+         * Sets the update for its field, replacing any earlier update to the field.
+         * @param update The update.
+         */
+        void set(EntityUpdate update) {
+            this.updates.set(update.getField().ordinal(), update);
+            this.pending.set(true);
+        }
+
+        /**
+         * Returns whether any update was set since the last call and resets it.
+         * @return Whether there are updates to apply.
+         */
+        boolean takePending() {
+            return this.pending.getAndSet(false);
+        }
+
+        /**
+         * Applies and clears all updates.
+         * @param entity The entity to apply the updates to.
+         * @param journal The journal to record the applied updates in. Null if they are not recorded.
+         */
+        void apply(Entity entity, InputJournal journal) {
+            for(int i = 0; i < FIELDS.length; i++) {
+                EntityUpdate update = this.updates.getAndSet(i, null);
+
+                if(update != null) {
+                    if(journal != null) {
+                        journal.update(entity.getEntityId(), update);
+                    }
+
+                    update.update(entity);
+                }
+            }
+        }
+    }
 }
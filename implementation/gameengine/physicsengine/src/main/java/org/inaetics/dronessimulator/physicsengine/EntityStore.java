@@ -0,0 +1,167 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+/**
+ * Storage backend for the physical state of the entities in the physics engine. Entities are stored in dense slots
+ * numbered from 0 to size() - 1. Slots are not stable: removing an entity may move another entity to a different slot.
+ * Every entity also has an {@link Entity} handle, which is the object used outside of the store. A store may keep its
+ * own representation of the state, in which case the handle is only updated when it is requested.
+ * Entities which have been still for a while fall asleep. Sleeping entities are not moved until they are woken, which
+ * happens when they are added, reloaded or explicitly woken.
+ * This class is not threadsafe, except that integrate may be called on disjoint ranges of slots and collides may be
+ * called concurrently as long as no other method is called at the same time.
+ */
+public interface EntityStore {
+    /**
+     * Returns the number of entities in the store.
+     * @return The number of entities.
+     */
+    int size();
+
+    /**
+     * Returns the slot of the entity with the given id.
+     * @param entityId The id of the entity.
+     * @return The slot of the entity or -1 if the entity is not in the store.
+     */
+    int slotOf(int entityId);
+
+    /**
+     * Returns the id of the entity in the given slot.
+     * @param slot The slot of the entity.
+     * @return The id of the entity.
+     */
+    int getEntityId(int slot);
+
+    /**
+     * Returns the handle of the entity in the given slot. The handle is brought up-to-date with the state in the store.
+     * @param slot The slot of the entity.
+     * @return The up-to-date handle of the entity.
+     */
+    Entity getEntity(int slot);
+
+    /**
+     * Brings the handle of the entity in the given slot up-to-date with the state in the store. Must be called before
+     * the handle is read or changed outside of the store.
+     * @param slot The slot of the entity.
+     */
+    void sync(int slot);
+
+    /**
+     * Adds the entity to the store using the entity as handle. Replaces an existing entity with the same id.
+     * @param entity The entity to add.
+     */
+    void add(Entity entity);
+
+    /**
+     * Reloads the state of the entity in the given slot from its handle. Must be called after the handle is changed.
+     * Wakes the entity.
+     * @param slot The slot of the entity.
+     */
+    void reload(int slot);
+
+    /**
+     * Whether the entity in the given slot is asleep.
+     * @param slot The slot of the entity.
+     * @return Whether the entity is asleep.
+     */
+    boolean isAsleep(int slot);
+
+    /**
+     * Wakes the entity in the given slot, so it is moved again.
+     * @param slot The slot of the entity.
+     */
+    void wake(int slot);
+
+    /**
+     * Removes the entity with the given id from the store. Does nothing if the entity is not in the store.
+     * @param entityId The id of the entity to remove.
+     */
+    void remove(int entityId);
+
+    /**
+     * Removes all entities from the store.
+     */
+    void clear();
+
+    /**
+     * Moves the entities in the given range of slots using their velocity and acceleration for the time step. Sleeping
+     * entities are skipped. Entities which have been still for long enough fall asleep.
+     * @param fromSlot The first slot to move (inclusive).
+     * @param toSlot The last slot to move (exclusive).
+     * @param timestep_s The time step in seconds.
+     * @param environmentForces The environment forces that act on all entities.
+     */
+    void integrate(int fromSlot, int toSlot, double timestep_s, D3Vector environmentForces);
+
+    /**
+     * Test whether the entities in the given slots are colliding at their current position.
+     * @param slot1 The slot of the first entity.
+     * @param slot2 The slot of the second entity.
+     * @return If the entities are colliding.
+     */
+    boolean collides(int slot1, int slot2);
+
+    /**
+     * Returns the minimal x coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The minimal x coordinate.
+     */
+    double getMinX(int slot);
+
+    /**
+     * Returns the minimal y coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The minimal y coordinate.
+     */
+    double getMinY(int slot);
+
+    /**
+     * Returns the minimal z coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The minimal z coordinate.
+     */
+    double getMinZ(int slot);
+
+    /**
+     * Returns the maximal x coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The maximal x coordinate.
+     */
+    double getMaxX(int slot);
+
+    /**
+     * Returns the maximal y coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The maximal y coordinate.
+     */
+    double getMaxY(int slot);
+
+    /**
+     * Returns the maximal z coordinate of the space the entity in the given slot occupies.
+     * @param slot The slot of the entity.
+     * @return The maximal z coordinate.
+     */
+    double getMaxZ(int slot);
+
+    /**
+     * Returns the x component of the velocity of the entity in the given slot.
+     * @param slot The slot of the entity.
+     * @return The velocity along x in m/s.
+     */
+    double getVelocityX(int slot);
+
+    /**
+     * Returns the y component of the velocity of the entity in the given slot.
+     * @param slot The slot of the entity.
+     * @return The velocity along y in m/s.
+     */
+    double getVelocityY(int slot);
+
+    /**
+     * Returns the z component of the velocity of the entity in the given slot.
+     * @param slot The slot of the entity.
+     * @return The velocity along z in m/s.
+     */
+    double getVelocityZ(int slot);
+}
@@ -0,0 +1,35 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+
+/**
+ * The available storage backends for the entities in the physics engine.
+ */
+public enum EntityStoreType {
+    /** Keeps the state in the entity objects. */
+    OBJECT,
+
+    /** Keeps the state in parallel primitive arrays. Does not allocate while moving entities. */
+    PRIMITIVE;
+
+    /**
+     * Creates a new entity store of this type.
+     * @return The new entity store.
+     */
+    public EntityStore create() {
+        switch(this) {
+            case PRIMITIVE:
+                return new PrimitiveEntityStore();
+            default:
+                return new ObjectEntityStore();
+        }
+    }
+
+    /**
+     * Returns the entity store type which is configured in the settings.
+     * @return The configured entity store type.
+     */
+    public static EntityStoreType fromSettings() {
+        return EntityStoreType.valueOf(Settings.PHYSICS_ENTITY_STORE);
+    }
+}
@@ -58,6 +58,30 @@ public interface IPhysicsEngine {
      */
     void addRemovals(Collection<Integer> entityIds);
 
+    /**
+     * Records that the drone calculated its tactics for the given time of the simulation and sent its commands for it.
+     * At maximum speed the engine waits for all drones to acknowledge the time of the last broadcast before it takes the
+     * next step. Ignored when running in real time.
+     * @threadsafe
+     * @param entityId The id of the drone.
+     * @param simulationTime_ms The acknowledged time of the simulation in milliseconds.
+     */
+    void acknowledgeTick(int entityId, long simulationTime_ms);
+
+    /**
+     * Returns a copy of the instrumentation of the loops of the engine: latencies per stage, entity and pair test
+     * counts, overruns and jitter.
+     * @threadsafe
+     * @return The metrics of the engine.
+     */
+    PhysicsEngineMetrics getMetrics();
+
+    /**
+     * Forgets all metrics recorded so far.
+     * @threadsafe
+     */
+    void resetMetrics();
+
     void startEngine();
     void stopEngine();
     void pauseEngine();
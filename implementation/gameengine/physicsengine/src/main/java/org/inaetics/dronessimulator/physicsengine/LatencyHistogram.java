@@ -0,0 +1,147 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of latencies in nanoseconds with power of two buckets. Bucket i counts the latencies in [2^i, 2^(i+1)),
+ * bucket 0 also counts latencies of 0. Recording does not allocate. Percentiles are the upper bound of the bucket they
+ * fall in, so they are accurate within a factor of two, which is enough to see where the time of a tick goes.
+ * This class is not threadsafe.
+ */
+public class LatencyHistogram {
+    /** The number of buckets, enough for any positive long. */
+    private static final int BUCKETS = 64;
+
+    /** The number of latencies per bucket. */
+    private final long[] buckets;
+
+    /** The number of recorded latencies. */
+    private long count;
+
+    /** The sum of all recorded latencies. In nanoseconds. */
+    private long total_ns;
+
+    /** The largest recorded latency. In nanoseconds. */
+    private long max_ns;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new long[BUCKETS];
+        this.count = 0;
+        this.total_ns = 0;
+        this.max_ns = 0;
+    }
+
+    /**
+     * Creates a copy of the histogram.
+     * @param other The histogram to copy.
+     */
+    public LatencyHistogram(LatencyHistogram other) {
+        this.buckets = Arrays.copyOf(other.buckets, BUCKETS);
+        this.count = other.count;
+        this.total_ns = other.total_ns;
+        this.max_ns = other.max_ns;
+    }
+
+    /**
+     * Records a latency. Negative latencies are recorded as 0.
+     * @param latency_ns The latency in nanoseconds.
+     */
+    public void record(long latency_ns) {
+        long latency = Math.max(0, latency_ns);
+
+        this.buckets[bucketOf(latency)]++;
+        this.count++;
+        this.total_ns += latency;
+        this.max_ns = Math.max(this.max_ns, latency);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     * @return The number of latencies.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the mean of the recorded latencies.
+     * @return The mean latency in nanoseconds or 0 if nothing was recorded.
+     */
+    public long getMean_ns() {
+        return this.count > 0 ? this.total_ns / this.count : 0;
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     * @return The largest latency in nanoseconds.
+     */
+    public long getMax_ns() {
+        return this.max_ns;
+    }
+
+    /**
+     * Returns an upper bound of the latency below which the given fraction of the latencies fall.
+     * @param fraction The fraction of the latencies, between 0 and 1.
+     * @return The upper bound of the percentile in nanoseconds or 0 if nothing was recorded.
+     */
+    public long getPercentile_ns(double fraction) {
+        long rank = (long) Math.ceil(fraction * this.count);
+        long seen = 0;
+
+        for(int i = 0; i < BUCKETS && this.count > 0; i++) {
+            seen += this.buckets[i];
+
+            if(seen >= rank && seen > 0) {
+                return Math.min(this.max_ns, upperBoundOf(i));
+            }
+        }
+
+        return this.max_ns;
+    }
+
+    /**
+     * Forgets all recorded latencies.
+     */
+    public void reset() {
+        Arrays.fill(this.buckets, 0);
+        this.count = 0;
+        this.total_ns = 0;
+        this.max_ns = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "mean=" + micros(this.getMean_ns()) + " p50=" + micros(this.getPercentile_ns(0.5))
+                + " p99=" + micros(this.getPercentile_ns(0.99)) + " max=" + micros(this.max_ns);
+    }
+
+    /**
+     * Returns the bucket of the latency.
+     * @param latency_ns The non-negative latency in nanoseconds.
+     * @return The index of the bucket.
+     */
+    private static int bucketOf(long latency_ns) {
+        return latency_ns == 0 ? 0 : 63 - Long.numberOfLeadingZeros(latency_ns);
+    }
+
+    /**
+     * Returns the largest latency which falls in the bucket.
+     * @param bucket The index of the bucket.
+     * @return The upper bound of the bucket in nanoseconds.
+     */
+    private static long upperBoundOf(int bucket) {
+        return bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+
+    /**
+     * Formats nanoseconds as microseconds.
+     * @param ns The time in nanoseconds.
+     * @return The formatted time.
+     */
+    private static String micros(long ns) {
+        return (ns / 1000) + "us";
+    }
+}
@@ -0,0 +1,195 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entity store which keeps the state in the entity handles themselves. Every move replaces the immutable vectors of
+ * the entity, so the handles are always up-to-date.
+ */
+public class ObjectEntityStore implements EntityStore {
+    /** The entities by slot. */
+    private final List<Entity> entities;
+
+    /** The slots of the entities by id. */
+    private final Map<Integer, Integer> slots;
+
+    /** Tracks which entities are asleep by slot. */
+    private final SleepTracker sleepTracker;
+
+    /**
+     * Creates an empty store in which entities sleep as configured in the settings.
+     */
+    public ObjectEntityStore() {
+        this(new SleepTracker());
+    }
+
+    /**
+     * Creates an empty store.
+     * @param sleepTracker The tracker which decides when entities fall asleep.
+     */
+    public ObjectEntityStore(SleepTracker sleepTracker) {
+        this.entities = new ArrayList<>(100);
+        this.slots = new HashMap<>(100);
+        this.sleepTracker = sleepTracker;
+    }
+
+    @Override
+    public int size() {
+        return this.entities.size();
+    }
+
+    @Override
+    public int slotOf(int entityId) {
+        Integer slot = this.slots.get(entityId);
+
+        return slot != null ? slot : -1;
+    }
+
+    @Override
+    public int getEntityId(int slot) {
+        return this.entities.get(slot).getEntityId();
+    }
+
+    @Override
+    public Entity getEntity(int slot) {
+        return this.entities.get(slot);
+    }
+
+    @Override
+    public void sync(int slot) {
+        // The handle is the state, so it is always up-to-date
+    }
+
+    @Override
+    public void add(Entity entity) {
+        int slot = this.slotOf(entity.getEntityId());
+
+        if(slot >= 0) {
+            this.entities.set(slot, entity);
+        } else {
+            slot = this.entities.size();
+            this.slots.put(entity.getEntityId(), slot);
+            this.entities.add(entity);
+            this.sleepTracker.ensureCapacity(this.entities.size());
+        }
+
+        this.sleepTracker.wake(slot);
+    }
+
+    @Override
+    public void reload(int slot) {
+        // The handle is the state, so there is nothing to reload except waking the entity
+        this.sleepTracker.wake(slot);
+    }
+
+    @Override
+    public boolean isAsleep(int slot) {
+        return this.sleepTracker.isAsleep(slot);
+    }
+
+    @Override
+    public void wake(int slot) {
+        this.sleepTracker.wake(slot);
+    }
+
+    @Override
+    public void remove(int entityId) {
+        Integer slot = this.slots.remove(entityId);
+
+        if(slot != null) {
+            Entity last = this.entities.remove(this.entities.size() - 1);
+
+            // Move the last entity into the freed slot to keep the slots dense
+            if(slot < this.entities.size()) {
+                this.entities.set(slot, last);
+                this.slots.put(last.getEntityId(), slot);
+                this.sleepTracker.move(this.entities.size(), slot);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.entities.clear();
+        this.slots.clear();
+    }
+
+    @Override
+    public void integrate(int fromSlot, int toSlot, double timestep_s, D3Vector environmentForces) {
+        for(int slot = fromSlot; slot < toSlot; slot++) {
+            if(this.sleepTracker.isAsleep(slot)) {
+                continue;
+            }
+
+            Entity entity = this.entities.get(slot);
+
+            // Set the next place the entity will move to with new velocity
+            D3Vector nextAcceleration = entity.getAcceleration();
+            D3Vector totalAcceleration = environmentForces.add(nextAcceleration);
+            D3Vector nextVelocity = entity.nextVelocity(totalAcceleration, timestep_s);
+            D3Vector nextPosition = entity.nextPosition(nextVelocity, timestep_s);
+
+            entity.setAcceleration(nextAcceleration);
+            entity.setVelocity(nextVelocity);
+            entity.setPosition(nextPosition);
+
+            this.sleepTracker.update(slot, nextVelocity.getX(), nextVelocity.getY(), nextVelocity.getZ(),
+                    totalAcceleration.getX(), totalAcceleration.getY(), totalAcceleration.getZ());
+        }
+    }
+
+    @Override
+    public boolean collides(int slot1, int slot2) {
+        return this.entities.get(slot1).collides(this.entities.get(slot2));
+    }
+
+    @Override
+    public double getMinX(int slot) {
+        return this.entities.get(slot).getMinX();
+    }
+
+    @Override
+    public double getMinY(int slot) {
+        return this.entities.get(slot).getMinY();
+    }
+
+    @Override
+    public double getMinZ(int slot) {
+        return this.entities.get(slot).getMinZ();
+    }
+
+    @Override
+    public double getMaxX(int slot) {
+        return this.entities.get(slot).getMaxX();
+    }
+
+    @Override
+    public double getMaxY(int slot) {
+        return this.entities.get(slot).getMaxY();
+    }
+
+    @Override
+    public double getMaxZ(int slot) {
+        return this.entities.get(slot).getMaxZ();
+    }
+
+    @Override
+    public double getVelocityX(int slot) {
+        return this.entities.get(slot).getVelocity().getX();
+    }
+
+    @Override
+    public double getVelocityY(int slot) {
+        return this.entities.get(slot).getVelocity().getY();
+    }
+
+    @Override
+    public double getVelocityZ(int slot) {
+        return this.entities.get(slot).getVelocity().getZ();
+    }
+}
@@ -3,25 +3,44 @@ package org.inaetics.dronessimulator.physicsengine;
 import org.apache.log4j.Logger;
 import org.inaetics.dronessimulator.common.ManagedThread;
 import org.inaetics.dronessimulator.common.Settings;
+import org.inaetics.dronessimulator.common.SimulationClock;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.ExitReason;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
 import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.journal.InputJournal;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A very simple physics engine where gravity holds, all entities are 1kg and without other interacting forces (e.g.
  * collision- and air friction forces). Collisions are detected by the simple hitboxes computed by the size of the
- * entity. On a fixed time interval the current state is broadcast to the observer. The start and end of every collision
- * are also broadcast to the observer.
+ * entity. The time step either follows the wall clock or is fixed, in which case multiple steps may be taken per loop
+ * (see {@link Settings#PHYSICS_STEP_RATE}). The simulation may also run as fast as possible on a simulated clock (see
+ * {@link Settings#SIMULATION_MAX_SPEED}). At maximum speed the time of the simulation is sent to the observer after
+ * every broadcast, and the next step waits until all drones acknowledged it, so the drones calculate their tactics as
+ * often per simulated second as in real time. On a fixed time interval the current state is broadcast to the observer.
+ * The start and end of every collision are also broadcast to the observer. Drones with a target location are steered
+ * there by the {@link Autopilot}. With an {@link EntityCuller}, entities which leave the arena or their range are
+ * removed once the collisions of the step are detected, their collisions are ended and their exit is sent to the
+ * observer.
  *
  * @threadsafe
  */
 public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
     private static final Logger logger = Logger.getLogger(PhysicsEngine.class);
 
+    /** Minimal number of entities or candidate pairs a single parallel task works on. */
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 256;
+
+    /** Maximal wall time the fixed time step simulation catches up on in a single loop. In nanoseconds. */
+    private static final long MAX_CATCH_UP_NS = 250_000_000L;
+
     /** Gravity in meters/second^2. */
     public static final D3Vector GRAVITY = new D3Vector(0, 0, 0); // TODO: Fix gravity (-9.81)
 
@@ -32,30 +51,242 @@ public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
     private long last_state_broadcast_at_ms;
 
     /** Time between broadcasts of the current state. In milliseconds. */
-    private final long broadcast_state_every_ms;
+    private long broadcast_state_every_ms;
+
+    /** Converts elapsed wall time into fixed time steps. Null if the time step follows the wall clock. */
+    private final StepAccumulator stepAccumulator;
+
+    /** Whether the simulation runs as fast as possible on a simulated clock instead of in real time. */
+    private final boolean maxSpeed;
+
+    /** Holds back the next step at maximum speed until the drones acknowledged the last tick. Null in real time. */
+    private final TickBarrier tickBarrier;
+
+    /** The time of the simulation the drones must acknowledge before the next step. -1 if none. In milliseconds. */
+    private long awaited_tick_ms;
+
+    /** Maximal wall time to wait for the drones to acknowledge a tick. In milliseconds. */
+    private final long tick_ack_timeout_ms;
+
+    /**
+     * The time between two loops, which the governor may lengthen. With a fixed time step it is the time step, which
+     * the governor never changes. In nanoseconds.
+     */
+    private long tick_ns;
+
+    /**
+     * Adapts the physics and broadcast rate to the load. With a fixed time step only the broadcast rate is adapted, so
+     * the results of a simulation do not depend on the load. Null if the rates are fixed.
+     */
+    private final TickRateGovernor governor;
+
+    /** The journal all applied changes are recorded in. Null if the changes are not recorded. */
+    private InputJournal journal;
+
+    /** Wall time the previous loop started when using a fixed time step. In nanoseconds. */
+    private long last_loop_at_ns;
+
+    /** Total simulated time when using a fixed time step. In nanoseconds. */
+    private long simulated_time_ns;
+
+    /** Simulated time the last broadcast was sent when using a fixed time step. In nanoseconds. */
+    private long last_state_broadcast_at_simulated_ns;
 
     /** The entity manager which manages all changes and state of entities. */
     private final EntityManager entityManager;
 
-    /** A map containing all collisions between entity ids which have started. */
-    private final HashMap<Integer, Set<Integer>> currentCollisions;
+    /** The pairs of entities which are colliding in the current loop. */
+    private CollisionPairSet currentCollisions;
+
+    /** The pairs of entities which were colliding in the previous loop. */
+    private CollisionPairSet previousCollisions;
+
+    /** Steers the drones which have a target location. */
+    private final Autopilot autopilot;
+
+    /** Decides which entities left the simulated world. Null if entities are never removed by the engine itself. */
+    private final EntityCuller culler;
+
+    /** View on the store which detects collisions of fast movers along their path. Null if disabled. */
+    private final SweptEntityStore sweptStore;
+
+    /** The ids of the entities which left the simulated world in the current loop. */
+    private int[] exitIds;
+
+    /** Why the entities in exitIds left the simulated world. */
+    private ExitReason[] exitReasons;
+
+    /** The number of entities in exitIds. */
+    private int exitCount;
+
+    /** The broadphase which finds the candidate pairs for collision detection. */
+    private final BroadPhase broadPhase;
+
+    /** The pool to run the parallel stages on. Null if the engine runs single-threaded. Shut down with the thread. */
+    private final ForkJoinPool pool;
+
+    /** The candidate pairs of the current loop. Only used when running parallel. */
+    private final CandidatePairList candidatePairs;
+
+    /** The slots of the sleeping entities which collided with an awake entity in the current loop. */
+    private int[] wakeSlots;
+
+    /** The number of slots in wakeSlots. */
+    private int wakeCount;
+
+    /** Tracks which entities changed since the last broadcast. Null if the full state is broadcast every time. */
+    private final StateChangeTracker stateChangeTracker;
+
+    /** The number of broadcasts between two broadcasts of the full state when only changes are broadcast. */
+    private final int keyframe_every_broadcasts;
+
+    /** The number of broadcasts since the last broadcast of the full state. */
+    private int broadcasts_since_keyframe;
+
+    /** The reusable copy of the state which is broadcast. Null if the state is copied into new entities every time. */
+    private final StateSnapshot<Entity> broadcastSnapshot;
 
     /** The observer to which any events are sent. */
     private PhysicsEngineEventObserver observer;
 
+    /** The instrumentation of the loops of the engine. */
+    private final PhysicsEngineMetrics metrics;
+
+    /** The number of candidate pairs tested for a collision in the current step. */
+    private int pair_tests;
+
+    /** Wall time the current loop started. 0 if there was no loop since the engine was (re)started. In nanoseconds. */
+    private long loop_started_at_ns;
+
+    /** Time the metrics were last logged. In milliseconds. */
+    private long last_metrics_log_at_ms;
+
+    /** Time between logging the metrics. 0 if the metrics are not logged. In milliseconds. */
+    private final long log_metrics_every_ms;
+
     /**
-     * Creates the physics engine object.
+     * Creates the physics engine object using the broadphase configured in the settings.
      * Before you start the engine, you MUST set an observer using the setObserver method.
      */
     public PhysicsEngine() {
+        this(BroadPhaseType.fromSettings().create());
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     */
+    public PhysicsEngine(BroadPhase broadPhase) {
+        this(broadPhase, EntityStoreType.fromSettings().create());
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     * @param store The storage backend for the state of the entities.
+     */
+    public PhysicsEngine(BroadPhase broadPhase, EntityStore store) {
+        this(broadPhase, store, Settings.PHYSICS_THREADS);
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     * @param store The storage backend for the state of the entities.
+     * @param threads The number of threads to move entities and test collisions with. 1 runs single-threaded.
+     */
+    public PhysicsEngine(BroadPhase broadPhase, EntityStore store, int threads) {
+        this(broadPhase, store, threads, Settings.PHYSICS_CULL_EXITS ? new EntityCuller() : null);
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     * @param store The storage backend for the state of the entities.
+     * @param threads The number of threads to move entities and test collisions with. 1 runs single-threaded.
+     * @param culler Decides which entities left the simulated world. Null never removes entities by itself.
+     */
+    public PhysicsEngine(BroadPhase broadPhase, EntityStore store, int threads, EntityCuller culler) {
+        this(broadPhase, store, threads, culler, Settings.PHYSICS_CONTINUOUS_COLLISION);
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     * @param store The storage backend for the state of the entities.
+     * @param threads The number of threads to move entities and test collisions with. 1 runs single-threaded.
+     * @param culler Decides which entities left the simulated world. Null never removes entities by itself.
+     * @param continuousCollision Whether collisions of fast movers are detected along the path they moved during a
+     *                            step, instead of only at their position at the end of the step.
+     */
+    public PhysicsEngine(BroadPhase broadPhase, EntityStore store, int threads, EntityCuller culler, boolean continuousCollision) {
+        this(broadPhase, store, threads, culler, continuousCollision, Settings.SIMULATION_MAX_SPEED);
+    }
+
+    /**
+     * Creates the physics engine object.
+     * Before you start the engine, you MUST set an observer using the setObserver method.
+     * @param broadPhase The broadphase to find collision candidates with.
+     * @param store The storage backend for the state of the entities.
+     * @param threads The number of threads to move entities and test collisions with. 1 runs single-threaded.
+     * @param culler Decides which entities left the simulated world. Null never removes entities by itself.
+     * @param continuousCollision Whether collisions of fast movers are detected along the path they moved during a
+     *                            step, instead of only at their position at the end of the step.
+     * @param maxSpeed Whether the simulation runs as fast as the drones allow on a simulated clock instead of in real
+     *                 time.
+     */
+    public PhysicsEngine(BroadPhase broadPhase, EntityStore store, int threads, EntityCuller culler, boolean continuousCollision, boolean maxSpeed) {
         this.current_step_started_at_ms = System.currentTimeMillis();
         this.last_state_broadcast_at_ms = this.current_step_started_at_ms;
-        this.broadcast_state_every_ms = Settings.TICK_TIME;
+        this.broadcast_state_every_ms = Settings.PHYSICS_BROADCAST_TIME;
+        this.stepAccumulator = Settings.PHYSICS_STEP_RATE > 0 ? new StepAccumulator(1_000_000_000L / Settings.PHYSICS_STEP_RATE, MAX_CATCH_UP_NS) : null;
+        this.maxSpeed = maxSpeed;
+        this.tickBarrier = this.maxSpeed ? new TickBarrier() : null;
+        this.awaited_tick_ms = -1;
+        this.tick_ack_timeout_ms = Settings.SIMULATION_ACK_TIMEOUT;
+        this.tick_ns = this.stepAccumulator != null ? this.stepAccumulator.getStep_ns() : Settings.TICK_TIME * 1_000_000L;
+        this.governor = Settings.PHYSICS_GOVERNOR && !this.maxSpeed
+                ? new TickRateGovernor(this.tick_ns,
+                        this.stepAccumulator != null ? 0 : Settings.PHYSICS_GOVERNOR_MIN_RATE, this.broadcast_state_every_ms,
+                        Settings.PHYSICS_GOVERNOR_MAX_BROADCAST_TIME, Settings.PHYSICS_GOVERNOR_MAX_BACKLOG,
+                        TickRateGovernor.DEFAULT_WINDOW)
+                : null;
+        this.last_loop_at_ns = System.nanoTime();
+        this.simulated_time_ns = 0;
+        this.last_state_broadcast_at_simulated_ns = 0;
 
-        this.currentCollisions = new HashMap<>();
-        this.entityManager = new EntityManager(this.currentCollisions);
+        this.currentCollisions = new CollisionPairSet();
+        this.previousCollisions = new CollisionPairSet();
+        this.entityManager = new EntityManager(store);
+        this.autopilot = new Autopilot();
+        this.culler = culler;
+        this.sweptStore = continuousCollision ? new SweptEntityStore(store) : null;
+        this.exitIds = new int[16];
+        this.exitReasons = new ExitReason[16];
+        this.exitCount = 0;
+        this.broadPhase = broadPhase;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.candidatePairs = new CandidatePairList();
+        this.wakeSlots = new int[16];
+        this.wakeCount = 0;
+        this.stateChangeTracker = Settings.PHYSICS_DELTA_BROADCAST ? new StateChangeTracker() : null;
+        this.keyframe_every_broadcasts = Math.max(1, Settings.PHYSICS_KEYFRAME_INTERVAL);
+        this.broadcasts_since_keyframe = 0;
+        this.broadcastSnapshot = Settings.STATE_SNAPSHOT_BUFFERS > 0 ? new StateSnapshot<>() : null;
 
         this.observer = null;
+        this.journal = null;
+
+        this.metrics = new PhysicsEngineMetrics();
+        this.pair_tests = 0;
+        this.loop_started_at_ns = 0;
+        this.last_metrics_log_at_ms = System.currentTimeMillis();
+        this.log_metrics_every_ms = Settings.PHYSICS_METRICS_LOG_TIME;
     }
 
     /**
@@ -71,12 +302,29 @@ public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
         this.observer = observer;
     }
 
+    @Override
+    public void acknowledgeTick(int entityId, long simulationTime_ms) {
+        if(this.tickBarrier != null) {
+            this.tickBarrier.acknowledge(entityId, simulationTime_ms);
+        }
+    }
+
     /**
-     * Calculates the environment forces that act on the entity. Currently only gravity is supported.
-     * @param entity The entity on which environment forces act
+     * Sets the journal to record all changes applied to the entities in, stamped with the step they are applied in.
+     * A journal set here is not closed by the engine.
+     * @param journal The journal to record the changes in. Null stops recording.
+     */
+    public void setJournal(InputJournal journal) {
+        this.journal = journal;
+        this.entityManager.setJournal(journal);
+    }
+
+    /**
+     * Calculates the environment forces that act on the entities. Currently only gravity is supported, which acts the
+     * same on all entities.
      * @return The total resulting vector of all environment forces.
      */
-    private D3Vector environmentForces(Entity entity) {
+    private D3Vector environmentForces() {
         return GRAVITY;
     }
 
@@ -93,83 +341,327 @@ public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
     }
 
     /**
-     * Move all entities respecting collisions. Entities can move through each other, but collisions do spawn events
-     * which are sent to the observer.
+     * Move all entities. Entities can move through each other, but collisions do spawn events which are sent to the
+     * observer.
      * @param timestep_s The time since the last move in seconds.
      */
     private void stageMove(double timestep_s) {
-        Map<Integer, Entity> entities = this.entityManager.getEntities();
+        EntityStore store = this.entityManager.getStore();
+        D3Vector environmentForces = environmentForces();
+        long move_started_at_ns = System.nanoTime();
+
+        this.stageSteer(store, timestep_s);
 
-        for(Map.Entry<Integer, Entity> e1 : entities.entrySet()) {
-            Entity entity = e1.getValue();
+        if(this.pool != null && store.size() > MIN_PARALLEL_CHUNK_SIZE) {
+            int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, store.size() / this.pool.getParallelism());
+            this.pool.invoke(new RangeTask(0, store.size(), chunkSize, (from, to) -> store.integrate(from, to, timestep_s, environmentForces)));
+        } else {
+            store.integrate(0, store.size(), timestep_s, environmentForces);
+        }
 
-            // Set the next place the entity will move to with new velocity
-            D3Vector nextAcceleration = entity.getAcceleration();
-            D3Vector nextVelocity = entity.nextVelocity(environmentForces(entity).add(nextAcceleration), timestep_s);
-            D3Vector nextPosition = entity.nextPosition(nextVelocity, timestep_s);
+        long collision_started_at_ns = System.nanoTime();
+        this.metrics.recordStage(PhysicsEngineMetrics.Stage.MOVE, collision_started_at_ns - move_started_at_ns);
 
-            entity.setAcceleration(nextAcceleration);
-            entity.setVelocity(nextVelocity);
-            entity.setPosition(nextPosition);
+        // Check for collisions now all entities are at their new position, or along their path for fast movers
+        this.stageCollision(this.sweptStore != null ? this.sweptStore.prepare(timestep_s) : store);
 
-            // Check for collisions for this entity
-            stageCollision(entity, entities);
-        }
+        // Entities leaving the world in this step can still hit something on their way out
+        this.stageCull(store);
+
+        this.metrics.recordStage(PhysicsEngineMetrics.Stage.COLLISION, System.nanoTime() - collision_started_at_ns);
     }
 
-    private void stageCollision(Entity entity, Map<Integer, Entity> allEntities) {
-        int e1Id = entity.getEntityId();
+    /**
+     * Sets the acceleration of every drone with a target location to steer it there during this time step. Sleeping
+     * drones are skipped: they are held still at their target, and changing the target wakes them. Drones are only
+     * reloaded into the store if their acceleration changed, so a drone held still can fall asleep.
+     * @param store The store containing all entities in the world.
+     * @param timestep_s The time step in seconds.
+     */
+    private void stageSteer(EntityStore store, double timestep_s) {
+        for(Entity.DroneEntity drone : this.entityManager.getDrones().values()) {
+            D3Vector target = drone.getTargetPosition();
+            int slot = store.slotOf(drone.getEntityId());
 
-        for(Map.Entry<Integer, Entity> e2 : allEntities.entrySet()) {
-            Entity otherEntity = e2.getValue();
-            int e2Id = otherEntity.getEntityId();
+            if(target != null && slot >= 0 && !store.isAsleep(slot)) {
+                // Bring the drone up-to-date with the store before steering it
+                store.sync(slot);
+                D3Vector acceleration = this.autopilot.steer(drone.getPosition(), drone.getVelocity(), target, timestep_s);
 
-            if (entity.getEntityId() != otherEntity.getEntityId()) {
-                if(entity.collides(otherEntity)) {
-                    startCollision(e1Id, entity, e2Id, otherEntity);
-                } else {
-                    //These entities are not colliding, so remove any collisions if there were any
-                    removeCollision(e1Id, entity, e2Id, otherEntity);
+                if(!acceleration.equals(drone.getAcceleration())) {
+                    drone.setAcceleration(acceleration);
+                    store.reload(slot);
                 }
             }
         }
     }
 
-    private void startCollision(int e1Id, Entity entity1, int e2Id, Entity entity2) {
-        boolean startedE1WithE2 = false;
-        boolean startedE2WithE1 = false;
+    /**
+     * Removes all entities which left the arena or their range while moving and sends their exit to the observer, so
+     * they are not broadcast nor tested for collisions in the next steps. Runs after the collisions of the step are
+     * detected, so an entity still collides with what it hit on its way out, and the collisions of a removed entity
+     * are ended. Sleeping entities did not move, so they are not checked for leaving the arena.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageCull(EntityStore store) {
+        if(this.culler == null) {
+            return;
+        }
+
+        this.exitCount = 0;
+
+        for(int slot = 0; slot < store.size(); slot++) {
+            if(!store.isAsleep(slot) && this.culler.isOutOfBounds(store, slot)) {
+                this.addExit(store.getEntityId(slot), ExitReason.OUT_OF_BOUNDS);
+            }
+        }
+
+        for(Entity.BulletEntity bullet : this.entityManager.getBullets().values()) {
+            int slot = store.slotOf(bullet.getEntityId());
+
+            if(slot >= 0 && !store.isAsleep(slot) && !this.culler.isOutOfBounds(store, slot) && this.culler.isOutOfRange(store, slot, bullet)) {
+                this.addExit(bullet.getEntityId(), ExitReason.OUT_OF_RANGE);
+            }
+        }
+
+        if(this.exitCount > 0 && this.observer != null) {
+            this.stageExitedCollisions(store);
+        }
+
+        for(int i = 0; i < this.exitCount; i++) {
+            int slot = store.slotOf(this.exitIds[i]);
+            Entity exited = new Entity(store.getEntity(slot));
+
+            this.entityManager.removeNow(this.exitIds[i]);
+
+            if(this.observer != null) {
+                this.observer.entityExitHandler(exited, this.exitReasons[i]);
+            }
+        }
+    }
+
+    /**
+     * Ends all collisions of this loop with an entity which left the simulated world, as a removed entity is forgotten
+     * by the next loop without an event.
+     * @param store The store containing all entities in the world, including the entities which left it.
+     */
+    private void stageExitedCollisions(EntityStore store) {
+        for(int i = 0; i < this.currentCollisions.size(); i++) {
+            long pair = this.currentCollisions.get(i);
+            int e1Id = CollisionPairSet.getFirstId(pair);
+            int e2Id = CollisionPairSet.getSecondId(pair);
+
+            if(this.isExit(e1Id) || this.isExit(e2Id)) {
+                //This collision ends with the entity leaving
+                this.observer.collisionStopHandler(new Entity(store.getEntity(store.slotOf(e1Id))), new Entity(store.getEntity(store.slotOf(e2Id))));
+            }
+        }
+    }
+
+    /**
+     * Returns whether the entity left the simulated world in this loop.
+     * @param entityId The id of the entity.
+     * @return Whether the entity is in exitIds.
+     */
+    private boolean isExit(int entityId) {
+        for(int i = 0; i < this.exitCount; i++) {
+            if(this.exitIds[i] == entityId) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remembers that the entity left the simulated world in this loop.
+     * @param entityId The id of the entity.
+     * @param reason Why the entity left the simulated world.
+     */
+    private void addExit(int entityId, ExitReason reason) {
+        if(this.exitCount == this.exitIds.length) {
+            this.exitIds = Arrays.copyOf(this.exitIds, this.exitIds.length * 2);
+            this.exitReasons = Arrays.copyOf(this.exitReasons, this.exitReasons.length * 2);
+        }
+
+        this.exitIds[this.exitCount] = entityId;
+        this.exitReasons[this.exitCount] = reason;
+        this.exitCount++;
+    }
+
+    /**
+     * Detects all collisions which started or ended in this loop. All colliding pairs of this loop are collected from
+     * the candidate pairs found by the broadphase and compared with the colliding pairs of the previous loop.
+     * Pairs of two sleeping entities are not tested, as neither moved. Sleeping entities which collide with an awake
+     * entity are woken after all collisions are detected, so which entities are asleep does not change during a loop.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageCollision(EntityStore store) {
+        CollisionPairSet previous = this.currentCollisions;
+        this.currentCollisions = this.previousCollisions;
+        this.previousCollisions = previous;
+        this.currentCollisions.clear();
+        this.wakeCount = 0;
+        this.pair_tests = 0;
+
+        if(this.pool != null) {
+            this.stageParallelCandidatePairs(store);
+        } else {
+            this.broadPhase.findCandidatePairs(store, (slot1, slot2) -> this.testCandidatePair(store, slot1, slot2));
+        }
+
+        this.stageSleepingCollisions(store);
+        this.stageEndedCollisions(store);
+        this.stageStartedCollisions(store);
+        this.stageWake(store);
+    }
+
+    /**
+     * Keeps the collisions of the previous loop between two sleeping entities, as these pairs are not tested.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageSleepingCollisions(EntityStore store) {
+        for(int i = 0; i < this.previousCollisions.size(); i++) {
+            long pair = this.previousCollisions.get(i);
+            int slot1 = store.slotOf(CollisionPairSet.getFirstId(pair));
+            int slot2 = store.slotOf(CollisionPairSet.getSecondId(pair));
+
+            if(slot1 >= 0 && slot2 >= 0 && store.isAsleep(slot1) && store.isAsleep(slot2)) {
+                this.currentCollisions.add(pair);
+            }
+        }
+    }
+
+    /**
+     * Wakes all sleeping entities which collided with an awake entity in this loop.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageWake(EntityStore store) {
+        for(int i = 0; i < this.wakeCount; i++) {
+            store.wake(this.wakeSlots[i]);
+        }
+
+        this.wakeCount = 0;
+    }
+
+    /**
+     * Tests all candidate pairs for a collision in parallel. The results are merged in the order the broadphase found
+     * the pairs, so the same collisions are found in the same order as when running single-threaded.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageParallelCandidatePairs(EntityStore store) {
+        this.candidatePairs.clear();
+        this.broadPhase.findCandidatePairs(store, (slot1, slot2) -> {
+            if(!store.isAsleep(slot1) || !store.isAsleep(slot2)) {
+                this.candidatePairs.add(slot1, slot2);
+            }
+        });
+
+        int pairs = this.candidatePairs.size();
+        this.pair_tests = pairs;
+
+        if(pairs > MIN_PARALLEL_CHUNK_SIZE) {
+            int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, pairs / this.pool.getParallelism());
+            this.pool.invoke(new RangeTask(0, pairs, chunkSize, (from, to) -> this.candidatePairs.test(store, from, to)));
+        } else {
+            this.candidatePairs.test(store, 0, pairs);
+        }
+
+        for(int i = 0; i < pairs; i++) {
+            if(this.candidatePairs.isColliding(i)) {
+                this.addCollidingPair(store, this.candidatePairs.getSlot1(i), this.candidatePairs.getSlot2(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the candidate pair to the current collisions if they collide. Pairs of two sleeping entities are skipped.
+     * @param store The store containing all entities in the world.
+     * @param slot1 The slot of the first entity of the pair.
+     * @param slot2 The slot of the second entity of the pair.
+     */
+    private void testCandidatePair(EntityStore store, int slot1, int slot2) {
+        if(store.isAsleep(slot1) && store.isAsleep(slot2)) {
+            return;
+        }
+
+        this.pair_tests++;
+
+        if(store.collides(slot1, slot2)) {
+            this.addCollidingPair(store, slot1, slot2);
+        }
+    }
+
+    /**
+     * Adds the colliding pair to the current collisions. A sleeping entity of the pair is woken at the end of the loop.
+     * @param store The store containing all entities in the world.
+     * @param slot1 The slot of the first entity of the pair.
+     * @param slot2 The slot of the second entity of the pair.
+     */
+    private void addCollidingPair(EntityStore store, int slot1, int slot2) {
+        int e1Id = store.getEntityId(slot1);
+        int e2Id = store.getEntityId(slot2);
 
-        Set<Integer> collisionsE1 = currentCollisions.get(e1Id);
-        Set<Integer> collisionsE2 = currentCollisions.get(e2Id);
+        if(e1Id != e2Id) {
+            this.currentCollisions.add(CollisionPairSet.pack(e1Id, e2Id));
 
-        // Only add to hashmap if the collision was not present yet
-        if(!collisionsE1.contains(e2Id)) {
-            collisionsE1.add(e2Id);
-            startedE1WithE2 = true;
+            if(store.isAsleep(slot1)) {
+                this.addWakeSlot(slot1);
+            } else if(store.isAsleep(slot2)) {
+                this.addWakeSlot(slot2);
+            }
         }
+    }
 
-        if(!collisionsE2.contains(e1Id)) {
-            collisionsE2.add(e1Id);
-            startedE2WithE1 = true;
+    /**
+     * Remembers to wake the entity in the slot at the end of the loop.
+     * @param slot The slot of the sleeping entity.
+     */
+    private void addWakeSlot(int slot) {
+        if(this.wakeCount == this.wakeSlots.length) {
+            this.wakeSlots = Arrays.copyOf(this.wakeSlots, this.wakeSlots.length * 2);
         }
 
-        // If the collision wasn't happening yet
-        if(observer != null && (startedE1WithE2 || startedE2WithE1)) {
-            //This collision is new and has just started
-            observer.collisionStartHandler(new Entity(entity1), new Entity(entity2));
+        this.wakeSlots[this.wakeCount] = slot;
+        this.wakeCount++;
+    }
+
+    /**
+     * Ends all collisions of the previous loop which are no longer present. Collisions with an entity which was removed
+     * are forgotten without an event.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageEndedCollisions(EntityStore store) {
+        for(int i = 0; i < this.previousCollisions.size(); i++) {
+            long pair = this.previousCollisions.get(i);
+
+            if(!this.currentCollisions.contains(pair)) {
+                int slot1 = store.slotOf(CollisionPairSet.getFirstId(pair));
+                int slot2 = store.slotOf(CollisionPairSet.getSecondId(pair));
+
+                if(slot1 >= 0 && slot2 >= 0 && observer != null) {
+                    //This collision has just ended
+                    observer.collisionStopHandler(new Entity(store.getEntity(slot1)), new Entity(store.getEntity(slot2)));
+                }
+            }
         }
     }
 
-    private void removeCollision(int e1Id, Entity entity1, int e2Id, Entity entity2) {
-        Set<Integer> collisionsE1 = currentCollisions.get(e1Id);
-        Set<Integer> collisionsE2 = currentCollisions.get(e2Id);
+    /**
+     * Starts all collisions of this loop which were not present in the previous loop.
+     * @param store The store containing all entities in the world.
+     */
+    private void stageStartedCollisions(EntityStore store) {
+        for(int i = 0; i < this.currentCollisions.size(); i++) {
+            long pair = this.currentCollisions.get(i);
 
-        boolean e1CollidedWithe2 = collisionsE1.remove(e2Id);
-        boolean e2CollidedWithe1 = collisionsE2.remove(e1Id);
+            if(!this.previousCollisions.contains(pair) && observer != null) {
+                int slot1 = store.slotOf(CollisionPairSet.getFirstId(pair));
+                int slot2 = store.slotOf(CollisionPairSet.getSecondId(pair));
 
-        if(observer != null && (e1CollidedWithe2 || e2CollidedWithe1)) {
-            //This collision has just ended
-            observer.collisionStopHandler(new Entity(entity1), new Entity(entity2));
+                //This collision is new and has just started
+                observer.collisionStartHandler(new Entity(store.getEntity(slot1)), new Entity(store.getEntity(slot2)));
+            }
         }
     }
 
@@ -180,25 +672,249 @@ public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
         long last_broadcast_ms = this.current_step_started_at_ms - this.last_state_broadcast_at_ms;
 
         if(this.broadcast_state_every_ms >= 0 && last_broadcast_ms >= this.broadcast_state_every_ms) {
-            observer.broadcastStateHandler(this.entityManager.copyState());
+            this.broadcastState();
             this.last_state_broadcast_at_ms = this.current_step_started_at_ms;
         }
 
     }
 
+    /**
+     * Advances the simulation by a single step: processes all requested changes, moves all entities and detects
+     * collisions. Does not broadcast the state.
+     * @param timestep_s The time step in seconds.
+     */
+    public void step(double timestep_s) {
+        long step_started_at_ns = System.nanoTime();
+
+        if(this.journal != null) {
+            this.journal.beginStep(timestep_s);
+        }
+
+        this.entityManager.processChanges();
+        this.metrics.recordStage(PhysicsEngineMetrics.Stage.PROCESS_CHANGES, System.nanoTime() - step_started_at_ns);
+
+        this.stageMove(timestep_s);
+        this.metrics.recordStep(this.entityManager.getStore().size(), this.pair_tests);
+    }
+
     /**
      * Starts the current physics engine. If it is already started, no action is taken.
      * @threadsafe
      */
     protected void work() throws InterruptedException {
+        long loop_at_ns = System.nanoTime();
+        long interval_ns = this.loopInterval_ns();
+
+        if(this.loop_started_at_ns > 0 && interval_ns > 0) {
+            this.metrics.recordJitter(Math.abs(loop_at_ns - this.loop_started_at_ns - interval_ns));
+        }
+        this.loop_started_at_ns = loop_at_ns;
+
+        if(this.maxSpeed) {
+            this.workMaxSpeed();
+        } else if(this.stepAccumulator != null) {
+            this.workFixedTimeStep();
+        } else {
+            this.workVariableTimeStep();
+        }
+
+        this.logMetricsIfDue();
+    }
+
+    /**
+     * Returns the intended time between the start of two loops.
+     * @return The time between two loops in nanoseconds or 0 if the loops run as fast as possible.
+     */
+    private long loopInterval_ns() {
+        if(this.maxSpeed) {
+            return 0;
+        } else {
+            return this.tick_ns;
+        }
+    }
+
+    /**
+     * Records the time the current loop took until now as the time of the complete loop and lets the governor adapt
+     * the rates to it. Must be called before sleeping.
+     */
+    private void recordLoop() {
+        long loop_ns = System.nanoTime() - this.loop_started_at_ns;
+        this.metrics.recordLoop(loop_ns, this.loopInterval_ns());
+
+        if(this.governor != null && this.governor.record(loop_ns, this.observer != null ? this.observer.getBacklog() : 0)) {
+            this.useGovernedRates();
+
+            // One step per loop interval, which is the fixed time step if there is one
+            double stepRate = 1_000_000_000d / this.tick_ns;
+            logger.info(String.format("Physics engine rates changed to %.1f steps per second and a broadcast every %d ms",
+                    stepRate, this.broadcast_state_every_ms));
+
+            if(this.observer != null) {
+                this.observer.tickRateHandler(stepRate, this.broadcast_state_every_ms);
+            }
+        }
+    }
+
+    /**
+     * Switches to the loop and broadcast rate chosen by the governor. The governor of a fixed time step keeps the loop
+     * interval at the time step.
+     */
+    private void useGovernedRates() {
+        this.tick_ns = this.governor.getStep_ns();
+        this.broadcast_state_every_ms = this.governor.getBroadcastInterval_ms();
+    }
+
+    /**
+     * Logs the metrics if the last time they were logged is long enough ago.
+     */
+    private void logMetricsIfDue() {
+        long current_ms = System.currentTimeMillis();
+
+        if(this.log_metrics_every_ms > 0 && current_ms - this.last_metrics_log_at_ms >= this.log_metrics_every_ms) {
+            logger.info("Physics engine metrics: " + this.metrics);
+            this.last_metrics_log_at_ms = current_ms;
+        }
+    }
+
+    @Override
+    public PhysicsEngineMetrics getMetrics() {
+        return new PhysicsEngineMetrics(this.metrics);
+    }
+
+    @Override
+    public void resetMetrics() {
+        this.metrics.reset();
+    }
+
+    /**
+     * Runs a loop with a fixed time step. All steps for the wall time elapsed since the previous loop are taken and
+     * the state is broadcast if it is due according to the simulated time. Then sleeps until the next step is due.
+     * @throws InterruptedException If the thread is interrupted while sleeping.
+     */
+    private void workFixedTimeStep() throws InterruptedException {
+        long loop_at_ns = System.nanoTime();
+        int steps = this.stepAccumulator.advance(loop_at_ns - this.last_loop_at_ns);
+        long step_ns = this.stepAccumulator.getStep_ns();
+        double timestep_s = ((double) step_ns) / 1_000_000_000L;
+        this.last_loop_at_ns = loop_at_ns;
+
+        for(int i = 0; i < steps; i++) {
+            this.step(timestep_s);
+            this.simulated_time_ns += step_ns;
+        }
+
+        this.stageBroadcastSimulatedState();
+        this.recordLoop();
+
+        long sleep_ns = this.stepAccumulator.untilNextStep_ns() - (System.nanoTime() - loop_at_ns);
+
+        if(sleep_ns > 0) {
+            Thread.sleep(sleep_ns / 1_000_000L, (int) (sleep_ns % 1_000_000L));
+        }
+    }
+
+    /**
+     * Runs a loop as fast as the drones allow. First waits until the drones acknowledged the time of the last
+     * broadcast, so their commands for it are applied in this step. Then takes a single fixed time step, advances the
+     * simulation clock with it and broadcasts the state if it is due according to the simulated time, followed by the
+     * time of the simulation for the drones to acknowledge. The fixed time step is {@link Settings#PHYSICS_STEP_RATE} or
+     * a tick if no step rate is configured.
+     * @throws InterruptedException If the thread is interrupted while waiting for the drones.
+     */
+    private void workMaxSpeed() throws InterruptedException {
+        long step_ns = this.stepAccumulator != null ? this.stepAccumulator.getStep_ns() : Settings.TICK_TIME * 1_000_000L;
+
+        if(this.awaited_tick_ms >= 0) {
+            if(!this.tickBarrier.await(this.entityManager.getDrones().keySet(), this.awaited_tick_ms, this.tick_ack_timeout_ms)) {
+                logger.debug("Not all drones acknowledged the tick at " + this.awaited_tick_ms + " in time, stepping without them");
+            }
+
+            this.awaited_tick_ms = -1;
+        }
+
+        this.step(((double) step_ns) / 1_000_000_000L);
+        this.simulated_time_ns += step_ns;
+        SimulationClock.advance(step_ns);
+
+        if(this.stageBroadcastSimulatedState() && this.observer != null) {
+            this.awaited_tick_ms = SimulationClock.currentTimeMillis();
+            this.observer.simulationTickHandler(this.awaited_tick_ms);
+        }
+
+        this.recordLoop();
+    }
+
+    /**
+     * Broadcasts the current state if the broadcast is due according to the simulated time.
+     * @return Whether the state was broadcast.
+     */
+    private boolean stageBroadcastSimulatedState() {
+        long since_broadcast_ns = this.simulated_time_ns - this.last_state_broadcast_at_simulated_ns;
+
+        if(this.broadcast_state_every_ms >= 0 && since_broadcast_ns >= this.broadcast_state_every_ms * 1_000_000L) {
+            this.broadcastState();
+            this.last_state_broadcast_at_simulated_ns = this.simulated_time_ns;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Broadcasts the state to the observer. Either the full state, or if only changes are broadcast, the entities which
+     * changed since the last broadcast. In that case the full state is broadcast as a keyframe once every
+     * {@link Settings#PHYSICS_KEYFRAME_INTERVAL} broadcasts. If snapshots are enabled, the broadcast entities are
+     * copies which are reused on the next broadcast. Without an observer nothing is broadcast.
+     */
+    private void broadcastState() {
+        if(this.observer == null) {
+            return;
+        }
+
+        long broadcast_started_at_ns = System.nanoTime();
+
+        if(this.stateChangeTracker == null) {
+            List<Entity> currentState;
+
+            if(this.broadcastSnapshot != null) {
+                currentState = this.entityManager.copyState(this.broadcastSnapshot);
+            } else {
+                currentState = this.entityManager.copyState();
+            }
+
+            observer.broadcastStateHandler(currentState);
+        } else {
+            boolean keyframe = this.broadcasts_since_keyframe == 0;
+            List<Entity> changedState;
+
+            if(this.broadcastSnapshot != null) {
+                changedState = this.entityManager.copyChangedState(this.stateChangeTracker, keyframe, this.broadcastSnapshot);
+            } else {
+                changedState = this.entityManager.copyChangedState(this.stateChangeTracker, keyframe);
+            }
+
+            this.broadcasts_since_keyframe = (this.broadcasts_since_keyframe + 1) % this.keyframe_every_broadcasts;
+            observer.broadcastDeltaStateHandler(changedState, keyframe);
+        }
+
+        this.metrics.recordStage(PhysicsEngineMetrics.Stage.BROADCAST, System.nanoTime() - broadcast_started_at_ns);
+    }
+
+    /**
+     * Runs a loop with a time step equal to the wall time elapsed since the previous loop. Then sleeps for the
+     * remainder of the tick.
+     * @throws InterruptedException If the thread is interrupted while sleeping.
+     */
+    private void workVariableTimeStep() throws InterruptedException {
         double timestep_s = this.stageTimeStep();
-        this.entityManager.processChanges();
-        this.stageMove(timestep_s);
+        this.step(timestep_s);
         this.stageBroadcastState();
+        this.recordLoop();
 
         long current_step_ended_at_ms = System.currentTimeMillis();
         long current_step_took_ms = current_step_ended_at_ms - current_step_started_at_ms;
-        long diff = Settings.TICK_TIME - current_step_took_ms; //TODO use some settings variable here
+        long diff = this.tick_ns / 1_000_000L - current_step_took_ms;
 
         if(diff > 0) {
             Thread.sleep(diff);
@@ -273,19 +989,109 @@ public class PhysicsEngine extends ManagedThread implements IPhysicsEngine {
         // Override destroy from thread to do nothing. Will be called as callback by Activator upon destroy of the bundle
     }
 
+    /**
+     * Runs the engine thread until it is interrupted, after which the threads of the engine are shut down as well.
+     */
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            this.shutdownPools();
+        }
+    }
+
+    /**
+     * Shuts down the threads of the parallel stages and of the broadphase. The engine cannot step anymore afterwards.
+     */
+    private void shutdownPools() {
+        if(this.pool != null) {
+            this.pool.shutdown();
+        }
+
+        this.broadPhase.shutdown();
+    }
+
     @Override
     protected void onStart() {
         this.current_step_started_at_ms = System.currentTimeMillis();
         this.last_state_broadcast_at_ms = this.current_step_started_at_ms;
+        this.last_loop_at_ns = System.nanoTime();
+        this.last_state_broadcast_at_simulated_ns = this.simulated_time_ns;
+        this.loop_started_at_ns = 0;
+        this.awaited_tick_ms = -1;
+
+        if(this.stepAccumulator != null) {
+            this.stepAccumulator.reset();
+        }
+
+        if(this.governor != null) {
+            this.governor.reset();
+            this.useGovernedRates();
+        }
+
+        if(!Settings.PHYSICS_JOURNAL.isEmpty()) {
+            this.openJournal(Settings.PHYSICS_JOURNAL);
+        }
+    }
+
+    /**
+     * Starts recording all applied changes in a new journal file. Recording is skipped if the file cannot be created.
+     * @param path The path of the journal file. Overwritten if it exists.
+     */
+    private void openJournal(String path) {
+        try {
+            this.setJournal(new InputJournal(new FileOutputStream(path)));
+            logger.info("Recording the input journal to " + path);
+        } catch(IOException e) {
+            logger.error("Could not create the input journal " + path + ", not recording", e);
+        }
+    }
+
+    /**
+     * Stops recording applied changes and closes the journal file, if any.
+     */
+    private void closeJournal() {
+        if(this.journal != null) {
+            try {
+                this.journal.close();
+            } catch(IOException e) {
+                logger.error("Could not close the input journal", e);
+            }
+
+            this.setJournal(null);
+        }
     }
 
     @Override
     protected void onResume() {
         this.current_step_started_at_ms = System.currentTimeMillis();
+        this.last_loop_at_ns = System.nanoTime();
+        this.loop_started_at_ns = 0;
     }
 
     @Override
     protected void onStop() {
+        // The next game starts on the wall clock again
+        SimulationClock.reset();
+
+        if(!Settings.PHYSICS_JOURNAL.isEmpty()) {
+            this.closeJournal();
+        }
+
         this.entityManager.clear();
+        this.currentCollisions.clear();
+        this.previousCollisions.clear();
+        this.broadcasts_since_keyframe = 0;
+        this.awaited_tick_ms = -1;
+
+        if(this.tickBarrier != null) {
+            this.tickBarrier.clear();
+        }
+
+        if(this.stateChangeTracker != null) {
+            this.stateChangeTracker.clear();
+        }
+        this.broadPhase.clear();
     }
 }
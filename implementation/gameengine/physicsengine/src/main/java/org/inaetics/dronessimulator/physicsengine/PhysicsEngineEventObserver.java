@@ -1,5 +1,7 @@
 package org.inaetics.dronessimulator.physicsengine;
 
+import org.inaetics.dronessimulator.gameengine.common.gameevent.ExitReason;
+
 import java.util.List;
 
 /**
@@ -25,7 +27,58 @@ public interface PhysicsEngineEventObserver {
     /**
      * What to do when a broadcast of the current state is send.
      * @param currentState All information about all entities. The received states are deep copies, so there are no
-     *                     negative effects to the state inside the physics engine.
+     *                     negative effects to the state inside the physics engine. The copies may be reused by the next
+     *                     broadcast, so they must not be kept after the call.
      */
     public void broadcastStateHandler(List<Entity> currentState);
+
+    /**
+     * What to do when a broadcast of only the entities which changed since the last broadcast is send. Used instead of
+     * broadcastStateHandler if the physics engine only broadcasts changes. Observers which do not support this receive
+     * the changed entities through broadcastStateHandler.
+     * @param changedState The entities which changed since the last broadcast, or all entities if it is a keyframe. The
+     *                     received states are deep copies which must not be kept after the call.
+     * @param keyframe Whether this broadcast contains all entities.
+     */
+    default void broadcastDeltaStateHandler(List<Entity> changedState, boolean keyframe) {
+        this.broadcastStateHandler(changedState);
+    }
+
+    /**
+     * What to do when an entity leaves the simulated world. The physics engine already removed the entity, so it is not
+     * part of any later event.
+     * @param entity A deep copy of the entity at the position it left the world.
+     * @param reason Why the entity left the world.
+     */
+    default void entityExitHandler(Entity entity, ExitReason reason) {
+        // Exits are ignored by default
+    }
+
+    /**
+     * Returns the number of events the observer received which are not processed yet. The physics engine lowers its
+     * rates if too many events are waiting.
+     * @return The number of waiting events.
+     */
+    default int getBacklog() {
+        return 0;
+    }
+
+    /**
+     * What to do when the physics engine changes its rates to adapt to the load.
+     * @param stepRate The number of steps the engine now takes per second.
+     * @param broadcastInterval_ms The time between broadcasts of the state in ms. Negative if the state is never
+     *                             broadcast.
+     */
+    default void tickRateHandler(double stepRate, long broadcastInterval_ms) {
+        // Rate changes are ignored by default
+    }
+
+    /**
+     * What to do when the simulation running at maximum speed has broadcast the state. The physics engine waits with
+     * the next step until the drones acknowledged this time, see {@link IPhysicsEngine#acknowledgeTick(int, long)}.
+     * @param simulationTime_ms The time of the simulation in ms since the epoch.
+     */
+    default void simulationTickHandler(long simulationTime_ms) {
+        // Ticks are ignored by default
+    }
 }
@@ -0,0 +1,220 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Instrumentation of the loops of the physics engine. Keeps a latency histogram per stage of a loop, the entity and
+ * pair test counts of the last step, the number of loops which overran their budget and the jitter of the loop start
+ * times. The physics engine records into its own instance, others read a copy.
+ * This class is threadsafe.
+ */
+public class PhysicsEngineMetrics {
+    /**
+     * The instrumented stages of a loop of the physics engine.
+     */
+    public enum Stage {
+        /** Processing the requested inserts, updates and removals. */
+        PROCESS_CHANGES,
+
+        /** Moving all entities. */
+        MOVE,
+
+        /** Finding all collisions which started or ended. */
+        COLLISION,
+
+        /** Copying and broadcasting the state. Only recorded in loops which broadcast. */
+        BROADCAST,
+
+        /** A complete loop, excluding the time spent sleeping. */
+        LOOP
+    }
+
+    /** The latencies per stage. */
+    private final Map<Stage, LatencyHistogram> stages;
+
+    /** The deviation of the time between the start of two loops from the intended time between them. */
+    private final LatencyHistogram jitter;
+
+    /** The number of entities in the last step. */
+    private int entityCount;
+
+    /** The number of candidate pairs tested for a collision in the last step. */
+    private int pairTestCount;
+
+    /** The total number of candidate pairs tested for a collision. */
+    private long totalPairTestCount;
+
+    /** The number of steps taken. */
+    private long stepCount;
+
+    /** The number of loops which took longer than their budget. */
+    private long overrunCount;
+
+    /**
+     * Creates empty metrics.
+     */
+    public PhysicsEngineMetrics() {
+        this.stages = new EnumMap<>(Stage.class);
+
+        for(Stage stage : Stage.values()) {
+            this.stages.put(stage, new LatencyHistogram());
+        }
+
+        this.jitter = new LatencyHistogram();
+    }
+
+    /**
+     * Creates a copy of the metrics.
+     * @param other The metrics to copy.
+     */
+    public PhysicsEngineMetrics(PhysicsEngineMetrics other) {
+        synchronized(other) {
+            this.stages = new EnumMap<>(Stage.class);
+
+            for(Map.Entry<Stage, LatencyHistogram> e : other.stages.entrySet()) {
+                this.stages.put(e.getKey(), new LatencyHistogram(e.getValue()));
+            }
+
+            this.jitter = new LatencyHistogram(other.jitter);
+            this.entityCount = other.entityCount;
+            this.pairTestCount = other.pairTestCount;
+            this.totalPairTestCount = other.totalPairTestCount;
+            this.stepCount = other.stepCount;
+            this.overrunCount = other.overrunCount;
+        }
+    }
+
+    /**
+     * Records the latency of a stage.
+     * @param stage The stage.
+     * @param latency_ns The time the stage took in nanoseconds.
+     */
+    public synchronized void recordStage(Stage stage, long latency_ns) {
+        this.stages.get(stage).record(latency_ns);
+    }
+
+    /**
+     * Records the counts of a step.
+     * @param entities The number of entities in the step.
+     * @param pairTests The number of candidate pairs tested for a collision in the step.
+     */
+    public synchronized void recordStep(int entities, int pairTests) {
+        this.entityCount = entities;
+        this.pairTestCount = pairTests;
+        this.totalPairTestCount += pairTests;
+        this.stepCount++;
+    }
+
+    /**
+     * Records a complete loop.
+     * @param latency_ns The time the loop took excluding sleeping in nanoseconds.
+     * @param budget_ns The time the loop was allowed to take in nanoseconds. 0 if the loop has no budget.
+     */
+    public synchronized void recordLoop(long latency_ns, long budget_ns) {
+        this.stages.get(Stage.LOOP).record(latency_ns);
+
+        if(budget_ns > 0 && latency_ns > budget_ns) {
+            this.overrunCount++;
+        }
+    }
+
+    /**
+     * Records the jitter of the start of a loop.
+     * @param jitter_ns The absolute deviation from the intended start of the loop in nanoseconds.
+     */
+    public synchronized void recordJitter(long jitter_ns) {
+        this.jitter.record(jitter_ns);
+    }
+
+    /**
+     * Returns a copy of the latencies of the stage.
+     * @param stage The stage.
+     * @return The latencies of the stage.
+     */
+    public synchronized LatencyHistogram getStage(Stage stage) {
+        return new LatencyHistogram(this.stages.get(stage));
+    }
+
+    /**
+     * Returns a copy of the jitter of the start of the loops.
+     * @return The jitter of the loops.
+     */
+    public synchronized LatencyHistogram getJitter() {
+        return new LatencyHistogram(this.jitter);
+    }
+
+    /**
+     * Returns the number of entities in the last step.
+     * @return The number of entities.
+     */
+    public synchronized int getEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * Returns the number of candidate pairs tested for a collision in the last step.
+     * @return The number of pair tests.
+     */
+    public synchronized int getPairTestCount() {
+        return this.pairTestCount;
+    }
+
+    /**
+     * Returns the total number of candidate pairs tested for a collision.
+     * @return The total number of pair tests.
+     */
+    public synchronized long getTotalPairTestCount() {
+        return this.totalPairTestCount;
+    }
+
+    /**
+     * Returns the number of steps taken.
+     * @return The number of steps.
+     */
+    public synchronized long getStepCount() {
+        return this.stepCount;
+    }
+
+    /**
+     * Returns the number of loops which took longer than their budget.
+     * @return The number of overruns.
+     */
+    public synchronized long getOverrunCount() {
+        return this.overrunCount;
+    }
+
+    /**
+     * Forgets everything which was recorded.
+     */
+    public synchronized void reset() {
+        for(LatencyHistogram histogram : this.stages.values()) {
+            histogram.reset();
+        }
+
+        this.jitter.reset();
+        this.entityCount = 0;
+        this.pairTestCount = 0;
+        this.totalPairTestCount = 0;
+        this.stepCount = 0;
+        this.overrunCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder result = new StringBuilder();
+
+        result.append("steps=").append(this.stepCount)
+              .append(" entities=").append(this.entityCount)
+              .append(" pairTests=").append(this.pairTestCount)
+              .append(" overruns=").append(this.overrunCount);
+
+        for(Map.Entry<Stage, LatencyHistogram> e : this.stages.entrySet()) {
+            result.append(" | ").append(e.getKey()).append(' ').append(e.getValue());
+        }
+
+        result.append(" | JITTER ").append(this.jitter);
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,335 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entity store which keeps the state in parallel primitive arrays indexed by slot. Moving entities does not allocate
+ * anything and touches the arrays sequentially. The entity handles are only brought up-to-date (materialised) when
+ * they are requested, for example to send them to the observer.
+ */
+public class PrimitiveEntityStore implements EntityStore {
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 128;
+
+    /** The slots of the entities by id. */
+    private final Map<Integer, Integer> slots;
+
+    /** The number of entities in the store. */
+    private int size;
+
+    /** The ids of the entities by slot. */
+    private int[] ids;
+
+    /** The handles of the entities by slot. */
+    private Entity[] handles;
+
+    /** Whether the handle of the entity in the slot is up-to-date with the arrays. */
+    private boolean[] materialised;
+
+    /** The position of the entities by slot. */
+    private double[] positionX;
+    private double[] positionY;
+    private double[] positionZ;
+
+    /** The velocity of the entities by slot. */
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] velocityZ;
+
+    /** The acceleration of the entities by slot. */
+    private double[] accelerationX;
+    private double[] accelerationY;
+    private double[] accelerationZ;
+
+    /** Half of the size of the hitbox of the entities by slot. */
+    private double[] halfWidth;
+    private double[] halfDepth;
+    private double[] halfHeight;
+
+    /** Tracks which entities are asleep by slot. */
+    private final SleepTracker sleepTracker;
+
+    /**
+     * Creates an empty store in which entities sleep as configured in the settings.
+     */
+    public PrimitiveEntityStore() {
+        this(new SleepTracker());
+    }
+
+    /**
+     * Creates an empty store.
+     * @param sleepTracker The tracker which decides when entities fall asleep.
+     */
+    public PrimitiveEntityStore(SleepTracker sleepTracker) {
+        this.slots = new HashMap<>(INITIAL_CAPACITY);
+        this.size = 0;
+        this.sleepTracker = sleepTracker;
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int slotOf(int entityId) {
+        Integer slot = this.slots.get(entityId);
+
+        return slot != null ? slot : -1;
+    }
+
+    @Override
+    public int getEntityId(int slot) {
+        return this.ids[slot];
+    }
+
+    @Override
+    public Entity getEntity(int slot) {
+        this.sync(slot);
+
+        return this.handles[slot];
+    }
+
+    @Override
+    public void sync(int slot) {
+        if(!this.materialised[slot]) {
+            Entity handle = this.handles[slot];
+
+            handle.setPosition(new D3Vector(this.positionX[slot], this.positionY[slot], this.positionZ[slot]));
+            handle.setVelocity(new D3Vector(this.velocityX[slot], this.velocityY[slot], this.velocityZ[slot]));
+            handle.setAcceleration(new D3Vector(this.accelerationX[slot], this.accelerationY[slot], this.accelerationZ[slot]));
+            this.materialised[slot] = true;
+        }
+    }
+
+    @Override
+    public void add(Entity entity) {
+        int slot = this.slotOf(entity.getEntityId());
+
+        if(slot < 0) {
+            if(this.size == this.ids.length) {
+                this.allocate(this.ids.length * 2);
+            }
+
+            slot = this.size;
+            this.size++;
+            this.slots.put(entity.getEntityId(), slot);
+        }
+
+        this.ids[slot] = entity.getEntityId();
+        this.handles[slot] = entity;
+        this.reload(slot);
+    }
+
+    @Override
+    public void reload(int slot) {
+        Entity handle = this.handles[slot];
+        D3Vector position = handle.getPosition();
+        D3Vector velocity = handle.getVelocity();
+        D3Vector acceleration = handle.getAcceleration();
+        Size hitbox = handle.getSize();
+
+        this.positionX[slot] = position.getX();
+        this.positionY[slot] = position.getY();
+        this.positionZ[slot] = position.getZ();
+        this.velocityX[slot] = velocity.getX();
+        this.velocityY[slot] = velocity.getY();
+        this.velocityZ[slot] = velocity.getZ();
+        this.accelerationX[slot] = acceleration.getX();
+        this.accelerationY[slot] = acceleration.getY();
+        this.accelerationZ[slot] = acceleration.getZ();
+        this.halfWidth[slot] = 0.5 * hitbox.getWidth();
+        this.halfDepth[slot] = 0.5 * hitbox.getDepth();
+        this.halfHeight[slot] = 0.5 * hitbox.getHeight();
+        this.materialised[slot] = true;
+        this.sleepTracker.wake(slot);
+    }
+
+    @Override
+    public boolean isAsleep(int slot) {
+        return this.sleepTracker.isAsleep(slot);
+    }
+
+    @Override
+    public void wake(int slot) {
+        this.sleepTracker.wake(slot);
+    }
+
+    @Override
+    public void remove(int entityId) {
+        Integer slot = this.slots.remove(entityId);
+
+        if(slot != null) {
+            int last = this.size - 1;
+
+            // Move the last entity into the freed slot to keep the slots dense
+            if(slot != last) {
+                this.move(last, slot);
+                this.slots.put(this.ids[slot], slot);
+            }
+
+            this.handles[last] = null;
+            this.size--;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.handles, 0, this.size, null);
+        this.slots.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public void integrate(int fromSlot, int toSlot, double timestep_s, D3Vector environmentForces) {
+        double forceX = environmentForces.getX();
+        double forceY = environmentForces.getY();
+        double forceZ = environmentForces.getZ();
+
+        // Same operations as Entity.move, so both stores produce the exact same results
+        for(int slot = fromSlot; slot < toSlot; slot++) {
+            if(this.sleepTracker.isAsleep(slot)) {
+                continue;
+            }
+
+            this.velocityX[slot] = (forceX + this.accelerationX[slot]) * timestep_s + this.velocityX[slot];
+            this.velocityY[slot] = (forceY + this.accelerationY[slot]) * timestep_s + this.velocityY[slot];
+            this.velocityZ[slot] = (forceZ + this.accelerationZ[slot]) * timestep_s + this.velocityZ[slot];
+
+            this.positionX[slot] = this.velocityX[slot] * timestep_s + this.positionX[slot];
+            this.positionY[slot] = this.velocityY[slot] * timestep_s + this.positionY[slot];
+            this.positionZ[slot] = this.velocityZ[slot] * timestep_s + this.positionZ[slot];
+
+            this.materialised[slot] = false;
+
+            this.sleepTracker.update(slot, this.velocityX[slot], this.velocityY[slot], this.velocityZ[slot],
+                    forceX + this.accelerationX[slot], forceY + this.accelerationY[slot], forceZ + this.accelerationZ[slot]);
+        }
+    }
+
+    @Override
+    public boolean collides(int slot1, int slot2) {
+        boolean xOverlap = (this.getMinX(slot1) <= this.getMaxX(slot2) && this.getMaxX(slot1) >= this.getMinX(slot2));
+        boolean yOverlap = (this.getMinY(slot1) <= this.getMaxY(slot2) && this.getMaxY(slot1) >= this.getMinY(slot2));
+        boolean zOverlap = (this.getMinZ(slot1) <= this.getMaxZ(slot2) && this.getMaxZ(slot1) >= this.getMinZ(slot2));
+
+        return xOverlap && yOverlap && zOverlap;
+    }
+
+    @Override
+    public double getMinX(int slot) {
+        return this.positionX[slot] - this.halfWidth[slot];
+    }
+
+    @Override
+    public double getMinY(int slot) {
+        return this.positionY[slot] - this.halfDepth[slot];
+    }
+
+    @Override
+    public double getMinZ(int slot) {
+        return this.positionZ[slot] - this.halfHeight[slot];
+    }
+
+    @Override
+    public double getMaxX(int slot) {
+        return this.positionX[slot] + this.halfWidth[slot];
+    }
+
+    @Override
+    public double getMaxY(int slot) {
+        return this.positionY[slot] + this.halfDepth[slot];
+    }
+
+    @Override
+    public double getMaxZ(int slot) {
+        return this.positionZ[slot] + this.halfHeight[slot];
+    }
+
+    @Override
+    public double getVelocityX(int slot) {
+        return this.velocityX[slot];
+    }
+
+    @Override
+    public double getVelocityY(int slot) {
+        return this.velocityY[slot];
+    }
+
+    @Override
+    public double getVelocityZ(int slot) {
+        return this.velocityZ[slot];
+    }
+
+    /**
+     * Moves all state of the entity in one slot to another slot.
+     * @param from The slot to move from.
+     * @param to The slot to move to.
+     */
+    private void move(int from, int to) {
+        this.ids[to] = this.ids[from];
+        this.handles[to] = this.handles[from];
+        this.materialised[to] = this.materialised[from];
+        this.positionX[to] = this.positionX[from];
+        this.positionY[to] = this.positionY[from];
+        this.positionZ[to] = this.positionZ[from];
+        this.velocityX[to] = this.velocityX[from];
+        this.velocityY[to] = this.velocityY[from];
+        this.velocityZ[to] = this.velocityZ[from];
+        this.accelerationX[to] = this.accelerationX[from];
+        this.accelerationY[to] = this.accelerationY[from];
+        this.accelerationZ[to] = this.accelerationZ[from];
+        this.halfWidth[to] = this.halfWidth[from];
+        this.halfDepth[to] = this.halfDepth[from];
+        this.halfHeight[to] = this.halfHeight[from];
+        this.sleepTracker.move(from, to);
+    }
+
+    /**
+     * (Re)allocates all arrays with the given capacity, keeping the current contents.
+     * @param capacity The new capacity.
+     */
+    private void allocate(int capacity) {
+        this.sleepTracker.ensureCapacity(capacity);
+
+        if(this.ids == null) {
+            this.ids = new int[capacity];
+            this.handles = new Entity[capacity];
+            this.materialised = new boolean[capacity];
+            this.positionX = new double[capacity];
+            this.positionY = new double[capacity];
+            this.positionZ = new double[capacity];
+            this.velocityX = new double[capacity];
+            this.velocityY = new double[capacity];
+            this.velocityZ = new double[capacity];
+            this.accelerationX = new double[capacity];
+            this.accelerationY = new double[capacity];
+            this.accelerationZ = new double[capacity];
+            this.halfWidth = new double[capacity];
+            this.halfDepth = new double[capacity];
+            this.halfHeight = new double[capacity];
+        } else {
+            this.ids = Arrays.copyOf(this.ids, capacity);
+            this.handles = Arrays.copyOf(this.handles, capacity);
+            this.materialised = Arrays.copyOf(this.materialised, capacity);
+            this.positionX = Arrays.copyOf(this.positionX, capacity);
+            this.positionY = Arrays.copyOf(this.positionY, capacity);
+            this.positionZ = Arrays.copyOf(this.positionZ, capacity);
+            this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+            this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+            this.velocityZ = Arrays.copyOf(this.velocityZ, capacity);
+            this.accelerationX = Arrays.copyOf(this.accelerationX, capacity);
+            this.accelerationY = Arrays.copyOf(this.accelerationY, capacity);
+            this.accelerationZ = Arrays.copyOf(this.accelerationZ, capacity);
+            this.halfWidth = Arrays.copyOf(this.halfWidth, capacity);
+            this.halfDepth = Arrays.copyOf(this.halfDepth, capacity);
+            this.halfHeight = Arrays.copyOf(this.halfHeight, capacity);
+        }
+    }
+}
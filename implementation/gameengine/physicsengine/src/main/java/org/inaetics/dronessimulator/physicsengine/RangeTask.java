@@ -0,0 +1,59 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task which splits a range of indices into chunks and works on the chunks in parallel.
+ */
+public class RangeTask extends RecursiveAction {
+    /** The first index of the range (inclusive). */
+    private final int from;
+
+    /** The last index of the range (exclusive). */
+    private final int to;
+
+    /** The maximal number of indices a single chunk may contain. */
+    private final int chunkSize;
+
+    /** The work to perform on every chunk. */
+    private final RangeWorker worker;
+
+    /**
+     * Creates a task for the given range.
+     * @param from The first index of the range (inclusive).
+     * @param to The last index of the range (exclusive).
+     * @param chunkSize The maximal number of indices a single chunk may contain.
+     * @param worker The work to perform on every chunk.
+     */
+    public RangeTask(int from, int to, int chunkSize, RangeWorker worker) {
+        this.from = from;
+        this.to = to;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.worker = worker;
+    }
+
+    @Override
+    protected void compute() {
+        if(this.to - this.from <= this.chunkSize) {
+            this.worker.work(this.from, this.to);
+        } else {
+            int middle = (this.from + this.to) >>> 1;
+
+            invokeAll(new RangeTask(this.from, middle, this.chunkSize, this.worker),
+                      new RangeTask(middle, this.to, this.chunkSize, this.worker));
+        }
+    }
+
+    /**
+     * The work to perform on a chunk of a range.
+     */
+    @FunctionalInterface
+    public interface RangeWorker {
+        /**
+         * Performs the work on the given chunk.
+         * @param from The first index of the chunk (inclusive).
+         * @param to The last index of the chunk (exclusive).
+         */
+        void work(int from, int to);
+    }
+}
@@ -0,0 +1,194 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Broadphase which splits the arena into slabs (shards) along a single axis and sweeps every shard on its own worker.
+ * An entity belongs to every shard its hitbox overlaps, so entities near a border are also a ghost in the neighbouring
+ * shard. Membership is recomputed every tick, which migrates entities between shards as they cross a border. Every
+ * shard keeps its own sort and sweep ordering between ticks.
+ * A pair of entities in multiple shards is only reported by the shard containing the start of the overlap of their
+ * hitboxes along the shard axis. As that point lies within both hitboxes, exactly one shard reports every colliding
+ * pair. The pairs are reported in shard order after all shards are done, so the results do not depend on the timing of
+ * the workers.
+ */
+public class ShardedBroadPhase implements BroadPhase {
+    /** The axis along which the arena is split. */
+    private final SweepAndPruneBroadPhase.Axis shardAxis;
+
+    /** The start of the arena along the shard axis. */
+    private final double arenaStart;
+
+    /** The number of shards per meter along the shard axis. */
+    private final double shardsPerMeter;
+
+    /** The shards. */
+    private final Shard[] shards;
+
+    /** The pool which sweeps the shards. Null if there is a single shard. Shut down by {@link #shutdown()}. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a sharded broadphase.
+     * @param shardCount The number of shards, each swept by its own worker.
+     * @param shardAxis The axis along which the arena is split. Choose the axis along which the arena is the longest.
+     * @param sweepAxis The axis along which each shard is swept. Should differ from the shard axis.
+     * @param arenaStart The start of the arena along the shard axis.
+     * @param arenaLength The length of the arena along the shard axis. Entities outside of the arena belong to the
+     *                    outermost shards.
+     */
+    public ShardedBroadPhase(int shardCount, SweepAndPruneBroadPhase.Axis shardAxis, SweepAndPruneBroadPhase.Axis sweepAxis, double arenaStart, double arenaLength) {
+        if(shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive. Got: " + shardCount);
+        }
+
+        if(arenaLength <= 0) {
+            throw new IllegalArgumentException("Arena length must be positive. Got: " + arenaLength);
+        }
+
+        this.shardAxis = shardAxis;
+        this.arenaStart = arenaStart;
+        this.shardsPerMeter = shardCount / arenaLength;
+        this.shards = new Shard[shardCount];
+
+        for(int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(i, sweepAxis);
+        }
+
+        this.pool = shardCount > 1 ? new ForkJoinPool(shardCount) : null;
+    }
+
+    @Override
+    public void findCandidatePairs(EntityStore store, CandidatePairHandler handler) {
+        this.assignShards(store);
+
+        if(this.pool != null) {
+            this.pool.invoke(new RangeTask(0, this.shards.length, 1, (from, to) -> {
+                for(int i = from; i < to; i++) {
+                    this.shards[i].sweep(store);
+                }
+            }));
+        } else {
+            this.shards[0].sweep(store);
+        }
+
+        for(Shard shard : this.shards) {
+            CandidatePairList pairs = shard.pairs;
+
+            for(int i = 0; i < pairs.size(); i++) {
+                handler.candidatePair(pairs.getSlot1(i), pairs.getSlot2(i));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for(Shard shard : this.shards) {
+            shard.sweepAndPrune.clear();
+            shard.pairs.clear();
+            shard.memberCount = 0;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if(this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * Adds every entity to each shard its hitbox overlaps.
+     * @param store The store containing all entities in the world.
+     */
+    private void assignShards(EntityStore store) {
+        for(Shard shard : this.shards) {
+            shard.memberCount = 0;
+        }
+
+        for(int slot = 0; slot < store.size(); slot++) {
+            int first = this.shardOf(this.shardAxis.min(store, slot));
+            int last = this.shardOf(this.shardAxis.max(store, slot));
+
+            for(int i = first; i <= last; i++) {
+                this.shards[i].addMember(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the shard containing the given coordinate along the shard axis.
+     * @param coordinate The coordinate along the shard axis.
+     * @return The index of the shard.
+     */
+    private int shardOf(double coordinate) {
+        int shard = (int) Math.floor((coordinate - this.arenaStart) * this.shardsPerMeter);
+
+        return Math.max(0, Math.min(this.shards.length - 1, shard));
+    }
+
+    /**
+     * A single slab of the arena with its own sort and sweep ordering.
+     */
+    private class Shard {
+        /** The index of the shard. */
+        private final int index;
+
+        /** The sort and sweep over the members of the shard. */
+        private final SweepAndPruneBroadPhase sweepAndPrune;
+
+        /** The candidate pairs reported by this shard in the current tick. */
+        private final CandidatePairList pairs;
+
+        /** The slots of the entities which overlap the shard in the current tick. */
+        private int[] members;
+
+        /** The number of slots in members. */
+        private int memberCount;
+
+        Shard(int index, SweepAndPruneBroadPhase.Axis sweepAxis) {
+            this.index = index;
+            this.sweepAndPrune = new SweepAndPruneBroadPhase(sweepAxis);
+            this.pairs = new CandidatePairList();
+            this.members = new int[64];
+            this.memberCount = 0;
+        }
+
+        /**
+         * Adds the entity in the slot to the members of this shard.
+         * @param slot The slot of the entity.
+         */
+        void addMember(int slot) {
+            if(this.memberCount == this.members.length) {
+                this.members = Arrays.copyOf(this.members, this.members.length * 2);
+            }
+
+            this.members[this.memberCount] = slot;
+            this.memberCount++;
+        }
+
+        /**
+         * Finds the candidate pairs among the members which are owned by this shard.
+         * @param store The store containing all entities in the world.
+         */
+        void sweep(EntityStore store) {
+            this.pairs.clear();
+            this.sweepAndPrune.findCandidatePairs(store, this.members, this.memberCount, (slot1, slot2) -> {
+                double overlapStart = Math.max(shardAxis.min(store, slot1), shardAxis.min(store, slot2));
+
+                if(shardOf(overlapStart) == this.index) {
+                    this.pairs.add(slot1, slot2);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+
+import java.util.Arrays;
+
+/**
+ * Tracks per slot of an entity store how many ticks an entity has been still. An entity is still if each component of
+ * its velocity and of its total acceleration is within the threshold. Once an entity has been still for enough
+ * consecutive ticks it falls asleep: it is no longer moved and is only tested for collisions against awake entities.
+ * A sleeping entity stays asleep until it is woken.
+ * This class is not threadsafe, except that update may be called concurrently for different slots.
+ */
+public class SleepTracker {
+    /** Initial capacity of the counters. */
+    private static final int INITIAL_CAPACITY = 128;
+
+    /** Maximal velocity in m/s and acceleration in m/s^2 per axis at which an entity counts as still. */
+    private final double threshold;
+
+    /** The number of consecutive still ticks after which an entity falls asleep. 0 if entities never sleep. */
+    private final int sleepTicks;
+
+    /** The number of consecutive ticks the entity in each slot has been still, capped at sleepTicks. */
+    private int[] stillTicks;
+
+    /**
+     * Creates a tracker using the threshold and number of ticks configured in the settings.
+     */
+    public SleepTracker() {
+        this(Settings.PHYSICS_SLEEP_THRESHOLD, Settings.PHYSICS_SLEEP_TICKS);
+    }
+
+    /**
+     * Creates a tracker.
+     * @param threshold Maximal velocity and acceleration per axis at which an entity counts as still.
+     * @param sleepTicks The number of consecutive still ticks after which an entity falls asleep. 0 disables sleeping.
+     */
+    public SleepTracker(double threshold, int sleepTicks) {
+        this.threshold = threshold;
+        this.sleepTicks = Math.max(0, sleepTicks);
+        this.stillTicks = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Whether the entity in the slot is asleep.
+     * @param slot The slot of the entity.
+     * @return Whether the entity is asleep.
+     */
+    public boolean isAsleep(int slot) {
+        return this.sleepTicks > 0 && this.stillTicks[slot] >= this.sleepTicks;
+    }
+
+    /**
+     * Records whether the entity in the slot was still after it moved this tick.
+     * @param slot The slot of the entity.
+     * @param velocityX The velocity along the x axis.
+     * @param velocityY The velocity along the y axis.
+     * @param velocityZ The velocity along the z axis.
+     * @param accelerationX The total acceleration along the x axis.
+     * @param accelerationY The total acceleration along the y axis.
+     * @param accelerationZ The total acceleration along the z axis.
+     */
+    public void update(int slot, double velocityX, double velocityY, double velocityZ, double accelerationX, double accelerationY, double accelerationZ) {
+        if(this.sleepTicks > 0) {
+            boolean still = Math.abs(velocityX) <= this.threshold && Math.abs(velocityY) <= this.threshold && Math.abs(velocityZ) <= this.threshold
+                    && Math.abs(accelerationX) <= this.threshold && Math.abs(accelerationY) <= this.threshold && Math.abs(accelerationZ) <= this.threshold;
+
+            if(!still) {
+                this.stillTicks[slot] = 0;
+            } else if(this.stillTicks[slot] < this.sleepTicks) {
+                this.stillTicks[slot]++;
+            }
+        }
+    }
+
+    /**
+     * Wakes the entity in the slot. It has to be still for the full number of ticks again before it falls asleep.
+     * @param slot The slot of the entity.
+     */
+    public void wake(int slot) {
+        this.stillTicks[slot] = 0;
+    }
+
+    /**
+     * Moves the counter of the entity in one slot to another slot.
+     * @param from The slot to move from.
+     * @param to The slot to move to.
+     */
+    public void move(int from, int to) {
+        this.stillTicks[to] = this.stillTicks[from];
+    }
+
+    /**
+     * Grows the counters if they cannot hold the given number of slots.
+     * @param capacity The number of slots the counters must be able to hold.
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity > this.stillTicks.length) {
+            this.stillTicks = Arrays.copyOf(this.stillTicks, Math.max(capacity, this.stillTicks.length * 2));
+        }
+    }
+}
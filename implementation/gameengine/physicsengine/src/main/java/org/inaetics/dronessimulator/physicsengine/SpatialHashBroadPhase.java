@@ -0,0 +1,215 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid spatial hash broadphase.
+ * Every entity is put in each cell its hitbox overlaps, so only entities sharing a cell can possibly collide.
+ * The grid is rebuilt every tick, but the cells themselves are reused between ticks to avoid reallocating them.
+ */
+public class SpatialHashBroadPhase implements BroadPhase {
+    /** Number of bits used for each cell coordinate in a cell key. */
+    private static final int KEY_BITS = 21;
+
+    /** Mask for a single cell coordinate in a cell key. */
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+
+    /** Minimal number of cells to keep around before empty cells are thrown away. */
+    private static final int MIN_RETAINED_CELLS = 1024;
+
+    /** Inverse of the length of the edges of a cell. */
+    private final double inverseCellSize;
+
+    /** All cells which have been used, by cell key. */
+    private final Map<Long, Cell> cells;
+
+    /** The cells which contain at least one entity in the current tick. */
+    private final List<Cell> occupiedCells;
+
+    /**
+     * Creates a spatial hash grid.
+     * @param cellSize The length of the edges of a cell in meters.
+     */
+    public SpatialHashBroadPhase(double cellSize) {
+        if(cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive. Got: " + cellSize);
+        }
+
+        this.inverseCellSize = 1 / cellSize;
+        this.cells = new HashMap<>();
+        this.occupiedCells = new ArrayList<>();
+    }
+
+    @Override
+    public void findCandidatePairs(EntityStore store, CandidatePairHandler handler) {
+        this.rebuild(store);
+        this.forEachCandidatePair(store, handler);
+    }
+
+    /**
+     * Puts all entities in the store in the grid at their current position. Removes any entities from the previous
+     * tick.
+     * @param store The store containing the entities to put in the grid.
+     */
+    public void rebuild(EntityStore store) {
+        this.clear();
+
+        int size = store.size();
+
+        for(int slot = 0; slot < size; slot++) {
+            int minX = this.cellCoordinate(store.getMinX(slot));
+            int minY = this.cellCoordinate(store.getMinY(slot));
+            int minZ = this.cellCoordinate(store.getMinZ(slot));
+            int maxX = this.cellCoordinate(store.getMaxX(slot));
+            int maxY = this.cellCoordinate(store.getMaxY(slot));
+            int maxZ = this.cellCoordinate(store.getMaxZ(slot));
+
+            for(int x = minX; x <= maxX; x++) {
+                for(int y = minY; y <= maxY; y++) {
+                    for(int z = minZ; z <= maxZ; z++) {
+                        this.insert(x, y, z, slot);
+                    }
+                }
+            }
+        }
+
+        // Throw away cells which are no longer used, so straying entities do not grow the grid forever
+        if(this.cells.size() > MIN_RETAINED_CELLS && this.cells.size() > 4 * this.occupiedCells.size()) {
+            this.cells.values().removeIf(cell -> cell.count == 0);
+        }
+    }
+
+    /**
+     * Calls the handler once for every pair of entities which share at least one cell of the grid. Pairs which are
+     * colliding are guaranteed to be reported. Every pair is reported at most once.
+     * @param store The store containing the entities in the grid.
+     * @param handler The handler to call with every candidate pair.
+     */
+    public void forEachCandidatePair(EntityStore store, CandidatePairHandler handler) {
+        for(Cell cell : this.occupiedCells) {
+            int[] cellSlots = cell.slots;
+            int count = cell.count;
+
+            for(int i = 0; i < count; i++) {
+                int slot1 = cellSlots[i];
+
+                for(int j = i + 1; j < count; j++) {
+                    int slot2 = cellSlots[j];
+
+                    if(this.isReportingCell(cell, store, slot1, slot2)) {
+                        handler.candidatePair(slot1, slot2);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entities from the grid.
+     */
+    @Override
+    public void clear() {
+        for(Cell cell : this.occupiedCells) {
+            cell.count = 0;
+        }
+
+        this.occupiedCells.clear();
+    }
+
+    /**
+     * Determines whether the given cell is the single cell in which the pair is reported. This is the cell containing
+     * the minimal corner of the overlap of both hitboxes, which both entities are in if they collide.
+     * @param cell The cell the pair was found in.
+     * @param store The store containing the entities.
+     * @param slot1 The slot of the first entity of the pair.
+     * @param slot2 The slot of the second entity of the pair.
+     * @return Whether the pair should be reported for this cell.
+     */
+    private boolean isReportingCell(Cell cell, EntityStore store, int slot1, int slot2) {
+        return cell.x == this.cellCoordinate(Math.max(store.getMinX(slot1), store.getMinX(slot2)))
+            && cell.y == this.cellCoordinate(Math.max(store.getMinY(slot1), store.getMinY(slot2)))
+            && cell.z == this.cellCoordinate(Math.max(store.getMinZ(slot1), store.getMinZ(slot2)));
+    }
+
+    /**
+     * Puts the entity in the given cell.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param z The z coordinate of the cell.
+     * @param slot The slot of the entity to put in the cell.
+     */
+    private void insert(int x, int y, int z, int slot) {
+        Cell cell = this.cells.computeIfAbsent(cellKey(x, y, z), key -> new Cell(x, y, z));
+
+        if(cell.count == 0) {
+            this.occupiedCells.add(cell);
+        }
+
+        cell.add(slot);
+    }
+
+    /**
+     * Returns the coordinate of the cell which contains the given world coordinate.
+     * @param worldCoordinate The coordinate in the world in meters.
+     * @return The coordinate of the cell.
+     */
+    private int cellCoordinate(double worldCoordinate) {
+        return (int) Math.floor(worldCoordinate * this.inverseCellSize);
+    }
+
+    /**
+     * Packs the coordinates of a cell in a single key.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param z The z coordinate of the cell.
+     * @return The key of the cell.
+     */
+    private static long cellKey(int x, int y, int z) {
+        return ((x & KEY_MASK) << (2 * KEY_BITS)) | ((y & KEY_MASK) << KEY_BITS) | (z & KEY_MASK);
+    }
+
+    /**
+     * A single cell in the grid.
+     */
+    private static class Cell {
+        /** The x coordinate of the cell. */
+        private final int x;
+
+        /** The y coordinate of the cell. */
+        private final int y;
+
+        /** The z coordinate of the cell. */
+        private final int z;
+
+        /** The slots of the entities in this cell for the current tick. */
+        private int[] slots;
+
+        /** The number of entities in this cell for the current tick. */
+        private int count;
+
+        private Cell(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.slots = new int[4];
+            this.count = 0;
+        }
+
+        /**
+         * Adds the entity in the given slot to this cell.
+         * @param slot The slot of the entity.
+         */
+        private void add(int slot) {
+            if(this.count == this.slots.length) {
+                this.slots = Arrays.copyOf(this.slots, this.count * 2);
+            }
+
+            this.slots[this.count] = slot;
+            this.count++;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.Settings;
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Tracks which entities changed since they were last broadcast. A field of an entity only counts as changed if any of
+ * its components differs more than the epsilon of the field from the last broadcast value. Small changes therefore
+ * accumulate until they exceed the epsilon.
+ * This class is not threadsafe.
+ */
+public class StateChangeTracker {
+    /** Maximal difference per axis in position which does not count as a change. In m. */
+    private final double positionEpsilon;
+
+    /** Maximal difference per axis in velocity which does not count as a change. In m/s. */
+    private final double velocityEpsilon;
+
+    /** Maximal difference per axis in acceleration which does not count as a change. In m/s^2. */
+    private final double accelerationEpsilon;
+
+    /** Maximal difference per angle in direction which does not count as a change. In radians. */
+    private final double directionEpsilon;
+
+    /** The last broadcast state by entity id. */
+    private final Map<Integer, BroadcastState> lastBroadcast;
+
+    /**
+     * Creates a tracker using the epsilons configured in the settings.
+     */
+    public StateChangeTracker() {
+        this(Settings.PHYSICS_POSITION_EPSILON, Settings.PHYSICS_VELOCITY_EPSILON, Settings.PHYSICS_ACCELERATION_EPSILON, Settings.PHYSICS_DIRECTION_EPSILON);
+    }
+
+    /**
+     * Creates a tracker.
+     * @param positionEpsilon Maximal difference per axis in position which does not count as a change.
+     * @param velocityEpsilon Maximal difference per axis in velocity which does not count as a change.
+     * @param accelerationEpsilon Maximal difference per axis in acceleration which does not count as a change.
+     * @param directionEpsilon Maximal difference per angle in direction which does not count as a change.
+     */
+    public StateChangeTracker(double positionEpsilon, double velocityEpsilon, double accelerationEpsilon, double directionEpsilon) {
+        this.positionEpsilon = positionEpsilon;
+        this.velocityEpsilon = velocityEpsilon;
+        this.accelerationEpsilon = accelerationEpsilon;
+        this.directionEpsilon = directionEpsilon;
+        this.lastBroadcast = new HashMap<>();
+    }
+
+    /**
+     * Tests whether the entity changed since it was last broadcast. If so, or if the broadcast is forced, the current
+     * state of the entity is recorded as broadcast. An entity which was never broadcast always counts as changed.
+     * @param entity The up-to-date entity.
+     * @param force Whether to record the state even if the entity did not change.
+     * @return Whether the entity changed.
+     */
+    public boolean update(Entity entity, boolean force) {
+        BroadcastState last = this.lastBroadcast.get(entity.getEntityId());
+        boolean changed = last == null
+                       || differs(last.position, entity.getPosition(), this.positionEpsilon)
+                       || differs(last.velocity, entity.getVelocity(), this.velocityEpsilon)
+                       || differs(last.acceleration, entity.getAcceleration(), this.accelerationEpsilon)
+                       || differs(last.direction, entity.getDirection(), this.directionEpsilon);
+
+        if(changed || force) {
+            this.lastBroadcast.put(entity.getEntityId(), new BroadcastState(entity));
+        }
+
+        return changed;
+    }
+
+    /**
+     * Forgets all entities which are no longer in the store.
+     * @param store The store containing all entities in the world.
+     */
+    public void retain(EntityStore store) {
+        Iterator<Integer> ids = this.lastBroadcast.keySet().iterator();
+
+        while(ids.hasNext()) {
+            if(store.slotOf(ids.next()) < 0) {
+                ids.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets all entities.
+     */
+    public void clear() {
+        this.lastBroadcast.clear();
+    }
+
+    /**
+     * Tests whether any of the axes of the vectors differs more than epsilon.
+     * @param last The last broadcast vector.
+     * @param current The current vector.
+     * @param epsilon The maximal difference which does not count as a change.
+     * @return Whether the vectors differ.
+     */
+    private static boolean differs(D3Vector last, D3Vector current, double epsilon) {
+        if(last == null || current == null) {
+            return last != current;
+        }
+
+        return Math.abs(last.getX() - current.getX()) > epsilon
+            || Math.abs(last.getY() - current.getY()) > epsilon
+            || Math.abs(last.getZ() - current.getZ()) > epsilon;
+    }
+
+    /**
+     * Tests whether any of the angles of the directions differs more than epsilon.
+     * @param last The last broadcast direction.
+     * @param current The current direction.
+     * @param epsilon The maximal difference which does not count as a change.
+     * @return Whether the directions differ.
+     */
+    private static boolean differs(D3PolarCoordinate last, D3PolarCoordinate current, double epsilon) {
+        if(last == null || current == null) {
+            return last != current;
+        }
+
+        return Math.abs(last.getAngle1() - current.getAngle1()) > epsilon
+            || Math.abs(last.getAngle2() - current.getAngle2()) > epsilon;
+    }
+
+    /**
+     * The state of an entity as it was broadcast. All fields are immutable, so they can be shared with the entity.
+     */
+    private static class BroadcastState {
+        private final D3Vector position;
+        private final D3Vector velocity;
+        private final D3Vector acceleration;
+        private final D3PolarCoordinate direction;
+
+        BroadcastState(Entity entity) {
+            this.position = entity.getPosition();
+            this.velocity = entity.getVelocity();
+            this.acceleration = entity.getAcceleration();
+            this.direction = entity.getDirection();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+/**
+ * Accumulates elapsed wall time and converts it into a whole number of fixed time steps. The time which is left over
+ * is kept for the next call, so on average the simulation advances exactly as fast as the wall clock. The elapsed
+ * time per call is capped, so a long stall does not result in an ever growing number of steps to catch up on.
+ */
+public class StepAccumulator {
+    /** The length of a single step. In nanoseconds. */
+    private final long step_ns;
+
+    /** The maximal elapsed time taken into account per call to advance. In nanoseconds. */
+    private final long max_elapsed_ns;
+
+    /** The elapsed time which is not yet converted into steps. In nanoseconds. */
+    private long accumulated_ns;
+
+    /**
+     * Creates an accumulator.
+     * @param step_ns The length of a single step in nanoseconds.
+     * @param max_elapsed_ns The maximal elapsed time taken into account per call to advance in nanoseconds.
+     */
+    public StepAccumulator(long step_ns, long max_elapsed_ns) {
+        if(step_ns <= 0) {
+            throw new IllegalArgumentException("Step must be positive, got " + step_ns + "ns");
+        }
+
+        this.step_ns = step_ns;
+        this.max_elapsed_ns = Math.max(step_ns, max_elapsed_ns);
+        this.accumulated_ns = 0;
+    }
+
+    /**
+     * Adds the elapsed time and returns the number of steps which should be taken now.
+     * @param elapsed_ns The wall time elapsed since the last call in nanoseconds.
+     * @return The number of steps to take.
+     */
+    public int advance(long elapsed_ns) {
+        this.accumulated_ns += Math.min(Math.max(elapsed_ns, 0), this.max_elapsed_ns);
+
+        int steps = (int) (this.accumulated_ns / this.step_ns);
+        this.accumulated_ns -= steps * this.step_ns;
+
+        return steps;
+    }
+
+    /**
+     * Returns the time until the next step is due.
+     * @return The time until the next step in nanoseconds.
+     */
+    public long untilNextStep_ns() {
+        return this.step_ns - this.accumulated_ns;
+    }
+
+    /**
+     * Returns the length of a single step.
+     * @return The length of a step in nanoseconds.
+     */
+    public long getStep_ns() {
+        return this.step_ns;
+    }
+
+    /**
+     * Drops all accumulated time.
+     */
+    public void reset() {
+        this.accumulated_ns = 0;
+    }
+}
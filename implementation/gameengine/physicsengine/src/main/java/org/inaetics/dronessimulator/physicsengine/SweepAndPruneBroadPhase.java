@@ -0,0 +1,275 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Arrays;
+
+/**
+ * Sort and sweep broadphase. All entities are sorted on the start of their hitbox along a single axis. Sweeping over the
+ * sorted entities, only entities which overlap on that axis are compared on the other axes. Pairs of which the hitboxes
+ * overlap on all axes are reported, whether they actually collide is left to the narrow phase of the engine.
+ * The ordering is kept between ticks. As entities only move a little each tick, the ordering is nearly sorted already
+ * and an insertion sort restores it in close to linear time.
+ */
+public class SweepAndPruneBroadPhase implements BroadPhase {
+    /** Initial capacity of the sorted arrays. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The axis along which can be swept.
+     */
+    public enum Axis {
+        X, Y, Z;
+
+        /**
+         * Returns the start of the hitbox of the entity along this axis.
+         * @param store The store containing the entity.
+         * @param slot The slot of the entity.
+         * @return The start of the hitbox.
+         */
+        public double min(EntityStore store, int slot) {
+            switch(this) {
+                case X:
+                    return store.getMinX(slot);
+                case Y:
+                    return store.getMinY(slot);
+                default:
+                    return store.getMinZ(slot);
+            }
+        }
+
+        /**
+         * Returns the end of the hitbox of the entity along this axis.
+         * @param store The store containing the entity.
+         * @param slot The slot of the entity.
+         * @return The end of the hitbox.
+         */
+        public double max(EntityStore store, int slot) {
+            switch(this) {
+                case X:
+                    return store.getMaxX(slot);
+                case Y:
+                    return store.getMaxY(slot);
+                default:
+                    return store.getMaxZ(slot);
+            }
+        }
+
+        /**
+         * Returns whether the hitboxes of both entities overlap along this axis.
+         * @param store The store containing the entities.
+         * @param slot1 The slot of the first entity.
+         * @param slot2 The slot of the second entity.
+         * @return Whether the hitboxes overlap along this axis.
+         */
+        public boolean overlaps(EntityStore store, int slot1, int slot2) {
+            return this.min(store, slot1) <= this.max(store, slot2) && this.max(store, slot1) >= this.min(store, slot2);
+        }
+    }
+
+    /** The axis along which is swept. */
+    private final Axis axis;
+
+    /** The first axis along which is not swept. */
+    private final Axis otherAxis1;
+
+    /** The second axis along which is not swept. */
+    private final Axis otherAxis2;
+
+    /** The ids of the entities sorted on the start of their hitbox along the axis. */
+    private int[] sortedIds;
+
+    /** The slot in the store of each sorted entity in the current tick. */
+    private int[] sortedSlots;
+
+    /** The start of the hitbox along the axis of each sorted entity. */
+    private double[] minKeys;
+
+    /** The end of the hitbox along the axis of each sorted entity. */
+    private double[] maxKeys;
+
+    /** The number of sorted entities. */
+    private int count;
+
+    /** Whether the entity in a slot of the store is sorted already. Only valid during a tick. */
+    private boolean[] slotIsSorted;
+
+    /** Whether the entity in a slot of the store is swept. Only valid during a tick in which a subset is swept. */
+    private boolean[] slotIsMember;
+
+    /**
+     * Creates a sort and sweep broadphase.
+     * @param axis The axis along which is swept. Choose the axis along which the entities are spread out the most.
+     */
+    public SweepAndPruneBroadPhase(Axis axis) {
+        this.axis = axis;
+        this.otherAxis1 = Axis.values()[(axis.ordinal() + 1) % 3];
+        this.otherAxis2 = Axis.values()[(axis.ordinal() + 2) % 3];
+        this.sortedIds = new int[INITIAL_CAPACITY];
+        this.sortedSlots = new int[INITIAL_CAPACITY];
+        this.minKeys = new double[INITIAL_CAPACITY];
+        this.maxKeys = new double[INITIAL_CAPACITY];
+        this.count = 0;
+        this.slotIsSorted = new boolean[INITIAL_CAPACITY];
+        this.slotIsMember = new boolean[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void findCandidatePairs(EntityStore store, CandidatePairHandler handler) {
+        this.findCandidatePairs(store, null, 0, handler);
+    }
+
+    /**
+     * Finds the candidate pairs among a subset of the entities in the store. The ordering of the entities which stay in
+     * the subset is kept between ticks, entities which leave it are dropped and entities which enter it are appended.
+     * @param store The store containing all entities in the world.
+     * @param members The slots of the entities to sweep or null to sweep all entities.
+     * @param memberCount The number of slots in members.
+     * @param handler The handler to call with every candidate pair.
+     */
+    void findCandidatePairs(EntityStore store, int[] members, int memberCount, CandidatePairHandler handler) {
+        this.synchronizeEntities(store, members, memberCount);
+        this.sort(store);
+        this.sweep(store, handler);
+    }
+
+    @Override
+    public void clear() {
+        this.count = 0;
+    }
+
+    /**
+     * Removes all entities which are no longer in the store or the subset and appends all new entities. Removing keeps
+     * the order of the remaining entities.
+     * @param store The store containing all entities in the world.
+     * @param members The slots of the entities to sweep or null to sweep all entities.
+     * @param memberCount The number of slots in members.
+     */
+    private void synchronizeEntities(EntityStore store, int[] members, int memberCount) {
+        int size = store.size();
+        int kept = 0;
+
+        if(this.slotIsSorted.length < size) {
+            this.slotIsSorted = new boolean[Math.max(size, this.slotIsSorted.length * 2)];
+        }
+        Arrays.fill(this.slotIsSorted, 0, size, false);
+
+        if(members != null) {
+            if(this.slotIsMember.length < size) {
+                this.slotIsMember = new boolean[Math.max(size, this.slotIsMember.length * 2)];
+            }
+            Arrays.fill(this.slotIsMember, 0, size, false);
+
+            for(int i = 0; i < memberCount; i++) {
+                this.slotIsMember[members[i]] = true;
+            }
+        }
+
+        for(int i = 0; i < this.count; i++) {
+            int slot = store.slotOf(this.sortedIds[i]);
+
+            if(slot >= 0 && (members == null || this.slotIsMember[slot])) {
+                this.sortedIds[kept] = this.sortedIds[i];
+                this.sortedSlots[kept] = slot;
+                this.slotIsSorted[slot] = true;
+                kept++;
+            }
+        }
+
+        this.count = kept;
+
+        if(members == null) {
+            this.ensureCapacity(size);
+
+            for(int slot = 0; slot < size; slot++) {
+                this.append(store, slot);
+            }
+        } else {
+            this.ensureCapacity(memberCount);
+
+            for(int i = 0; i < memberCount; i++) {
+                this.append(store, members[i]);
+            }
+        }
+    }
+
+    /**
+     * Appends the entity in the slot to the end of the sorted entities if it is not sorted already.
+     * @param store The store containing all entities in the world.
+     * @param slot The slot of the entity.
+     */
+    private void append(EntityStore store, int slot) {
+        if(!this.slotIsSorted[slot]) {
+            this.sortedIds[this.count] = store.getEntityId(slot);
+            this.sortedSlots[this.count] = slot;
+            this.slotIsSorted[slot] = true;
+            this.count++;
+        }
+    }
+
+    /**
+     * Updates the keys of all entities to their current position and restores the ordering using an insertion sort.
+     * @param store The store containing all entities in the world.
+     */
+    private void sort(EntityStore store) {
+        for(int i = 0; i < this.count; i++) {
+            int id = this.sortedIds[i];
+            int slot = this.sortedSlots[i];
+            double minKey = this.axis.min(store, slot);
+            double maxKey = this.axis.max(store, slot);
+            int j = i - 1;
+
+            while(j >= 0 && this.minKeys[j] > minKey) {
+                this.sortedIds[j + 1] = this.sortedIds[j];
+                this.sortedSlots[j + 1] = this.sortedSlots[j];
+                this.minKeys[j + 1] = this.minKeys[j];
+                this.maxKeys[j + 1] = this.maxKeys[j];
+                j--;
+            }
+
+            this.sortedIds[j + 1] = id;
+            this.sortedSlots[j + 1] = slot;
+            this.minKeys[j + 1] = minKey;
+            this.maxKeys[j + 1] = maxKey;
+        }
+    }
+
+    /**
+     * Sweeps over the sorted entities and reports all pairs of which the hitboxes overlap.
+     * @param store The store containing all entities in the world.
+     * @param handler The handler to call with every candidate pair.
+     */
+    private void sweep(EntityStore store, CandidatePairHandler handler) {
+        for(int i = 0; i < this.count; i++) {
+            int slot1 = this.sortedSlots[i];
+            double maxKey = this.maxKeys[i];
+            boolean asleep1 = store.isAsleep(slot1);
+
+            for(int j = i + 1; j < this.count && this.minKeys[j] <= maxKey; j++) {
+                int slot2 = this.sortedSlots[j];
+
+                // Two sleeping entities did not move, so whether they collide did not change either
+                if(asleep1 && store.isAsleep(slot2)) {
+                    continue;
+                }
+
+                if(this.otherAxis1.overlaps(store, slot1, slot2) && this.otherAxis2.overlaps(store, slot1, slot2)) {
+                    handler.candidatePair(slot1, slot2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the sorted arrays if they cannot hold the given number of entities.
+     * @param capacity The number of entities the arrays must be able to hold.
+     */
+    private void ensureCapacity(int capacity) {
+        if(capacity > this.sortedIds.length) {
+            int newCapacity = Math.max(capacity, this.sortedIds.length * 2);
+
+            this.sortedIds = Arrays.copyOf(this.sortedIds, newCapacity);
+            this.sortedSlots = Arrays.copyOf(this.sortedSlots, newCapacity);
+            this.minKeys = Arrays.copyOf(this.minKeys, newCapacity);
+            this.maxKeys = Arrays.copyOf(this.maxKeys, newCapacity);
+        }
+    }
+}
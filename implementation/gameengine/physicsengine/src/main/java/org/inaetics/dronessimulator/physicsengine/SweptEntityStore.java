@@ -0,0 +1,268 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+
+import java.util.Arrays;
+
+/**
+ * View on an entity store which detects collisions continuously for fast movers. An entity is a fast mover if it moved
+ * further than half of its hitbox along some axis in the last step, so it could have passed through another entity
+ * without their hitboxes ever overlapping at the end of a step.
+ * The bounds of a fast mover span the space it swept during the last step, so the broadphase reports every entity it
+ * passed. A pair with a fast mover collides if their hitboxes overlapped at any moment during the last step, which is
+ * tested as a segment against the box of both hitboxes combined (swept AABB). Pairs of slow movers are tested on their
+ * end positions, exactly as by the underlying store. All other methods are passed to the underlying store.
+ * The displacement of an entity during the last step is its velocity times the length of the step, as the stores
+ * integrate the position with the new velocity. Sleeping entities did not move.
+ * This class is not threadsafe, except that collides and the bounds may be called concurrently after prepare.
+ */
+public class SweptEntityStore implements EntityStore {
+    /** All axes, to avoid copying the values of the enum on every test. */
+    private static final SweepAndPruneBroadPhase.Axis[] AXES = SweepAndPruneBroadPhase.Axis.values();
+
+    /** The store to view. */
+    private final EntityStore store;
+
+    /** The length of the last step in seconds. */
+    private double timestep_s;
+
+    /** Whether the entity in a slot is a fast mover in the last step. */
+    private boolean[] fastMovers;
+
+    /** The number of fast movers in the last step. */
+    private int fastMoverCount;
+
+    /**
+     * Creates a view on the given store.
+     * @param store The store to view.
+     */
+    public SweptEntityStore(EntityStore store) {
+        this.store = store;
+        this.timestep_s = 0;
+        this.fastMovers = new boolean[16];
+        this.fastMoverCount = 0;
+    }
+
+    /**
+     * Determines the fast movers of the last step. Must be called after the entities are moved and before any
+     * collisions are tested.
+     * @param timestep_s The length of the last step in seconds.
+     * @return This view.
+     */
+    public SweptEntityStore prepare(double timestep_s) {
+        int size = this.store.size();
+
+        if(this.fastMovers.length < size) {
+            this.fastMovers = new boolean[Math.max(size, this.fastMovers.length * 2)];
+        }
+
+        this.timestep_s = timestep_s;
+        this.fastMoverCount = 0;
+
+        for(int slot = 0; slot < size; slot++) {
+            boolean fast = !this.store.isAsleep(slot)
+                    && (Math.abs(this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.X)) * 2 > this.store.getMaxX(slot) - this.store.getMinX(slot)
+                    || Math.abs(this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Y)) * 2 > this.store.getMaxY(slot) - this.store.getMinY(slot)
+                    || Math.abs(this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Z)) * 2 > this.store.getMaxZ(slot) - this.store.getMinZ(slot));
+
+            this.fastMovers[slot] = fast;
+
+            if(fast) {
+                this.fastMoverCount++;
+            }
+        }
+
+        Arrays.fill(this.fastMovers, size, this.fastMovers.length, false);
+
+        return this;
+    }
+
+    /**
+     * Returns the number of fast movers in the last step.
+     * @return The number of fast movers.
+     */
+    public int getFastMoverCount() {
+        return this.fastMoverCount;
+    }
+
+    /**
+     * Returns whether the entity in the given slot is a fast mover in the last step.
+     * @param slot The slot of the entity.
+     * @return Whether the entity is a fast mover.
+     */
+    public boolean isFastMover(int slot) {
+        return this.fastMovers[slot];
+    }
+
+    @Override
+    public int size() {
+        return this.store.size();
+    }
+
+    @Override
+    public int slotOf(int entityId) {
+        return this.store.slotOf(entityId);
+    }
+
+    @Override
+    public int getEntityId(int slot) {
+        return this.store.getEntityId(slot);
+    }
+
+    @Override
+    public Entity getEntity(int slot) {
+        return this.store.getEntity(slot);
+    }
+
+    @Override
+    public void sync(int slot) {
+        this.store.sync(slot);
+    }
+
+    @Override
+    public void add(Entity entity) {
+        this.store.add(entity);
+    }
+
+    @Override
+    public void reload(int slot) {
+        this.store.reload(slot);
+    }
+
+    @Override
+    public boolean isAsleep(int slot) {
+        return this.store.isAsleep(slot);
+    }
+
+    @Override
+    public void wake(int slot) {
+        this.store.wake(slot);
+    }
+
+    @Override
+    public void remove(int entityId) {
+        this.store.remove(entityId);
+    }
+
+    @Override
+    public void clear() {
+        this.store.clear();
+    }
+
+    @Override
+    public void integrate(int fromSlot, int toSlot, double timestep_s, D3Vector environmentForces) {
+        this.store.integrate(fromSlot, toSlot, timestep_s, environmentForces);
+    }
+
+    @Override
+    public boolean collides(int slot1, int slot2) {
+        if(!this.fastMovers[slot1] && !this.fastMovers[slot2]) {
+            return this.store.collides(slot1, slot2);
+        }
+
+        // Move back in time along the relative displacement: at fraction t of the way back the offset between the
+        // centers of the hitboxes is offset - t * displacement. Narrow down the fractions at which they overlap per axis.
+        double from = 0;
+        double to = 1;
+
+        for(SweepAndPruneBroadPhase.Axis axis : AXES) {
+            double min1 = axis.min(this.store, slot1);
+            double max1 = axis.max(this.store, slot1);
+            double min2 = axis.min(this.store, slot2);
+            double max2 = axis.max(this.store, slot2);
+            double offset = (min1 + max1 - min2 - max2) / 2;
+            double halfExtents = (max1 - min1 + max2 - min2) / 2;
+            double displacement = this.getDisplacement(slot1, axis) - this.getDisplacement(slot2, axis);
+
+            if(displacement == 0) {
+                if(Math.abs(offset) > halfExtents) {
+                    return false;
+                }
+            } else {
+                double enter = (offset - halfExtents) / displacement;
+                double exit = (offset + halfExtents) / displacement;
+
+                from = Math.max(from, Math.min(enter, exit));
+                to = Math.min(to, Math.max(enter, exit));
+
+                if(from > to) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public double getMinX(int slot) {
+        double min = this.store.getMinX(slot);
+        return this.fastMovers[slot] ? Math.min(min, min - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.X)) : min;
+    }
+
+    @Override
+    public double getMinY(int slot) {
+        double min = this.store.getMinY(slot);
+        return this.fastMovers[slot] ? Math.min(min, min - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Y)) : min;
+    }
+
+    @Override
+    public double getMinZ(int slot) {
+        double min = this.store.getMinZ(slot);
+        return this.fastMovers[slot] ? Math.min(min, min - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Z)) : min;
+    }
+
+    @Override
+    public double getMaxX(int slot) {
+        double max = this.store.getMaxX(slot);
+        return this.fastMovers[slot] ? Math.max(max, max - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.X)) : max;
+    }
+
+    @Override
+    public double getMaxY(int slot) {
+        double max = this.store.getMaxY(slot);
+        return this.fastMovers[slot] ? Math.max(max, max - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Y)) : max;
+    }
+
+    @Override
+    public double getMaxZ(int slot) {
+        double max = this.store.getMaxZ(slot);
+        return this.fastMovers[slot] ? Math.max(max, max - this.getDisplacement(slot, SweepAndPruneBroadPhase.Axis.Z)) : max;
+    }
+
+    @Override
+    public double getVelocityX(int slot) {
+        return this.store.getVelocityX(slot);
+    }
+
+    @Override
+    public double getVelocityY(int slot) {
+        return this.store.getVelocityY(slot);
+    }
+
+    @Override
+    public double getVelocityZ(int slot) {
+        return this.store.getVelocityZ(slot);
+    }
+
+    /**
+     * Returns the distance the entity in the given slot moved along an axis in the last step.
+     * @param slot The slot of the entity.
+     * @param axis The axis to return the displacement along.
+     * @return The displacement in m.
+     */
+    private double getDisplacement(int slot, SweepAndPruneBroadPhase.Axis axis) {
+        if(this.store.isAsleep(slot)) {
+            return 0;
+        }
+
+        switch(axis) {
+            case X:
+                return this.store.getVelocityX(slot) * this.timestep_s;
+            case Y:
+                return this.store.getVelocityY(slot) * this.timestep_s;
+            default:
+                return this.store.getVelocityZ(slot) * this.timestep_s;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the simulation at maximum speed in step with the drones. Every drone acknowledges the time of the simulation it
+ * calculated its tactics for, and the simulation waits until all drones acknowledged the time of the last broadcast
+ * before it takes the next step. The wait is bounded by a timeout, so a drone which stopped answering only slows the
+ * simulation down instead of halting it.
+ *
+ * @threadsafe
+ */
+public class TickBarrier {
+    /** The latest acknowledged time of the simulation by entity id. In milliseconds. */
+    private final Map<Integer, Long> acknowledged;
+
+    /**
+     * Creates a barrier without any acknowledgements.
+     */
+    public TickBarrier() {
+        this.acknowledged = new HashMap<>();
+    }
+
+    /**
+     * Records that the drone is done with the given time of the simulation. Older acknowledgements are ignored.
+     * @param entityId The id of the drone.
+     * @param time_ms The acknowledged time of the simulation in milliseconds.
+     */
+    public synchronized void acknowledge(int entityId, long time_ms) {
+        Long previous = this.acknowledged.get(entityId);
+
+        if(previous == null || previous < time_ms) {
+            this.acknowledged.put(entityId, time_ms);
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all given drones acknowledged the given time of the simulation or the timeout passed.
+     * @param entityIds The ids of the drones to wait for.
+     * @param time_ms The time of the simulation to wait for in milliseconds.
+     * @param timeout_ms The maximal wall time to wait in milliseconds.
+     * @return Whether all drones acknowledged the time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public synchronized boolean await(Collection<Integer> entityIds, long time_ms, long timeout_ms) throws InterruptedException {
+        long deadline_ms = System.currentTimeMillis() + timeout_ms;
+
+        while(!this.isAcknowledged(entityIds, time_ms)) {
+            long wait_ms = deadline_ms - System.currentTimeMillis();
+
+            if(wait_ms <= 0) {
+                return false;
+            }
+
+            this.wait(wait_ms);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether all given drones acknowledged the given time of the simulation.
+     * @param entityIds The ids of the drones.
+     * @param time_ms The time of the simulation in milliseconds.
+     * @return Whether all drones acknowledged the time.
+     */
+    private boolean isAcknowledged(Collection<Integer> entityIds, long time_ms) {
+        for(Integer entityId : entityIds) {
+            Long acknowledged_ms = this.acknowledged.get(entityId);
+
+            if(acknowledged_ms == null || acknowledged_ms < time_ms) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Forgets all acknowledgements.
+     */
+    public synchronized void clear() {
+        this.acknowledged.clear();
+    }
+}
@@ -0,0 +1,186 @@
+package org.inaetics.dronessimulator.physicsengine;
+
+/**
+ * Adapts the rates of the physics engine to the load. Every window of loops it compares the time the loops took with
+ * the time they were given and looks at the number of events waiting to be processed after the physics engine.
+ * When overloaded, it first lowers the broadcast rate and then the physics rate, one step per window, until their
+ * bounds. When the load drops again, it raises the physics rate first and then the broadcast rate, back to the
+ * configured rates. The bounds on utilisation are apart, so the rates do not flip between two steps. Without a
+ * minimal rate, only the broadcast rate is adapted.
+ * This class is not threadsafe.
+ */
+public class TickRateGovernor {
+    /** The default number of loops per window. */
+    public static final int DEFAULT_WINDOW = 30;
+
+    /** The fraction of the loop interval the loops may take on average before the engine is overloaded. */
+    private static final double OVERLOAD_UTILISATION = 0.9;
+
+    /** The fraction of the loop interval the loops must stay below on average before the rates are raised again. */
+    private static final double UNDERLOAD_UTILISATION = 0.5;
+
+    /** The factor by which the loop interval is lengthened or shortened per step. */
+    private static final double STEP_FACTOR = 1.25;
+
+    /** The configured loop interval in nanoseconds. */
+    private final long base_step_ns;
+
+    /** The longest loop interval the governor may choose in nanoseconds. */
+    private final long max_step_ns;
+
+    /** The configured time between broadcasts in ms. Negative if the state is never broadcast. */
+    private final long base_broadcast_ms;
+
+    /** The longest time between broadcasts the governor may choose in ms. */
+    private final long max_broadcast_ms;
+
+    /** The number of waiting events above which the engine is overloaded. */
+    private final int max_backlog;
+
+    /** The number of loops per window. */
+    private final int window;
+
+    /** The current loop interval in nanoseconds. */
+    private long step_ns;
+
+    /** The current time between broadcasts in ms. */
+    private long broadcast_ms;
+
+    /** The number of loops recorded in the current window. */
+    private int loops;
+
+    /** The total time the loops in the current window took in nanoseconds. */
+    private long busy_ns;
+
+    /** The total time the loops in the current window were given in nanoseconds. */
+    private long given_ns;
+
+    /** The largest number of waiting events seen in the current window. */
+    private int backlog;
+
+    /**
+     * Creates a governor.
+     * @param step_ns The configured loop interval in nanoseconds.
+     * @param minRate The lowest number of loops per second the governor may choose. 0 never lowers the physics rate.
+     * @param broadcast_ms The configured time between broadcasts in ms. Negative if the state is never broadcast.
+     * @param maxBroadcast_ms The longest time between broadcasts the governor may choose in ms.
+     * @param maxBacklog The number of waiting events above which the engine is overloaded.
+     * @param window The number of loops per window.
+     */
+    public TickRateGovernor(long step_ns, double minRate, long broadcast_ms, long maxBroadcast_ms, int maxBacklog, int window) {
+        if(step_ns <= 0) {
+            throw new IllegalArgumentException("Step must be positive, got " + step_ns + "ns");
+        }
+
+        this.base_step_ns = step_ns;
+        this.max_step_ns = minRate > 0 ? Math.max(step_ns, (long) (1_000_000_000L / minRate)) : step_ns;
+        this.base_broadcast_ms = broadcast_ms;
+        this.max_broadcast_ms = Math.max(broadcast_ms, maxBroadcast_ms);
+        this.max_backlog = maxBacklog;
+        this.window = Math.max(1, window);
+        this.reset();
+    }
+
+    /**
+     * Records a loop. At the end of every window the rates are adapted to the load of that window.
+     * @param loop_ns The time the loop took in nanoseconds, excluding any sleep.
+     * @param backlog The number of events waiting to be processed after the physics engine.
+     * @return Whether the rates changed.
+     */
+    public boolean record(long loop_ns, int backlog) {
+        this.loops++;
+        this.busy_ns += Math.max(loop_ns, 0);
+        this.given_ns += this.step_ns;
+        this.backlog = Math.max(this.backlog, backlog);
+
+        if(this.loops < this.window) {
+            return false;
+        }
+
+        double utilisation = ((double) this.busy_ns) / this.given_ns;
+        boolean changed;
+
+        if(utilisation > OVERLOAD_UTILISATION || this.backlog > this.max_backlog) {
+            changed = this.slowDown();
+        } else if(utilisation < UNDERLOAD_UTILISATION && this.backlog <= this.max_backlog / 2) {
+            changed = this.speedUp();
+        } else {
+            changed = false;
+        }
+
+        this.loops = 0;
+        this.busy_ns = 0;
+        this.given_ns = 0;
+        this.backlog = 0;
+
+        return changed;
+    }
+
+    /**
+     * Lowers the broadcast rate, or the physics rate if the broadcast rate is at its bound.
+     * @return Whether a rate changed.
+     */
+    private boolean slowDown() {
+        if(this.base_broadcast_ms >= 0 && this.broadcast_ms < this.max_broadcast_ms) {
+            this.broadcast_ms = Math.min(this.max_broadcast_ms, Math.max(this.broadcast_ms * 2, this.broadcast_ms + 1));
+            return true;
+        } else if(this.step_ns < this.max_step_ns) {
+            this.step_ns = Math.min(this.max_step_ns, (long) (this.step_ns * STEP_FACTOR));
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Raises the physics rate, or the broadcast rate if the physics rate is back at the configured rate.
+     * @return Whether a rate changed.
+     */
+    private boolean speedUp() {
+        if(this.step_ns > this.base_step_ns) {
+            this.step_ns = Math.max(this.base_step_ns, (long) (this.step_ns / STEP_FACTOR));
+            return true;
+        } else if(this.broadcast_ms > this.base_broadcast_ms) {
+            this.broadcast_ms = Math.max(this.base_broadcast_ms, this.broadcast_ms / 2);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the current loop interval.
+     * @return The loop interval in nanoseconds.
+     */
+    public long getStep_ns() {
+        return this.step_ns;
+    }
+
+    /**
+     * Returns the current number of loops per second.
+     * @return The physics rate in Hz.
+     */
+    public double getStepRate() {
+        return 1_000_000_000d / this.step_ns;
+    }
+
+    /**
+     * Returns the current time between broadcasts.
+     * @return The time between broadcasts in ms. Negative if the state is never broadcast.
+     */
+    public long getBroadcastInterval_ms() {
+        return this.broadcast_ms;
+    }
+
+    /**
+     * Returns to the configured rates and forgets the current window.
+     */
+    public void reset() {
+        this.step_ns = this.base_step_ns;
+        this.broadcast_ms = this.base_broadcast_ms;
+        this.loops = 0;
+        this.busy_ns = 0;
+        this.given_ns = 0;
+        this.backlog = 0;
+    }
+}
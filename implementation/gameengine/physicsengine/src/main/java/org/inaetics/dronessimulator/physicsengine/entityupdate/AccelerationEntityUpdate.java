@@ -1,6 +1,7 @@
 package org.inaetics.dronessimulator.physicsengine.entityupdate;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 
@@ -8,6 +9,7 @@ import org.inaetics.dronessimulator.physicsengine.Entity;
  * An update to an entity to change the acceleration.
  */
 @AllArgsConstructor
+@Getter
 public class AccelerationEntityUpdate extends EntityUpdate {
     /** The new acceleration. */
     private final D3Vector newAcceleration;
@@ -16,4 +18,9 @@ public class AccelerationEntityUpdate extends EntityUpdate {
     public void update(Entity entity) {
         entity.setAcceleration(this.newAcceleration);
     }
+
+    @Override
+    public EntityField getField() {
+        return EntityField.ACCELERATION;
+    }
 }
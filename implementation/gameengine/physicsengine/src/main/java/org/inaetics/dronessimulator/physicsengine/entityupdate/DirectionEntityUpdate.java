@@ -2,6 +2,7 @@ package org.inaetics.dronessimulator.physicsengine.entityupdate;
 
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 
@@ -9,6 +10,7 @@ import org.inaetics.dronessimulator.physicsengine.Entity;
  * Updates the direction of the entity
  */
 @AllArgsConstructor
+@Getter
 public class DirectionEntityUpdate extends EntityUpdate {
     /** The new direction of the entity */
     private final D3PolarCoordinate newDirection;
@@ -17,4 +19,9 @@ public class DirectionEntityUpdate extends EntityUpdate {
     public void update(Entity entity) {
         entity.setDirection(newDirection);
     }
+
+    @Override
+    public EntityField getField() {
+        return EntityField.DIRECTION;
+    }
 }
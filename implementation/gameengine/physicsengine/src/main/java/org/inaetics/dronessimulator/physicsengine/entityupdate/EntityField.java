@@ -0,0 +1,8 @@
+package org.inaetics.dronessimulator.physicsengine.entityupdate;
+
+/**
+ * The fields of an entity which can be changed by an {@link EntityUpdate}.
+ */
+public enum EntityField {
+    POSITION, VELOCITY, ACCELERATION, DIRECTION, TARGET
+}
@@ -11,4 +11,11 @@ public abstract class EntityUpdate {
      * @param entity The entity to update.
      */
     public abstract void update(Entity entity);
+
+    /**
+     * The field of the entity this update changes. A newer update to the same field replaces an older one which is
+     * not applied yet.
+     * @return The field which is changed.
+     */
+    public abstract EntityField getField();
 }
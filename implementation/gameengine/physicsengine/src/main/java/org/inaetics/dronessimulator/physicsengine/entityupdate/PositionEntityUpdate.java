@@ -1,6 +1,7 @@
 package org.inaetics.dronessimulator.physicsengine.entityupdate;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 
@@ -8,6 +9,7 @@ import org.inaetics.dronessimulator.physicsengine.Entity;
  * An update to an entity to change the position.
  */
 @AllArgsConstructor
+@Getter
 public class PositionEntityUpdate extends EntityUpdate {
     /** The new position of the entity. */
     private final D3Vector newPosition;
@@ -16,4 +18,9 @@ public class PositionEntityUpdate extends EntityUpdate {
     public void update(Entity entity) {
         entity.setPosition(this.newPosition);
     }
+
+    @Override
+    public EntityField getField() {
+        return EntityField.POSITION;
+    }
 }
@@ -1,6 +1,7 @@
 package org.inaetics.dronessimulator.physicsengine.entityupdate;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 
@@ -8,6 +9,7 @@ import org.inaetics.dronessimulator.physicsengine.Entity;
  * An update to an entity to change the position.
  */
 @AllArgsConstructor
+@Getter
 public class TargetLocationEntityUpdate extends EntityUpdate {
     /** The new target location of the entity. */
     private final D3Vector newTarget;
@@ -17,4 +19,9 @@ public class TargetLocationEntityUpdate extends EntityUpdate {
         if (entity instanceof Entity.DroneEntity)
             ((Entity.DroneEntity) entity).setTargetPosition(this.newTarget);
     }
+
+    @Override
+    public EntityField getField() {
+        return EntityField.TARGET;
+    }
 }
@@ -1,6 +1,7 @@
 package org.inaetics.dronessimulator.physicsengine.entityupdate;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 
@@ -9,6 +10,7 @@ import org.inaetics.dronessimulator.physicsengine.Entity;
  * An update to an entity to change the velocity.
  */
 @AllArgsConstructor
+@Getter
 public class VelocityEntityUpdate extends EntityUpdate {
     /** The new velocity of the entity. */
     private final D3Vector newVelocity;
@@ -17,4 +19,9 @@ public class VelocityEntityUpdate extends EntityUpdate {
     public void update(Entity entity) {
         entity.setVelocity(this.newVelocity);
     }
+
+    @Override
+    public EntityField getField() {
+        return EntityField.VELOCITY;
+    }
 }
@@ -0,0 +1,325 @@
+package org.inaetics.dronessimulator.physicsengine.journal;
+
+import org.apache.log4j.Logger;
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.AccelerationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.DirectionEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.PositionEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.TargetLocationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.VelocityEntityUpdate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compact binary journal of all changes the physics engine applied to its entities: the inserts, updates and removals,
+ * stamped with the step in which they were applied. Changes are recorded when they are applied instead of when they
+ * arrive, so the journal holds exactly the changes each step saw, in the order they were applied. Replaying the journal
+ * with {@link JournalReplay} with the same settings reproduces the simulation bit for bit.
+ *
+ * The journal starts with {@link #MAGIC} and {@link #VERSION}. Then follow records, each starting with a tag byte:
+ * <ul>
+ *     <li>{@link #STEP}: the step number (long) and the time step in seconds (double). Written before the changes of a
+ *     step, or when the time step changed. Steps without a record have no changes and the time step of the record
+ *     before them.</li>
+ *     <li>{@link #INSERT}: an entity, see {@link #writeEntity(Entity)}.</li>
+ *     <li>{@link #UPDATE}: the entity id (int), the ordinal of the changed field (byte) and its new value.</li>
+ *     <li>{@link #REMOVE}: the entity id (int).</li>
+ *     <li>{@link #END}: the number of steps taken (long). The last record.</li>
+ * </ul>
+ * The journal stops recording after the first failed write, so a full disk does not stop the simulation.
+ * This class is not threadsafe.
+ */
+public class InputJournal implements Closeable {
+    private static final Logger logger = Logger.getLogger(InputJournal.class);
+
+    /** The first bytes of every journal. */
+    public static final int MAGIC = 0x44534a4c;
+
+    /** The version of the format of the journal. */
+    public static final int VERSION = 1;
+
+    /** Tag of a record starting the changes of a step. */
+    static final byte STEP = 1;
+
+    /** Tag of a record of an inserted entity. */
+    static final byte INSERT = 2;
+
+    /** Tag of a record of an updated entity. */
+    static final byte UPDATE = 3;
+
+    /** Tag of a record of a removed entity. */
+    static final byte REMOVE = 4;
+
+    /** Tag of the last record. */
+    static final byte END = 5;
+
+    /** Kind of a plain entity. */
+    static final byte KIND_ENTITY = 0;
+
+    /** Kind of a drone, followed by its target location. */
+    static final byte KIND_DRONE = 1;
+
+    /** Kind of a bullet, followed by its maximal range. */
+    static final byte KIND_BULLET = 2;
+
+    /** The stream to write the journal to. */
+    private final DataOutputStream out;
+
+    /** The number of the current step. 0 before the first step. */
+    private long step;
+
+    /** The time step of the current step in seconds. */
+    private double timestep_s;
+
+    /** Whether the record of the current step is written. */
+    private boolean stepWritten;
+
+    /** The time step in the last written step record in seconds. NaN if no step record is written yet. */
+    private double written_timestep_s;
+
+    /** Whether a write failed, after which nothing is recorded anymore. */
+    private boolean failed;
+
+    /**
+     * Creates a journal and writes its header.
+     * @param out The stream to write the journal to. Closed when the journal is closed.
+     * @throws IOException If the header could not be written.
+     */
+    public InputJournal(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.step = 0;
+        this.timestep_s = 0;
+        this.stepWritten = false;
+        this.written_timestep_s = Double.NaN;
+        this.failed = false;
+
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    /**
+     * Starts the next step. All changes recorded until the next call are stamped with this step.
+     * @param timestep_s The time step of the step in seconds.
+     */
+    public void beginStep(double timestep_s) {
+        this.step++;
+        this.timestep_s = timestep_s;
+        this.stepWritten = false;
+
+        if(Double.doubleToLongBits(timestep_s) != Double.doubleToLongBits(this.written_timestep_s)) {
+            this.write(() -> this.writeStep());
+        }
+    }
+
+    /**
+     * Records an inserted entity.
+     * @param entity The entity as it is inserted.
+     */
+    public void insert(Entity entity) {
+        this.write(() -> {
+            this.writeStep();
+            this.out.writeByte(INSERT);
+            this.writeEntity(entity);
+        });
+    }
+
+    /**
+     * Records an update applied to an entity.
+     * @param entityId The id of the updated entity.
+     * @param update The applied update.
+     */
+    public void update(int entityId, EntityUpdate update) {
+        this.write(() -> {
+            this.writeStep();
+            this.out.writeByte(UPDATE);
+            this.out.writeInt(entityId);
+            this.out.writeByte(update.getField().ordinal());
+            this.writeUpdate(update);
+        });
+    }
+
+    /**
+     * Records a removed entity.
+     * @param entityId The id of the removed entity.
+     */
+    public void remove(int entityId) {
+        this.write(() -> {
+            this.writeStep();
+            this.out.writeByte(REMOVE);
+            this.out.writeInt(entityId);
+        });
+    }
+
+    /**
+     * Returns the number of the current step.
+     * @return The step number, 0 before the first step.
+     */
+    public long getStep() {
+        return this.step;
+    }
+
+    /**
+     * Returns whether a write failed, after which nothing is recorded anymore.
+     * @return Whether the journal failed.
+     */
+    public boolean isFailed() {
+        return this.failed;
+    }
+
+    /**
+     * Writes the last record and closes the stream.
+     * @throws IOException If the stream could not be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if(!this.failed) {
+                this.out.writeByte(END);
+                this.out.writeLong(this.step);
+            }
+        } finally {
+            this.out.close();
+        }
+    }
+
+    /**
+     * Runs the write unless an earlier write failed. Stops recording if this write fails.
+     * @param write The write to run.
+     */
+    private void write(JournalWrite write) {
+        if(this.failed) {
+            return;
+        }
+
+        try {
+            write.run();
+        } catch(IOException e) {
+            this.failed = true;
+            logger.error("Could not write the input journal, stopped recording at step " + this.step, e);
+        }
+    }
+
+    /**
+     * Writes the record of the current step if it is not written yet.
+     * @throws IOException If the record could not be written.
+     */
+    private void writeStep() throws IOException {
+        if(!this.stepWritten) {
+            this.out.writeByte(STEP);
+            this.out.writeLong(this.step);
+            this.out.writeDouble(this.timestep_s);
+            this.stepWritten = true;
+            this.written_timestep_s = this.timestep_s;
+        }
+    }
+
+    /**
+     * Writes an entity: its kind (byte), id (int), size, position, velocity, acceleration and direction (each 3
+     * doubles) followed by the fields of its kind.
+     * @param entity The entity to write.
+     * @throws IOException If the entity could not be written.
+     */
+    private void writeEntity(Entity entity) throws IOException {
+        if(entity instanceof Entity.DroneEntity) {
+            this.out.writeByte(KIND_DRONE);
+        } else if(entity instanceof Entity.BulletEntity) {
+            this.out.writeByte(KIND_BULLET);
+        } else {
+            this.out.writeByte(KIND_ENTITY);
+        }
+
+        this.out.writeInt(entity.getEntityId());
+        this.out.writeDouble(entity.getSize().getWidth());
+        this.out.writeDouble(entity.getSize().getDepth());
+        this.out.writeDouble(entity.getSize().getHeight());
+        this.writeVector(entity.getPosition());
+        this.writeVector(entity.getVelocity());
+        this.writeVector(entity.getAcceleration());
+        this.writeDirection(entity.getDirection());
+
+        if(entity instanceof Entity.DroneEntity) {
+            this.writeOptionalVector(((Entity.DroneEntity) entity).getTargetPosition());
+        } else if(entity instanceof Entity.BulletEntity) {
+            this.out.writeDouble(((Entity.BulletEntity) entity).getMaxRange());
+        }
+    }
+
+    /**
+     * Writes the new value of an update.
+     * @param update The update to write.
+     * @throws IOException If the update could not be written.
+     */
+    private void writeUpdate(EntityUpdate update) throws IOException {
+        switch(update.getField()) {
+            case POSITION:
+                this.writeVector(((PositionEntityUpdate) update).getNewPosition());
+                break;
+            case VELOCITY:
+                this.writeVector(((VelocityEntityUpdate) update).getNewVelocity());
+                break;
+            case ACCELERATION:
+                this.writeVector(((AccelerationEntityUpdate) update).getNewAcceleration());
+                break;
+            case DIRECTION:
+                this.writeDirection(((DirectionEntityUpdate) update).getNewDirection());
+                break;
+            default:
+                this.writeOptionalVector(((TargetLocationEntityUpdate) update).getNewTarget());
+                break;
+        }
+    }
+
+    /**
+     * Writes a vector as 3 doubles.
+     * @param vector The vector to write.
+     * @throws IOException If the vector could not be written.
+     */
+    private void writeVector(D3Vector vector) throws IOException {
+        this.out.writeDouble(vector.getX());
+        this.out.writeDouble(vector.getY());
+        this.out.writeDouble(vector.getZ());
+    }
+
+    /**
+     * Writes whether the vector is present (boolean), followed by the vector if so.
+     * @param vector The vector to write. May be null.
+     * @throws IOException If the vector could not be written.
+     */
+    private void writeOptionalVector(D3Vector vector) throws IOException {
+        this.out.writeBoolean(vector != null);
+
+        if(vector != null) {
+            this.writeVector(vector);
+        }
+    }
+
+    /**
+     * Writes a direction as its two angles and length.
+     * @param direction The direction to write.
+     * @throws IOException If the direction could not be written.
+     */
+    private void writeDirection(D3PolarCoordinate direction) throws IOException {
+        this.out.writeDouble(direction.getAngle1());
+        this.out.writeDouble(direction.getAngle2());
+        this.out.writeDouble(direction.getLength());
+    }
+
+    /**
+     * A write to the journal.
+     */
+    @FunctionalInterface
+    private interface JournalWrite {
+        /**
+         * Runs the write.
+         * @throws IOException If the write failed.
+         */
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,240 @@
+package org.inaetics.dronessimulator.physicsengine.journal;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.AccelerationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.DirectionEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityField;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.EntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.PositionEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.TargetLocationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.VelocityEntityUpdate;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replays an {@link InputJournal} through a physics engine as fast as possible, without a broker or any other part of
+ * the game engine. Every recorded change is handed to the engine before the step it was applied in, and every step is
+ * taken with its recorded time step. With the same settings as the recorded run, the replay takes exactly the same
+ * steps on exactly the same state, which makes it suited for profiling and regression benchmarks.
+ * The engine must not be started, as the replay steps it itself. Its observer receives all events as usual.
+ * This class is not threadsafe.
+ */
+public class JournalReplay {
+    /** The fields of an entity, by ordinal. */
+    private static final EntityField[] FIELDS = EntityField.values();
+
+    /** The physics engine to replay the journal through. */
+    private final PhysicsEngine physicsEngine;
+
+    /** The number of steps taken so far. */
+    private long steps;
+
+    /** The time step of the next step in seconds. */
+    private double timestep_s;
+
+    /**
+     * Creates a replay.
+     * @param physicsEngine The physics engine to replay the journal through. Must not be started.
+     */
+    public JournalReplay(PhysicsEngine physicsEngine) {
+        this.physicsEngine = physicsEngine;
+        this.steps = 0;
+        this.timestep_s = 0;
+    }
+
+    /**
+     * Replays a complete journal.
+     * @param journal The stream to read the journal from. Not closed.
+     * @return The number of steps taken.
+     * @throws IOException If the journal could not be read or is not a valid journal.
+     */
+    public long replay(InputStream journal) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(journal));
+
+        if(in.readInt() != InputJournal.MAGIC) {
+            throw new IOException("Not an input journal");
+        }
+
+        int version = in.readInt();
+        if(version != InputJournal.VERSION) {
+            throw new IOException("Unsupported input journal version " + version + ", expected " + InputJournal.VERSION);
+        }
+
+        while(true) {
+            byte tag;
+
+            try {
+                tag = in.readByte();
+            } catch(EOFException e) {
+                throw new IOException("Input journal ended without an end record after step " + this.steps, e);
+            }
+
+            switch(tag) {
+                case InputJournal.STEP:
+                    // All steps before this one had no changes and the previous time step
+                    this.stepUntil(in.readLong() - 1);
+                    this.timestep_s = in.readDouble();
+                    break;
+                case InputJournal.INSERT:
+                    this.physicsEngine.addInsert(readEntity(in));
+                    break;
+                case InputJournal.UPDATE:
+                    int entityId = in.readInt();
+                    this.physicsEngine.addUpdate(entityId, readUpdate(in));
+                    break;
+                case InputJournal.REMOVE:
+                    this.physicsEngine.addRemoval(in.readInt());
+                    break;
+                case InputJournal.END:
+                    this.stepUntil(in.readLong());
+                    return this.steps;
+                default:
+                    throw new IOException("Unknown record " + tag + " in input journal after step " + this.steps);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of steps taken so far.
+     * @return The number of steps.
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Returns a checksum of the exact state of all entities in the engine. Two runs which are bit for bit the same end
+     * with the same checksum.
+     * @return The checksum.
+     */
+    public long checksum() {
+        EntityStore store = this.physicsEngine.getEntityManager().getStore();
+        long checksum = 1;
+
+        for(int slot = 0; slot < store.size(); slot++) {
+            Entity entity = store.getEntity(slot);
+
+            checksum = 31 * checksum + entity.getEntityId();
+            checksum = 31 * checksum + vectorChecksum(entity.getPosition());
+            checksum = 31 * checksum + vectorChecksum(entity.getVelocity());
+            checksum = 31 * checksum + vectorChecksum(entity.getAcceleration());
+        }
+
+        return checksum;
+    }
+
+    /**
+     * Takes steps until the given number of steps is taken.
+     * @param step The number of steps to have taken.
+     */
+    private void stepUntil(long step) {
+        while(this.steps < step) {
+            this.physicsEngine.step(this.timestep_s);
+            this.steps++;
+        }
+    }
+
+    /**
+     * Reads an entity as written by the journal.
+     * @param in The stream to read from.
+     * @return The entity.
+     * @throws IOException If the entity could not be read.
+     */
+    private static Entity readEntity(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        int id = in.readInt();
+        Size size = new Size(in.readDouble(), in.readDouble(), in.readDouble());
+        D3Vector position = readVector(in);
+        D3Vector velocity = readVector(in);
+        D3Vector acceleration = readVector(in);
+        D3PolarCoordinate direction = readDirection(in);
+
+        switch(kind) {
+            case InputJournal.KIND_DRONE:
+                return new Entity.DroneEntity(id, size, position, velocity, acceleration, direction, readOptionalVector(in));
+            case InputJournal.KIND_BULLET:
+                return new Entity.BulletEntity(id, size, position, velocity, acceleration, direction, in.readDouble());
+            case InputJournal.KIND_ENTITY:
+                return new Entity(id, size, position, velocity, acceleration, direction);
+            default:
+                throw new IOException("Unknown entity kind " + kind + " in input journal");
+        }
+    }
+
+    /**
+     * Reads an update as written by the journal.
+     * @param in The stream to read from.
+     * @return The update.
+     * @throws IOException If the update could not be read.
+     */
+    private static EntityUpdate readUpdate(DataInputStream in) throws IOException {
+        int field = in.readByte();
+
+        if(field < 0 || field >= FIELDS.length) {
+            throw new IOException("Unknown entity field " + field + " in input journal");
+        }
+
+        switch(FIELDS[field]) {
+            case POSITION:
+                return new PositionEntityUpdate(readVector(in));
+            case VELOCITY:
+                return new VelocityEntityUpdate(readVector(in));
+            case ACCELERATION:
+                return new AccelerationEntityUpdate(readVector(in));
+            case DIRECTION:
+                return new DirectionEntityUpdate(readDirection(in));
+            default:
+                return new TargetLocationEntityUpdate(readOptionalVector(in));
+        }
+    }
+
+    /**
+     * Reads a vector of 3 doubles.
+     * @param in The stream to read from.
+     * @return The vector.
+     * @throws IOException If the vector could not be read.
+     */
+    private static D3Vector readVector(DataInputStream in) throws IOException {
+        return new D3Vector(in.readDouble(), in.readDouble(), in.readDouble());
+    }
+
+    /**
+     * Reads a vector which may be absent.
+     * @param in The stream to read from.
+     * @return The vector or null if it is absent.
+     * @throws IOException If the vector could not be read.
+     */
+    private static D3Vector readOptionalVector(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readVector(in) : null;
+    }
+
+    /**
+     * Reads a direction of two angles and a length.
+     * @param in The stream to read from.
+     * @return The direction.
+     * @throws IOException If the direction could not be read.
+     */
+    private static D3PolarCoordinate readDirection(DataInputStream in) throws IOException {
+        return new D3PolarCoordinate(in.readDouble(), in.readDouble(), in.readDouble());
+    }
+
+    /**
+     * Returns a checksum of the exact bits of a vector.
+     * @param vector The vector.
+     * @return The checksum.
+     */
+    private static long vectorChecksum(D3Vector vector) {
+        long checksum = Double.doubleToLongBits(vector.getX());
+        checksum = 31 * checksum + Double.doubleToLongBits(vector.getY());
+        return 31 * checksum + Double.doubleToLongBits(vector.getZ());
+    }
+}
@@ -0,0 +1,112 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Autopilot;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.ObjectEntityStore;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.TargetLocationEntityUpdate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGameAutopilot {
+    private static final double MAX_ACCELERATION = 10;
+    private static final double MAX_VELOCITY = 20;
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testSteerWithinLimits() {
+        Autopilot autopilot = new Autopilot(MAX_ACCELERATION, MAX_VELOCITY, 1);
+
+        // Far away and still: full acceleration towards the target
+        D3Vector acceleration = autopilot.steer(new D3Vector(), new D3Vector(), new D3Vector(1000, 0, 0), 0.1);
+        Assert.assertEquals(MAX_ACCELERATION, acceleration.getX(), EPSILON);
+        Assert.assertEquals(0, acceleration.getY(), EPSILON);
+
+        // Flying at max velocity towards a far target: keep the velocity
+        acceleration = autopilot.steer(new D3Vector(), new D3Vector(MAX_VELOCITY, 0, 0), new D3Vector(1000, 0, 0), 0.1);
+        Assert.assertEquals(0, acceleration.length(), EPSILON);
+
+        // Flying at max velocity close to the target: brake as hard as possible
+        acceleration = autopilot.steer(new D3Vector(), new D3Vector(MAX_VELOCITY, 0, 0), new D3Vector(5, 0, 0), 0.1);
+        Assert.assertEquals(-MAX_ACCELERATION, acceleration.getX(), EPSILON);
+
+        // Held still at the target
+        acceleration = autopilot.steer(new D3Vector(), new D3Vector(), new D3Vector(0.5, 0, 0), 0.1);
+        Assert.assertEquals(new D3Vector(), acceleration);
+    }
+
+    @Test
+    public void testArrivesWithObjectStore() {
+        this.testArrives(new ObjectEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testArrivesWithPrimitiveStore() {
+        this.testArrives(new PrimitiveEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testArrivedDroneFallsAsleep() {
+        EntityStore store = new PrimitiveEntityStore(new SleepTracker(0.001, 5));
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), store, 1);
+        physicsEngine.addInsert(drone(new D3Vector(), new D3Vector(10, 10, 0)));
+
+        for(int i = 0; i < 200; i++) {
+            physicsEngine.step(0.05);
+        }
+
+        Assert.assertTrue(store.isAsleep(store.slotOf(1)));
+
+        // A new target wakes the drone
+        physicsEngine.addUpdate(1, new TargetLocationEntityUpdate(new D3Vector(20, 10, 0)));
+        physicsEngine.step(0.05);
+        Assert.assertFalse(store.isAsleep(store.slotOf(1)));
+        Assert.assertTrue(store.getEntity(store.slotOf(1)).getVelocity().getX() > 0);
+    }
+
+    @Test
+    public void testNoTargetIsNotSteered() {
+        EntityStore store = new PrimitiveEntityStore(new SleepTracker(0, 0));
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), store, 1);
+        physicsEngine.addInsert(drone(new D3Vector(), null));
+        physicsEngine.addInsert(new Entity(2, new Size(1, 1, 1), new D3Vector(50, 0, 0), new D3Vector(3, 0, 0)));
+
+        physicsEngine.step(1);
+
+        Assert.assertEquals(new D3Vector(), store.getEntity(store.slotOf(1)).getPosition());
+        Assert.assertEquals(new D3Vector(53, 0, 0), store.getEntity(store.slotOf(2)).getPosition());
+    }
+
+    /**
+     * Steers a drone to a target and checks it never exceeds the maxima and comes to rest near the target.
+     * @param store The store to simulate with.
+     */
+    private void testArrives(EntityStore store) {
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), store, 1);
+        D3Vector target = new D3Vector(100, 50, 20);
+        physicsEngine.addInsert(drone(new D3Vector(), target));
+
+        for(int i = 0; i < 400; i++) {
+            physicsEngine.step(0.05);
+
+            Entity drone = store.getEntity(store.slotOf(1));
+            Assert.assertTrue(drone.getAcceleration().length() <= MAX_ACCELERATION + EPSILON);
+            Assert.assertTrue(drone.getVelocity().length() <= MAX_VELOCITY + EPSILON);
+        }
+
+        Entity drone = store.getEntity(store.slotOf(1));
+        Assert.assertTrue(drone.getPosition().distance_between(target) <= 1 + EPSILON);
+        Assert.assertEquals(0, drone.getVelocity().length(), 1e-6);
+    }
+
+    private static Entity.DroneEntity drone(D3Vector position, D3Vector target) {
+        return new Entity.DroneEntity(1, new Size(10, 10, 10), position, new D3Vector(), new D3Vector(), new D3PolarCoordinate(), target);
+    }
+}
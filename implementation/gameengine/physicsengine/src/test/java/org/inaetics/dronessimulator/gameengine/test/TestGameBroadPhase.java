@@ -0,0 +1,149 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.BroadPhase;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.ShardedBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SpatialHashBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SweepAndPruneBroadPhase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class TestGameBroadPhase {
+    @Test
+    public void testBruteForce() {
+        testFindsAllCollidingPairsOnce(new BruteForceBroadPhase());
+    }
+
+    @Test
+    public void testSpatialHash() {
+        testFindsAllCollidingPairsOnce(new SpatialHashBroadPhase(10));
+    }
+
+    @Test
+    public void testSweepAndPrune() {
+        testFindsAllCollidingPairsOnce(new SweepAndPruneBroadPhase(SweepAndPruneBroadPhase.Axis.X));
+    }
+
+    @Test
+    public void testSharded() {
+        testFindsAllCollidingPairsOnce(new ShardedBroadPhase(4, SweepAndPruneBroadPhase.Axis.X, SweepAndPruneBroadPhase.Axis.Y, -50, 100));
+    }
+
+    @Test
+    public void testShardedWithEntitiesOutsideArena() {
+        testFindsAllCollidingPairsOnce(new ShardedBroadPhase(7, SweepAndPruneBroadPhase.Axis.Y, SweepAndPruneBroadPhase.Axis.X, -10, 20));
+    }
+
+    @Test
+    public void testSpatialHashForgetsRemovedEntities() {
+        testForgetsRemovedEntities(new SpatialHashBroadPhase(10));
+    }
+
+    @Test
+    public void testSweepAndPruneForgetsRemovedEntities() {
+        testForgetsRemovedEntities(new SweepAndPruneBroadPhase(SweepAndPruneBroadPhase.Axis.Y));
+    }
+
+    @Test
+    public void testShardedForgetsRemovedEntities() {
+        testForgetsRemovedEntities(new ShardedBroadPhase(2, SweepAndPruneBroadPhase.Axis.X, SweepAndPruneBroadPhase.Axis.Y, -1, 2));
+    }
+
+    @Test
+    public void testSweepAndPruneComparesOtherAxes() {
+        for(SweepAndPruneBroadPhase.Axis axis : SweepAndPruneBroadPhase.Axis.values()) {
+            EntityStore store = new PrimitiveEntityStore();
+            store.add(new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0)));
+            // Overlaps the first entity on every axis but one
+            store.add(new Entity(2, new Size(1, 1, 1), new D3Vector(0.5, 10, 0.5)));
+            store.add(new Entity(3, new Size(1, 1, 1), new D3Vector(0.5, 0.5, 10)));
+            store.add(new Entity(4, new Size(1, 1, 1), new D3Vector(10, 0.5, 0.5)));
+            store.add(new Entity(5, new Size(1, 1, 1), new D3Vector(-0.5, 0.5, -0.5)));
+
+            List<String> reported = new ArrayList<>();
+            new SweepAndPruneBroadPhase(axis).findCandidatePairs(store, (s1, s2) -> reported.add(pairKey(store, s1, s2)));
+
+            Assert.assertEquals(Collections.singletonList("1-5"), reported);
+        }
+    }
+
+    private void testFindsAllCollidingPairsOnce(BroadPhase broadPhase) {
+        Random random = new Random(42);
+        Map<Integer, Entity> entities = new HashMap<>();
+        EntityStore store = new PrimitiveEntityStore();
+
+        for(int i = 0; i < 300; i++) {
+            double size = random.nextBoolean() ? 1 : 15;
+            D3Vector position = new D3Vector(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 20);
+            Entity entity = new Entity(i, new Size(size, size, size), position);
+            entities.put(i, entity);
+            store.add(entity);
+        }
+
+        // Move the entities around for a couple of ticks, so any state kept between ticks is used
+        for(int tick = 0; tick < 5; tick++) {
+            Set<String> expected = new HashSet<>();
+            for(Entity e1 : entities.values()) {
+                for(Entity e2 : entities.values()) {
+                    if(e1.getEntityId() < e2.getEntityId() && e1.collides(e2)) {
+                        expected.add(pairKey(e1, e2));
+                    }
+                }
+            }
+
+            List<String> reported = new ArrayList<>();
+            broadPhase.findCandidatePairs(store, (s1, s2) -> reported.add(pairKey(store, s1, s2)));
+
+            Set<String> found = new HashSet<>(reported);
+            Assert.assertEquals(found.size(), reported.size());
+            Assert.assertTrue(found.containsAll(expected));
+
+            for(Entity entity : entities.values()) {
+                entity.setPosition(entity.getPosition().add(new D3Vector(random.nextDouble() * 4 - 2, random.nextDouble() * 4 - 2, 0)));
+                store.reload(store.slotOf(entity.getEntityId()));
+            }
+        }
+    }
+
+    private void testForgetsRemovedEntities(BroadPhase broadPhase) {
+        Entity e1 = new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0));
+        Entity e2 = new Entity(2, new Size(1, 1, 1), new D3Vector(0.5, 0, 0));
+        EntityStore store = new PrimitiveEntityStore();
+        store.add(e1);
+        store.add(e2);
+
+        List<String> reported = new ArrayList<>();
+        broadPhase.findCandidatePairs(store, (s1, s2) -> reported.add(pairKey(store, s1, s2)));
+        Assert.assertEquals(1, reported.size());
+
+        store.remove(2);
+        reported.clear();
+        broadPhase.findCandidatePairs(store, (s1, s2) -> reported.add(pairKey(store, s1, s2)));
+        Assert.assertEquals(0, reported.size());
+    }
+
+    private static String pairKey(EntityStore store, int slot1, int slot2) {
+        return pairKey(store.getEntity(slot1), store.getEntity(slot2));
+    }
+
+    private static String pairKey(Entity e1, Entity e2) {
+        int min = Math.min(e1.getEntityId(), e2.getEntityId());
+        int max = Math.max(e1.getEntityId(), e2.getEntityId());
+
+        return min + "-" + max;
+    }
+}
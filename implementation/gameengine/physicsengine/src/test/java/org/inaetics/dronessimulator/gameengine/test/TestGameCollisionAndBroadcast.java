@@ -5,6 +5,8 @@ import org.inaetics.dronessimulator.gameengine.common.Size;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
 import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SpatialHashBroadPhase;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +31,18 @@ public class TestGameCollisionAndBroadcast {
 
     @Test
     public void collisionTest() {
+        runCollisionTest();
+    }
+
+    @Test
+    public void collisionTestPrimitiveStore() {
+        physicsEngine = new PhysicsEngine(new SpatialHashBroadPhase(20), new PrimitiveEntityStore());
+        physicsEngine.setObserver(observer);
+
+        runCollisionTest();
+    }
+
+    private void runCollisionTest() {
         Entity e1 = new Entity(1, new Size(0.1, 0.1, 0.1), new D3Vector(-1, 0, 0), new D3Vector(1, 0, 0));
         Entity e2 = new Entity(2, new Size(0.1, 0.1, 0.1), new D3Vector(1, 0, 0), new D3Vector(-1, 0, 0));
 
@@ -0,0 +1,56 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.physicsengine.CollisionPairSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class TestGameCollisionPairSet {
+    @Test
+    public void testPack() {
+        long pair = CollisionPairSet.pack(7, 3);
+
+        Assert.assertEquals(pair, CollisionPairSet.pack(3, 7));
+        Assert.assertEquals(3, CollisionPairSet.getFirstId(pair));
+        Assert.assertEquals(7, CollisionPairSet.getSecondId(pair));
+        Assert.assertNotEquals(0L, CollisionPairSet.pack(0, 1));
+    }
+
+    @Test
+    public void testMatchesHashSet() {
+        CollisionPairSet set = new CollisionPairSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(3);
+
+        for(int round = 0; round < 3; round++) {
+            set.clear();
+            expected.clear();
+
+            for(int i = 0; i < 5000; i++) {
+                int id1 = random.nextInt(200);
+                int id2 = random.nextInt(200);
+
+                if(id1 != id2) {
+                    long pair = CollisionPairSet.pack(id1, id2);
+                    Assert.assertEquals(expected.add(pair), set.add(pair));
+                }
+            }
+
+            Assert.assertEquals(expected.size(), set.size());
+
+            for(int i = 0; i < set.size(); i++) {
+                Assert.assertTrue(expected.contains(set.get(i)));
+            }
+
+            for(int id1 = 0; id1 < 200; id1++) {
+                for(int id2 = id1 + 1; id2 < 200; id2++) {
+                    long pair = CollisionPairSet.pack(id1, id2);
+                    Assert.assertEquals(expected.contains(pair), set.contains(pair));
+                }
+            }
+        }
+    }
+}
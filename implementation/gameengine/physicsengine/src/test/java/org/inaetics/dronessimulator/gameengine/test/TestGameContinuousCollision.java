@@ -0,0 +1,177 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.BroadPhase;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.ObjectEntityStore;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.ShardedBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.SpatialHashBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SweepAndPruneBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SweptEntityStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestGameContinuousCollision {
+    /** The speed of a bullet in m/s. */
+    private static final double BULLET_SPEED = 150;
+
+    /** A step long enough for a bullet to fly through a drone. */
+    private static final double TIMESTEP = 0.2;
+
+    @Test
+    public void testBulletHitsDroneWithBruteForce() {
+        testBulletHitsDrone(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testBulletHitsDroneWithObjectStore() {
+        testBulletHitsDrone(new BruteForceBroadPhase(), new ObjectEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testBulletHitsDroneWithSpatialHash() {
+        testBulletHitsDrone(new SpatialHashBroadPhase(10), new PrimitiveEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testBulletHitsDroneWithSweepAndPrune() {
+        testBulletHitsDrone(new SweepAndPruneBroadPhase(SweepAndPruneBroadPhase.Axis.X), new PrimitiveEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testBulletHitsDroneWithSharded() {
+        testBulletHitsDrone(new ShardedBroadPhase(4, SweepAndPruneBroadPhase.Axis.X, SweepAndPruneBroadPhase.Axis.Y, 0, 100), new PrimitiveEntityStore(new SleepTracker(0, 0)));
+    }
+
+    @Test
+    public void testBulletTunnelsWithoutContinuousCollision() {
+        List<int[]> collisions = new ArrayList<>();
+        PhysicsEngine physicsEngine = createEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0, 0)), false, collisions);
+
+        physicsEngine.addInsert(drone(1, new D3Vector(50, 50, 50)));
+        physicsEngine.addInsert(bullet(2, new D3Vector(30, 50, 50), new D3Vector(BULLET_SPEED, 0, 0)));
+        physicsEngine.step(TIMESTEP);
+
+        Assert.assertTrue(collisions.isEmpty());
+    }
+
+    @Test
+    public void testNearMissIsNotReported() {
+        List<int[]> collisions = new ArrayList<>();
+        PhysicsEngine physicsEngine = createEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0, 0)), true, collisions);
+
+        // Passes just beside the drone
+        physicsEngine.addInsert(drone(1, new D3Vector(50, 50, 50)));
+        physicsEngine.addInsert(bullet(2, new D3Vector(30, 57, 50), new D3Vector(BULLET_SPEED, 0, 0)));
+        // Passes diagonally beside a corner of the drone, within its swept bounds
+        physicsEngine.addInsert(bullet(3, new D3Vector(30, 55, 50), new D3Vector(BULLET_SPEED, -BULLET_SPEED, 0)));
+        physicsEngine.step(TIMESTEP);
+
+        Assert.assertTrue(collisions.isEmpty());
+    }
+
+    @Test
+    public void testCrossingBullets() {
+        List<int[]> collisions = new ArrayList<>();
+        PhysicsEngine physicsEngine = createEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0, 0)), true, collisions);
+
+        // Two bullets flying head-on pass each other within a single step
+        physicsEngine.addInsert(bullet(1, new D3Vector(40, 50, 50), new D3Vector(BULLET_SPEED, 0, 0)));
+        physicsEngine.addInsert(bullet(2, new D3Vector(60, 50, 50), new D3Vector(-BULLET_SPEED, 0, 0)));
+        physicsEngine.step(TIMESTEP);
+
+        Assert.assertEquals(1, collisions.size());
+    }
+
+    @Test
+    public void testFastMovers() {
+        EntityStore store = new PrimitiveEntityStore(new SleepTracker(0, 0));
+        store.add(drone(1, new D3Vector(50, 50, 50)));
+        store.add(bullet(2, new D3Vector(70, 50, 50), new D3Vector(BULLET_SPEED, 0, 0)));
+
+        SweptEntityStore swept = new SweptEntityStore(store).prepare(TIMESTEP);
+
+        Assert.assertEquals(1, swept.getFastMoverCount());
+        Assert.assertFalse(swept.isFastMover(store.slotOf(1)));
+        Assert.assertTrue(swept.isFastMover(store.slotOf(2)));
+
+        // The bounds of the bullet span the path it flew, the bounds of the drone are unchanged
+        int slot = store.slotOf(2);
+        Assert.assertEquals(70 - BULLET_SPEED * TIMESTEP - 0.5, swept.getMinX(slot), 1e-9);
+        Assert.assertEquals(70.5, swept.getMaxX(slot), 1e-9);
+        Assert.assertEquals(store.getMinY(slot), swept.getMinY(slot), 0);
+        Assert.assertEquals(store.getMinX(store.slotOf(1)), swept.getMinX(store.slotOf(1)), 0);
+        Assert.assertTrue(swept.collides(store.slotOf(1), slot));
+        Assert.assertFalse(store.collides(store.slotOf(1), slot));
+    }
+
+    /**
+     * Fires a bullet through a drone in a single step and checks the collision is found.
+     * @param broadPhase The broadphase to find candidate pairs with.
+     * @param store The store to simulate with.
+     */
+    private static void testBulletHitsDrone(BroadPhase broadPhase, EntityStore store) {
+        List<int[]> collisions = new ArrayList<>();
+        PhysicsEngine physicsEngine = createEngine(broadPhase, store, true, collisions);
+
+        physicsEngine.addInsert(drone(1, new D3Vector(50, 50, 50)));
+        physicsEngine.addInsert(bullet(2, new D3Vector(30, 50, 50), new D3Vector(BULLET_SPEED, 0, 0)));
+        physicsEngine.step(TIMESTEP);
+
+        Assert.assertEquals(1, collisions.size());
+        Assert.assertEquals(3, collisions.get(0)[0] + collisions.get(0)[1]);
+
+        // The bullet is past the drone and is not hit again
+        physicsEngine.step(TIMESTEP);
+        Assert.assertEquals(1, collisions.size());
+    }
+
+    /**
+     * Creates a physics engine which does not remove any entities and records the started collisions.
+     * @param broadPhase The broadphase to find candidate pairs with.
+     * @param store The store to simulate with.
+     * @param continuousCollision Whether fast movers are tested along their path.
+     * @param collisions The list to add the ids of every started collision to.
+     * @return The physics engine.
+     */
+    private static PhysicsEngine createEngine(BroadPhase broadPhase, EntityStore store, boolean continuousCollision, List<int[]> collisions) {
+        PhysicsEngine physicsEngine = new PhysicsEngine(broadPhase, store, 1, null, continuousCollision);
+
+        physicsEngine.setObserver(new PhysicsEngineEventObserver() {
+            @Override
+            public void collisionStartHandler(Entity e1, Entity e2) {
+                collisions.add(new int[]{e1.getEntityId(), e2.getEntityId()});
+            }
+
+            @Override
+            public void collisionStopHandler(Entity e1, Entity e2) {
+                // Not tested
+            }
+
+            @Override
+            public void broadcastStateHandler(List<Entity> currentState) {
+                // Not broadcast when stepping
+            }
+        });
+
+        return physicsEngine;
+    }
+
+    private static Entity drone(int id, D3Vector position) {
+        return new Entity(id, new Size(10, 10, 10), position);
+    }
+
+    private static Entity bullet(int id, D3Vector position, D3Vector velocity) {
+        return new Entity(id, new Size(1, 1, 1), position, velocity);
+    }
+}
@@ -0,0 +1,162 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.ExitReason;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityCuller;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.PositionEntityUpdate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestGameCull {
+    private EntityStore store;
+    private PhysicsEngine physicsEngine;
+    private List<Integer> exitIds;
+    private List<ExitReason> exitReasons;
+    private int collisions;
+    private int endedCollisions;
+    private PhysicsEngineEventObserver observer;
+
+    @Before
+    public void setup() {
+        this.store = new PrimitiveEntityStore(new SleepTracker(0, 0));
+        this.physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), this.store, 1, new EntityCuller(new D3Vector(), new D3Vector(100, 100, 100)));
+        this.exitIds = new ArrayList<>();
+        this.exitReasons = new ArrayList<>();
+        this.collisions = 0;
+        this.endedCollisions = 0;
+
+        this.observer = new PhysicsEngineEventObserver() {
+            @Override
+            public void collisionStartHandler(Entity e1, Entity e2) {
+                collisions++;
+            }
+
+            @Override
+            public void collisionStopHandler(Entity e1, Entity e2) {
+                endedCollisions++;
+            }
+
+            @Override
+            public void broadcastStateHandler(List<Entity> currentState) {
+                // Not broadcast when stepping
+            }
+
+            @Override
+            public void entityExitHandler(Entity entity, ExitReason reason) {
+                exitIds.add(entity.getEntityId());
+                exitReasons.add(reason);
+            }
+        };
+        this.physicsEngine.setObserver(this.observer);
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        this.physicsEngine.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(92, 50, 50), new D3Vector(26, 0, 0)));
+        this.physicsEngine.addInsert(new Entity(2, new Size(1, 1, 1), new D3Vector(50, 50, 50), new D3Vector(10, 0, 0)));
+        // Entity 1 hits this entity in the step in which it leaves the arena
+        this.physicsEngine.addInsert(new Entity(3, new Size(10, 10, 10), new D3Vector(100, 50, 50)));
+        this.physicsEngine.addInsert(new Entity(4, new Size(1, 1, 1), new D3Vector(50, 50, -1)));
+
+        this.physicsEngine.step(0.5);
+        Assert.assertEquals(2, this.exitIds.size());
+        Assert.assertTrue(this.exitIds.contains(1));
+        Assert.assertTrue(this.exitIds.contains(4));
+        Assert.assertEquals(ExitReason.OUT_OF_BOUNDS, this.exitReasons.get(0));
+        Assert.assertEquals(ExitReason.OUT_OF_BOUNDS, this.exitReasons.get(1));
+        Assert.assertEquals(2, this.store.size());
+        Assert.assertEquals(1, this.collisions);
+
+        // Exited entities are not reported again
+        this.physicsEngine.step(0.5);
+        Assert.assertEquals(2, this.exitIds.size());
+    }
+
+    @Test
+    public void testOutOfRange() {
+        this.physicsEngine.addInsert(bullet(1, new D3Vector(10, 50, 50), 22));
+        this.physicsEngine.addInsert(bullet(2, new D3Vector(10, 60, 50), 0));
+
+        for(int i = 0; i < 4; i++) {
+            this.physicsEngine.step(0.1);
+        }
+
+        Assert.assertTrue(this.exitIds.isEmpty());
+
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(1, this.exitIds.size());
+        Assert.assertEquals(1, (int) this.exitIds.get(0));
+        Assert.assertEquals(ExitReason.OUT_OF_RANGE, this.exitReasons.get(0));
+        Assert.assertEquals(1, this.store.size());
+        Assert.assertEquals(2, this.store.getEntityId(0));
+    }
+
+    @Test
+    public void testFastBulletHitsOnItsWayOut() {
+        this.physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), this.store, 1, new EntityCuller(new D3Vector(), new D3Vector(100, 100, 100)), true);
+        this.physicsEngine.setObserver(this.observer);
+        this.physicsEngine.addInsert(new Entity.BulletEntity(1, new Size(0.1, 0.1, 0.1), new D3Vector(90, 50, 50), new D3Vector(200, 0, 0), new D3Vector(), new D3PolarCoordinate(), 100));
+        this.physicsEngine.addInsert(new Entity(2, new Size(1, 1, 1), new D3Vector(97, 50, 50)));
+
+        // The bullet passes the entity and leaves the arena in the same step
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(1, this.collisions);
+        Assert.assertEquals(1, this.exitIds.size());
+        Assert.assertEquals(1, (int) this.exitIds.get(0));
+        Assert.assertEquals(1, this.store.size());
+
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(1, this.collisions);
+    }
+
+    @Test
+    public void testCollisionEndsWhenEntityExits() {
+        this.physicsEngine.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(95, 50, 50), new D3Vector(10, 0, 0)));
+        this.physicsEngine.addInsert(new Entity(2, new Size(10, 10, 10), new D3Vector(100, 50, 50)));
+
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(1, this.collisions);
+        Assert.assertEquals(0, this.endedCollisions);
+
+        // Entity 1 leaves the arena while still colliding with entity 2
+        this.physicsEngine.step(0.5);
+        Assert.assertEquals(1, this.exitIds.size());
+        Assert.assertEquals(1, this.collisions);
+        Assert.assertEquals(1, this.endedCollisions);
+
+        // The collision is not ended again
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(1, this.endedCollisions);
+    }
+
+    @Test
+    public void testLaterUpdatesAreDropped() {
+        this.physicsEngine.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(-1, 50, 50)));
+        this.physicsEngine.step(0.1);
+        Assert.assertEquals(0, this.store.size());
+
+        this.physicsEngine.getEntityManager().addUpdate(1, new PositionEntityUpdate(new D3Vector(50, 50, 50)));
+        this.physicsEngine.addRemoval(1);
+        this.physicsEngine.step(0.1);
+
+        Assert.assertEquals(0, this.store.size());
+        Assert.assertEquals(1, this.physicsEngine.getEntityManager().getDroppedUpdateCount());
+    }
+
+    private static Entity.BulletEntity bullet(int id, D3Vector position, double maxRange) {
+        return new Entity.BulletEntity(id, new Size(1, 1, 1), position, new D3Vector(50, 0, 0), new D3Vector(), new D3PolarCoordinate(), maxRange);
+    }
+}
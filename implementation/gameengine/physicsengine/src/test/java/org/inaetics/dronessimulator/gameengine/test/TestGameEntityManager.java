@@ -12,16 +12,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.HashMap;
-import java.util.Set;
-
 public class TestGameEntityManager {
     private EntityManager manager;
 
     @Before
     public void init() {
-        HashMap<Integer, Set<Integer>> currentCollisions = new HashMap<>();
-        this.manager = new EntityManager(currentCollisions);
+        this.manager = new EntityManager();
     }
 
     @Test
@@ -71,4 +67,36 @@ public class TestGameEntityManager {
             Assert.assertEquals(new D3Vector(1,2,3), entity.getPosition());
         }
     }
+
+    @Test
+    public void testLatestUpdatePerFieldWins() {
+        this.manager.addInsert(new Entity(1, new Size(1, 1, 1)));
+
+        for(int i = 0; i < 30; i++) {
+            this.manager.addUpdate(1, new VelocityEntityUpdate(new D3Vector(i, 0, 0)));
+        }
+        this.manager.addUpdate(1, new PositionEntityUpdate(new D3Vector(5, 5, 5)));
+
+        this.manager.processChanges();
+
+        Entity entity = this.manager.copyState().get(0);
+        Assert.assertEquals(new D3Vector(29, 0, 0), entity.getVelocity());
+        Assert.assertEquals(new D3Vector(5, 5, 5), entity.getPosition());
+        Assert.assertEquals(0, this.manager.getDroppedUpdateCount());
+    }
+
+    @Test
+    public void testDropsUpdatesForUnknownEntities() {
+        this.manager.addUpdate(7, new PositionEntityUpdate(new D3Vector(1, 2, 3)));
+
+        this.manager.addInsert(new Entity(1, new Size(1, 1, 1)));
+        this.manager.processChanges();
+        this.manager.addRemoval(1);
+        this.manager.processChanges();
+        this.manager.addUpdate(1, new PositionEntityUpdate(new D3Vector(1, 2, 3)));
+        this.manager.processChanges();
+
+        Assert.assertEquals(2, this.manager.getDroppedUpdateCount());
+        Assert.assertTrue(this.manager.copyState().isEmpty());
+    }
 }
@@ -0,0 +1,88 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.ObjectEntityStore;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestGameEntityStore {
+    @Test
+    public void testStoresMoveEntitiesTheSame() {
+        EntityStore objectStore = new ObjectEntityStore();
+        EntityStore primitiveStore = new PrimitiveEntityStore();
+        Random random = new Random(7);
+
+        for(int i = 0; i < 200; i++) {
+            D3Vector position = new D3Vector(random.nextDouble() * 800, random.nextDouble() * 800, random.nextDouble() * 100);
+            D3Vector velocity = new D3Vector(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 2 - 1);
+            D3Vector acceleration = new D3Vector(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, 0);
+
+            objectStore.add(new Entity(i, new Size(10, 10, 10), position, velocity, acceleration, null));
+            primitiveStore.add(new Entity(i, new Size(10, 10, 10), position, velocity, acceleration, null));
+        }
+
+        // Remove some entities so slots get reused
+        for(int i = 0; i < 200; i += 7) {
+            objectStore.remove(i);
+            primitiveStore.remove(i);
+        }
+
+        for(int tick = 0; tick < 100; tick++) {
+            objectStore.integrate(0, objectStore.size(), 0.033, new D3Vector(0, 0, -1));
+            primitiveStore.integrate(0, primitiveStore.size(), 0.033, new D3Vector(0, 0, -1));
+        }
+
+        Assert.assertEquals(objectStore.size(), primitiveStore.size());
+
+        for(int slot = 0; slot < objectStore.size(); slot++) {
+            Entity expected = objectStore.getEntity(slot);
+            Entity actual = primitiveStore.getEntity(primitiveStore.slotOf(expected.getEntityId()));
+
+            Assert.assertEquals(expected.getPosition(), actual.getPosition());
+            Assert.assertEquals(expected.getVelocity(), actual.getVelocity());
+            Assert.assertEquals(expected.getAcceleration(), actual.getAcceleration());
+            Assert.assertEquals(expected.getMinX(), primitiveStore.getMinX(primitiveStore.slotOf(expected.getEntityId())), 0);
+        }
+    }
+
+    @Test
+    public void testSyncUpdatesHandle() {
+        EntityStore store = new PrimitiveEntityStore();
+        Entity entity = new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0), new D3Vector(2, 0, 0));
+
+        store.add(entity);
+        store.integrate(0, store.size(), 0.5, new D3Vector());
+        Assert.assertEquals(new D3Vector(0, 0, 0), entity.getPosition());
+
+        store.sync(store.slotOf(1));
+        Assert.assertEquals(new D3Vector(1, 0, 0), entity.getPosition());
+    }
+
+    @Test
+    public void testRemoveKeepsSlotsDense() {
+        EntityStore store = new PrimitiveEntityStore();
+
+        for(int i = 0; i < 5; i++) {
+            store.add(new Entity(i, new Size(1, 1, 1), new D3Vector(i, 0, 0)));
+        }
+
+        store.remove(1);
+        store.remove(42);
+
+        Assert.assertEquals(4, store.size());
+        Assert.assertEquals(-1, store.slotOf(1));
+
+        for(int slot = 0; slot < store.size(); slot++) {
+            int id = store.getEntityId(slot);
+
+            Assert.assertEquals(slot, store.slotOf(id));
+            Assert.assertEquals(new D3Vector(id, 0, 0), store.getEntity(slot).getPosition());
+        }
+    }
+}
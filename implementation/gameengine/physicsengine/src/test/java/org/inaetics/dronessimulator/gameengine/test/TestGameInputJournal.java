@@ -0,0 +1,165 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.ExitReason;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityCuller;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.AccelerationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.DirectionEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.TargetLocationEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.VelocityEntityUpdate;
+import org.inaetics.dronessimulator.physicsengine.journal.InputJournal;
+import org.inaetics.dronessimulator.physicsengine.journal.JournalReplay;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestGameInputJournal {
+    @Test
+    public void testReplayIsIdentical() throws IOException {
+        List<String> recordedEvents = new ArrayList<>();
+        PhysicsEngine recorded = createEngine(recordedEvents);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputJournal journal = new InputJournal(bytes);
+        recorded.setJournal(journal);
+
+        recorded.addInsert(new Entity.DroneEntity(1, new Size(10, 10, 10), new D3Vector(10, 50, 50), new D3Vector(), new D3Vector(), new D3PolarCoordinate(), new D3Vector(80, 50, 50)));
+        recorded.addInsert(new Entity(2, new Size(10, 10, 10), new D3Vector(60, 52, 50)));
+        recorded.step(0.05);
+
+        for(int i = 0; i < 40; i++) {
+            if(i == 5) {
+                recorded.addInsert(new Entity.BulletEntity(3, new Size(1, 1, 1), new D3Vector(5, 50, 50), new D3Vector(40, 0, 0), new D3Vector(), new D3PolarCoordinate(), 50));
+                recorded.addUpdate(2, new VelocityEntityUpdate(new D3Vector(-1, 0, 0)));
+            } else if(i == 12) {
+                recorded.addUpdate(2, new AccelerationEntityUpdate(new D3Vector(0.5, 0.25, 0)));
+                recorded.addUpdate(2, new DirectionEntityUpdate(new D3PolarCoordinate(1, 0.5, 1)));
+            } else if(i == 20) {
+                recorded.addUpdate(1, new TargetLocationEntityUpdate(null));
+                // Dropped before it reaches the journal
+                recorded.addUpdate(42, new VelocityEntityUpdate(new D3Vector(1, 1, 1)));
+            } else if(i == 30) {
+                recorded.addRemoval(2);
+            }
+
+            // Vary the time step, like a variable time step or the governor would
+            recorded.step(i < 25 ? 0.05 : 0.04);
+        }
+
+        // Steps without changes at the end are replayed too
+        recorded.step(0.04);
+        journal.close();
+
+        List<String> replayedEvents = new ArrayList<>();
+        PhysicsEngine replayed = createEngine(replayedEvents);
+        JournalReplay replay = new JournalReplay(replayed);
+
+        Assert.assertEquals(42, replay.replay(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(42, journal.getStep());
+        Assert.assertFalse(journal.isFailed());
+
+        Assert.assertFalse(recordedEvents.isEmpty());
+        Assert.assertEquals(recordedEvents, replayedEvents);
+        Assert.assertEquals(recorded.getEntityManager().getEntities().keySet(), replayed.getEntityManager().getEntities().keySet());
+
+        for(int id : recorded.getEntityManager().getEntities().keySet()) {
+            Entity expected = recorded.getEntityManager().getStore().getEntity(recorded.getEntityManager().getStore().slotOf(id));
+            Entity actual = replayed.getEntityManager().getStore().getEntity(replayed.getEntityManager().getStore().slotOf(id));
+
+            // Bit for bit the same
+            Assert.assertEquals(expected.getPosition(), actual.getPosition());
+            Assert.assertEquals(expected.getVelocity(), actual.getVelocity());
+            Assert.assertEquals(expected.getAcceleration(), actual.getAcceleration());
+            Assert.assertEquals(expected.getDirection(), actual.getDirection());
+        }
+
+        // A replay of the replay ends in the same state
+        JournalReplay second = new JournalReplay(createEngine(new ArrayList<>()));
+        second.replay(new ByteArrayInputStream(bytes.toByteArray()));
+        Assert.assertEquals(replay.checksum(), second.checksum());
+    }
+
+    @Test
+    public void testStepsWithoutChangesAreCompact() throws IOException {
+        PhysicsEngine physicsEngine = createEngine(new ArrayList<>());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputJournal journal = new InputJournal(bytes);
+        physicsEngine.setJournal(journal);
+
+        physicsEngine.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(50, 50, 50)));
+
+        for(int i = 0; i < 1000; i++) {
+            physicsEngine.step(0.01);
+        }
+
+        journal.close();
+
+        // Header, a single step record, the insert and the end record. Nothing for the steps without changes
+        Assert.assertEquals(8 + 17 + 1 + 1 + 4 + 15 * 8 + 9, bytes.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherData() throws IOException {
+        new JournalReplay(createEngine(new ArrayList<>())).replay(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedJournal() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputJournal journal = new InputJournal(bytes);
+        journal.beginStep(0.1);
+        journal.remove(1);
+        journal.close();
+
+        byte[] truncated = new byte[bytes.size() - 9];
+        System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+
+        new JournalReplay(createEngine(new ArrayList<>())).replay(new ByteArrayInputStream(truncated));
+    }
+
+    /**
+     * Creates an engine which records the collisions and exits it reports.
+     * @param events The list to add a description of every event to.
+     * @return The engine.
+     */
+    private static PhysicsEngine createEngine(List<String> events) {
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0.01, 5)), 1,
+                new EntityCuller(new D3Vector(), new D3Vector(100, 100, 100)), true);
+
+        physicsEngine.setObserver(new PhysicsEngineEventObserver() {
+            @Override
+            public void collisionStartHandler(Entity e1, Entity e2) {
+                events.add("start " + e1.getEntityId() + " " + e2.getEntityId() + " " + e1.getPosition());
+            }
+
+            @Override
+            public void collisionStopHandler(Entity e1, Entity e2) {
+                events.add("stop " + e1.getEntityId() + " " + e2.getEntityId() + " " + e1.getPosition());
+            }
+
+            @Override
+            public void broadcastStateHandler(List<Entity> currentState) {
+                // Not broadcast when stepping
+            }
+
+            @Override
+            public void entityExitHandler(Entity entity, ExitReason reason) {
+                events.add("exit " + entity.getEntityId() + " " + reason + " " + entity.getPosition());
+            }
+        });
+
+        return physicsEngine;
+    }
+}
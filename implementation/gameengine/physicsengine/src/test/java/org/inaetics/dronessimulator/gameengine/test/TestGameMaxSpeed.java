@@ -0,0 +1,182 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.SimulationClock;
+import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.VelocityEntityUpdate;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scripted match: a drone flies at 50 m/s and must stop between 90 and 100 m. Its tactic runs on another thread
+ * with some latency, like a drone behind the message broker, and only knows the broadcast state.
+ */
+public class TestGameMaxSpeed {
+    /** The latency of the tactic of the drone in ms. */
+    private static final long LATENCY_MS = 2;
+
+    /** The position of the drone in the latest broadcast. */
+    private volatile double broadcastX;
+
+    /** Whether the tactic stopped the drone. */
+    private volatile boolean stopped;
+
+    @After
+    public void resetClock() {
+        // The engine may be interrupted while it waits for the drone, before it switches back to the wall clock itself
+        SimulationClock.reset();
+    }
+
+    @Test
+    public void testSameResultInRealTime() throws InterruptedException {
+        PhysicsEngine physicsEngine = this.createEngine(false, null);
+        ExecutorService tactic = Executors.newSingleThreadExecutor();
+
+        physicsEngine.start();
+        physicsEngine.startEngine();
+
+        // The tactic runs every tick of the wall clock
+        long deadline_ms = System.currentTimeMillis() + 2500;
+        while(System.currentTimeMillis() < deadline_ms) {
+            tactic.submit(() -> this.calculateTactics(physicsEngine));
+            Thread.sleep(33);
+        }
+
+        this.stop(physicsEngine, tactic);
+        Assert.assertTrue(this.stopped);
+        Assert.assertTrue("Stopped at " + this.broadcastX, this.broadcastX >= 90 && this.broadcastX < 100);
+    }
+
+    @Test
+    public void testSameResultAtMaxSpeed() throws InterruptedException {
+        ExecutorService tactic = Executors.newSingleThreadExecutor();
+        CountDownLatch done = new CountDownLatch(1);
+        PhysicsEngine[] engine = new PhysicsEngine[1];
+        long[] firstTick_ms = {-1};
+
+        // The tactic runs on every tick of the simulation and acknowledges it, the match ends after 3 simulated seconds
+        PhysicsEngine physicsEngine = this.createEngine(true, simulationTime_ms -> {
+            if(firstTick_ms[0] < 0) {
+                firstTick_ms[0] = simulationTime_ms;
+            } else if(simulationTime_ms - firstTick_ms[0] >= 3000) {
+                done.countDown();
+            }
+
+            tactic.submit(() -> {
+                this.calculateTactics(engine[0]);
+                engine[0].acknowledgeTick(1, simulationTime_ms);
+            });
+        });
+        engine[0] = physicsEngine;
+
+        long started_at_ms = System.currentTimeMillis();
+        physicsEngine.start();
+        physicsEngine.startEngine();
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        long took_ms = System.currentTimeMillis() - started_at_ms;
+
+        this.stop(physicsEngine, tactic);
+        Assert.assertTrue(this.stopped);
+        Assert.assertTrue("Stopped at " + this.broadcastX, this.broadcastX >= 90 && this.broadcastX < 100);
+        // Faster than in real time
+        Assert.assertTrue("Took " + took_ms + " ms", took_ms < 3000);
+    }
+
+    /**
+     * Stops the drone once the broadcast state shows it reached 90 m.
+     * @param physicsEngine The engine to send the command to.
+     */
+    private void calculateTactics(PhysicsEngine physicsEngine) {
+        try {
+            Thread.sleep(LATENCY_MS);
+        } catch(InterruptedException e) {
+            return;
+        }
+
+        if(!this.stopped && this.broadcastX >= 90) {
+            physicsEngine.addUpdate(1, new VelocityEntityUpdate(new D3Vector()));
+            this.stopped = true;
+        }
+    }
+
+    /**
+     * Creates an engine with a drone at 10 m flying at 50 m/s, which reports the broadcast position of the drone.
+     * @param maxSpeed Whether the simulation runs at maximum speed.
+     * @param ticks What to do on a tick of the simulation at maximum speed. Null in real time.
+     * @return The engine.
+     */
+    private PhysicsEngine createEngine(boolean maxSpeed, TickListener ticks) {
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(new SleepTracker(0, 0)), 1, null, false, maxSpeed);
+
+        physicsEngine.setObserver(new PhysicsEngineEventObserver() {
+            @Override
+            public void collisionStartHandler(Entity e1, Entity e2) {
+                // A single drone does not collide
+            }
+
+            @Override
+            public void collisionStopHandler(Entity e1, Entity e2) {
+                // A single drone does not collide
+            }
+
+            @Override
+            public void broadcastStateHandler(List<Entity> currentState) {
+                for(Entity entity : currentState) {
+                    if(entity.getEntityId() == 1) {
+                        broadcastX = entity.getPosition().getX();
+                    }
+                }
+            }
+
+            @Override
+            public void simulationTickHandler(long simulationTime_ms) {
+                ticks.onTick(simulationTime_ms);
+            }
+        });
+
+        this.broadcastX = 10;
+        this.stopped = false;
+        physicsEngine.addInsert(new Entity.DroneEntity(1, new Size(10, 10, 10), new D3Vector(10, 50, 50), new D3Vector(50, 0, 0), new D3Vector(), new D3PolarCoordinate(), null));
+
+        return physicsEngine;
+    }
+
+    /**
+     * Stops the engine and the tactic.
+     * @param physicsEngine The engine to stop.
+     * @param tactic The thread of the tactic to stop.
+     * @throws InterruptedException If interrupted while waiting for the engine.
+     */
+    private void stop(PhysicsEngine physicsEngine, ExecutorService tactic) throws InterruptedException {
+        physicsEngine.stopEngine();
+        physicsEngine.interrupt();
+        physicsEngine.join();
+        tactic.shutdownNow();
+    }
+
+    /**
+     * Receives the ticks of the simulation at maximum speed.
+     */
+    private interface TickListener {
+        /**
+         * Handles a tick of the simulation.
+         * @param simulationTime_ms The time of the simulation in ms.
+         */
+        void onTick(long simulationTime_ms);
+    }
+}
@@ -0,0 +1,121 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.BroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.ShardedBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SpatialHashBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.SweepAndPruneBroadPhase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+public class TestGameParallelPhysics {
+    @Test
+    public void testParallelEqualsSingleThreaded() {
+        List<String> expected = run(1);
+        List<String> actual = run(4);
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test(timeout = 30000)
+    public void testPoolsAreShutDownWithEngine() throws InterruptedException {
+        Set<ForkJoinPool> before = pools();
+        BroadPhase broadPhase = new ShardedBroadPhase(2, SweepAndPruneBroadPhase.Axis.X, SweepAndPruneBroadPhase.Axis.Y, 0, 400);
+        PhysicsEngine physicsEngine = new PhysicsEngine(broadPhase, new PrimitiveEntityStore(), 4);
+
+        physicsEngine.setObserver(new RecordingObserver());
+        for(int i = 0; i < 2000; i++) {
+            physicsEngine.addInsert(new Entity(i, new Size(5, 5, 5), new D3Vector(i % 400, i / 5, 10), new D3Vector(1, 0, 0)));
+        }
+
+        physicsEngine.start();
+        physicsEngine.startEngine();
+
+        // Both the pool of the engine and the pool of the broadphase
+        Set<ForkJoinPool> started = pools();
+        started.removeAll(before);
+        while(started.size() < 2) {
+            Thread.sleep(10);
+            started = pools();
+            started.removeAll(before);
+        }
+
+        physicsEngine.stopEngine();
+        physicsEngine.interrupt();
+        physicsEngine.join();
+
+        for(ForkJoinPool pool : started) {
+            Assert.assertTrue(pool.isShutdown());
+        }
+    }
+
+    /**
+     * Returns the pools, other than the common pool, which have live worker threads.
+     * @return The pools with workers.
+     */
+    private static Set<ForkJoinPool> pools() {
+        Set<ForkJoinPool> pools = new HashSet<>();
+
+        for(Thread thread : Thread.getAllStackTraces().keySet()) {
+            if(thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() != ForkJoinPool.commonPool()) {
+                pools.add(((ForkJoinWorkerThread) thread).getPool());
+            }
+        }
+
+        return pools;
+    }
+
+    private static List<String> run(int threads) {
+        PhysicsEngine physicsEngine = new PhysicsEngine(new SpatialHashBroadPhase(20), new PrimitiveEntityStore(), threads);
+        RecordingObserver observer = new RecordingObserver();
+        Random random = new Random(11);
+
+        physicsEngine.setObserver(observer);
+
+        for(int i = 0; i < 2000; i++) {
+            D3Vector position = new D3Vector(random.nextDouble() * 400, random.nextDouble() * 400, random.nextDouble() * 50);
+            D3Vector velocity = new D3Vector(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 2 - 1);
+
+            physicsEngine.addInsert(new Entity(i, new Size(5, 5, 5), position, velocity));
+        }
+
+        for(int tick = 0; tick < 50; tick++) {
+            physicsEngine.step(0.05);
+        }
+
+        return observer.events;
+    }
+
+    private static class RecordingObserver implements PhysicsEngineEventObserver {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void collisionStartHandler(Entity e1, Entity e2) {
+            events.add("start " + e1.getEntityId() + " " + e2.getEntityId() + " " + e1.getPosition());
+        }
+
+        @Override
+        public void collisionStopHandler(Entity e1, Entity e2) {
+            events.add("stop " + e1.getEntityId() + " " + e2.getEntityId() + " " + e1.getPosition());
+        }
+
+        @Override
+        public void broadcastStateHandler(List<Entity> currentState) {
+            // Not broadcast when stepping
+        }
+    }
+}
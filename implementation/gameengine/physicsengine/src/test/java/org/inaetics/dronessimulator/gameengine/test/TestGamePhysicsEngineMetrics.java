@@ -0,0 +1,94 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.BruteForceBroadPhase;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.LatencyHistogram;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineMetrics;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestGamePhysicsEngineMetrics {
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for(int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(50500, histogram.getMean_ns());
+        Assert.assertEquals(100000, histogram.getMax_ns());
+
+        // Percentiles are accurate within a factor of two
+        long p50 = histogram.getPercentile_ns(0.5);
+        Assert.assertTrue(p50 >= 50000 && p50 < 100000);
+        Assert.assertEquals(100000, histogram.getPercentile_ns(1));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile_ns(0.99));
+    }
+
+    @Test
+    public void testStepIsRecorded() {
+        PhysicsEngine physicsEngine = new PhysicsEngine(new BruteForceBroadPhase(), new PrimitiveEntityStore(), 1);
+        physicsEngine.setObserver(new PhysicsEngineEventObserver() {
+            @Override
+            public void collisionStartHandler(Entity e1, Entity e2) {
+                // Not tested
+            }
+
+            @Override
+            public void collisionStopHandler(Entity e1, Entity e2) {
+                // Not tested
+            }
+
+            @Override
+            public void broadcastStateHandler(List<Entity> currentState) {
+                // Not broadcast when stepping
+            }
+        });
+
+        for(int i = 0; i < 4; i++) {
+            physicsEngine.addInsert(new Entity(i, new Size(1, 1, 1), new D3Vector(i * 10, 0, 0), new D3Vector(1, 0, 0)));
+        }
+
+        physicsEngine.step(0.1);
+        physicsEngine.step(0.1);
+
+        PhysicsEngineMetrics metrics = physicsEngine.getMetrics();
+
+        Assert.assertEquals(2, metrics.getStepCount());
+        Assert.assertEquals(4, metrics.getEntityCount());
+        Assert.assertEquals(6, metrics.getPairTestCount());
+        Assert.assertEquals(12, metrics.getTotalPairTestCount());
+        Assert.assertEquals(2, metrics.getStage(PhysicsEngineMetrics.Stage.PROCESS_CHANGES).getCount());
+        Assert.assertEquals(2, metrics.getStage(PhysicsEngineMetrics.Stage.MOVE).getCount());
+        Assert.assertEquals(2, metrics.getStage(PhysicsEngineMetrics.Stage.COLLISION).getCount());
+        Assert.assertEquals(0, metrics.getStage(PhysicsEngineMetrics.Stage.BROADCAST).getCount());
+
+        physicsEngine.resetMetrics();
+        Assert.assertEquals(0, physicsEngine.getMetrics().getStepCount());
+        Assert.assertEquals(2, metrics.getStepCount());
+    }
+
+    @Test
+    public void testOverruns() {
+        PhysicsEngineMetrics metrics = new PhysicsEngineMetrics();
+
+        metrics.recordLoop(10, 20);
+        metrics.recordLoop(30, 20);
+        metrics.recordLoop(1000, 0);
+
+        Assert.assertEquals(1, metrics.getOverrunCount());
+        Assert.assertEquals(3, metrics.getStage(PhysicsEngineMetrics.Stage.LOOP).getCount());
+    }
+}
@@ -0,0 +1,110 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityStore;
+import org.inaetics.dronessimulator.physicsengine.ObjectEntityStore;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.SleepTracker;
+import org.inaetics.dronessimulator.physicsengine.SpatialHashBroadPhase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestGameSleep {
+    private static final int SLEEP_TICKS = 5;
+
+    @Test
+    public void testStillEntitiesFallAsleep() {
+        testStillEntitiesFallAsleep(new ObjectEntityStore(new SleepTracker(0.001, SLEEP_TICKS)));
+        testStillEntitiesFallAsleep(new PrimitiveEntityStore(new SleepTracker(0.001, SLEEP_TICKS)));
+    }
+
+    private static void testStillEntitiesFallAsleep(EntityStore store) {
+        store.add(new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0)));
+        store.add(new Entity(2, new Size(1, 1, 1), new D3Vector(10, 0, 0), new D3Vector(1, 0, 0)));
+
+        for(int tick = 0; tick < SLEEP_TICKS; tick++) {
+            Assert.assertFalse(store.isAsleep(store.slotOf(1)));
+            store.integrate(0, store.size(), 0.1, new D3Vector());
+        }
+
+        Assert.assertTrue(store.isAsleep(store.slotOf(1)));
+        Assert.assertFalse(store.isAsleep(store.slotOf(2)));
+
+        // Removing an entity moves the sleeping entity to another slot
+        store.add(new Entity(3, new Size(1, 1, 1), new D3Vector(20, 0, 0)));
+        store.remove(1);
+        Assert.assertFalse(store.isAsleep(store.slotOf(3)));
+
+        for(int tick = 0; tick < SLEEP_TICKS; tick++) {
+            store.integrate(0, store.size(), 0.1, new D3Vector());
+        }
+        Assert.assertTrue(store.isAsleep(store.slotOf(3)));
+
+        // A sleeping entity is not moved, until it is woken by a reload
+        int slot = store.slotOf(3);
+        store.getEntity(slot).setVelocity(new D3Vector(1, 0, 0));
+        store.reload(slot);
+
+        Assert.assertFalse(store.isAsleep(slot));
+        store.integrate(0, store.size(), 0.1, new D3Vector());
+        Assert.assertEquals(20.1, store.getEntity(slot).getPosition().getX(), 1e-9);
+    }
+
+    @Test
+    public void testContactWithAwakeEntityWakes() {
+        EntityStore store = new PrimitiveEntityStore(new SleepTracker(0.001, SLEEP_TICKS));
+        PhysicsEngine physicsEngine = new PhysicsEngine(new SpatialHashBroadPhase(20), store);
+        RecordingObserver observer = new RecordingObserver();
+
+        physicsEngine.setObserver(observer);
+        physicsEngine.addInsert(new Entity(1, new Size(2, 2, 2), new D3Vector(0, 0, 0)));
+        physicsEngine.addInsert(new Entity(2, new Size(2, 2, 2), new D3Vector(1, 0, 0)));
+        physicsEngine.addInsert(new Entity(3, new Size(2, 2, 2), new D3Vector(10, 0, 0), new D3Vector(-10, 0, 0)));
+
+        // Entities 1 and 2 overlap and fall asleep, their collision is kept without testing them
+        for(int tick = 0; tick < SLEEP_TICKS + 1; tick++) {
+            physicsEngine.step(0.01);
+        }
+
+        Assert.assertTrue(store.isAsleep(store.slotOf(1)));
+        Assert.assertTrue(store.isAsleep(store.slotOf(2)));
+        Assert.assertEquals(1, observer.events.size());
+        Assert.assertEquals("start 1 2", observer.events.get(0));
+
+        // Entity 3 moves into entity 2, which wakes entity 2 but not entity 1
+        while(observer.events.size() == 1) {
+            physicsEngine.step(0.01);
+        }
+
+        Assert.assertEquals("start 2 3", observer.events.get(1));
+        Assert.assertFalse(store.isAsleep(store.slotOf(2)));
+        Assert.assertTrue(store.isAsleep(store.slotOf(1)));
+        Assert.assertFalse(observer.events.contains("stop 1 2"));
+    }
+
+    private static class RecordingObserver implements PhysicsEngineEventObserver {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void collisionStartHandler(Entity e1, Entity e2) {
+            events.add("start " + Math.min(e1.getEntityId(), e2.getEntityId()) + " " + Math.max(e1.getEntityId(), e2.getEntityId()));
+        }
+
+        @Override
+        public void collisionStopHandler(Entity e1, Entity e2) {
+            events.add("stop " + Math.min(e1.getEntityId(), e2.getEntityId()) + " " + Math.max(e1.getEntityId(), e2.getEntityId()));
+        }
+
+        @Override
+        public void broadcastStateHandler(List<Entity> currentState) {
+            // Not broadcast when stepping
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.EntityManager;
+import org.inaetics.dronessimulator.physicsengine.PrimitiveEntityStore;
+import org.inaetics.dronessimulator.physicsengine.StateChangeTracker;
+import org.inaetics.dronessimulator.physicsengine.entityupdate.PositionEntityUpdate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestGameStateChangeTracker {
+    @Test
+    public void testOnlyChangedEntitiesAreCopied() {
+        EntityManager manager = new EntityManager(new PrimitiveEntityStore());
+        StateChangeTracker tracker = new StateChangeTracker(0.1, 0.1, 0.1, 0.01);
+
+        manager.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0)));
+        manager.addInsert(new Entity(2, new Size(1, 1, 1), new D3Vector(10, 0, 0)));
+        manager.processChanges();
+
+        // New entities always count as changed
+        Assert.assertEquals(2, manager.copyChangedState(tracker, false).size());
+        Assert.assertEquals(0, manager.copyChangedState(tracker, false).size());
+
+        // Changes below the epsilon accumulate until they exceed it
+        manager.addUpdate(1, new PositionEntityUpdate(new D3Vector(0.05, 0, 0)));
+        manager.processChanges();
+        Assert.assertEquals(0, manager.copyChangedState(tracker, false).size());
+
+        manager.addUpdate(1, new PositionEntityUpdate(new D3Vector(0.15, 0, 0)));
+        manager.processChanges();
+        List<Entity> changed = manager.copyChangedState(tracker, false);
+        Assert.assertEquals(1, changed.size());
+        Assert.assertEquals(1, changed.get(0).getEntityId());
+
+        // A keyframe contains all entities
+        Assert.assertEquals(2, manager.copyChangedState(tracker, true).size());
+        Assert.assertEquals(0, manager.copyChangedState(tracker, false).size());
+    }
+
+    @Test
+    public void testReinsertedEntityCountsAsChanged() {
+        EntityManager manager = new EntityManager(new PrimitiveEntityStore());
+        StateChangeTracker tracker = new StateChangeTracker(0.1, 0.1, 0.1, 0.01);
+
+        manager.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0)));
+        manager.processChanges();
+        manager.copyChangedState(tracker, false);
+
+        manager.addRemoval(1);
+        manager.processChanges();
+        Assert.assertEquals(0, manager.copyChangedState(tracker, false).size());
+
+        manager.addInsert(new Entity(1, new Size(1, 1, 1), new D3Vector(0, 0, 0)));
+        manager.processChanges();
+        Assert.assertEquals(1, manager.copyChangedState(tracker, false).size());
+    }
+}
@@ -0,0 +1,37 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.physicsengine.StepAccumulator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGameStepAccumulator {
+    @Test
+    public void testKeepsRemainder() {
+        StepAccumulator accumulator = new StepAccumulator(4_000_000L, 250_000_000L);
+
+        Assert.assertEquals(0, accumulator.advance(3_000_000L));
+        Assert.assertEquals(1_000_000L, accumulator.untilNextStep_ns());
+        Assert.assertEquals(2, accumulator.advance(6_000_000L));
+        Assert.assertEquals(3_000_000L, accumulator.untilNextStep_ns());
+
+        int steps = 0;
+        for(int i = 0; i < 1000; i++) {
+            steps += accumulator.advance(33_000_000L);
+        }
+
+        // 9 ms + 33 s in 4 ms steps
+        Assert.assertEquals(8252, steps + 2);
+    }
+
+    @Test
+    public void testCapsCatchUp() {
+        StepAccumulator accumulator = new StepAccumulator(4_000_000L, 100_000_000L);
+
+        Assert.assertEquals(25, accumulator.advance(10_000_000_000L));
+        Assert.assertEquals(0, accumulator.advance(-5));
+
+        accumulator.advance(2_000_000L);
+        accumulator.reset();
+        Assert.assertEquals(4_000_000L, accumulator.untilNextStep_ns());
+    }
+}
@@ -0,0 +1,49 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.physicsengine.TickBarrier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestGameTickBarrier {
+    @Test
+    public void testWaitsForAllDrones() throws InterruptedException {
+        TickBarrier barrier = new TickBarrier();
+
+        barrier.acknowledge(1, 100);
+        Assert.assertTrue(barrier.await(Collections.singletonList(1), 100, 0));
+        Assert.assertFalse(barrier.await(Arrays.asList(1, 2), 100, 10));
+
+        // An older acknowledgement does not take back a newer one
+        barrier.acknowledge(2, 200);
+        barrier.acknowledge(2, 150);
+        Assert.assertTrue(barrier.await(Arrays.asList(1, 2), 100, 0));
+        Assert.assertFalse(barrier.await(Arrays.asList(1, 2), 200, 10));
+
+        barrier.clear();
+        Assert.assertFalse(barrier.await(Collections.singletonList(1), 100, 0));
+        Assert.assertTrue(barrier.await(Collections.emptyList(), 100, 0));
+    }
+
+    @Test
+    public void testWakesOnAcknowledgement() throws InterruptedException {
+        TickBarrier barrier = new TickBarrier();
+        Thread drone = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch(InterruptedException e) {
+                return;
+            }
+            barrier.acknowledge(1, 100);
+        });
+
+        long started_at_ms = System.currentTimeMillis();
+        drone.start();
+
+        Assert.assertTrue(barrier.await(Collections.singletonList(1), 100, 5000));
+        Assert.assertTrue(System.currentTimeMillis() - started_at_ms < 5000);
+        drone.join();
+    }
+}
@@ -0,0 +1,150 @@
+package org.inaetics.dronessimulator.gameengine.test;
+
+import org.inaetics.dronessimulator.common.vector.D3Vector;
+import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.physicsengine.Entity;
+import org.inaetics.dronessimulator.physicsengine.PhysicsEngine;
+import org.inaetics.dronessimulator.physicsengine.TickRateGovernor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestGameTickRateGovernor {
+    private static final long STEP_NS = 10_000_000L;
+    private static final int WINDOW = 4;
+    private static final int MAX_BACKLOG = 100;
+
+    @Test
+    public void testSlowsDownBroadcastsFirst() {
+        TickRateGovernor governor = new TickRateGovernor(STEP_NS, 50, 10, 40, MAX_BACKLOG, WINDOW);
+
+        // Rates only change at the end of a window
+        Assert.assertFalse(recordWindow(governor, STEP_NS, 0, WINDOW - 1));
+        Assert.assertTrue(recordWindow(governor, STEP_NS, 0, 1));
+        Assert.assertEquals(20, governor.getBroadcastInterval_ms());
+        Assert.assertEquals(STEP_NS, governor.getStep_ns());
+
+        Assert.assertTrue(recordWindow(governor, STEP_NS * 2, 0, WINDOW));
+        Assert.assertEquals(40, governor.getBroadcastInterval_ms());
+        Assert.assertEquals(STEP_NS, governor.getStep_ns());
+
+        // The broadcast rate is at its bound, so the physics rate is lowered until its bound of 50 Hz
+        while(recordWindow(governor, STEP_NS * 4, 0, WINDOW)) {
+            Assert.assertTrue(governor.getStep_ns() > STEP_NS);
+        }
+
+        Assert.assertEquals(20_000_000L, governor.getStep_ns());
+        Assert.assertEquals(50, governor.getStepRate(), 1e-9);
+        Assert.assertEquals(40, governor.getBroadcastInterval_ms());
+    }
+
+    @Test
+    public void testRampsBackUp() {
+        TickRateGovernor governor = new TickRateGovernor(STEP_NS, 50, 10, 40, MAX_BACKLOG, WINDOW);
+
+        while(recordWindow(governor, STEP_NS * 4, 0, WINDOW)) {
+            // Slow down to the bounds
+        }
+
+        // Physics rate first, then the broadcast rate, back to the configured rates
+        Assert.assertTrue(recordWindow(governor, 0, 0, WINDOW));
+        Assert.assertTrue(governor.getStep_ns() < 20_000_000L);
+        Assert.assertEquals(40, governor.getBroadcastInterval_ms());
+
+        while(recordWindow(governor, 0, 0, WINDOW)) {
+            // Speed up to the configured rates
+        }
+
+        Assert.assertEquals(STEP_NS, governor.getStep_ns());
+        Assert.assertEquals(10, governor.getBroadcastInterval_ms());
+    }
+
+    @Test
+    public void testBacklogOverloads() {
+        TickRateGovernor governor = new TickRateGovernor(STEP_NS, 50, 10, 40, MAX_BACKLOG, WINDOW);
+
+        // Within the interval, but too many waiting events
+        Assert.assertTrue(recordWindow(governor, STEP_NS / 10, MAX_BACKLOG + 1, WINDOW));
+        Assert.assertEquals(20, governor.getBroadcastInterval_ms());
+
+        // Not ramped back up while the backlog is still above half the bound
+        Assert.assertFalse(recordWindow(governor, STEP_NS / 10, MAX_BACKLOG, WINDOW));
+        Assert.assertEquals(20, governor.getBroadcastInterval_ms());
+
+        Assert.assertTrue(recordWindow(governor, STEP_NS / 10, MAX_BACKLOG / 2, WINDOW));
+        Assert.assertEquals(10, governor.getBroadcastInterval_ms());
+    }
+
+    @Test
+    public void testSteadyLoadKeepsRates() {
+        TickRateGovernor governor = new TickRateGovernor(STEP_NS, 50, 10, 40, MAX_BACKLOG, WINDOW);
+
+        for(int i = 0; i < 10; i++) {
+            Assert.assertFalse(recordWindow(governor, STEP_NS * 7 / 10, 0, WINDOW));
+        }
+
+        // Nothing to lower or raise when broadcasts are disabled and the rate is already at its bound
+        TickRateGovernor bounded = new TickRateGovernor(STEP_NS, 100, -1, 40, MAX_BACKLOG, WINDOW);
+        Assert.assertFalse(recordWindow(bounded, STEP_NS * 4, 0, WINDOW));
+        Assert.assertFalse(recordWindow(bounded, 0, 0, WINDOW));
+        Assert.assertEquals(-1, bounded.getBroadcastInterval_ms());
+    }
+
+    @Test
+    public void testFixedStepOnlyLowersBroadcastRate() {
+        // The physics engine governs a fixed time step without a minimal rate
+        TickRateGovernor governor = new TickRateGovernor(STEP_NS, 0, 10, 40, MAX_BACKLOG, WINDOW);
+
+        while(recordWindow(governor, STEP_NS * 4, MAX_BACKLOG + 1, WINDOW)) {
+            Assert.assertEquals(STEP_NS, governor.getStep_ns());
+        }
+
+        Assert.assertEquals(STEP_NS, governor.getStep_ns());
+        Assert.assertEquals(100, governor.getStepRate(), 1e-9);
+        Assert.assertEquals(40, governor.getBroadcastInterval_ms());
+
+        while(recordWindow(governor, 0, 0, WINDOW)) {
+            Assert.assertEquals(STEP_NS, governor.getStep_ns());
+        }
+
+        Assert.assertEquals(10, governor.getBroadcastInterval_ms());
+    }
+
+    @Test(timeout = 30000)
+    public void testEngineRunsWithoutObserver() throws InterruptedException {
+        PhysicsEngine physicsEngine = new PhysicsEngine();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        physicsEngine.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        physicsEngine.addInsert(new Entity(1, new Size(0.1, 0.1, 0.1), new D3Vector(50, 50, 50), new D3Vector(1, 0, 0)));
+
+        physicsEngine.start();
+        physicsEngine.startEngine();
+        Thread.sleep(300);
+        physicsEngine.stopEngine();
+        physicsEngine.interrupt();
+        physicsEngine.join();
+
+        Assert.assertNull(failure.get());
+        Assert.assertTrue(physicsEngine.getMetrics().getStepCount() > 0);
+    }
+
+    /**
+     * Records a number of loops which all took the same time and had the same backlog.
+     * @param governor The governor to record the loops with.
+     * @param loop_ns The time each loop took in nanoseconds.
+     * @param backlog The backlog after each loop.
+     * @param loops The number of loops to record.
+     * @return Whether the rates changed after any of the loops.
+     */
+    private static boolean recordWindow(TickRateGovernor governor, long loop_ns, int backlog, int loops) {
+        boolean changed = false;
+
+        for(int i = 0; i < loops; i++) {
+            changed |= governor.record(loop_ns, backlog);
+        }
+
+        return changed;
+    }
+}
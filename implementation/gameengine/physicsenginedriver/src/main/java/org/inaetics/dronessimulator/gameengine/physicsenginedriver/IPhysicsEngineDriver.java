@@ -3,19 +3,19 @@ package org.inaetics.dronessimulator.gameengine.physicsenginedriver;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.SimulationTickEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 /**
  * Interface for a physics engine driver. The physics engine drivers interfaces the simulator with any physics engine.
  */
 public interface IPhysicsEngineDriver {
     /**
-     * Returns the queue for events coming from the physics engine.
+     * Returns the queue for events coming from the physics engine. Must be consumed by a single thread.
      * @return The outgoing queue.
      */
-    LinkedBlockingQueue<GameEngineEvent> getOutgoingQueue();
+    EventRing<GameEngineEvent> getOutgoingQueue();
 
     /**
      * Adds a new game entity to the physics engine.
@@ -122,6 +122,13 @@ public interface IPhysicsEngineDriver {
      */
     void changeDirectionEntity(String protocolId, D3PolarCoordinate newDirection);
 
+    /**
+     * Acknowledges a tick of the simulation for the given drone, see {@link SimulationTickEvent}.
+     * @param protocolId The protocol id of the drone.
+     * @param simulationTime The acknowledged time of the simulation in ms.
+     */
+    void acknowledgeTick(String protocolId, long simulationTime);
+
     void startEngine();
     void pauseEngine();
     void resumeEngine();
@@ -3,13 +3,19 @@ package org.inaetics.dronessimulator.gameengine.physicsenginedriver;
 import org.apache.log4j.Logger;
 import org.inaetics.dronessimulator.architectureevents.ArchitectureEventController;
 import org.inaetics.dronessimulator.architectureevents.ArchitectureEventHandler;
+import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.common.architecture.SimulationAction;
 import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.common.protocol.EntityType;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.gameengine.common.Size;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.ConflatingEventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.OverflowPolicy;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
 import org.inaetics.dronessimulator.gameengine.common.state.Drone;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 import org.inaetics.dronessimulator.gameengine.common.state.HealthGameEntity;
@@ -20,7 +26,6 @@ import org.inaetics.dronessimulator.physicsengine.IPhysicsEngine;
 import org.inaetics.dronessimulator.physicsengine.entityupdate.*;
 
 import java.util.Optional;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Driver for the simple physics engine shipped with the game engine.
@@ -38,8 +43,8 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
     private transient volatile IdentifierMapper m_id_mapper;
     private transient volatile ArchitectureEventController m_architectureEventController;
 
-    /** Event queue for events produced by the physics engine. */
-    private final LinkedBlockingQueue<GameEngineEvent> outgoingQueue;
+    /** Event queue for events produced by the physics engine. Only hands over the newest state if conflating. */
+    private final EventRing<GameEngineEvent> outgoingQueue;
 
     /** Observer for the physics engine. */
     private PhysicsEngineObserver engineObserver;
@@ -48,11 +53,15 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
      * Instantiates a new physics engine driver instance.
      */
     public PhysicsEngineDriver() {
-        this.outgoingQueue = new LinkedBlockingQueue<>();
+        if(Settings.EVENT_RING_CONFLATE_STATE) {
+            this.outgoingQueue = new ConflatingEventRing<>(Settings.EVENT_RING_SIZE, WaitStrategy.fromSettings(), OverflowPolicy.fromSettings(), CurrentStateEvent.class, CurrentStateEvent::supersede);
+        } else {
+            this.outgoingQueue = new EventRing<>(Settings.EVENT_RING_SIZE, WaitStrategy.fromSettings(), OverflowPolicy.fromSettings());
+        }
     }
 
     @Override
-    public LinkedBlockingQueue<GameEngineEvent> getOutgoingQueue() {
+    public EventRing<GameEngineEvent> getOutgoingQueue() {
         return this.outgoingQueue;
     }
 
@@ -130,6 +139,10 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
                 HealthGameEntity healthGameEntity = (HealthGameEntity) e;
 
                 healthGameEntity.damage(damage);
+                // The hp is not tracked by the physics engine, so the change is sent with the next broadcast this way
+                if(this.engineObserver != null) {
+                    this.engineObserver.markChanged(entityId);
+                }
             } else {
                 Logger.getLogger(PhysicsEngineDriver.class).error("Tried to damage an entity without hp! Got: " + entityId + " " + e);
             }
@@ -173,6 +186,7 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
             return new Entity.DroneEntity(g.getEntityId(), size, g.getPosition(), g.getVelocity(), g.getAcceleration(), g.getDirection(), ((Drone) g).getTargetLocation());
         } else if (g.getType().equals(EntityType.BULLET)) {
             size = new Size(1, 1, 1);
+            return new Entity.BulletEntity(g.getEntityId(), size, g.getPosition(), g.getVelocity(), g.getAcceleration(), g.getDirection(), Settings.BULLET_MAX_RANGE);
         } else {
             size = new Size(100, 100, 100);
         }
@@ -224,6 +238,12 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
         }
     }
 
+    @Override
+    public void acknowledgeTick(String protocolId, long simulationTime) {
+        Optional<Integer> gameEngineId = m_id_mapper.fromProtocolToGameEngineId(protocolId);
+        gameEngineId.ifPresent(entityId -> this.m_physicsEngine.acknowledgeTick(entityId, simulationTime));
+    }
+
     @Override
     public void startEngine() {
         m_physicsEngine.startEngine();
@@ -242,6 +262,12 @@ public class PhysicsEngineDriver implements IPhysicsEngineDriver {
     @Override
     public void stopEngine() {
         m_physicsEngine.stopEngine();
+
+        if(this.outgoingQueue instanceof ConflatingEventRing) {
+            logger.info("Skipped " + ((ConflatingEventRing<?, ?>) this.outgoingQueue).getConflated() + " outdated states and dropped " + this.outgoingQueue.getDropped() + " events for the rule processors");
+        } else {
+            logger.info("Dropped " + this.outgoingQueue.getDropped() + " events for the rule processors");
+        }
     }
 
     @Override
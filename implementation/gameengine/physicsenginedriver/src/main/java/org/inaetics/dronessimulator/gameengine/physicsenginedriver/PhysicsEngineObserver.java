@@ -1,41 +1,114 @@
 package org.inaetics.dronessimulator.gameengine.physicsenginedriver;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.log4j.Logger;
+import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.CollisionEndEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.CollisionStartEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.EntityExitEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.ExitReason;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.SimulationTickEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.TickRateEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.common.state.SnapshotRing;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
 import org.inaetics.dronessimulator.gameengine.gamestatemanager.IGameStateManager;
 import org.inaetics.dronessimulator.physicsengine.Entity;
 import org.inaetics.dronessimulator.physicsengine.PhysicsEngineEventObserver;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An observer for the {@link org.inaetics.dronessimulator.physicsengine.PhysicsEngine}.
  * Wraps any events into a {@link org.inaetics.dronessimulator.gameengine.common.gameevent} message
- * and puts it into the outgoingQueue for further processing.
+ * and puts it into the outgoingQueue for further processing. The observer is the single producer of the queue and is
+ * only called from the thread of the physics engine. Events the queue rejects are released and lost.
+ * The current state is copied into snapshots of a {@link SnapshotRing} which are reused once the rule processors release
+ * the event, so broadcasting the state of the same entities does not allocate new entities. Every entity has a version
+ * of its state, which is the broadcast in which it last changed. The copy of an entity is only refreshed when its
+ * version changed, so a delta broadcast only copies the entities which changed.
  */
 @Getter
 public class PhysicsEngineObserver implements PhysicsEngineEventObserver {
     /** Event queue for game engine events. */
-    private final LinkedBlockingQueue<GameEngineEvent> outgoingQueue;
+    private final EventRing<GameEngineEvent> outgoingQueue;
 
     /** Game state manager to use. */
     private final IGameStateManager stateManager;
 
+    /** The snapshots handed to the rule processors. Null if the state is copied into new entities every time. */
+    @Getter(AccessLevel.NONE)
+    private final SnapshotRing<GameEntity> snapshots;
+
+    /** Reusable list of the game entities of the current broadcast. */
+    @Getter(AccessLevel.NONE)
+    private final List<GameEntity> currentGameEntities;
+
+    /** The number of broadcasts so far, which is the version of the entities which changed in the latest broadcast. */
+    @Getter(AccessLevel.NONE)
+    private long broadcasts;
+
+    /** The version of the state of each entity by entity id. */
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, Long> versions;
+
+    /** The ids of the entities which changed outside of the physics engine since the last broadcast. */
+    @Getter(AccessLevel.NONE)
+    private final Set<Integer> changedOutsideEngine;
+
+    /**
+     * The copies handed out when no snapshot is free, by entity id. The copies are shared by the events, so they are
+     * replaced instead of changed.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, SharedCopy> sharedCopies;
+
+    /**
+     * Creates an observer and send all events to the given queue.
+     * @param outgoingQueue The queue to send events to.
+     * @param stateManager The game state manager containing the game entities.
+     */
+    public PhysicsEngineObserver(EventRing<GameEngineEvent> outgoingQueue, IGameStateManager stateManager) {
+        this(outgoingQueue, stateManager, Settings.STATE_SNAPSHOT_BUFFERS);
+    }
+
     /**
      * Creates an observer and send all events to the given queue.
      * @param outgoingQueue The queue to send events to.
      * @param stateManager The game state manager containing the game entities.
+     * @param snapshotBuffers The number of reusable state snapshots. 0 copies the state into new entities every time.
      */
-    public PhysicsEngineObserver(LinkedBlockingQueue<GameEngineEvent> outgoingQueue, IGameStateManager stateManager) {
+    public PhysicsEngineObserver(EventRing<GameEngineEvent> outgoingQueue, IGameStateManager stateManager, int snapshotBuffers) {
         this.outgoingQueue = outgoingQueue;
         this.stateManager = stateManager;
+        this.snapshots = snapshotBuffers > 0 ? new SnapshotRing<>(snapshotBuffers) : null;
+        this.currentGameEntities = new ArrayList<>();
+        this.broadcasts = 0;
+        this.versions = new HashMap<>();
+        this.changedOutsideEngine = ConcurrentHashMap.newKeySet();
+        this.sharedCopies = new HashMap<>();
+    }
+
+    /**
+     * Marks the entity as changed outside of the physics engine, for example its hp, so the change is sent with the
+     * next broadcast.
+     * @threadsafe
+     * @param entityId The id of the entity which changed.
+     */
+    public void markChanged(int entityId) {
+        this.changedOutsideEngine.add(entityId);
     }
 
     @Override
@@ -47,7 +120,7 @@ public class PhysicsEngineObserver implements PhysicsEngineEventObserver {
             this.updateGameEntityFromPhysicsEngine(e1, g1);
             this.updateGameEntityFromPhysicsEngine(e2, g2);
 
-            this.outgoingQueue.add(new CollisionStartEvent(g1.deepCopy(), g2.deepCopy()));
+            this.publish(new CollisionStartEvent(g1.deepCopy(), g2.deepCopy()));
         }
     }
 
@@ -60,13 +133,45 @@ public class PhysicsEngineObserver implements PhysicsEngineEventObserver {
             this.updateGameEntityFromPhysicsEngine(e1, g1);
             this.updateGameEntityFromPhysicsEngine(e2, g2);
 
-            this.outgoingQueue.add(new CollisionEndEvent(g1.deepCopy(), g2.deepCopy()));
+            this.publish(new CollisionEndEvent(g1.deepCopy(), g2.deepCopy()));
+        }
+    }
+
+    @Override
+    public void entityExitHandler(Entity entity, ExitReason reason) {
+        GameEntity gameEntity = this.stateManager.getById(entity.getEntityId());
+
+        if(gameEntity != null) {
+            this.updateGameEntityFromPhysicsEngine(entity, gameEntity);
+
+            this.publish(new EntityExitEvent(gameEntity.deepCopy(), reason));
         }
     }
 
+    @Override
+    public int getBacklog() {
+        return this.outgoingQueue.size();
+    }
+
+    @Override
+    public void tickRateHandler(double stepRate, long broadcastInterval_ms) {
+        this.publish(new TickRateEvent(stepRate, broadcastInterval_ms));
+    }
+
+    @Override
+    public void simulationTickHandler(long simulationTime_ms) {
+        this.publish(new SimulationTickEvent(simulationTime_ms));
+    }
+
     @Override
     public void broadcastStateHandler(List<Entity> currentState) {
-        List<GameEntity> stateCopy = new ArrayList<>(currentState.size());
+        this.currentGameEntities.clear();
+        this.broadcasts++;
+
+        // All entities are sent and copied again, which also forgets the entities which are gone
+        this.changedOutsideEngine.clear();
+        this.versions.clear();
+        this.sharedCopies.clear();
 
         for(Entity physicsEntity : currentState) {
             int id = physicsEntity.getEntityId();
@@ -75,11 +180,124 @@ public class PhysicsEngineObserver implements PhysicsEngineEventObserver {
             if(gameEntity != null) {
                 this.updateGameEntityFromPhysicsEngine(physicsEntity, gameEntity);
 
-                stateCopy.add(gameEntity.deepCopy());
+                this.currentGameEntities.add(gameEntity);
+                this.versions.put(id, this.broadcasts);
             }
         }
 
-        this.outgoingQueue.add(new CurrentStateEvent(stateCopy));
+        this.publish(this.createCurrentStateEvent(this.currentGameEntities, null));
+        this.currentGameEntities.clear();
+    }
+
+    @Override
+    public void broadcastDeltaStateHandler(List<Entity> changedState, boolean keyframe) {
+        if(keyframe) {
+            this.broadcastStateHandler(changedState);
+        } else {
+            Set<Integer> changedIds = new HashSet<>(changedState.size() * 2);
+            this.broadcasts++;
+
+            for(Entity physicsEntity : changedState) {
+                GameEntity gameEntity = this.stateManager.getById(physicsEntity.getEntityId());
+
+                if(gameEntity != null) {
+                    this.updateGameEntityFromPhysicsEngine(physicsEntity, gameEntity);
+                    changedIds.add(physicsEntity.getEntityId());
+                }
+            }
+
+            Iterator<Integer> changedOutside = this.changedOutsideEngine.iterator();
+            while(changedOutside.hasNext()) {
+                int id = changedOutside.next();
+                changedOutside.remove();
+
+                if(this.stateManager.getById(id) != null) {
+                    changedIds.add(id);
+                }
+            }
+
+            for(Integer id : changedIds) {
+                this.versions.put(id, this.broadcasts);
+            }
+
+            // The rules still receive the full state, only the sent messages are limited to the changed entities. Only
+            // the changed entities are copied again.
+            this.publish(this.createCurrentStateEvent(this.stateManager.getAll(), changedIds));
+        }
+    }
+
+    /**
+     * Hands the event to the rule processors. Releases the event if the queue rejects it.
+     * @param event The event to hand over.
+     */
+    private void publish(GameEngineEvent event) {
+        if(!this.outgoingQueue.offer(event)) {
+            event.release();
+        }
+    }
+
+    /**
+     * Creates an event with a copy of the current state. Copies into a free snapshot if possible, otherwise into new
+     * entities. Only the entities of which the version changed since they were last copied are copied again.
+     * @param gameEntities The game entities to copy.
+     * @param changedIds The ids of the entities which changed since the last event. Null if all should be sent.
+     * @return The event with the copied state.
+     */
+    private CurrentStateEvent createCurrentStateEvent(Collection<GameEntity> gameEntities, Set<Integer> changedIds) {
+        StateSnapshot<GameEntity> snapshot = this.snapshots != null ? this.snapshots.acquire() : null;
+
+        if(snapshot != null) {
+            snapshot.begin();
+            for(GameEntity gameEntity : gameEntities) {
+                snapshot.add(gameEntity, this.versionOf(gameEntity));
+            }
+            snapshot.finish();
+
+            return new CurrentStateEvent(snapshot, changedIds);
+        } else {
+            List<GameEntity> stateCopy = new ArrayList<>(gameEntities.size());
+
+            for(GameEntity gameEntity : gameEntities) {
+                stateCopy.add(this.sharedCopyOf(gameEntity));
+            }
+
+            return new CurrentStateEvent(stateCopy, changedIds);
+        }
+    }
+
+    /**
+     * Returns the version of the state of the game entity. An entity which was not broadcast yet gets the version of
+     * the latest broadcast.
+     * @param gameEntity The game entity.
+     * @return The version of the state of the entity.
+     */
+    private long versionOf(GameEntity gameEntity) {
+        Long version = this.versions.get(gameEntity.getEntityId());
+
+        if(version == null) {
+            version = this.broadcasts;
+            this.versions.put(gameEntity.getEntityId(), version);
+        }
+
+        return version;
+    }
+
+    /**
+     * Returns a copy of the game entity which may be shared with earlier events. The entity is only copied again if its
+     * version changed since it was last copied.
+     * @param gameEntity The game entity to copy.
+     * @return The copy of the entity. Must not be changed.
+     */
+    private GameEntity sharedCopyOf(GameEntity gameEntity) {
+        long version = this.versionOf(gameEntity);
+        SharedCopy shared = this.sharedCopies.get(gameEntity.getEntityId());
+
+        if(shared == null || shared.version != version) {
+            shared = new SharedCopy(gameEntity.deepCopy(), version);
+            this.sharedCopies.put(gameEntity.getEntityId(), shared);
+        }
+
+        return shared.entity;
     }
 
     /**
@@ -97,4 +315,20 @@ public class PhysicsEngineObserver implements PhysicsEngineEventObserver {
             Logger.getLogger(GameEntity.class).fatal("Tried to update state from entity, but ids did not match. Received: " + physicsEntity.getEntityId() + ". Needed: " + gameEntity.getEntityId());
         }
     }
+
+    /**
+     * A copy of an entity which is shared by the events.
+     */
+    private static class SharedCopy {
+        /** The copy. */
+        private final GameEntity entity;
+
+        /** The version of the state of the entity the copy holds. */
+        private final long version;
+
+        SharedCopy(GameEntity entity, long version) {
+            this.entity = entity;
+            this.version = version;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import org.inaetics.dronessimulator.physicsengine.LatencyHistogram;
+
+/**
+ * Instrumentation of the runs of the interval rules. Keeps a histogram of how late each run started compared to when
+ * it was due, the number of runs, the number of runs which were skipped because a whole interval had passed already
+ * and the number of runs which had no state to work with yet. The scheduler records into its own instance, others
+ * read a copy.
+ * This class is threadsafe.
+ */
+public class IntervalRuleMetrics {
+    /** How late the runs started. */
+    private final LatencyHistogram lateness;
+
+    /** The number of runs. */
+    private long runCount;
+
+    /** The number of runs which were skipped because the scheduler fell a whole interval or more behind. */
+    private long skippedCount;
+
+    /** The number of runs which did not run the rules because no state arrived yet. */
+    private long withoutStateCount;
+
+    /**
+     * Creates empty metrics.
+     */
+    public IntervalRuleMetrics() {
+        this.lateness = new LatencyHistogram();
+    }
+
+    /**
+     * Creates a copy of the metrics.
+     * @param other The metrics to copy.
+     */
+    public IntervalRuleMetrics(IntervalRuleMetrics other) {
+        synchronized(other) {
+            this.lateness = new LatencyHistogram(other.lateness);
+            this.runCount = other.runCount;
+            this.skippedCount = other.skippedCount;
+            this.withoutStateCount = other.withoutStateCount;
+        }
+    }
+
+    /**
+     * Records a run.
+     * @param lateness_ns How much later than due the run started in nanoseconds.
+     * @param skipped The number of runs which were skipped before this run.
+     * @param withState Whether the run had a state to run the rules on.
+     */
+    public synchronized void recordRun(long lateness_ns, long skipped, boolean withState) {
+        this.lateness.record(lateness_ns);
+        this.runCount++;
+        this.skippedCount += skipped;
+
+        if(!withState) {
+            this.withoutStateCount++;
+        }
+    }
+
+    /**
+     * Returns a copy of the lateness of the runs.
+     * @return How late the runs started.
+     */
+    public synchronized LatencyHistogram getLateness() {
+        return new LatencyHistogram(this.lateness);
+    }
+
+    /**
+     * Returns the number of runs.
+     * @return The number of runs.
+     */
+    public synchronized long getRunCount() {
+        return this.runCount;
+    }
+
+    /**
+     * Returns the number of runs which were skipped because the scheduler fell a whole interval or more behind.
+     * @return The number of skipped runs.
+     */
+    public synchronized long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Returns the number of runs which did not run the rules because no state arrived yet.
+     * @return The number of runs without state.
+     */
+    public synchronized long getWithoutStateCount() {
+        return this.withoutStateCount;
+    }
+
+    /**
+     * Forgets everything which was recorded.
+     */
+    public synchronized void reset() {
+        this.lateness.reset();
+        this.runCount = 0;
+        this.skippedCount = 0;
+        this.withoutStateCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "runs=" + this.runCount + " skipped=" + this.skippedCount + " withoutState=" + this.withoutStateCount
+                + " lateness=" + this.lateness;
+    }
+}
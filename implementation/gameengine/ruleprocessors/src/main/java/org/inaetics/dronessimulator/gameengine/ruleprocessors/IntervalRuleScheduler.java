@@ -0,0 +1,228 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import lombok.extern.log4j.Log4j;
+import org.inaetics.dronessimulator.common.SimulationClock;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
+import org.inaetics.dronessimulator.gameengine.common.state.SnapshotRing;
+import org.inaetics.dronessimulator.gameengine.common.state.StateSnapshot;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the interval rules on a thread of its own at a fixed interval of the simulation clock, whether events arrive or
+ * not. The rules get the latest state offered by the rule processors, as the game logic rules left it, so entities
+ * which were killed are no longer in it. The rule processors copy a state into a snapshot of the scheduler only after
+ * the scheduler took the previous one, so at most one state per interval is copied on the event path. If no new state
+ * was offered since the last run, the rules get the state of the last run again. The state is handed to the rules as a
+ * state without changes, so it is not broadcast again.
+ * How late each run started is recorded in the {@link IntervalRuleMetrics}.
+ */
+@Log4j
+public class IntervalRuleScheduler extends Thread {
+    /** The number of snapshots: one for the running rules, one offered and one being filled. */
+    private static final int SNAPSHOTS = 3;
+
+    /** The longest the scheduler sleeps at once while the clock is driven by the simulation. In ms. */
+    private static final long SIMULATED_SLEEP_MS = 1;
+
+    /** The interval rules. */
+    private final RuleChain rules;
+
+    /** The time between two runs in ms of the simulation clock. */
+    private final long interval_ms;
+
+    /** The time between logging the metrics in ms. 0 disables logging the metrics. */
+    private final long logMetricsEvery_ms;
+
+    /** The snapshots the rule processors copy the state into. */
+    private final SnapshotRing<GameEntity> snapshots;
+
+    /** The latest state offered by the rule processors and not yet taken by the scheduler. */
+    private final AtomicReference<StateSnapshot<GameEntity>> offered;
+
+    /** Whether the next run should be an interval from now instead of from the previous run. */
+    private final AtomicBoolean resetRequested;
+
+    /** The metrics of the runs. */
+    private final IntervalRuleMetrics metrics;
+
+    /** The state the rules ran on last. Only used by the scheduler thread. */
+    private StateSnapshot<GameEntity> current;
+
+    /** The last time the metrics were logged. In ms. Only used by the scheduler thread. */
+    private long lastMetricsLogAt_ms;
+
+    /**
+     * Creates a scheduler. Its thread is started by {@link #start()}.
+     * @param rules The interval rules.
+     * @param interval_ms The time between two runs in ms of the simulation clock.
+     * @param logMetricsEvery_ms The time between logging the metrics in ms. 0 disables logging the metrics.
+     */
+    public IntervalRuleScheduler(List<Rule> rules, long interval_ms, long logMetricsEvery_ms) {
+        super("IntervalRuleScheduler");
+
+        if(interval_ms <= 0) {
+            throw new IllegalArgumentException("The interval of the interval rules must be positive, got " + interval_ms);
+        }
+
+        this.rules = new RuleChain(rules);
+        this.interval_ms = interval_ms;
+        this.logMetricsEvery_ms = logMetricsEvery_ms;
+        this.snapshots = new SnapshotRing<>(SNAPSHOTS);
+        this.offered = new AtomicReference<>(null);
+        this.resetRequested = new AtomicBoolean(false);
+        this.metrics = new IntervalRuleMetrics();
+        this.current = null;
+        this.lastMetricsLogAt_ms = System.currentTimeMillis();
+    }
+
+    /**
+     * Offers a state for the next run. Copies the state if the scheduler took the previously offered state, otherwise
+     * returns right away. Must only be called by a single thread, and only while the event holds its state.
+     * @param event The latest state.
+     */
+    public void offerState(CurrentStateEvent event) {
+        if(this.offered.get() != null) {
+            return;
+        }
+
+        StateSnapshot<GameEntity> snapshot = this.snapshots.acquire();
+
+        if(snapshot == null) {
+            return;
+        }
+
+        List<GameEntity> entities = event.getCurrentState();
+
+        snapshot.begin();
+        for(int i = 0; i < entities.size(); i++) {
+            snapshot.add(entities.get(i));
+        }
+        snapshot.finish();
+
+        this.offered.set(snapshot);
+    }
+
+    /**
+     * Offers the last state among the events for the next run, see {@link #offerState(CurrentStateEvent)}. Must only be
+     * called by a single thread, and only while the events hold their state.
+     * @param events The events, in the order they were processed.
+     */
+    public void offerLatestState(List<GameEngineEvent> events) {
+        for(int i = events.size() - 1; i >= 0; i--) {
+            GameEngineEvent event = events.get(i);
+
+            if(event instanceof CurrentStateEvent) {
+                this.offerState((CurrentStateEvent) event);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets the next run be an interval from now, for example when a game starts.
+     */
+    public void reset() {
+        this.resetRequested.set(true);
+    }
+
+    /**
+     * Configures the interval rules for a new game.
+     */
+    public void configRules() {
+        this.rules.configRules();
+    }
+
+    /**
+     * Returns a copy of the metrics of the runs.
+     * @return The metrics.
+     */
+    public IntervalRuleMetrics getMetrics() {
+        return new IntervalRuleMetrics(this.metrics);
+    }
+
+    @Override
+    public void run() {
+        log.info("Started interval rules every " + this.interval_ms + " ms");
+        long due_ms = SimulationClock.currentTimeMillis() + this.interval_ms;
+
+        while(!this.isInterrupted()) {
+            long now_ms = SimulationClock.currentTimeMillis();
+
+            // The clock goes back when the simulation clock is reset to the wall clock
+            if(this.resetRequested.getAndSet(false) || due_ms - now_ms > this.interval_ms) {
+                due_ms = now_ms + this.interval_ms;
+            }
+
+            if(now_ms < due_ms) {
+                // The simulated clock may run faster than the wall clock, so it is checked often
+                long sleep_ms = SimulationClock.isSimulated() ? Math.min(due_ms - now_ms, SIMULATED_SLEEP_MS) : due_ms - now_ms;
+
+                try {
+                    Thread.sleep(sleep_ms);
+                } catch(InterruptedException e) {
+                    this.interrupt();
+                }
+
+                continue;
+            }
+
+            // Runs which are a whole interval or more overdue are skipped instead of run back to back
+            long late_ms = now_ms - due_ms;
+            long skipped = late_ms / this.interval_ms;
+            due_ms += (skipped + 1) * this.interval_ms;
+
+            boolean withState = this.runRules();
+            this.metrics.recordRun((late_ms - skipped * this.interval_ms) * 1_000_000L, skipped, withState);
+            this.logMetricsIfDue();
+        }
+
+        if(this.current != null) {
+            this.current.release();
+            this.current = null;
+        }
+
+        log.info("Interval rules are shut down!");
+    }
+
+    /**
+     * Runs the interval rules on the latest state.
+     * @return Whether there was a state to run the rules on.
+     */
+    private boolean runRules() {
+        StateSnapshot<GameEntity> latest = this.offered.getAndSet(null);
+
+        if(latest != null) {
+            if(this.current != null) {
+                this.current.release();
+            }
+
+            this.current = latest;
+        }
+
+        if(this.current == null) {
+            return false;
+        }
+
+        this.rules.process(Collections.singletonList(new CurrentStateEvent(this.current.getEntities(), Collections.emptySet())));
+        return true;
+    }
+
+    /**
+     * Logs the metrics if the last time they were logged is long enough ago.
+     */
+    private void logMetricsIfDue() {
+        long current_ms = System.currentTimeMillis();
+
+        if(this.logMetricsEvery_ms > 0 && current_ms - this.lastMetricsLogAt_ms >= this.logMetricsEvery_ms) {
+            log.info("Interval rule metrics: " + this.metrics);
+            this.lastMetricsLogAt_ms = current_ms;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sequence of rules which events pass through in order. Each rule only receives the events of the types it declares
+ * in {@link Rule#getEventTypes()}. Other events pass the rule unchanged, in their place between the results of the
+ * rule, without calling it. Which rules process an event class is looked up once per class and kept in a dispatch
+ * table, so events do not go through a chain of instanceof checks in every rule.
+ * This class is not threadsafe.
+ */
+public class RuleChain {
+    /** The rules in the order events pass through them. */
+    private final List<Rule> rules;
+
+    /** For every event class seen so far, whether each rule processes events of that class. */
+    private final Map<Class<?>, boolean[]> dispatch;
+
+    /** Reusable lists of the events passed from one rule to the next. */
+    private final List<GameEngineEvent> eventsA;
+    private final List<GameEngineEvent> eventsB;
+
+    /** Reusable list of consecutive events handed to a rule at once. */
+    private final List<GameEngineEvent> run;
+
+    /**
+     * Creates a chain of rules.
+     * @param rules The rules in the order events pass through them.
+     */
+    public RuleChain(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.dispatch = new HashMap<>();
+        this.eventsA = new ArrayList<>();
+        this.eventsB = new ArrayList<>();
+        this.run = new ArrayList<>();
+    }
+
+    /**
+     * Returns the rules of the chain.
+     * @return The rules in the order events pass through them.
+     */
+    public List<Rule> getRules() {
+        return this.rules;
+    }
+
+    /**
+     * Configures all rules of the chain for a new game.
+     */
+    public void configRules() {
+        for(Rule rule : this.rules) {
+            rule.configRule();
+        }
+    }
+
+    /**
+     * Passes the events through each rule in order. Each rule processes all events before the next rule gets the
+     * result.
+     * @param events The events to process.
+     */
+    public void process(List<GameEngineEvent> events) {
+        this.passThroughRules(events);
+
+        // Do not keep the events alive until the next call
+        this.eventsA.clear();
+        this.eventsB.clear();
+    }
+
+    /**
+     * Passes the events through each rule in order and adds the events which come out of the last rule to the results.
+     * @param events The events to process.
+     * @param results The list to add the result of the last rule to.
+     */
+    public void process(List<GameEngineEvent> events, List<GameEngineEvent> results) {
+        results.addAll(this.passThroughRules(events));
+
+        this.eventsA.clear();
+        this.eventsB.clear();
+    }
+
+    /**
+     * Passes the events through each rule in order. Each rule processes all events before the next rule gets the
+     * result.
+     * @param events The events to process.
+     * @return The events which come out of the last rule. Either the given list or one of the reusable lists.
+     */
+    private List<GameEngineEvent> passThroughRules(List<GameEngineEvent> events) {
+        List<GameEngineEvent> input = events;
+        List<GameEngineEvent> output = this.eventsA;
+
+        for(int r = 0; r < this.rules.size(); r++) {
+            int processed = this.countProcessed(input, r);
+
+            if(processed == 0) {
+                // Nothing for this rule, so the events stay where they are
+                continue;
+            }
+
+            output.clear();
+
+            if(processed == input.size()) {
+                this.rules.get(r).process(input, output);
+            } else {
+                this.processMixed(input, output, r);
+            }
+
+            input = output;
+            output = output == this.eventsA ? this.eventsB : this.eventsA;
+        }
+
+        return input;
+    }
+
+    /**
+     * Hands each run of consecutive events the rule processes to the rule and passes the other events on in between.
+     * @param input The events to process.
+     * @param output The list to add the events to pass to the next rule to.
+     * @param r The index of the rule.
+     */
+    private void processMixed(List<GameEngineEvent> input, List<GameEngineEvent> output, int r) {
+        Rule rule = this.rules.get(r);
+
+        for(int i = 0; i < input.size(); i++) {
+            GameEngineEvent event = input.get(i);
+
+            if(this.isProcessedBy(event, r)) {
+                this.run.add(event);
+            } else {
+                if(!this.run.isEmpty()) {
+                    rule.process(this.run, output);
+                    this.run.clear();
+                }
+
+                output.add(event);
+            }
+        }
+
+        if(!this.run.isEmpty()) {
+            rule.process(this.run, output);
+            this.run.clear();
+        }
+    }
+
+    /**
+     * Counts the events the rule processes.
+     * @param events The events to count.
+     * @param r The index of the rule.
+     * @return The number of events the rule processes.
+     */
+    private int countProcessed(List<GameEngineEvent> events, int r) {
+        int processed = 0;
+
+        for(int i = 0; i < events.size(); i++) {
+            if(this.isProcessedBy(events.get(i), r)) {
+                processed++;
+            }
+        }
+
+        return processed;
+    }
+
+    /**
+     * Looks up whether the rule processes the event in the dispatch table.
+     * @param event The event.
+     * @param r The index of the rule.
+     * @return Whether the rule processes the event.
+     */
+    private boolean isProcessedBy(GameEngineEvent event, int r) {
+        boolean[] processedBy = this.dispatch.get(event.getClass());
+
+        if(processedBy == null) {
+            processedBy = this.createDispatch(event.getClass());
+            this.dispatch.put(event.getClass(), processedBy);
+        }
+
+        return processedBy[r];
+    }
+
+    /**
+     * Finds the rules which process events of the class.
+     * @param eventClass The class of the events.
+     * @return For each rule whether it processes events of the class.
+     */
+    private boolean[] createDispatch(Class<?> eventClass) {
+        boolean[] processedBy = new boolean[this.rules.size()];
+
+        for(int r = 0; r < this.rules.size(); r++) {
+            for(Class<? extends GameEngineEvent> type : this.rules.get(r).getEventTypes()) {
+                if(type.isAssignableFrom(eventClass)) {
+                    processedBy[r] = true;
+                    break;
+                }
+            }
+        }
+
+        return processedBy;
+    }
+}
@@ -0,0 +1,240 @@
+package org.inaetics.dronessimulator.gameengine.ruleprocessors;
+
+import lombok.extern.log4j.Log4j;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.OverflowPolicy;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
+import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rules split into stages which batches of events pass through in order. The first stage runs on the thread which
+ * hands in the batches. Every other stage runs on a thread of its own, which gets the batches from the previous stage
+ * through a bounded ring, so a stage can process a batch while the previous stage already processes the next one.
+ * Each stage processes the batches in the order they were handed in, so the order of the events is the same as when
+ * all rules run on one thread. The events of a batch are released once the last stage is done with them.
+ * Only one thread may hand in batches.
+ */
+@Log4j
+public class RulePipeline {
+    /** The rules of the first stage, run by the thread which hands in the batches. */
+    private final RuleChain first;
+
+    /** The other stages, each on its own thread, in the order the batches pass through them. */
+    private final List<Stage> stages;
+
+    /** Batches of which the last stage is done, for the first stage to reuse. */
+    private final EventRing<Batch> free;
+
+    /**
+     * Creates a pipeline. Its threads are started by {@link #start()}.
+     * @param stageRules The rules of each stage, in the order the batches pass through them. Must not be empty.
+     * @param queueSize The number of batches a stage can be ahead of the next stage.
+     * @param waitStrategy How a stage waits for the previous stage or for room in the ring to the next stage.
+     */
+    public RulePipeline(List<List<Rule>> stageRules, int queueSize, WaitStrategy waitStrategy) {
+        if(stageRules.isEmpty()) {
+            throw new IllegalArgumentException("A rule pipeline needs at least one stage");
+        }
+
+        this.first = new RuleChain(stageRules.get(0));
+        this.stages = new ArrayList<>(stageRules.size() - 1);
+        this.free = new EventRing<>(queueSize * stageRules.size(), waitStrategy, OverflowPolicy.DROP);
+
+        for(int i = 1; i < stageRules.size(); i++) {
+            this.stages.add(new Stage(i, new RuleChain(stageRules.get(i)), new EventRing<>(queueSize, waitStrategy, OverflowPolicy.BLOCK)));
+        }
+    }
+
+    /**
+     * Starts the threads of the stages after the first.
+     */
+    public void start() {
+        for(Stage stage : this.stages) {
+            stage.start();
+        }
+    }
+
+    /**
+     * Stops the threads of the stages after the first. Batches which did not pass all stages yet are not processed
+     * any further.
+     */
+    public void quit() {
+        for(Stage stage : this.stages) {
+            stage.interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of stages, including the first.
+     * @return The number of stages.
+     */
+    public int getStageCount() {
+        return this.stages.size() + 1;
+    }
+
+    /**
+     * Configures the rules of all stages for a new game.
+     */
+    public void configRules() {
+        this.first.configRules();
+
+        for(Stage stage : this.stages) {
+            stage.chain.configRules();
+        }
+    }
+
+    /**
+     * Passes the events through the first stage and hands the result to the next stage. Returns as soon as the first
+     * stage is done, unless the ring to the next stage is full. The pipeline takes over the events, which are released
+     * once the last stage is done with them, so the caller may reuse the list but must not use the events anymore.
+     * @param events The events to process.
+     */
+    public void process(List<GameEngineEvent> events) {
+        this.process(events, null);
+    }
+
+    /**
+     * Passes the events through the first stage and hands the result to the next stage, like
+     * {@link #process(List)}. Before the result is handed on, while the events are still owned by this thread, it is
+     * given to the listener.
+     * @param events The events to process.
+     * @param firstStageDone Gets the events which come out of the first stage. Must not keep the list nor the events.
+     *                       Null if nobody listens.
+     */
+    public void process(List<GameEngineEvent> events, Consumer<List<GameEngineEvent>> firstStageDone) {
+        Batch batch = this.free.poll();
+
+        if(batch == null) {
+            batch = new Batch();
+        }
+
+        batch.events.addAll(events);
+        this.first.process(batch.events, batch.input);
+
+        if(firstStageDone != null) {
+            firstStageDone.accept(batch.input);
+        }
+
+        this.handOff(batch, 0);
+    }
+
+    /**
+     * Hands a batch to the stage after the given one, or finishes it if the given stage is the last.
+     * @param batch The batch of which the result of the given stage is in its input.
+     * @param stage The index of the stage which is done with the batch.
+     */
+    private void handOff(Batch batch, int stage) {
+        if(stage == this.stages.size()) {
+            this.finish(batch);
+        } else if(!this.stages.get(stage).queue.offer(batch)) {
+            log.warn("Interrupted while handing events to rule stage " + (stage + 1) + ", dropping " + batch.input.size() + " events");
+            // Only the last stage gives batches back for reuse, so this one is left to the garbage collector
+            this.release(batch);
+        }
+    }
+
+    /**
+     * Releases the events of a batch and keeps it for reuse.
+     * @param batch The batch which passed all stages.
+     */
+    private void finish(Batch batch) {
+        this.release(batch);
+
+        batch.events.clear();
+        batch.input.clear();
+        batch.output.clear();
+
+        // If enough batches are kept already, the batch is left to the garbage collector
+        this.free.offer(batch);
+    }
+
+    /**
+     * Releases the events handed in with a batch.
+     * @param batch The batch of which the events are not used anymore.
+     */
+    private void release(Batch batch) {
+        for(int i = 0; i < batch.events.size(); i++) {
+            batch.events.get(i).release();
+        }
+    }
+
+    /**
+     * Events on their way through the stages.
+     */
+    private static class Batch {
+        /** The events handed in, which are released when the batch passed all stages. */
+        private final List<GameEngineEvent> events = new ArrayList<>();
+
+        /** The events for the next stage. */
+        private List<GameEngineEvent> input = new ArrayList<>();
+
+        /** The events which come out of the current stage. */
+        private List<GameEngineEvent> output = new ArrayList<>();
+
+        /**
+         * Makes the output of the current stage the input of the next stage.
+         */
+        private void swap() {
+            List<GameEngineEvent> processed = this.output;
+
+            this.output = this.input;
+            this.output.clear();
+            this.input = processed;
+        }
+    }
+
+    /**
+     * A stage after the first, which processes the batches from the previous stage on its own thread.
+     */
+    private class Stage extends Thread {
+        /** The index of the stage. */
+        private final int index;
+
+        /** The rules of the stage. */
+        private final RuleChain chain;
+
+        /** The batches the previous stage is done with. */
+        private final EventRing<Batch> queue;
+
+        /**
+         * Creates a stage.
+         * @param index The index of the stage.
+         * @param chain The rules of the stage.
+         * @param queue The ring from the previous stage.
+         */
+        private Stage(int index, RuleChain chain, EventRing<Batch> queue) {
+            super("RuleStage-" + index);
+            this.index = index;
+            this.chain = chain;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            log.info("Started rule stage " + this.index);
+
+            while(!this.isInterrupted()) {
+                Batch batch;
+
+                try {
+                    batch = this.queue.take();
+                } catch(InterruptedException e) {
+                    this.interrupt();
+                    break;
+                }
+
+                this.chain.process(batch.input, batch.output);
+                batch.swap();
+
+                handOff(batch, this.index);
+            }
+
+            log.info("Rule stage " + this.index + " is shut down!");
+        }
+    }
+}
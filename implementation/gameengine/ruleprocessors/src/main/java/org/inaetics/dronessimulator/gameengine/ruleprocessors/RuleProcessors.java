@@ -4,10 +4,11 @@ package org.inaetics.dronessimulator.gameengine.ruleprocessors;
 import lombok.extern.log4j.Log4j;
 import org.inaetics.dronessimulator.architectureevents.ArchitectureEventController;
 import org.inaetics.dronessimulator.common.Settings;
-import org.inaetics.dronessimulator.common.TimeoutTimer;
 import org.inaetics.dronessimulator.common.architecture.SimulationAction;
 import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
+import org.inaetics.dronessimulator.gameengine.common.ring.EventRing;
+import org.inaetics.dronessimulator.gameengine.common.ring.WaitStrategy;
 import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper;
 import org.inaetics.dronessimulator.gameengine.physicsenginedriver.IPhysicsEngineDriver;
 import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
@@ -16,14 +17,12 @@ import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Rule processors service. The rule processors listen on events and act on them based on predefined rules.
  */
 @Log4j
 public class RuleProcessors extends Thread implements IRuleProcessors {
-    public static final TimeoutTimer INTERVAL_RULES_TIMEOUT = new TimeoutTimer(Settings.TICK_TIME * 10); //Run interval rules once every 10 iterations.
     private ArchitectureEventController m_architectureEventController;
 
     /**
@@ -34,15 +33,24 @@ public class RuleProcessors extends Thread implements IRuleProcessors {
     private volatile IdentifierMapper m_id_mapper;
 
     /**
-     * Queue of the events to process.
+     * Queue of the events to process. This thread is its only consumer.
      */
-    private LinkedBlockingQueue<GameEngineEvent> incomingEvents;
+    private EventRing<GameEngineEvent> incomingEvents;
 
     /**
      * Active rules. Should end SendMessages to broadcast the messages to other subsystems.
      */
-    private List<Rule> rules;
-    private List<Rule> intervalRules;
+    private RulePipeline rules;
+
+    /**
+     * Runs the interval rules on the latest state, independent of the arrival of events.
+     */
+    private IntervalRuleScheduler intervalRules;
+
+    /**
+     * Reusable list of the events taken from the queue in one cycle.
+     */
+    private final List<GameEngineEvent> batch = new ArrayList<>();
 
     @Override
     public void start() {
@@ -52,14 +60,24 @@ public class RuleProcessors extends Thread implements IRuleProcessors {
 
         this.incomingEvents = this.m_driver.getOutgoingQueue();
 
-        this.rules = RuleSets.getRulesForGameMode(Settings.GAME_MODE, this.m_publisher, this.m_id_mapper);
-        this.intervalRules = RuleSets.getIntervalRulesForGameMode(Settings.GAME_MODE, this.m_publisher, this
-                .m_id_mapper);
+        List<List<Rule>> ruleStages;
+        if (Settings.RULE_PIPELINE) {
+            ruleStages = RuleSets.getRuleStagesForGameMode(Settings.GAME_MODE, this.m_publisher, this.m_id_mapper);
+        } else {
+            ruleStages = Collections.singletonList(RuleSets.getRulesForGameMode(Settings.GAME_MODE, this.m_publisher, this
+                    .m_id_mapper));
+        }
+        this.rules = new RulePipeline(ruleStages, Settings.RULE_PIPELINE_QUEUE_SIZE, WaitStrategy.fromSettings());
+        this.intervalRules = new IntervalRuleScheduler(RuleSets.getIntervalRulesForGameMode(Settings.GAME_MODE, this
+                .m_publisher, this.m_id_mapper), Settings.RULE_INTERVAL_TIME, Settings.RULE_METRICS_LOG_TIME);
 
         m_architectureEventController.addHandler(SimulationState.INIT, SimulationAction.CONFIG, SimulationState.CONFIG, (from, action, to) -> configRules());
         //When the user presses start, reset the Interval rules timeout
-        m_architectureEventController.addHandler(SimulationState.CONFIG, SimulationAction.START, SimulationState.RUNNING, (f, a, t) -> INTERVAL_RULES_TIMEOUT.reset());
+        m_architectureEventController.addHandler(SimulationState.CONFIG, SimulationAction.START, SimulationState.RUNNING, (f, a, t) -> intervalRules.reset());
 
+        log.info("Running the rules in " + this.rules.getStageCount() + " stage(s)");
+        this.rules.start();
+        this.intervalRules.start();
         super.start();
     }
 
@@ -67,66 +85,38 @@ public class RuleProcessors extends Thread implements IRuleProcessors {
     public void run() {
         log.info("Started RuleProcessors");
         while (!this.isInterrupted()) {
-            GameEngineEvent msg;
             try {
-                msg = incomingEvents.take();
+                this.batch.add(incomingEvents.take());
             } catch (InterruptedException e) {
                 log.error("Interrupted while waiting for incoming event");
                 this.interrupt();
                 break;
             }
 
-            if (msg != null) {
-                this.processEventsForRules(this.rules, Collections.singletonList(msg));
-                if (INTERVAL_RULES_TIMEOUT.timeIsExceeded()) {
-                    INTERVAL_RULES_TIMEOUT.reset();
-                    log.info("Run inteval rules");
-                    processEventsForRules(this.intervalRules, Collections.singletonList(msg));
-                }
-            } else {
-                log.error("Received event on incoming queue but was null!");
-            }
+            // Everything which arrived in the meantime goes through the rules at once
+            incomingEvents.drainTo(this.batch, Settings.RULE_BATCH_SIZE - 1);
+
+            // The rules may still be busy with the events on other threads after the game logic rules hand them over,
+            // so the interval rules get their copy of the latest state as the game logic rules left it before that.
+            // The rules release the events when they are done with them
+            this.rules.process(this.batch, this.intervalRules::offerLatestState);
+            this.batch.clear();
         }
 
         log.info("Ruleprocessors is shut down!");
     }
 
     /**
-     * Processes the given events in each of the defined rules, in order.
-     *
-     * @param events The events to process.
+     * Returns a copy of the metrics of the runs of the interval rules.
+     * @return The metrics of the interval rules.
      */
-    public void processEventsForRules(List<Rule> rulesToProcess, List<GameEngineEvent> events) {
-        List<GameEngineEvent> allEvents = events;
-        for (Rule rule : rulesToProcess) {
-            allEvents = this.processEventsForRule(allEvents, rule);
-        }
-    }
-
-    /**
-     * Processes the given events for the given rule.
-     *
-     * @param events The events to process.
-     * @param rule   The rule to apply.
-     * @return The list of events to pass to the next rule.
-     */
-    public List<GameEngineEvent> processEventsForRule(List<GameEngineEvent> events, Rule rule) {
-        List<GameEngineEvent> result = new ArrayList<>(events.size() * 2);
-
-        for (GameEngineEvent event : events) {
-            result.addAll(rule.process(event));
-        }
-
-        return result;
+    public IntervalRuleMetrics getIntervalRuleMetrics() {
+        return this.intervalRules.getMetrics();
     }
 
     public void configRules() {
-        for (Rule rule : rules) {
-            rule.configRule();
-        }
-        for (Rule rule : intervalRules) {
-            rule.configRule();
-        }
+        rules.configRules();
+        intervalRules.configRules();
     }
 
     /**
@@ -135,6 +125,14 @@ public class RuleProcessors extends Thread implements IRuleProcessors {
     public void quit() {
         log.info("Shutting down ruleprocessors...");
         this.interrupt();
+
+        if (this.rules != null) {
+            this.rules.quit();
+        }
+
+        if (this.intervalRules != null) {
+            this.intervalRules.interrupt();
+        }
     }
 
     @Override
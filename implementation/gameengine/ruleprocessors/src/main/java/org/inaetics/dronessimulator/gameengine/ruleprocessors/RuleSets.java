@@ -10,6 +10,7 @@ import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.deathmatch.K
 import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.teamplay.TeamplayGameFinished;
 import org.inaetics.dronessimulator.pubsub.api.publisher.Publisher;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -39,6 +40,22 @@ public class RuleSets {
         return result;
     }
 
+    /**
+     * Splits the rules of the game mode into stages which run on their own thread. The game logic rules form the first
+     * stage and sending the messages the second, so the messages of one batch of events are sent while the game logic
+     * rules process the next batch.
+     * @param gameMode The game mode to get the rules for.
+     * @param publisher The publisher to send the messages with.
+     * @param idMapper The mapper from game engine ids to protocol ids.
+     * @return The rules of each stage, in the order the events pass through them.
+     */
+    public static List<List<Rule>> getRuleStagesForGameMode(GameMode gameMode, Publisher publisher, IdentifierMapper idMapper) {
+        List<Rule> rules = getRulesForGameMode(gameMode, publisher, idMapper);
+        int sendMessages = rules.size() - 1;
+
+        return Arrays.asList(rules.subList(0, sendMessages), rules.subList(sendMessages, rules.size()));
+    }
+
     public static List<Rule> getIntervalRulesForGameMode(GameMode gameMode, Publisher publisher, IdentifierMapper
             idMapper) {
         List<Rule> result = new LinkedList<>();
@@ -11,10 +11,14 @@ import org.inaetics.dronessimulator.gameengine.identifiermapper.IdentifierMapper
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Log4j
 public abstract class AbstractGameFinishedRule extends Rule {
+    /** The events this rule processes */
+    private static final Set<Class<? extends GameEngineEvent>> EVENT_TYPES = eventTypes(CurrentStateEvent.class);
+
     protected final IdentifierMapper idMapper;
     private final AtomicBoolean gameFinishedEventWasSend = new AtomicBoolean(false);
     private final AtomicBoolean wasGameFinishedInPreviousRun = new AtomicBoolean(false);
@@ -30,6 +34,11 @@ public abstract class AbstractGameFinishedRule extends Rule {
         wasGameFinishedInPreviousRun.set(false);
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent msg) {
         if (msg instanceof CurrentStateEvent) {
@@ -3,25 +3,63 @@ package org.inaetics.dronessimulator.gameengine.ruleprocessors.rules;
 import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.DestroyHealthEntityEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.EntityExitEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 import org.inaetics.dronessimulator.gameengine.common.state.HealthGameEntity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Rule to kill entities with health that have left the arena. The physics engine reports these entities as they leave,
+ * unless it does not remove them itself, in which case the current state is scanned for them.
+ */
 public class KillOutOfBounds extends Rule {
+    /** Whether to scan the current state for entities outside the arena instead of relying on the physics engine. */
+    private final boolean scanState;
+
+    /** The events this rule processes, which includes the current state only when scanning it. */
+    private final Set<Class<? extends GameEngineEvent>> eventTypes;
+
+    /**
+     * Construct the rule which scans the current state if the physics engine does not remove exited entities itself.
+     */
+    public KillOutOfBounds() {
+        this(!Settings.PHYSICS_CULL_EXITS);
+    }
+
+    /**
+     * Construct the rule
+     * @param scanState Whether to scan the current state for entities outside the arena.
+     */
+    public KillOutOfBounds(boolean scanState) {
+        this.scanState = scanState;
+        this.eventTypes = scanState ? eventTypes(EntityExitEvent.class, CurrentStateEvent.class) : eventTypes(EntityExitEvent.class);
+    }
+
     @Override
     public void configRule() {
         // nothing to config
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return this.eventTypes;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent msg) {
         List<GameEngineEvent> results;
 
-        if(msg instanceof CurrentStateEvent) {
+        if(msg instanceof EntityExitEvent && ((EntityExitEvent) msg).getEntity() instanceof HealthGameEntity) {
+            HealthGameEntity exitedEntity = (HealthGameEntity) ((EntityExitEvent) msg).getEntity();
+
+            results = Arrays.asList(msg, new DestroyHealthEntityEvent(exitedEntity));
+        } else if(this.scanState && msg instanceof CurrentStateEvent) {
             CurrentStateEvent currentStateEvent = (CurrentStateEvent) msg;
             List<DestroyHealthEntityEvent> killedEntities = killCrashedEntities(currentStateEvent.getCurrentState());
 
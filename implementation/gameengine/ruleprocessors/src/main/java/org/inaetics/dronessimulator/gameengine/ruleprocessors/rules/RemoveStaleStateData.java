@@ -11,6 +11,11 @@ import java.util.Set;
  * Remove data from messages which reference already killed entities
  */
 public class RemoveStaleStateData extends Rule {
+    /** The events this rule processes */
+    private static final Set<Class<? extends GameEngineEvent>> EVENT_TYPES = eventTypes(CurrentStateEvent.class,
+            CollisionStartEvent.class, CollisionEndEvent.class, DamageEvent.class, DestroyBulletEvent.class,
+            DestroyHealthEntityEvent.class);
+
     /** The cached ids of already killed entities */
     private final Set<Integer> killedEntities;
 
@@ -26,6 +31,11 @@ public class RemoveStaleStateData extends Rule {
         killedEntities.clear();
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent msg) {
         List<GameEngineEvent> result;
@@ -4,28 +4,64 @@ import org.inaetics.dronessimulator.common.Settings;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.CurrentStateEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.DestroyBulletEvent;
+import org.inaetics.dronessimulator.gameengine.common.gameevent.EntityExitEvent;
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
 import org.inaetics.dronessimulator.gameengine.common.state.Bullet;
 import org.inaetics.dronessimulator.gameengine.common.state.GameEntity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Rule to remove bullets that have strayed from the arena
+ * Rule to remove bullets that have strayed from the arena or flew out of range. The physics engine reports these
+ * bullets as they leave, unless it does not remove them itself, in which case the current state is scanned for bullets
+ * outside the arena.
  */
 public class RemoveStrayBullets extends Rule {
+    /** Whether to scan the current state for bullets outside the arena instead of relying on the physics engine. */
+    private final boolean scanState;
+
+    /** The events this rule processes, which includes the current state only when scanning it. */
+    private final Set<Class<? extends GameEngineEvent>> eventTypes;
+
+    /**
+     * Construct the rule which scans the current state if the physics engine does not remove exited entities itself.
+     */
+    public RemoveStrayBullets() {
+        this(!Settings.PHYSICS_CULL_EXITS);
+    }
+
+    /**
+     * Construct the rule
+     * @param scanState Whether to scan the current state for bullets outside the arena.
+     */
+    public RemoveStrayBullets(boolean scanState) {
+        this.scanState = scanState;
+        this.eventTypes = scanState ? eventTypes(EntityExitEvent.class, CurrentStateEvent.class) : eventTypes(EntityExitEvent.class);
+    }
+
     @Override
     public void configRule() {
         // Nothing to config
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return this.eventTypes;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent event) {
         List<GameEngineEvent> events;
 
-        if(event instanceof CurrentStateEvent) {
+        if(event instanceof EntityExitEvent && ((EntityExitEvent) event).getEntity() instanceof Bullet) {
+            Bullet exitedBullet = (Bullet) ((EntityExitEvent) event).getEntity();
+
+            events = Arrays.asList(event, new DestroyBulletEvent(exitedBullet.getEntityId()));
+        } else if(this.scanState && event instanceof CurrentStateEvent) {
             CurrentStateEvent currentStateEvent = (CurrentStateEvent) event;
             List<DestroyBulletEvent> destroyedBullets = this.removeStaleBullets(currentStateEvent);
 
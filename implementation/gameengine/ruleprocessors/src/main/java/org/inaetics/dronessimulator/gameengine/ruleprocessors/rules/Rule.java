@@ -3,9 +3,47 @@ package org.inaetics.dronessimulator.gameengine.ruleprocessors.rules;
 
 import org.inaetics.dronessimulator.gameengine.common.gameevent.GameEngineEvent;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public abstract class Rule {
+    /** The event types of a rule which processes all events. */
+    private static final Set<Class<? extends GameEngineEvent>> ALL_EVENTS = Collections.singleton(GameEngineEvent.class);
+
     public abstract void configRule();
     public abstract List<GameEngineEvent> process(GameEngineEvent msg);
+
+    /**
+     * Processes a batch of events in order. Rules which can handle a batch at once, or which pass events on unchanged,
+     * can override this to avoid the list created for every event by {@link #process(GameEngineEvent)}.
+     * @param events The events to process.
+     * @param results The list to add the events to pass to the next rule to, in order.
+     */
+    public void process(List<GameEngineEvent> events, List<GameEngineEvent> results) {
+        for(int i = 0; i < events.size(); i++) {
+            results.addAll(this.process(events.get(i)));
+        }
+    }
+
+    /**
+     * Returns the types of the events this rule processes, including their subtypes. Events of other types pass the
+     * rule unchanged without being handed to it. Must not change after the rule is created.
+     * @return The processed event types. All events by default.
+     */
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return ALL_EVENTS;
+    }
+
+    /**
+     * Creates a set of event types to return from {@link #getEventTypes()}.
+     * @param types The event types.
+     * @return The unmodifiable set of the event types.
+     */
+    @SafeVarargs
+    protected static Set<Class<? extends GameEngineEvent>> eventTypes(Class<? extends GameEngineEvent>... types) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(types)));
+    }
 }
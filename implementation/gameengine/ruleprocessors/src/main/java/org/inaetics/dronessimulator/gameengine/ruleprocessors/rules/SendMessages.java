@@ -28,11 +28,14 @@ public class SendMessages extends Rule {
      * @param msg The message to send
      */
     private void sendProtocolMessage(ProtocolMessage msg) {
-        for(MessageTopic topic : msg.getTopics()) {
-            try {
-                publisher.send(topic, msg);
-            } catch(IOException e) {
-                log.fatal("Could not broadcast a message from SendMessages ruleset.", e);
+        // The interval rules send on another thread than the other rules
+        synchronized(publisher) {
+            for(MessageTopic topic : msg.getTopics()) {
+                try {
+                    publisher.send(topic, msg);
+                } catch(IOException e) {
+                    log.fatal("Could not broadcast a message from SendMessages ruleset.", e);
+                }
             }
         }
     }
@@ -49,4 +52,13 @@ public class SendMessages extends Rule {
 
         return Collections.singletonList(msg);
     }
+
+    @Override
+    public void process(List<GameEngineEvent> events, List<GameEngineEvent> results) {
+        for(int i = 0; i < events.size(); i++) {
+            events.get(i).getProtocolMessage(id_mapper).forEach(this::sendProtocolMessage);
+        }
+
+        results.addAll(events);
+    }
 }
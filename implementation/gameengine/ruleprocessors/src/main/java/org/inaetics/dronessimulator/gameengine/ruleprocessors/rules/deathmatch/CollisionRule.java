@@ -15,6 +15,7 @@ import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Rule to determine what happens on a collision
@@ -27,11 +28,19 @@ public class CollisionRule extends Rule {
     /** How much damage a collision between drones causes */
     private static final int COLLISION_DAMAGE = Drone.DRONE_MAX_HEALTH;
 
+    /** The events this rule processes */
+    private static final Set<Class<? extends GameEngineEvent>> EVENT_TYPES = eventTypes(CollisionStartEvent.class);
+
     @Override
     public void configRule() {
         // Nothing to config
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent msg) {
         List<GameEngineEvent> results;
@@ -10,16 +10,25 @@ import org.inaetics.dronessimulator.gameengine.ruleprocessors.rules.Rule;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Rule to kill entities when their hp <= 0
  */
 public class KillEntitiesRule extends Rule {
+    /** The events this rule processes */
+    private static final Set<Class<? extends GameEngineEvent>> EVENT_TYPES = eventTypes(CurrentStateEvent.class);
+
     @Override
     public void configRule() {
         // Nothing to config
     }
 
+    @Override
+    public Set<Class<? extends GameEngineEvent>> getEventTypes() {
+        return EVENT_TYPES;
+    }
+
     @Override
     public List<GameEngineEvent> process(GameEngineEvent msg) {
         List<GameEngineEvent> results;
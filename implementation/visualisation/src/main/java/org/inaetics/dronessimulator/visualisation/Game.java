@@ -25,7 +25,9 @@ import org.inaetics.dronessimulator.common.architecture.SimulationState;
 import org.inaetics.dronessimulator.common.protocol.GameFinishedMessage;
 import org.inaetics.dronessimulator.common.protocol.KillMessage;
 import org.inaetics.dronessimulator.common.protocol.MessageTopic;
+import org.inaetics.dronessimulator.common.protocol.SimulationTickMessage;
 import org.inaetics.dronessimulator.common.protocol.StateMessage;
+import org.inaetics.dronessimulator.common.protocol.TickRateMessage;
 import org.inaetics.dronessimulator.common.vector.D3PolarCoordinate;
 import org.inaetics.dronessimulator.common.vector.D3Vector;
 import org.inaetics.dronessimulator.discovery.api.DiscoveryPath;
@@ -378,6 +380,14 @@ public class Game extends Application {
             if (subscriber.getHandlers().get(GameFinishedMessage.class) == null || subscriber.getHandlers().get(GameFinishedMessage.class).isEmpty()) {
                 this.subscriber.addHandler(GameFinishedMessage.class, new GameFinishedHandler());
             }
+            if (subscriber.getHandlers().get(TickRateMessage.class) == null || subscriber.getHandlers().get(TickRateMessage.class).isEmpty()) {
+                // The visualisation draws every state it receives, whatever the rate
+                this.subscriber.addHandler(TickRateMessage.class, (message) -> log.info("Game engine rates changed: " + message));
+            }
+            if (subscriber.getHandlers().get(SimulationTickMessage.class) == null || subscriber.getHandlers().get(SimulationTickMessage.class).isEmpty()) {
+                // Only the drones follow the time of the simulation
+                this.subscriber.addHandler(SimulationTickMessage.class, (message) -> {});
+            }
             if (!subscriber.hasTopic(MessageTopic.STATEUPDATES)) {
                 this.subscriber.addTopic(MessageTopic.STATEUPDATES);
             }